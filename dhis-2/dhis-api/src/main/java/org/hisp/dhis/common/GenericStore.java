@@ -89,6 +89,16 @@ public interface GenericStore<T>
 
     List<T> getAllByAttributes( List<Attribute> attributes );
 
+    /**
+     * Retrieves a List of all objects which have a value for the given
+     * attribute matching one of the given values.
+     *
+     * @param attribute the attribute.
+     * @param values the attribute values.
+     * @return a List of objects.
+     */
+    List<T> getAllByAttributeAndValues( Attribute attribute, List<String> values );
+
     List<AttributeValue> getAttributeValueByAttribute( Attribute attribute );
 
     List<AttributeValue> getAttributeValueByAttributeAndValue( Attribute attribute, String value );
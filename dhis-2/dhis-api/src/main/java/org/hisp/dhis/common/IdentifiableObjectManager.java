@@ -98,6 +98,8 @@ public interface IdentifiableObjectManager
 
     <T extends IdentifiableObject> List<T> getAllByAttributes( Class<T> klass, List<Attribute> attributes );
 
+    <T extends IdentifiableObject> List<T> getAllByAttributeAndValues( Class<T> klass, Attribute attribute, List<String> values );
+
     <T extends IdentifiableObject> List<T> getByUid( Class<T> clazz, Collection<String> uids );
 
     <T extends IdentifiableObject> List<T> getById( Class<T> clazz, Collection<Long> ids );
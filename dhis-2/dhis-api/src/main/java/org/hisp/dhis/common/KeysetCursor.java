@@ -0,0 +1,145 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.springframework.util.Base64Utils;
+
+/**
+ * Position in a result set ordered descending by last updated timestamp and
+ * identifier, used for keyset pagination. The next page is retrieved by
+ * restricting the query to rows ordered after the position instead of using
+ * an offset, which makes every page cost the same to retrieve.
+ * <p>
+ * The cursor is exposed to clients as an opaque, URL safe page token.
+ */
+public class KeysetCursor
+{
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Last updated timestamp of the last row of the previous page. Kept at
+     * full database precision, as truncating it would skip rows.
+     */
+    private final Timestamp lastUpdated;
+
+    /**
+     * Identifier of the last row of the previous page.
+     */
+    private final long id;
+
+    public KeysetCursor( Date lastUpdated, long id )
+    {
+        this.lastUpdated = lastUpdated instanceof Timestamp ? (Timestamp) lastUpdated : new Timestamp( lastUpdated.getTime() );
+        this.id = id;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a SQL or HQL restriction which matches rows ordered after this
+     * cursor, i.e. rows with an earlier timestamp, or with the same timestamp
+     * and a lower identifier.
+     *
+     * @param lastUpdatedColumn the last updated column.
+     * @param idColumn the identifier column.
+     * @return a restriction.
+     */
+    public String getSqlCondition( String lastUpdatedColumn, String idColumn )
+    {
+        String timestamp = "'" + lastUpdated.toString() + "'";
+
+        return "(" + lastUpdatedColumn + " < " + timestamp + " or (" + lastUpdatedColumn + " = " + timestamp +
+            " and " + idColumn + " < " + id + ")) ";
+    }
+
+    /**
+     * Returns the opaque page token representing this cursor.
+     */
+    public String encode()
+    {
+        String value = lastUpdated.toString() + SEPARATOR + id;
+
+        return Base64Utils.encodeToUrlSafeString( value.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Decodes the given page token. Returns null if the token is null or
+     * empty, which represents the first page.
+     *
+     * @param token the page token.
+     * @return a cursor, or null.
+     * @throws IllegalQueryException if the token is not valid.
+     */
+    public static KeysetCursor decode( String token )
+    {
+        if ( token == null || token.trim().isEmpty() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String value = new String( Base64Utils.decodeFromUrlSafeString( token.trim() ), StandardCharsets.UTF_8 );
+
+            int index = value.lastIndexOf( SEPARATOR );
+
+            return new KeysetCursor( Timestamp.valueOf( value.substring( 0, index ) ), Long.parseLong( value.substring( index + 1 ) ) );
+        }
+        catch ( IllegalArgumentException | IndexOutOfBoundsException ex )
+        {
+            throw new IllegalQueryException( "Page token is not valid: " + token );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public Timestamp getLastUpdated()
+    {
+        return lastUpdated;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[Last updated: " + lastUpdated + ", id: " + id + "]";
+    }
+}
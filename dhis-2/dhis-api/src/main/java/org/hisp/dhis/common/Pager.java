@@ -50,6 +50,11 @@ public class Pager
 
     private String prevPage;
 
+    /**
+     * Opaque token identifying the next page when keyset pagination is used.
+     */
+    private String nextPageToken;
+
     public Pager()
     {
 
@@ -178,4 +183,16 @@ public class Pager
     {
         this.prevPage = prevPage;
     }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public String getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken( String nextPageToken )
+    {
+        this.nextPageToken = nextPageToken;
+    }
 }
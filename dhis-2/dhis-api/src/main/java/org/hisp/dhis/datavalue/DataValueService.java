@@ -183,6 +183,18 @@ public interface DataValueService
     List<DataValue> getDataValues( OrganisationUnit source, Period period,
         Collection<DataElement> dataElements, CategoryOptionCombo attributeOptionCombo );
 
+    /**
+     * Returns the persisted DataValues, including soft deleted ones, which
+     * match the data element, period, source, category option combo and
+     * attribute option combo of any of the given DataValues, using a single
+     * query.
+     *
+     * @param dataValues the DataValues to look up.
+     * @return a list of the persisted DataValues which match any of the
+     * given DataValues, or an empty list if no values match.
+     */
+    List<DataValue> getDataValues( Collection<DataValue> dataValues );
+
     /**
      * Returns deflated data values for the given data export parameters.
      *
@@ -136,6 +136,19 @@ public interface DataValueStore
     List<DataValue> getDataValues( OrganisationUnit source, Period period, Collection<DataElement> dataElements,
         CategoryOptionCombo attributeOptionCombo );
 
+    /**
+     * Returns the persisted DataValues, including soft deleted ones, which
+     * match the data element, period, source, category option combo and
+     * attribute option combo of any of the given DataValues. The lookup is
+     * done with a single query. The identifying properties of the returned
+     * DataValues refer to the objects of the given DataValues.
+     *
+     * @param dataValues the DataValues to look up.
+     * @return a list of the persisted DataValues which match any of the
+     * given DataValues, or an empty list if no values match.
+     */
+    List<DataValue> getDataValues( Collection<DataValue> dataValues );
+
     /**
      * Returns deflated data values for the given data export parameters.
      *
@@ -292,6 +292,64 @@ public interface ExpressionService
         Map<String, Integer> orgUnitCountMap, Integer days,
         MissingValueStrategy missingValueStrategy );
 
+    /**
+     * Generates the calculated values of one expression for many sets of
+     * values, for example one per organisation unit, period and attribute
+     * option combination. The expression is compiled once and evaluated for
+     * all value sets.
+     *
+     * @param expression the expression holding the formula for calculation.
+     * @param valueMaps the DimensionalItemObject values to use for
+     *        calculation, by the key of each value set.
+     * @param constantMap map of constants to use for calculation.
+     * @param orgUnitCountMap the mapping between organisation unit group uid
+     *        and count of organisation units to use in the calculation.
+     * @param daysMap the number of days to use in the calculation, by the
+     *        key of each value set, may be null.
+     * @param missingValueStrategy the strategy to use when data values are
+     *        missing when calculating the expression.
+     * @param <T> the type of the value set keys.
+     * @return the calculated values by value set key, without the value sets
+     *         skipped by the missing value strategy.
+     */
+    <T> Map<T, Double> getExpressionValues( String expression,
+        Map<T, Map<DimensionalItemObject, Double>> valueMaps, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Map<T, Integer> daysMap,
+        MissingValueStrategy missingValueStrategy );
+
+    /**
+     * Generates the calculated values of one expression for each row of a
+     * column-oriented value matrix, for example one row per organisation
+     * unit and attribute option combination. The matrix can be shared by
+     * many expressions, which are then evaluated without building a value
+     * map for each row.
+     * <p>
+     * The missing value strategy is applied as by
+     * {@link #getExpressionValueRegEx}, counting every item in the expression,
+     * including the items in both branches of conditional functions. Missing
+     * constants are replaced by zero where they are not evaluated, and cause
+     * the expression to be evaluated row by row where they are. Expressions
+     * with isNull functions are evaluated row by row unless the strategy is
+     * {@link MissingValueStrategy#NEVER_SKIP}.
+     *
+     * @param expression the expression holding the formula for calculation.
+     * @param itemColumns the matrix column of each dimensional item, by
+     *        dimension item identifier.
+     * @param values the values, by column and row.
+     * @param missing whether each value is missing, by column and row.
+     * @param rowCount the number of rows to evaluate.
+     * @param constantMap map of constants to use for calculation.
+     * @param days the number of days to use in the calculation, may be null.
+     * @param missingValueStrategy the strategy to use when data values are
+     *        missing when calculating the expression.
+     * @return the calculated values by row, with null for the rows skipped
+     *         by the missing value strategy, or null if the expression can
+     *         not be evaluated over a matrix and must be evaluated row by row.
+     */
+    Double[] getExpressionValues( String expression, Map<String, Integer> itemColumns,
+        double[][] values, boolean[][] missing, int rowCount, Map<String, Double> constantMap,
+        Integer days, MissingValueStrategy missingValueStrategy );
+
     // -------------------------------------------------------------------------
     // Expression logic based on regular expressions (to be refactored)
     // -------------------------------------------------------------------------
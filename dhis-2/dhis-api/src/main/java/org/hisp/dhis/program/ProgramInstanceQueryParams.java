@@ -28,6 +28,7 @@ package org.hisp.dhis.program;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.trackedentity.TrackedEntityType;
@@ -118,6 +119,23 @@ public class ProgramInstanceQueryParams
      */
     private boolean skipPaging;
 
+    /**
+     * Indicates whether to page on last updated and id instead of offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position after which to start the page when using keyset paging, null
+     * for the first page.
+     */
+    private KeysetCursor pageCursor;
+
+    /**
+     * Position of the last retrieved enrollment, set by the store when using
+     * keyset paging and more enrollments might be available.
+     */
+    private KeysetCursor nextPageCursor;
+
     /**
      * Indicates whether to include soft-deleted enrollments
      */
@@ -168,6 +186,14 @@ public class ProgramInstanceQueryParams
         return organisationUnits != null && !organisationUnits.isEmpty();
     }
 
+    /**
+     * Indicates whether this params specifies a keyset page cursor.
+     */
+    public boolean hasPageCursor()
+    {
+        return pageCursor != null;
+    }
+
     /**
      * Indicates whether this params specifies a program.
      */
@@ -433,6 +459,39 @@ public class ProgramInstanceQueryParams
         return this;
     }
 
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+
+    public ProgramInstanceQueryParams setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+        return this;
+    }
+
+    public KeysetCursor getPageCursor()
+    {
+        return pageCursor;
+    }
+
+    public ProgramInstanceQueryParams setPageCursor( KeysetCursor pageCursor )
+    {
+        this.pageCursor = pageCursor;
+        return this;
+    }
+
+    public KeysetCursor getNextPageCursor()
+    {
+        return nextPageCursor;
+    }
+
+    public ProgramInstanceQueryParams setNextPageCursor( KeysetCursor nextPageCursor )
+    {
+        this.nextPageCursor = nextPageCursor;
+        return this;
+    }
+
     public boolean isIncludeDeleted()
     {
         return includeDeleted;
@@ -172,6 +172,21 @@ public interface ProgramStageInstanceService
     void auditDataValuesChangesAndHandleFileDataValues( Set<EventDataValue> newDataValues, Set<EventDataValue> updatedDataValues,Set<EventDataValue> removedDataValues,
         Map<String, DataElement> dataElementsCache, ProgramStageInstance programStageInstance, boolean singleValue );
 
+    /**
+     * Handles files for File EventDataValues and optionally creates audit logs for the upcoming changes. DOES NOT PERSIST the changes to the PSI object.
+     * Audits should be skipped when the PSI is not yet persisted, in which case the caller is responsible for writing them.
+     *
+     * @param newDataValues EventDataValues to add
+     * @param updatedDataValues EventDataValues to update
+     * @param removedDataValues EventDataValues to remove
+     * @param dataElementsCache DataElements cache map with DataElements required for creating audit logs for changed EventDataValues
+     * @param programStageInstance programStageInstance to which the EventDataValues belongs to
+     * @param singleValue specifies whether the update is a single value update
+     * @param skipAudit specifies whether creating audit logs should be skipped
+     */
+    void auditDataValuesChangesAndHandleFileDataValues( Set<EventDataValue> newDataValues, Set<EventDataValue> updatedDataValues,Set<EventDataValue> removedDataValues,
+        Map<String, DataElement> dataElementsCache, ProgramStageInstance programStageInstance, boolean singleValue, boolean skipAudit );
+
     /**
      * Validates EventDataValues, handles files for File EventDataValues and creates audit logs for the upcoming create/save changes.
      * DOES PERSIST the changes to the PSI object.
@@ -0,0 +1,73 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Set;
+
+/**
+ * Maintains database indexes which support searching tracked entity instances
+ * by attribute values, and collects search latency metrics.
+ */
+public interface TrackedEntityAttributeSearchIndexManager
+{
+    /**
+     * Creates trigram indexes on the lower case values of searchable text
+     * attributes which are not indexed yet, and drops the indexes of attributes
+     * which are no longer searchable. Attributes are searchable if they are
+     * unique or searchable for a program or tracked entity type. Invalid
+     * indexes left by failed builds are dropped and recreated. A request made
+     * while a previous request is waiting to start is covered by that request.
+     * Does nothing if the search index is disabled or if trigram indexes are
+     * not supported by the database.
+     */
+    void updateSearchIndexes();
+
+    /**
+     * Returns the identifiers of the attributes which have a search index.
+     */
+    Set<Long> getIndexedAttributes();
+
+    /**
+     * Records the latency of a tracked entity instance search.
+     *
+     * @param params the {@link TrackedEntityInstanceQueryParams}.
+     * @param millis the execution time in milliseconds.
+     */
+    void recordSearch( TrackedEntityInstanceQueryParams params, long millis );
+
+    /**
+     * Returns a snapshot of the search statistics.
+     */
+    TrackedEntitySearchStatistics getSearchStatistics();
+
+    /**
+     * Clears the search statistics.
+     */
+    void clearSearchStatistics();
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.trackedentity;
 
 import org.apache.commons.lang.time.DateUtils;
 import org.hisp.dhis.common.AssignedUserSelectionMode;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
@@ -199,6 +200,28 @@ public class TrackedEntityInstanceQueryParams
      */
     private boolean skipPaging;
 
+    /**
+     * Indicates whether to page on last updated and id instead of offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position after which to start the page when using keyset paging, null
+     * for the first page.
+     */
+    private KeysetCursor pageCursor;
+
+    /**
+     * Position of the last retrieved instance, set by the store when using
+     * keyset paging and more instances might be available.
+     */
+    private KeysetCursor nextPageCursor;
+
+    /**
+     * Indicates whether to use the query planner estimate for total pages.
+     */
+    private boolean approximateCount;
+
     /**
      * Indicates whether to include soft-deleted elements
      */
@@ -525,6 +548,14 @@ public class TrackedEntityInstanceQueryParams
         return organisationUnits != null && !organisationUnits.isEmpty();
     }
 
+    /**
+     * Indicates whether this parameters specifies a keyset page cursor.
+     */
+    public boolean hasPageCursor()
+    {
+        return pageCursor != null;
+    }
+
     /**
      * Indicates whether this parameters specifies a program.
      */
@@ -970,6 +1001,50 @@ public class TrackedEntityInstanceQueryParams
         return this;
     }
 
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+
+    public TrackedEntityInstanceQueryParams setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+        return this;
+    }
+
+    public KeysetCursor getPageCursor()
+    {
+        return pageCursor;
+    }
+
+    public TrackedEntityInstanceQueryParams setPageCursor( KeysetCursor pageCursor )
+    {
+        this.pageCursor = pageCursor;
+        return this;
+    }
+
+    public KeysetCursor getNextPageCursor()
+    {
+        return nextPageCursor;
+    }
+
+    public TrackedEntityInstanceQueryParams setNextPageCursor( KeysetCursor nextPageCursor )
+    {
+        this.nextPageCursor = nextPageCursor;
+        return this;
+    }
+
+    public boolean isApproximateCount()
+    {
+        return approximateCount;
+    }
+
+    public TrackedEntityInstanceQueryParams setApproximateCount( boolean approximateCount )
+    {
+        this.approximateCount = approximateCount;
+        return this;
+    }
+
     public boolean isIncludeDeleted()
     {
         return includeDeleted;
@@ -224,6 +224,18 @@ public interface TrackedEntityInstanceService
      */
     void updateTrackedEntityInstancesSyncTimestamp( List<String> trackedEntityInstanceUIDs, Date lastSynchronized );
 
+    /**
+     * Loads the associations of the given TrackedEntityInstances in bulk, so
+     * that they can be traversed without further queries.
+     *
+     * @param trackedEntityInstances the TrackedEntityInstances.
+     * @param includeEnrollments whether to load enrollments and their notes.
+     * @param includeEvents whether to load the events of enrollments.
+     * @param includeRelationships whether to load relationships.
+     */
+    void loadAssociations( List<TrackedEntityInstance> trackedEntityInstances, boolean includeEnrollments,
+        boolean includeEvents, boolean includeRelationships );
+
     /**
      * Returns a {@link TrackedEntityInstance}.
      *
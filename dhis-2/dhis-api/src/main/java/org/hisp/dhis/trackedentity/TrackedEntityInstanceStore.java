@@ -51,6 +51,17 @@ public interface TrackedEntityInstanceStore
 
     int getTrackedEntityInstanceCount( TrackedEntityInstanceQueryParams params );
 
+    /**
+     * Returns the query planner estimate of the number of tracked entity
+     * instances matching the given parameters, which is much cheaper than
+     * counting on large result sets.
+     *
+     * @param params the query parameters.
+     * @return the estimated count, or null if the database does not provide
+     *         estimates.
+     */
+    Integer getEstimatedTrackedEntityInstanceCount( TrackedEntityInstanceQueryParams params );
+
     /**
      * Checks for the existence of a TEI by UID. Deleted TEIs are not taken into account.
      *
@@ -76,4 +87,18 @@ public interface TrackedEntityInstanceStore
     void updateTrackedEntityInstancesSyncTimestamp( List<String> trackedEntityInstanceUIDs, Date lastSynchronized );
 
     List<TrackedEntityInstance> getTrackedEntityInstancesByUid( List<String> uids, User user );
+
+    /**
+     * Loads the attribute values, program owners and optionally the
+     * enrollments, events, notes and relationships of the given tracked entity
+     * instances into the current session using a fixed number of queries for
+     * the whole list, instead of one query per instance and association.
+     *
+     * @param trackedEntityInstances the tracked entity instances.
+     * @param includeEnrollments whether to load enrollments and their notes.
+     * @param includeEvents whether to load the events of enrollments.
+     * @param includeRelationships whether to load relationships.
+     */
+    void loadAssociations( List<TrackedEntityInstance> trackedEntityInstances, boolean includeEnrollments,
+        boolean includeEvents, boolean includeRelationships );
 }
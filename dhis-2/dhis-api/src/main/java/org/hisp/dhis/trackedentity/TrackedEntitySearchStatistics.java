@@ -0,0 +1,146 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hisp.dhis.common.DxfNamespaces;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+/**
+ * Snapshot of tracked entity instance search latency since startup.
+ */
+@JacksonXmlRootElement( localName = "trackedEntitySearchStatistics", namespace = DxfNamespaces.DXF_2_0 )
+public class TrackedEntitySearchStatistics
+{
+    private long searchCount;
+
+    private long searchMillis;
+
+    private long maxSearchMillis;
+
+    private long indexedSearchCount;
+
+    private long indexedSearchMillis;
+
+    private Set<Long> indexedAttributes = new HashSet<>();
+
+    public TrackedEntitySearchStatistics( long searchCount, long searchMillis, long maxSearchMillis,
+        long indexedSearchCount, long indexedSearchMillis, Set<Long> indexedAttributes )
+    {
+        this.searchCount = searchCount;
+        this.searchMillis = searchMillis;
+        this.maxSearchMillis = maxSearchMillis;
+        this.indexedSearchCount = indexedSearchCount;
+        this.indexedSearchMillis = indexedSearchMillis;
+        this.indexedAttributes = indexedAttributes;
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    /**
+     * The number of searches since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSearchCount()
+    {
+        return searchCount;
+    }
+
+    /**
+     * The total execution time of searches since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSearchMillis()
+    {
+        return searchMillis;
+    }
+
+    /**
+     * The execution time of the slowest search since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getMaxSearchMillis()
+    {
+        return maxSearchMillis;
+    }
+
+    /**
+     * The average execution time of searches since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getAverageSearchMillis()
+    {
+        return searchCount > 0 ? searchMillis / searchCount : 0;
+    }
+
+    /**
+     * The number of searches since startup where all queried attributes had a
+     * search index.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getIndexedSearchCount()
+    {
+        return indexedSearchCount;
+    }
+
+    /**
+     * The total execution time of searches since startup where all queried
+     * attributes had a search index.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getIndexedSearchMillis()
+    {
+        return indexedSearchMillis;
+    }
+
+    /**
+     * The identifiers of the attributes which have a search index.
+     */
+    @JsonProperty
+    @JacksonXmlElementWrapper( localName = "indexedAttributes", namespace = DxfNamespaces.DXF_2_0 )
+    @JacksonXmlProperty( localName = "indexedAttribute", namespace = DxfNamespaces.DXF_2_0 )
+    public Set<Long> getIndexedAttributes()
+    {
+        return indexedAttributes;
+    }
+}
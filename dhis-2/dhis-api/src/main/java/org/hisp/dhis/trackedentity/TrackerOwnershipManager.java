@@ -28,6 +28,11 @@ package org.hisp.dhis.trackedentity;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
@@ -71,6 +76,19 @@ public interface TrackerOwnershipManager
      */
     boolean hasAccess( User user, TrackedEntityInstance entityInstance, Program program );
 
+    /**
+     * Returns the programs among the given programs for which the user has
+     * access to each of the given tracked entity instances. The owners of all
+     * tracked entity instances are loaded with a single query, instead of one
+     * query per tracked entity instance - program combination.
+     *
+     * @param user The user with which access has to be checked for.
+     * @param entityInstances The tracked entity instances.
+     * @param programs The programs.
+     * @return a mapping of tracked entity instances to accessible programs.
+     */
+    Map<TrackedEntityInstance, Set<Program>> getAccessiblePrograms( User user, List<TrackedEntityInstance> entityInstances,
+        Collection<Program> programs );
 
     /**
      * Check whether the user has access (as owner or has temporarily broken the
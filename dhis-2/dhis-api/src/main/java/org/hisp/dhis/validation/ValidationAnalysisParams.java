@@ -32,6 +32,7 @@ import com.google.common.collect.ImmutableSet;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.scheduling.JobConfiguration;
 
 import java.util.Collection;
 
@@ -73,6 +74,10 @@ public final class ValidationAnalysisParams
 
     private int dayInPeriod = -1;
 
+    private boolean retainResults = true;
+
+    private JobConfiguration jobConfiguration;
+
     /**
      * Gets the rules selected for analysis
      *
@@ -168,6 +173,27 @@ public final class ValidationAnalysisParams
         return maxResults;
     }
 
+    /**
+     * Gets whether or not the results of the analysis should be kept in memory and returned
+     * to the caller. Only results which are persisted can be dropped from memory.
+     *
+     * @return true if results should be returned, false if not.
+     */
+    public boolean isRetainResults()
+    {
+        return retainResults || !persistResults;
+    }
+
+    /**
+     * Gets the job configuration used to report the progress of the analysis, if any.
+     *
+     * @return the job configuration, or null if progress is not reported.
+     */
+    public JobConfiguration getJobConfiguration()
+    {
+        return jobConfiguration;
+    }
+
     public static class Builder
     {
         private ValidationAnalysisParams params;
@@ -255,6 +281,31 @@ public final class ValidationAnalysisParams
             return this;
         }
 
+        /**
+         * If set to false, persisted results are written to the database while the analysis
+         * is running and are not kept in memory. Ignored if results are not persisted.
+         *
+         * @param retainResults true if results should be returned, false if not.
+         * @return the updated builder object
+         */
+        public Builder withRetainResults( boolean retainResults )
+        {
+            this.params.retainResults = retainResults;
+            return this;
+        }
+
+        /**
+         * Sets the job configuration used to report the progress of the analysis.
+         *
+         * @param jobConfiguration the job configuration.
+         * @return the updated builder object
+         */
+        public Builder withJobConfiguration( JobConfiguration jobConfiguration )
+        {
+            this.params.jobConfiguration = jobConfiguration;
+            return this;
+        }
+
         /**
          * Returns the params object
          * @return the final ValidationAnalysisParams object.
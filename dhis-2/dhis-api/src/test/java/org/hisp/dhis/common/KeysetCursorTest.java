@@ -0,0 +1,73 @@
+package org.hisp.dhis.common;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+public class KeysetCursorTest
+{
+    @Test
+    public void testEncodeDecode()
+    {
+        Timestamp lastUpdated = Timestamp.valueOf( "2019-05-14 10:32:11.123456" );
+
+        KeysetCursor cursor = KeysetCursor.decode( new KeysetCursor( lastUpdated, 1042L ).encode() );
+
+        assertEquals( lastUpdated, cursor.getLastUpdated() );
+        assertEquals( 123456000, cursor.getLastUpdated().getNanos() );
+        assertEquals( 1042L, cursor.getId() );
+    }
+
+    @Test
+    public void testDecodeEmpty()
+    {
+        assertNull( KeysetCursor.decode( null ) );
+        assertNull( KeysetCursor.decode( "" ) );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testDecodeInvalid()
+    {
+        KeysetCursor.decode( "bm90LWEtY3Vyc29y" );
+    }
+
+    @Test
+    public void testGetSqlCondition()
+    {
+        KeysetCursor cursor = new KeysetCursor( Timestamp.valueOf( "2019-05-14 10:32:11.123456" ), 1042L );
+
+        assertEquals( "(psi.lastupdated < '2019-05-14 10:32:11.123456' or (psi.lastupdated = '2019-05-14 10:32:11.123456' and psi.programstageinstanceid < 1042)) ",
+            cursor.getSqlCondition( "psi.lastupdated", "psi.programstageinstanceid" ) );
+    }
+}
@@ -28,6 +28,7 @@ package org.hisp.dhis.security.acl;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hibernate.Hibernate;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.BaseIdentifiableObject;
@@ -40,7 +41,9 @@ import org.hisp.dhis.security.AuthorityType;
 import org.hisp.dhis.security.acl.AccessStringHelper.Permission;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.user.UserGroupAccess;
+import org.hisp.dhis.user.UserGroupMembershipCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -61,11 +64,15 @@ public class DefaultAclService implements AclService
 {
     private final SchemaService schemaService;
 
-    public DefaultAclService( SchemaService schemaService )
+    private final UserGroupMembershipCache userGroupMembershipCache;
+
+    public DefaultAclService( SchemaService schemaService, UserGroupMembershipCache userGroupMembershipCache )
     {
         checkNotNull( schemaService );
+        checkNotNull( userGroupMembershipCache );
 
         this.schemaService = schemaService;
+        this.userGroupMembershipCache = userGroupMembershipCache;
     }
 
     @Override
@@ -657,7 +664,7 @@ public class DefaultAclService implements AclService
              *
              */
             if ( AccessStringHelper.isEnabled( userGroupAccess.getAccess(), permission )
-                && userGroupAccess.getUserGroup().getMembers().contains( user ) )
+                && isMember( user, userGroupAccess.getUserGroup() ) )
             {
                 return true;
             }
@@ -679,6 +686,27 @@ public class DefaultAclService implements AclService
         return false;
     }
 
+    /**
+     * Indicates whether the given user is a member of the given user group.
+     * Memberships of persisted users in persisted user groups are looked up
+     * in the user group membership cache, unless the members of the user group
+     * are already loaded, which avoids loading the members of every user group
+     * an object is shared with.
+     *
+     * @param user      the user.
+     * @param userGroup the user group.
+     * @return true if the user is a member of the user group.
+     */
+    private boolean isMember( User user, UserGroup userGroup )
+    {
+        if ( user.getId() == 0 || userGroup.getId() == 0 || Hibernate.isInitialized( userGroup.getMembers() ) )
+        {
+            return userGroup.getMembers().contains( user );
+        }
+
+        return userGroupMembershipCache.getUserGroupIds( user.getId() ).contains( userGroup.getId() );
+    }
+
     private boolean checkOptionComboSharingPermission( User user, IdentifiableObject object, Permission permission )
     {
         CategoryOptionCombo optionCombo = (CategoryOptionCombo) object;
@@ -0,0 +1,218 @@
+package org.hisp.dhis.analytics;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.analytics.AnalyticsTableManager.TABLE_TEMP_SUFFIX;
+import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
+import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.period.PeriodType;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Class representing a pre-aggregated rollup of the data value analytics
+ * table. A rollup keeps data elements, organisation unit levels down to and
+ * including the given level, and periods of the given period type and all
+ * coarser period types. Category option combinations, attribute option
+ * combinations and all other dimensions are summed out.
+ */
+public class AnalyticsRollup
+{
+    private static final Log log = LogFactory.getLog( AnalyticsRollup.class );
+
+    public static final String TABLE_PREFIX = "analytics_rollup_";
+
+    private static final String ITEM_SEP = ",";
+
+    private static final String LEVEL_PERIOD_SEP = ":";
+
+    /**
+     * Aggregation types of the data elements held by rollups. Only values of
+     * these data elements can be summed over organisation units.
+     */
+    public static final Set<AggregationType> AGGREGATION_TYPES = ImmutableSet.of(
+        AggregationType.SUM, AggregationType.AVERAGE_SUM_ORG_UNIT );
+
+    /**
+     * The lowest organisation unit level of this rollup.
+     */
+    private final int orgUnitLevel;
+
+    /**
+     * The finest period type of this rollup.
+     */
+    private final PeriodType periodType;
+
+    public AnalyticsRollup( int orgUnitLevel, PeriodType periodType )
+    {
+        this.orgUnitLevel = orgUnitLevel;
+        this.periodType = periodType;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Parses a list of rollups from the given string. The string is a comma
+     * separated list of organisation unit level and period type name pairs,
+     * separated by colon, like <code>2:Monthly,3:Quarterly</code>. Invalid
+     * items are ignored.
+     *
+     * @param rollups the rollups string.
+     * @return a list of {@link AnalyticsRollup}.
+     */
+    public static List<AnalyticsRollup> fromString( String rollups )
+    {
+        List<AnalyticsRollup> list = new ArrayList<>();
+
+        if ( StringUtils.isBlank( rollups ) )
+        {
+            return list;
+        }
+
+        for ( String item : rollups.split( ITEM_SEP ) )
+        {
+            String[] parts = item.trim().split( LEVEL_PERIOD_SEP );
+
+            PeriodType periodType = parts.length == 2 ? PeriodType.getByNameIgnoreCase( parts[1] ) : null;
+            Integer level = parts.length == 2 && StringUtils.isNumeric( parts[0].trim() ) ? Integer.valueOf( parts[0].trim() ) : null;
+
+            if ( periodType == null || level == null || level < 1 )
+            {
+                log.warn( String.format( "Ignoring invalid analytics rollup: '%s'", item ) );
+                continue;
+            }
+
+            list.add( new AnalyticsRollup( level, periodType ) );
+        }
+
+        return list;
+    }
+
+    /**
+     * Indicates whether the given data dimension item is held by rollups,
+     * which is the case for data elements with an aggregation type in
+     * {@link #AGGREGATION_TYPES}.
+     *
+     * @param item the data dimension item.
+     * @return true if the item is held by rollups.
+     */
+    public static boolean isRollupItem( DimensionalItemObject item )
+    {
+        return item instanceof DataElement && AGGREGATION_TYPES.contains( ( (DataElement) item ).getAggregationType() );
+    }
+
+    /**
+     * Returns the name of the database table of this rollup.
+     */
+    public String getTableName()
+    {
+        return TABLE_PREFIX + "l" + orgUnitLevel + "_" + periodType.getName().toLowerCase();
+    }
+
+    /**
+     * Returns the name of the temporary database table of this rollup.
+     */
+    public String getTempTableName()
+    {
+        return getTableName() + TABLE_TEMP_SUFFIX;
+    }
+
+    /**
+     * Returns the names of the organisation unit level columns of this rollup.
+     */
+    public List<String> getOrgUnitLevelColumns()
+    {
+        return IntStream.rangeClosed( 1, orgUnitLevel )
+            .mapToObj( level -> LEVEL_PREFIX + level )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Returns the names of the period columns of this rollup, which are the
+     * period type of this rollup and all period types with a lower frequency.
+     */
+    public List<String> getPeriodColumns()
+    {
+        return PeriodType.getAvailablePeriodTypes().stream()
+            .filter( pt -> pt.getFrequencyOrder() >= periodType.getFrequencyOrder() )
+            .map( pt -> pt.getName().toLowerCase() )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Returns the names of all dimension columns of this rollup. A query can
+     * be answered by this rollup only if it refers to these columns only.
+     */
+    public Set<String> getDimensionColumns()
+    {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add( DATA_X_DIM_ID );
+        columns.addAll( getOrgUnitLevelColumns() );
+        columns.addAll( getPeriodColumns() );
+        return columns;
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public int getOrgUnitLevel()
+    {
+        return orgUnitLevel;
+    }
+
+    public PeriodType getPeriodType()
+    {
+        return periodType;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this )
+            .add( "orgUnitLevel", orgUnitLevel )
+            .add( "periodType", periodType.getName() ).toString();
+    }
+}
@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics;
 
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
 
 import java.util.List;
@@ -131,6 +132,17 @@ public interface AnalyticsService
      */
     Grid getRawDataValues( DataQueryParams params );
 
+    /**
+     * Writes raw data values for the given query to the given writer. The
+     * output is equal to the grid returned by {@link #getRawDataValues(DataQueryParams)},
+     * but rows are written as they are read from the database instead of being
+     * held in memory, which makes this suitable for large exports.
+     *
+     * @param params the data query parameters.
+     * @param writer the grid stream writer.
+     */
+    void writeRawDataValues( DataQueryParams params, GridStreamWriter writer );
+
     /**
      * Generates a data value set for the given query. The query must contain
      * a data, period and organisation unit dimension.
@@ -110,6 +110,22 @@ public class AnalyticsTable
         return this;
     }
 
+    /**
+     * Adds the latest analytics partition table to this master table. The latest
+     * partition holds data which was updated within the given date range,
+     * independent of the period of the data.
+     *
+     * @param startDate the start date of the last updated range.
+     * @param endDate the end date of the last updated range.
+     * @return this analytics table.
+     */
+    public AnalyticsTable addLatestPartitionTable( Date startDate, Date endDate )
+    {
+        AnalyticsTablePartition partitionTable = new AnalyticsTablePartition( this, AnalyticsTablePartition.LATEST_PARTITION, startDate, endDate, false );
+        this.partitionTables.add( partitionTable );
+        return this;
+    }
+
     public String getBaseName()
     {
         return tableType.getTableName();
@@ -101,13 +101,37 @@ public interface AnalyticsTableManager
      * <p>
      * If this is a partial update and the master table currently exists, the master
      * table is not swapped and instead the inheritance of the partitions are set to
-     * the existing master table.
+     * the existing master table. A partial update which is not an update of the
+     * latest partition drops the latest partition, as the updated partitions
+     * include the data of the latest partition.
      *
      * @param params the {@link AnalyticsTableUpdateParams}.
      * @param table the analytics table.
      */
     void swapTable( AnalyticsTableUpdateParams params, AnalyticsTable table );
 
+    /**
+     * Removes data which was updated after the last full analytics table update
+     * from the existing analytics table partitions. Invoked for updates of the
+     * latest partition before swapping tables, so that updated and deleted data
+     * values are only represented by the latest partition.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param tables the analytics tables.
+     */
+    void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables );
+
+    /**
+     * Creates or replaces the pre-aggregated rollup tables of the analytics
+     * table based on the current content of the analytics table. Invoked after
+     * the analytics tables have been swapped. For partial and latest updates,
+     * only the data years affected by the update are aggregated again. Rollup
+     * tables which are no longer configured are dropped.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    void updateRollupTables( AnalyticsTableUpdateParams params );
+
     /**
      * Copies and denormalizes rows from data value table into analytics table.
      * The data range is based on the start date of the data value row.
@@ -118,6 +142,27 @@ public interface AnalyticsTableManager
      */
     Future<?> populateTablesAsync( AnalyticsTableUpdateParams params, ConcurrentLinkedQueue<AnalyticsTablePartition> tablePartitions );
 
+    /**
+     * Returns the estimated number of rows of the given partition, based on the
+     * database statistics of the existing partition table from the previous
+     * update. Returns 0 if no estimate is available.
+     *
+     * @param partition the analytics table partition.
+     * @return the estimated number of rows.
+     */
+    long getEstimatedRowCount( AnalyticsTablePartition partition );
+
+    /**
+     * Splits the given partition into chunks which can be populated in parallel.
+     * Returns a list with the given partition only if splitting into chunks is
+     * not supported for the table type or partition.
+     *
+     * @param partition the analytics table partition.
+     * @param chunks the number of chunks.
+     * @return a list of partition chunks.
+     */
+    List<AnalyticsTablePartition> getPartitionChunks( AnalyticsTablePartition partition, int chunks );
+
     /**
      * Invokes analytics table SQL hooks for the table type.
      *
@@ -39,6 +39,17 @@ import org.hisp.dhis.analytics.table.PartitionUtils;
  */
 public class AnalyticsTablePartition
 {
+    /**
+     * Partition key of the latest partition, which holds data which was
+     * updated after the last full analytics table update.
+     */
+    public static final Integer LATEST_PARTITION = 0;
+
+    /**
+     * Table name suffix of the latest partition.
+     */
+    public static final String LATEST_PARTITION_SUFFIX = "latest";
+
     /**
      * The master analytics table for this partition.
      */
@@ -64,6 +75,26 @@ public class AnalyticsTablePartition
      */
     private boolean dataApproval;
 
+    /**
+     * The start date of the period of data to populate this partition with,
+     * inclusive. Applies to chunks of partitions which are populated in parallel,
+     * null means no lower bound.
+     */
+    private Date chunkStartDate;
+
+    /**
+     * The end date of the period of data to populate this partition with,
+     * exclusive. Applies to chunks of partitions which are populated in parallel,
+     * null means no upper bound.
+     */
+    private Date chunkEndDate;
+
+    /**
+     * The estimated number of rows of this partition, used to schedule the
+     * population of partitions.
+     */
+    private long estimatedRows;
+
     public AnalyticsTablePartition( AnalyticsTable masterTable, Integer year, Date startDate, Date endDate, boolean dataApproval )
     {
         this.masterTable = masterTable;
@@ -77,6 +108,30 @@ public class AnalyticsTablePartition
     // Logic
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns a chunk of this partition, representing the data of this partition
+     * for periods starting within the given date range.
+     *
+     * @param chunkStartDate the start date, inclusive, null means no lower bound.
+     * @param chunkEndDate the end date, exclusive, null means no upper bound.
+     * @return a chunk of this partition.
+     */
+    public AnalyticsTablePartition getChunk( Date chunkStartDate, Date chunkEndDate )
+    {
+        AnalyticsTablePartition chunk = new AnalyticsTablePartition( masterTable, year, startDate, endDate, dataApproval );
+        chunk.chunkStartDate = chunkStartDate;
+        chunk.chunkEndDate = chunkEndDate;
+        return chunk;
+    }
+
+    /**
+     * Indicates whether this partition represents a chunk of a partition.
+     */
+    public boolean isChunk()
+    {
+        return chunkStartDate != null || chunkEndDate != null;
+    }
+
     public String getTableName()
     {
         String name = masterTable.getBaseName();
@@ -88,7 +143,7 @@ public class AnalyticsTablePartition
 
         if ( year != null )
         {
-            name += PartitionUtils.SEP + year;
+            name += PartitionUtils.SEP + getPartitionSuffix();
         }
 
         return name;
@@ -105,12 +160,30 @@ public class AnalyticsTablePartition
 
         if ( year != null )
         {
-            name += PartitionUtils.SEP + year;
+            name += PartitionUtils.SEP + getPartitionSuffix();
         }
 
         return name;
     }
 
+    /**
+     * Indicates whether this partition is the latest partition, holding data
+     * updated after the last full analytics table update.
+     */
+    public boolean isLatestPartition()
+    {
+        return LATEST_PARTITION.equals( year );
+    }
+
+    /**
+     * Returns the table name suffix of this partition, which is the year or
+     * {@link #LATEST_PARTITION_SUFFIX} for the latest partition.
+     */
+    private String getPartitionSuffix()
+    {
+        return isLatestPartition() ? LATEST_PARTITION_SUFFIX : String.valueOf( year );
+    }
+
     public AnalyticsTable getMasterTable()
     {
         return masterTable;
@@ -136,6 +209,26 @@ public class AnalyticsTablePartition
         return dataApproval;
     }
 
+    public Date getChunkStartDate()
+    {
+        return chunkStartDate;
+    }
+
+    public Date getChunkEndDate()
+    {
+        return chunkEndDate;
+    }
+
+    public long getEstimatedRows()
+    {
+        return estimatedRows;
+    }
+
+    public void setEstimatedRows( long estimatedRows )
+    {
+        this.estimatedRows = estimatedRows;
+    }
+
     @Override
     public String toString()
     {
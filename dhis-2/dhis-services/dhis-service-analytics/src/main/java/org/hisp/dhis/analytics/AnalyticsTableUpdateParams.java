@@ -61,6 +61,12 @@ public class AnalyticsTableUpdateParams
      */
     private Set<AnalyticsTableType> skipTableTypes;
 
+    /**
+     * Indicates whether to update only the latest partition, i.e. data which
+     * was updated since the last full analytics table update.
+     */
+    boolean latestUpdate;
+
     /**
      * Job ID.
      */
@@ -95,6 +101,11 @@ public class AnalyticsTableUpdateParams
         return skipTableTypes;
     }
 
+    public boolean isLatestUpdate()
+    {
+        return latestUpdate;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
@@ -108,11 +119,12 @@ public class AnalyticsTableUpdateParams
     /**
      * Indicates whether this is a partial update of analytics tables, i.e.
      * if only certain partitions are to be updated and not all partitions
-     * and the main analytics tables.
+     * and the main analytics tables. An update of the latest partition is
+     * considered a partial update.
      */
     public boolean isPartialUpdate()
     {
-        return lastYears != null;
+        return lastYears != null || latestUpdate;
     }
 
     // -------------------------------------------------------------------------
@@ -126,6 +138,7 @@ public class AnalyticsTableUpdateParams
             .add( "last years", lastYears )
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
+            .add( "latest update", latestUpdate )
             .add( "start time", startTime )
             .toString();
     }
@@ -168,6 +181,7 @@ public class AnalyticsTableUpdateParams
         params.lastYears = this.lastYears;
         params.skipResourceTables = this.skipResourceTables;
         params.skipTableTypes = new HashSet<>( this.skipTableTypes );
+        params.latestUpdate = this.latestUpdate;
         params.jobId = this.jobId;
         params.startTime = this.startTime;
 
@@ -218,6 +232,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withLatestUpdate( boolean latestUpdate )
+        {
+            this.params.latestUpdate = latestUpdate;
+            return this;
+        }
+
         public Builder withJobId( JobConfiguration jobId )
         {
             this.params.jobId = jobId;
@@ -28,6 +28,9 @@ package org.hisp.dhis.analytics;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.common.Grid;
 
 /**
@@ -44,5 +47,16 @@ public interface RawAnalyticsManager
      * @param grid the grid.
      * @return a grid with data.
      */
-    Grid getRawDataValues( DataQueryParams params, Grid grid );    
+    Grid getRawDataValues( DataQueryParams params, Grid grid );
+
+    /**
+     * Reads raw analytics data based on the given query through a forward-only
+     * cursor and passes each row to the given consumer as it is read. Rows
+     * have the same layout as the rows added by
+     * {@link #getRawDataValues(DataQueryParams, Grid)}.
+     *
+     * @param params the query.
+     * @param rowConsumer the consumer of rows.
+     */
+    void streamRawDataValues( DataQueryParams params, Consumer<List<Object>> rowConsumer );
 }
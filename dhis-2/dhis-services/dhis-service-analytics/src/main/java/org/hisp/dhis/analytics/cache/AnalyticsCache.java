@@ -0,0 +1,93 @@
+package org.hisp.dhis.analytics.cache;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.hisp.dhis.common.Grid;
+
+/**
+ * Cache for analytics query responses and sub-query results. Both tiers
+ * are invalidated when analytics tables are swapped.
+ */
+public interface AnalyticsCache
+{
+    /**
+     * Indicates whether caching is enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the cached response grid for the given key, computing and caching
+     * it with the given mapping function if absent.
+     *
+     * @param key the query key.
+     * @param mappingFunction the function to compute the grid.
+     * @return the grid.
+     */
+    Optional<Grid> getResponse( String key, Function<String, Grid> mappingFunction );
+
+    /**
+     * Returns the cached aggregated values of a sub-query.
+     *
+     * @param key the sub-query key.
+     * @return the values, or an empty optional if not cached.
+     */
+    Optional<Map<String, Object>> getSubQueryValues( String key );
+
+    /**
+     * Caches the aggregated values of a sub-query. Empty maps are cached too,
+     * as they signal that the sub-query has no data.
+     *
+     * @param key the sub-query key.
+     * @param values the aggregated values.
+     */
+    void putSubQueryValues( String key, Map<String, Object> values );
+
+    /**
+     * Discards all entries of all tiers.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the number of cache hits for the given tier since startup.
+     *
+     * @param tier the {@link AnalyticsCacheTier}.
+     */
+    long getHitCount( AnalyticsCacheTier tier );
+
+    /**
+     * Returns the number of cache misses for the given tier since startup.
+     *
+     * @param tier the {@link AnalyticsCacheTier}.
+     */
+    long getMissCount( AnalyticsCacheTier tier );
+}
@@ -0,0 +1,186 @@
+package org.hisp.dhis.analytics.cache;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component( "org.hisp.dhis.analytics.cache.AnalyticsCache" )
+public class DefaultAnalyticsCache
+    implements AnalyticsCache
+{
+    private static final Log log = LogFactory.getLog( DefaultAnalyticsCache.class );
+
+    private static final int MAX_RESPONSE_ENTRIES = 20000;
+    private static final int MAX_SUB_QUERY_ENTRIES = 100000;
+    private static final String RESPONSE_REGION = "analyticsQueryResponse";
+    private static final String SUB_QUERY_REGION = "analyticsSubQueryResponse";
+
+    private final DhisConfigurationProvider dhisConfig;
+
+    private final CacheProvider cacheProvider;
+
+    private final Environment environment;
+
+    private final Map<AnalyticsCacheTier, AtomicLong> hits = new EnumMap<>( AnalyticsCacheTier.class );
+
+    private final Map<AnalyticsCacheTier, AtomicLong> misses = new EnumMap<>( AnalyticsCacheTier.class );
+
+    private boolean enabled;
+
+    private Cache<Grid> responseCache;
+
+    private Cache<HashMap<String, Object>> subQueryCache;
+
+    public DefaultAnalyticsCache( DhisConfigurationProvider dhisConfig, CacheProvider cacheProvider, Environment environment )
+    {
+        checkNotNull( dhisConfig );
+        checkNotNull( cacheProvider );
+        checkNotNull( environment );
+
+        this.dhisConfig = dhisConfig;
+        this.cacheProvider = cacheProvider;
+        this.environment = environment;
+
+        for ( AnalyticsCacheTier tier : AnalyticsCacheTier.values() )
+        {
+            hits.put( tier, new AtomicLong() );
+            misses.put( tier, new AtomicLong() );
+        }
+    }
+
+    @PostConstruct
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public void init()
+    {
+        long expiration = dhisConfig.getAnalyticsCacheExpiration();
+        enabled = expiration > 0 && !SystemUtils.isTestRun( environment.getActiveProfiles() );
+
+        responseCache = cacheProvider.newCacheBuilder( Grid.class ).forRegion( RESPONSE_REGION )
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_RESPONSE_ENTRIES : 0 ).build();
+
+        subQueryCache = cacheProvider.newCacheBuilder( (Class<HashMap<String, Object>>) (Class) HashMap.class ).forRegion( SUB_QUERY_REGION )
+            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_SUB_QUERY_ENTRIES : 0 ).build();
+
+        log.info( String.format( "Analytics server-side cache is enabled: %b with expiration: %d s", enabled, expiration ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public Optional<Grid> getResponse( String key, Function<String, Grid> mappingFunction )
+    {
+        AtomicBoolean computed = new AtomicBoolean( false );
+
+        Optional<Grid> grid = responseCache.get( key, k -> {
+            computed.set( true );
+            return mappingFunction.apply( k );
+        } );
+
+        count( AnalyticsCacheTier.RESPONSE, !computed.get() );
+
+        return grid;
+    }
+
+    @Override
+    public Optional<Map<String, Object>> getSubQueryValues( String key )
+    {
+        Optional<Map<String, Object>> values = subQueryCache.getIfPresent( key ).map( v -> v );
+
+        count( AnalyticsCacheTier.SUB_QUERY, values.isPresent() );
+
+        return values;
+    }
+
+    @Override
+    public void putSubQueryValues( String key, Map<String, Object> values )
+    {
+        subQueryCache.put( key, new HashMap<>( values ) );
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        responseCache.invalidateAll();
+        subQueryCache.invalidateAll();
+
+        log.info( String.format( "Analytics cache invalidated, response hits: %d, misses: %d, sub-query hits: %d, misses: %d",
+            getHitCount( AnalyticsCacheTier.RESPONSE ), getMissCount( AnalyticsCacheTier.RESPONSE ),
+            getHitCount( AnalyticsCacheTier.SUB_QUERY ), getMissCount( AnalyticsCacheTier.SUB_QUERY ) ) );
+    }
+
+    @Override
+    public long getHitCount( AnalyticsCacheTier tier )
+    {
+        return hits.get( tier ).get();
+    }
+
+    @Override
+    public long getMissCount( AnalyticsCacheTier tier )
+    {
+        return misses.get( tier ).get();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void count( AnalyticsCacheTier tier, boolean hit )
+    {
+        ( hit ? hits : misses ).get( tier ).incrementAndGet();
+    }
+}
@@ -54,12 +54,9 @@ import static org.hisp.dhis.reporttable.ReportTable.addListIfEmpty;
 
 import java.util.*;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import javax.annotation.PostConstruct;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
@@ -76,14 +73,16 @@ import org.hisp.dhis.analytics.OutputFormat;
 import org.hisp.dhis.analytics.ProcessingHint;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.analytics.QueryKey;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.SortOrder;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryMonitor;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryRecord;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
-import org.hisp.dhis.cache.Cache;
-import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.BaseDimensionalObject;
@@ -95,6 +94,7 @@ import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.ReportingRateMetric;
 import org.hisp.dhis.common.ValueType;
@@ -105,7 +105,6 @@ import org.hisp.dhis.constant.ConstantService;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
 import org.hisp.dhis.expression.ExpressionService;
-import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.indicator.IndicatorValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -122,7 +121,6 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.ObjectUtils;
 import org.hisp.dhis.util.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.Environment;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -141,8 +139,6 @@ public class DefaultAnalyticsService
 
     private static final int PERCENT = 100;
     private static final int MAX_QUERIES = 8;
-    private static final int MAX_CACHE_ENTRIES = 20000;
-    private static final String CACHE_REGION = "analyticsQueryResponse";
 
     private final AnalyticsManager analyticsManager;
 
@@ -166,29 +162,9 @@ public class DefaultAnalyticsService
 
     private final DataQueryService dataQueryService;
 
-    private final DhisConfigurationProvider dhisConfig;
-
-    private final CacheProvider cacheProvider;
-
-    private final Environment environment;
-
-    // -------------------------------------------------------------------------
-    // AnalyticsService implementation
-    // -------------------------------------------------------------------------
-
-    private Cache<Grid> queryCache;
-
-    @PostConstruct
-    public void init()
-    {
-        long expiration = dhisConfig.getAnalyticsCacheExpiration();
-        boolean enabled = expiration > 0 && !SystemUtils.isTestRun( this.environment.getActiveProfiles() );
-
-        queryCache = cacheProvider.newCacheBuilder( Grid.class ).forRegion( CACHE_REGION )
-            .expireAfterWrite( expiration, TimeUnit.SECONDS ).withMaximumSize( enabled ? MAX_CACHE_ENTRIES : 0 ).build();
+    private final AnalyticsCache analyticsCache;
 
-        log.info( String.format( "Analytics server-side cache is enabled: %b with expiration: %d s", enabled, expiration ) );
-    }
+    private final AnalyticsQueryMonitor queryMonitor;
 
     @Autowired
     public DefaultAnalyticsService( AnalyticsManager analyticsManager, RawAnalyticsManager rawAnalyticsManager,
@@ -196,7 +172,7 @@ public class DefaultAnalyticsService
         ConstantService constantService, ExpressionService expressionService,
         OrganisationUnitService organisationUnitService, SystemSettingManager systemSettingManager,
         EventAnalyticsService eventAnalyticsService, DataQueryService dataQueryService,
-        DhisConfigurationProvider dhisConfig, CacheProvider cacheProvider, Environment environment)
+        AnalyticsCache analyticsCache, AnalyticsQueryMonitor queryMonitor )
     {
         checkNotNull( analyticsManager );
         checkNotNull( rawAnalyticsManager );
@@ -209,9 +185,8 @@ public class DefaultAnalyticsService
         checkNotNull( systemSettingManager );
         checkNotNull( eventAnalyticsService );
         checkNotNull( dataQueryService );
-        checkNotNull( dhisConfig );
-        checkNotNull( cacheProvider );
-        checkNotNull( environment );
+        checkNotNull( analyticsCache );
+        checkNotNull( queryMonitor );
 
         this.analyticsManager = analyticsManager;
         this.rawAnalyticsManager = rawAnalyticsManager;
@@ -224,11 +199,14 @@ public class DefaultAnalyticsService
         this.systemSettingManager = systemSettingManager;
         this.eventAnalyticsService = eventAnalyticsService;
         this.dataQueryService = dataQueryService;
-        this.dhisConfig = dhisConfig;
-        this.cacheProvider = cacheProvider;
-        this.environment = environment;
+        this.analyticsCache = analyticsCache;
+        this.queryMonitor = queryMonitor;
     }
 
+    // -------------------------------------------------------------------------
+    // AnalyticsService implementation
+    // -------------------------------------------------------------------------
+
     @Override
     public Grid getAggregatedDataValues( DataQueryParams params )
     {
@@ -243,13 +221,22 @@ public class DefaultAnalyticsService
 
         queryValidator.validate( params );
 
-        if ( dhisConfig.isAnalyticsCacheEnabled() )
+        AnalyticsQueryRecord record = queryMonitor.startQuery( params.getKey() );
+
+        try
         {
-            final DataQueryParams query = DataQueryParams.newBuilder( params ).build();
-            return queryCache.get( params.getKey(), key -> getAggregatedDataValueGridInternal( query ) ).orElseGet( () -> new ListGrid() );
-        }
+            if ( analyticsCache.isEnabled() )
+            {
+                final DataQueryParams query = DataQueryParams.newBuilder( params ).build();
+                return analyticsCache.getResponse( params.getKey(), key -> getAggregatedDataValueGridInternal( query ) ).orElseGet( () -> new ListGrid() );
+            }
 
-        return getAggregatedDataValueGridInternal( params );
+            return getAggregatedDataValueGridInternal( params );
+        }
+        finally
+        {
+            queryMonitor.endQuery( record );
+        }
     }
 
     @Override
@@ -273,6 +260,19 @@ public class DefaultAnalyticsService
         return getRawDataGrid( params );
     }
 
+    @Override
+    public void writeRawDataValues( DataQueryParams params, GridStreamWriter writer )
+    {
+        securityManager.decideAccess( params );
+
+        params = securityManager.withDataApprovalConstraints( params );
+        params = securityManager.withDimensionConstraints( params );
+
+        queryValidator.validate( params );
+
+        writeRawData( params, writer );
+    }
+
     @Override
     public DataValueSet getAggregatedDataValueSet( DataQueryParams params )
     {
@@ -325,6 +325,8 @@ public class DefaultAnalyticsService
      */
     private Grid getAggregatedDataValueGridInternal( DataQueryParams params )
     {
+        Timer timer = new Timer().start().disablePrint();
+
         params = preHandleQuery( params );
 
         // ---------------------------------------------------------------------
@@ -365,6 +367,13 @@ public class DefaultAnalyticsService
 
         postHandleGrid( params, grid );
 
+        AnalyticsQueryRecord record = queryMonitor.getCurrentQuery();
+
+        if ( record != null )
+        {
+            record.setGridBuildMillis( timer.getTimeInMs() );
+        }
+
         return grid;
     }
 
@@ -947,6 +956,23 @@ public class DefaultAnalyticsService
      * @param grid the grid.
      */
     private void applyIdScheme( DataQueryParams params, Grid grid )
+    {
+        Map<String, String> map = getIdSchemeMap( params );
+
+        if ( map != null )
+        {
+            grid.substituteMetaData( map );
+        }
+    }
+
+    /**
+     * Returns a mapping of dimension item identifiers and the identifier scheme
+     * property indicated in the query, or null if no substitution is required.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return a mapping of identifiers, or null.
+     */
+    private Map<String, String> getIdSchemeMap( DataQueryParams params )
     {
         if ( !params.isSkipMeta() && params.hasNonUidOutputIdScheme() )
         {
@@ -957,8 +983,10 @@ public class DefaultAnalyticsService
                 map.putAll( DimensionalObjectUtils.getDataElementOperandIdSchemeMap( asTypedList( params.getDataElementOperands() ), params.getOutputIdScheme() ) );
             }
 
-            grid.substituteMetaData( map );
+            return map;
         }
+
+        return null;
     }
 
     /**
@@ -1188,26 +1216,48 @@ public class DefaultAnalyticsService
 
         timer.getSplitTime( "Planned analytics query, got: " + queryGroups.getLargestGroupSize() + " for optimal: " + optimalQueries );
 
+        AnalyticsQueryRecord record = queryMonitor.getCurrentQuery();
+
+        if ( record != null )
+        {
+            record.addPlan( timer.getTimeInMs(), queryGroups.getSequentialQueries().size(), queryGroups.getAllQueries().size() );
+        }
+
+        Timer executionTimer = new Timer().start().disablePrint();
+
+        long rows = 0;
+
         Map<String, Object> map = new HashMap<>();
 
         for ( List<DataQueryParams> queries : queryGroups.getSequentialQueries() )
         {
             List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            List<DataQueryParams> futureQueries = new ArrayList<>();
 
             for ( DataQueryParams query : queries )
             {
-                futures.add( analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) );
+                DataQueryParams uncachedQuery = addCachedSubQueryValues( query, tableType, maxLimit, map );
+
+                if ( uncachedQuery != null )
+                {
+                    futures.add( analyticsManager.getAggregatedDataValues( uncachedQuery, tableType, maxLimit ) );
+                    futureQueries.add( uncachedQuery );
+                }
             }
 
-            for ( Future<Map<String, Object>> future : futures )
+            for ( int i = 0; i < futures.size(); i++ )
             {
                 try
                 {
-                    Map<String, Object> taskValues = future.get();
+                    Map<String, Object> taskValues = futures.get( i ).get();
 
                     if ( taskValues != null )
                     {
                         map.putAll( taskValues );
+
+                        rows += taskValues.size();
+
+                        cacheSubQueryValues( futureQueries.get( i ), tableType, maxLimit, taskValues );
                     }
                 }
                 catch ( Exception ex )
@@ -1229,9 +1279,179 @@ public class DefaultAnalyticsService
 
         timer.getTime( "Got analytics values" );
 
+        if ( record != null )
+        {
+            record.addExecution( executionTimer.getTimeInMs(), rows );
+        }
+
         return map;
     }
 
+    /**
+     * Adds cached aggregated values for the given planned sub-query to the given
+     * map. Sub-queries with a period dimension are cached per period, so that
+     * queries with overlapping periods can reuse values. Returns the query to
+     * run for the values which are not cached, or null if all values were
+     * found in the cache.
+     *
+     * @param query the planned {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param maxLimit the max number of records to retrieve.
+     * @param map the map to add cached values to.
+     * @return the query for the values not in the cache, or null.
+     */
+    private DataQueryParams addCachedSubQueryValues( DataQueryParams query, AnalyticsTableType tableType, int maxLimit, Map<String, Object> map )
+    {
+        if ( !analyticsCache.isEnabled() )
+        {
+            return query;
+        }
+
+        if ( !isCacheableByPeriod( query ) )
+        {
+            Optional<Map<String, Object>> values = getSubQueryValues( getSubQueryKey( query, tableType, maxLimit ) );
+
+            values.ifPresent( map::putAll );
+
+            return values.isPresent() ? null : query;
+        }
+
+        List<DimensionalItemObject> missingPeriods = new ArrayList<>();
+
+        for ( DimensionalItemObject period : query.getPeriods() )
+        {
+            DataQueryParams periodQuery = DataQueryParams.newBuilder( query )
+                .withPeriods( Lists.newArrayList( period ), query.getPeriodType() ).build();
+
+            Optional<Map<String, Object>> values = getSubQueryValues( getSubQueryKey( periodQuery, tableType, maxLimit ) );
+
+            if ( values.isPresent() )
+            {
+                map.putAll( values.get() );
+            }
+            else
+            {
+                missingPeriods.add( period );
+            }
+        }
+
+        if ( missingPeriods.isEmpty() )
+        {
+            return null;
+        }
+
+        return missingPeriods.size() == query.getPeriods().size() ? query :
+            DataQueryParams.newBuilder( query ).withPeriods( missingPeriods, query.getPeriodType() ).build();
+    }
+
+    /**
+     * Returns the cached aggregated values for the given sub-query key and
+     * counts the cache lookup for the current query record.
+     *
+     * @param key the sub-query key.
+     * @return the values, or an empty optional if not cached.
+     */
+    private Optional<Map<String, Object>> getSubQueryValues( String key )
+    {
+        Optional<Map<String, Object>> values = analyticsCache.getSubQueryValues( key );
+
+        AnalyticsQueryRecord record = queryMonitor.getCurrentQuery();
+
+        if ( record != null )
+        {
+            record.addSubQueryCacheLookup( values.isPresent() );
+        }
+
+        return values;
+    }
+
+    /**
+     * Caches the given aggregated values of the given planned sub-query, per
+     * period if the sub-query has a period dimension.
+     *
+     * @param query the planned {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param maxLimit the max number of records to retrieve.
+     * @param values the aggregated values of the sub-query.
+     */
+    private void cacheSubQueryValues( DataQueryParams query, AnalyticsTableType tableType, int maxLimit, Map<String, Object> values )
+    {
+        if ( !analyticsCache.isEnabled() )
+        {
+            return;
+        }
+
+        if ( !isCacheableByPeriod( query ) )
+        {
+            analyticsCache.putSubQueryValues( getSubQueryKey( query, tableType, maxLimit ), values );
+            return;
+        }
+
+        int periodIndex = query.getPeriodDimensionIndex();
+
+        Map<String, Map<String, Object>> periodValues = new HashMap<>();
+
+        query.getPeriods().forEach( period -> periodValues.put( period.getDimensionItem(), new HashMap<>() ) );
+
+        for ( Map.Entry<String, Object> entry : values.entrySet() )
+        {
+            String period = entry.getKey().split( DIMENSION_SEP )[periodIndex];
+
+            periodValues.computeIfAbsent( period, p -> new HashMap<>() ).put( entry.getKey(), entry.getValue() );
+        }
+
+        for ( DimensionalItemObject period : query.getPeriods() )
+        {
+            DataQueryParams periodQuery = DataQueryParams.newBuilder( query )
+                .withPeriods( Lists.newArrayList( period ), query.getPeriodType() ).build();
+
+            analyticsCache.putSubQueryValues( getSubQueryKey( periodQuery, tableType, maxLimit ), periodValues.get( period.getDimensionItem() ) );
+        }
+    }
+
+    /**
+     * Indicates whether the values of the given planned sub-query can be cached
+     * per period. This requires a period dimension with a period type, and an
+     * aggregation type where the value of a period does not depend on other
+     * periods of the query.
+     *
+     * @param query the planned {@link DataQueryParams}.
+     */
+    private boolean isCacheableByPeriod( DataQueryParams query )
+    {
+        return query.getPeriodType() != null && query.getPeriodDimensionIndex() != -1 && !query.getPeriods().isEmpty() &&
+            ( query.getAggregationType() == null || !query.getAggregationType().isFirstOrLastPeriodAggregationType() );
+    }
+
+    /**
+     * Returns a cache key for the given planned sub-query. Includes properties
+     * which are assigned by the query planner or by security constraints and
+     * are not part of {@link DataQueryParams#getKey()}.
+     *
+     * @param query the planned {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param maxLimit the max number of records to retrieve.
+     */
+    private String getSubQueryKey( DataQueryParams query, AnalyticsTableType tableType, int maxLimit )
+    {
+        QueryKey key = new QueryKey()
+            .add( tableType )
+            .add( maxLimit )
+            .add( query.getKey() )
+            .addIgnoreNull( query.getPeriodType() )
+            .addIgnoreNull( query.getDataPeriodType(), () -> query.getDataPeriodType().getName() );
+
+        if ( query.isDataApproval() )
+        {
+            query.getDataApprovalLevels().entrySet().stream()
+                .map( e -> e.getKey().getUid() + ":" + e.getValue() )
+                .sorted()
+                .forEach( key::add );
+        }
+
+        return key.build();
+    }
+
     /**
      * Returns headers, raw data and meta data as a grid.
      *
@@ -1255,6 +1475,62 @@ public class DefaultAnalyticsService
         return grid;
     }
 
+    /**
+     * Writes headers and meta data, followed by raw data rows as they are read
+     * from the database, to the given writer. The identifier scheme is applied
+     * to each row individually. The writer is closed, completing the output,
+     * only if all rows were written, so that a failure is propagated instead
+     * of being rendered as a complete but truncated response.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param writer the {@link GridStreamWriter}.
+     */
+    private void writeRawData( DataQueryParams params, GridStreamWriter writer )
+    {
+        Grid grid = new ListGrid();
+
+        params = preHandleRawDataQuery( params );
+
+        addHeaders( params, grid );
+
+        addMetaData( params, grid );
+
+        applyIdScheme( params, grid );
+
+        writer.writeHeaders( grid );
+
+        if ( !params.isSkipData() )
+        {
+            Map<String, String> idSchemeMap = getIdSchemeMap( params );
+            List<Integer> metaColumns = grid.getMetaColumnIndexes();
+
+            QueryPlannerParams plannerParams = QueryPlannerParams.newBuilder()
+                .withTableType( AnalyticsTableType.DATA_VALUE ).build();
+
+            params = queryPlanner.withTableNameAndPartitions( params, plannerParams );
+
+            rawAnalyticsManager.streamRawDataValues( params, row -> {
+
+                if ( idSchemeMap != null )
+                {
+                    for ( Integer col : metaColumns )
+                    {
+                        String value = idSchemeMap.get( row.get( col ) );
+
+                        if ( value != null )
+                        {
+                            row.set( col, value );
+                        }
+                    }
+                }
+
+                writer.writeRow( row );
+            } );
+        }
+
+        writer.close();
+    }
+
     /**
      * Prepares the given data query parameters.
      *
@@ -43,6 +43,8 @@ import org.hisp.dhis.commons.collection.PaginatedList;
 import org.hisp.dhis.dataelement.DataElementGroup;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.util.ObjectUtils;
 
@@ -51,8 +53,11 @@ import com.google.common.collect.Lists;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
@@ -73,13 +78,18 @@ public class DefaultQueryPlanner
 
     private final PartitionManager partitionManager;
 
-    public DefaultQueryPlanner( QueryValidator queryValidator, PartitionManager partitionManager )
+    private final SystemSettingManager systemSettingManager;
+
+    public DefaultQueryPlanner( QueryValidator queryValidator, PartitionManager partitionManager,
+        SystemSettingManager systemSettingManager )
     {
         checkNotNull( queryValidator );
         checkNotNull( partitionManager );
+        checkNotNull( systemSettingManager );
 
         this.queryValidator = queryValidator;
         this.partitionManager = partitionManager;
+        this.systemSettingManager = systemSettingManager;
     }
 
     // -------------------------------------------------------------------------
@@ -97,6 +107,8 @@ public class DefaultQueryPlanner
 
         params = withTableNameAndPartitions( params, plannerParams );
 
+        addLatestPartition( params.getPartitions(), plannerParams.getTableName() );
+
         partitionManager.filterNonExistingPartitions( params.getPartitions(), plannerParams.getTableName() );
 
         final List<DataQueryParams> queries = Lists.newArrayList( params );
@@ -120,6 +132,21 @@ public class DefaultQueryPlanner
             currentQueries.forEach( query -> queries.addAll( grouper.apply( query ) ) );
         }
 
+        // ---------------------------------------------------------------------
+        // Route queries to pre-aggregated rollup tables where possible, unless
+        // the aggregation type is overridden for the request
+        // ---------------------------------------------------------------------
+
+        if ( AnalyticsTableType.DATA_VALUE.getTableName().equals( plannerParams.getTableName() ) && params.getAggregationType() == null )
+        {
+            final List<AnalyticsRollup> rollups = getExistingRollups();
+
+            if ( !rollups.isEmpty() )
+            {
+                queries.replaceAll( query -> withRollupTable( query, rollups ) );
+            }
+        }
+
         // ---------------------------------------------------------------------
         // Split queries until optimal number
         // ---------------------------------------------------------------------
@@ -155,6 +182,8 @@ public class DefaultQueryPlanner
 
         if ( params.getCurrentUser() != null )
         {
+            addLatestPartition( partitions, plannerParams.getTableName() );
+
             partitionManager.filterNonExistingPartitions( partitions, plannerParams.getTableName() );
         }
 
@@ -173,6 +202,8 @@ public class DefaultQueryPlanner
 
         if ( params.getTableName() != null )
         {
+            addLatestPartition( partitions, params.getTableName() );
+
             partitionManager.filterNonExistingPartitions( partitions, params.getTableName() );
         }
 
@@ -617,6 +648,94 @@ public class DefaultQueryPlanner
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Adds the latest partition to the given partitions if the given table
+     * supports it. The latest partition holds data which was updated after
+     * the last full analytics table update. Partitions must be filtered for
+     * non-existing tables afterwards.
+     *
+     * @param partitions the {@link Partitions}.
+     * @param tableName the analytics table name.
+     */
+    private void addLatestPartition( Partitions partitions, String tableName )
+    {
+        if ( AnalyticsTableType.DATA_VALUE.getTableName().equals( tableName ) && partitions.hasAny() )
+        {
+            partitions.add( AnalyticsTablePartition.LATEST_PARTITION );
+        }
+    }
+
+    /**
+     * Returns the configured analytics rollups for which a table exists, ordered
+     * by size, smallest first. Size is approximated by the organisation unit
+     * level and the frequency of the period type of the rollup.
+     *
+     * @return a list of {@link AnalyticsRollup}.
+     */
+    private List<AnalyticsRollup> getExistingRollups()
+    {
+        String rollupSetting = (String) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_ROLLUPS );
+
+        return AnalyticsRollup.fromString( rollupSetting ).stream()
+            .filter( rollup -> partitionManager.tableExists( rollup.getTableName() ) )
+            .sorted( Comparator.comparingInt( AnalyticsRollup::getOrgUnitLevel )
+                .thenComparing( rollup -> rollup.getPeriodType().getFrequencyOrder(), Comparator.reverseOrder() ) )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Returns the given query with the table name set to the smallest of the
+     * given rollups which can answer the query. A rollup can answer a query if
+     * all dimensions and filters of the query refer to columns of the rollup,
+     * if the aggregation of the query is a sum over organisation units, and if
+     * all data items are data elements held by rollups, as rollups do not hold
+     * data elements with other aggregation types.
+     * Partitioning is skipped for the rollup as rollup tables are not
+     * partitioned. Returns the given query if no rollup can answer the query.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param rollups the list of {@link AnalyticsRollup}, smallest first.
+     * @return a {@link DataQueryParams}.
+     */
+    private DataQueryParams withRollupTable( DataQueryParams params, List<AnalyticsRollup> rollups )
+    {
+        AnalyticsAggregationType aggType = params.getAggregationType();
+
+        if ( aggType == null || !aggType.isAggregationType( AggregationType.SUM ) || aggType.isFirstOrLastPeriodAggregationType() ||
+            params.isDisaggregation() || params.isDataType( DataType.TEXT ) || params.isDataApproval() || params.hasStartEndDate() ||
+            params.hasPreAggregateMeasureCriteria() || params.isRestrictByOrgUnitOpeningClosedDate() ||
+            params.isRestrictByCategoryOptionStartEndDate() || params.isTimely() )
+        {
+            return params;
+        }
+
+        List<DimensionalItemObject> dataItems = params.getAllDataDimensionItems();
+
+        if ( dataItems.isEmpty() || !dataItems.stream().allMatch( AnalyticsRollup::isRollupItem ) )
+        {
+            return params;
+        }
+
+        Set<String> columns = params.getDimensionsAndFilters().stream()
+            .map( DimensionalObject::getDimensionName )
+            .collect( Collectors.toSet() );
+
+        for ( AnalyticsRollup rollup : rollups )
+        {
+            if ( rollup.getDimensionColumns().containsAll( columns ) )
+            {
+                log.debug( String.format( "Using analytics rollup table: %s", rollup.getTableName() ) );
+
+                return DataQueryParams.newBuilder( params )
+                    .withTableName( rollup.getTableName() )
+                    .withSkipPartitioning( true )
+                    .build();
+            }
+        }
+
+        return params;
+    }
+
     /**
      * Log query split operation.
      *
@@ -38,8 +38,12 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
 import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -60,6 +64,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
@@ -81,6 +86,11 @@ public class JdbcRawAnalyticsManager
 
     private static final String DIM_NAME_OU = "ou.path";
 
+    /**
+     * Number of rows fetched per round trip when streaming raw data.
+     */
+    private static final int STREAM_FETCH_SIZE = 5000;
+
     private final JdbcTemplate jdbcTemplate;
 
     public JdbcRawAnalyticsManager( @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate )
@@ -98,15 +108,7 @@ public class JdbcRawAnalyticsManager
     {
         Assert.isTrue( params.hasStartEndDate(), "Start and end dates must be specified" );
 
-        List<DimensionalObject> dimensions = new ArrayList<>();
-        dimensions.addAll( params.getDimensions() );
-        dimensions.addAll( params.getOrgUnitLevelsAsDimensions() );
-
-        if ( params.isIncludePeriodStartEndDates() )
-        {
-            dimensions.add( new BaseDimensionalObject( PERIOD_START_DATE_ID, DimensionType.STATIC, PERIOD_START_DATE_NAME, Lists.newArrayList() ) );
-            dimensions.add( new BaseDimensionalObject( PERIOD_END_DATE_ID, DimensionType.STATIC, PERIOD_END_DATE_NAME, Lists.newArrayList() ) );
-        }
+        List<DimensionalObject> dimensions = getDimensions( params );
 
         String sql = getSelectStatement( params, dimensions );
 
@@ -129,10 +131,88 @@ public class JdbcRawAnalyticsManager
         return grid;
     }
 
+    @Override
+    public void streamRawDataValues( DataQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        Assert.isTrue( params.hasStartEndDate(), "Start and end dates must be specified" );
+
+        List<DimensionalObject> dimensions = getDimensions( params );
+
+        String sql = getSelectStatement( params, dimensions );
+
+        log.debug( "Stream raw data SQL: " + sql );
+
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+
+            // PostgreSQL only uses a cursor when auto-commit is off
+
+            boolean autoCommit = connection.getAutoCommit();
+
+            connection.setAutoCommit( false );
+
+            try ( PreparedStatement statement = connection.prepareStatement( sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY ) )
+            {
+                statement.setFetchSize( STREAM_FETCH_SIZE );
+
+                try ( ResultSet rs = statement.executeQuery() )
+                {
+                    while ( rs.next() )
+                    {
+                        List<Object> row = new ArrayList<>( dimensions.size() + 1 );
+
+                        for ( DimensionalObject dim : dimensions )
+                        {
+                            row.add( rs.getString( dim.getDimensionName() ) );
+                        }
+
+                        row.add( rs.getDouble( "value" ) );
+
+                        rowConsumer.accept( row );
+                    }
+                }
+
+                connection.commit();
+            }
+            catch ( SQLException | RuntimeException ex )
+            {
+                connection.rollback();
+                throw ex;
+            }
+            finally
+            {
+                connection.setAutoCommit( autoCommit );
+            }
+
+            return null;
+        } );
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns the dimensions to retrieve for the given query, including
+     * organisation unit levels and period start and end dates if specified.
+     *
+     * @param params the data query parameters.
+     * @return a list of dimensions.
+     */
+    private List<DimensionalObject> getDimensions( DataQueryParams params )
+    {
+        List<DimensionalObject> dimensions = new ArrayList<>();
+        dimensions.addAll( params.getDimensions() );
+        dimensions.addAll( params.getOrgUnitLevelsAsDimensions() );
+
+        if ( params.isIncludePeriodStartEndDates() )
+        {
+            dimensions.add( new BaseDimensionalObject( PERIOD_START_DATE_ID, DimensionType.STATIC, PERIOD_START_DATE_NAME, Lists.newArrayList() ) );
+            dimensions.add( new BaseDimensionalObject( PERIOD_END_DATE_ID, DimensionType.STATIC, PERIOD_END_DATE_NAME, Lists.newArrayList() ) );
+        }
+
+        return dimensions;
+    }
+
     /**
      * Returns a SQL select statement.
      *
@@ -1,4 +1,4 @@
-package org.hisp.dhis.datasource;
+package org.hisp.dhis.analytics.stats;
 
 /*
  * Copyright (c) 2004-2019, University of Oslo
@@ -28,62 +28,60 @@ package org.hisp.dhis.datasource;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import org.hisp.dhis.analytics.cache.AnalyticsCacheTier;
+import org.hisp.dhis.common.DxfNamespaces;
 
-import javax.sql.DataSource;
-
-import org.springframework.jdbc.datasource.AbstractDataSource;
-
-import com.google.common.collect.Iterators;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
 
 /**
- * Data source implementation which routes to the configured target data sources
- * in a circular fashion.
- * 
- * @author Lars Helge Overland
+ * Hit and miss counts of one analytics cache tier since startup.
  */
-public class CircularRoutingDataSource
-    extends AbstractDataSource
+@JacksonXmlRootElement( localName = "analyticsCacheTierStatistics", namespace = DxfNamespaces.DXF_2_0 )
+public class AnalyticsCacheTierStatistics
 {
-    private Iterator<DataSource> dataSourceIterator;
+    private final AnalyticsCacheTier tier;
 
-    public CircularRoutingDataSource()
-    {
-    }
-    
-    public CircularRoutingDataSource( List<DataSource> targetDataSources )
+    private final long hitCount;
+
+    private final long missCount;
+
+    public AnalyticsCacheTierStatistics( AnalyticsCacheTier tier, long hitCount, long missCount )
     {
-        this.dataSourceIterator = Iterators.cycle( Collections.synchronizedList( targetDataSources ) );
+        this.tier = tier;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
     }
-        
+
     // -------------------------------------------------------------------------
-    // AbstractDataSource implementation
+    // Getters
     // -------------------------------------------------------------------------
 
-    @Override
-    public Connection getConnection()
-        throws SQLException
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public AnalyticsCacheTier getTier()
     {
-        return getDataSource().getConnection();
+        return tier;
     }
 
-    @Override
-    public Connection getConnection( String username, String password )
-        throws SQLException
+    /**
+     * The number of lookups which were served from the cache.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getHitCount()
     {
-        return getDataSource().getConnection( username, password );
+        return hitCount;
     }
 
-    // -------------------------------------------------------------------------
-    // Private methods
-    // -------------------------------------------------------------------------
-
-    private synchronized DataSource getDataSource()
+    /**
+     * The number of lookups which were not served from the cache.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getMissCount()
     {
-        return dataSourceIterator.next();
+        return missCount;
     }
 }
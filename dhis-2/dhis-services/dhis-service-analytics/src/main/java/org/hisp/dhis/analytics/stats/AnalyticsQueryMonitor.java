@@ -0,0 +1,82 @@
+package org.hisp.dhis.analytics.stats;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.analytics.DataQueryParams;
+
+/**
+ * Collects metrics of analytics queries and SQL statements, and keeps a log
+ * of SQL statements which exceed the slow query threshold.
+ */
+public interface AnalyticsQueryMonitor
+{
+    /**
+     * Starts a record for the analytics query with the given key and binds it
+     * to the current thread. Returns null if a record is already bound to the
+     * current thread, in which case metrics are added to the existing record.
+     *
+     * @param key the query key.
+     * @return the {@link AnalyticsQueryRecord}, or null.
+     */
+    AnalyticsQueryRecord startQuery( String key );
+
+    /**
+     * Completes the given record and unbinds it from the current thread. Does
+     * nothing if the given record is null.
+     *
+     * @param record the {@link AnalyticsQueryRecord}.
+     */
+    void endQuery( AnalyticsQueryRecord record );
+
+    /**
+     * Returns the record bound to the current thread, or null if none.
+     */
+    AnalyticsQueryRecord getCurrentQuery();
+
+    /**
+     * Records an executed analytics SQL statement. The statement is added to
+     * the slow query log if the execution time exceeds the slow query threshold.
+     *
+     * @param params the {@link DataQueryParams} of the sub-query.
+     * @param sql the SQL statement.
+     * @param millis the execution time in milliseconds.
+     * @param rows the number of rows returned.
+     */
+    void recordSql( DataQueryParams params, String sql, long millis, long rows );
+
+    /**
+     * Returns a snapshot of the analytics query statistics.
+     */
+    AnalyticsQueryStatistics getStatistics();
+
+    /**
+     * Clears all records and totals.
+     */
+    void clear();
+}
@@ -0,0 +1,287 @@
+package org.hisp.dhis.analytics.stats;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Date;
+
+import org.hisp.dhis.common.DxfNamespaces;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Metrics of a single analytics query, covering query planning, SQL execution
+ * and building of the response grid. A record is bound to the thread which
+ * handles the query and is not thread-safe.
+ */
+@JacksonXmlRootElement( localName = "analyticsQueryRecord", namespace = DxfNamespaces.DXF_2_0 )
+public class AnalyticsQueryRecord
+{
+    /**
+     * The key of the query.
+     */
+    private final String key;
+
+    /**
+     * The time the query was started.
+     */
+    private final Date started;
+
+    /**
+     * The total time of the query in milliseconds.
+     */
+    private long totalMillis;
+
+    /**
+     * The time spent planning sub-queries in milliseconds.
+     */
+    private long plannerMillis;
+
+    /**
+     * The time spent waiting for sub-query results in milliseconds.
+     */
+    private long executionMillis;
+
+    /**
+     * The time spent building the response grid in milliseconds, excluding
+     * planning and execution of sub-queries.
+     */
+    private long gridMillis;
+
+    /**
+     * The number of query groups which were executed sequentially.
+     */
+    private int queryGroups;
+
+    /**
+     * The number of planned sub-queries.
+     */
+    private int subQueries;
+
+    /**
+     * The number of aggregated values returned by sub-queries.
+     */
+    private long rows;
+
+    /**
+     * The number of sub-query cache hits.
+     */
+    private int subQueryCacheHits;
+
+    /**
+     * The number of sub-query cache misses.
+     */
+    private int subQueryCacheMisses;
+
+    /**
+     * Whether the response was served from the response cache.
+     */
+    private boolean responseCacheHit = true;
+
+    public AnalyticsQueryRecord( String key )
+    {
+        this.key = key;
+        this.started = new Date();
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Adds the metrics of a planned query to this record.
+     *
+     * @param plannerMillis the time spent planning the query.
+     * @param queryGroups the number of sequential query groups.
+     * @param subQueries the number of planned sub-queries.
+     */
+    public void addPlan( long plannerMillis, int queryGroups, int subQueries )
+    {
+        this.plannerMillis += plannerMillis;
+        this.queryGroups += queryGroups;
+        this.subQueries += subQueries;
+    }
+
+    /**
+     * Adds the metrics of the execution of planned sub-queries to this record.
+     *
+     * @param executionMillis the time spent waiting for sub-query results.
+     * @param rows the number of aggregated values returned.
+     */
+    public void addExecution( long executionMillis, long rows )
+    {
+        this.executionMillis += executionMillis;
+        this.rows += rows;
+    }
+
+    /**
+     * Counts a sub-query cache lookup.
+     *
+     * @param hit whether the lookup was a hit.
+     */
+    public void addSubQueryCacheLookup( boolean hit )
+    {
+        if ( hit )
+        {
+            subQueryCacheHits++;
+        }
+        else
+        {
+            subQueryCacheMisses++;
+        }
+    }
+
+    /**
+     * Sets the time spent building the response grid. The time spent planning
+     * and executing sub-queries is subtracted from the given time.
+     *
+     * @param millis the total time spent building the response grid.
+     */
+    public void setGridBuildMillis( long millis )
+    {
+        this.responseCacheHit = false;
+        this.gridMillis = Math.max( 0, millis - plannerMillis - executionMillis );
+    }
+
+    /**
+     * Marks this record as completed with the given total time.
+     *
+     * @param millis the total time of the query.
+     */
+    public void complete( long millis )
+    {
+        this.totalMillis = millis;
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public String getKey()
+    {
+        return key;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public Date getStarted()
+    {
+        return started;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getTotalMillis()
+    {
+        return totalMillis;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getPlannerMillis()
+    {
+        return plannerMillis;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getExecutionMillis()
+    {
+        return executionMillis;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getGridMillis()
+    {
+        return gridMillis;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getQueryGroups()
+    {
+        return queryGroups;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getSubQueries()
+    {
+        return subQueries;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getRows()
+    {
+        return rows;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getSubQueryCacheHits()
+    {
+        return subQueryCacheHits;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getSubQueryCacheMisses()
+    {
+        return subQueryCacheMisses;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isResponseCacheHit()
+    {
+        return responseCacheHit;
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper( this )
+            .add( "totalMillis", totalMillis )
+            .add( "plannerMillis", plannerMillis )
+            .add( "executionMillis", executionMillis )
+            .add( "gridMillis", gridMillis )
+            .add( "queryGroups", queryGroups )
+            .add( "subQueries", subQueries )
+            .add( "rows", rows )
+            .add( "subQueryCacheHits", subQueryCacheHits )
+            .add( "subQueryCacheMisses", subQueryCacheMisses )
+            .add( "responseCacheHit", responseCacheHit ).toString();
+    }
+}
@@ -0,0 +1,161 @@
+package org.hisp.dhis.analytics.stats;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.common.DxfNamespaces;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+
+/**
+ * Snapshot of the analytics query workload, with totals since startup, the
+ * most recent query and slow SQL records and the hit and miss counts of each
+ * analytics cache tier.
+ */
+@JacksonXmlRootElement( localName = "analyticsQueryStatistics", namespace = DxfNamespaces.DXF_2_0 )
+public class AnalyticsQueryStatistics
+{
+    private long queryCount;
+
+    private long sqlCount;
+
+    private long sqlMillis;
+
+    private long slowSqlCount;
+
+    private int slowQueryThreshold;
+
+    private List<AnalyticsQueryRecord> recentQueries = new ArrayList<>();
+
+    private List<AnalyticsSqlRecord> slowQueries = new ArrayList<>();
+
+    private List<AnalyticsCacheTierStatistics> cacheTiers = new ArrayList<>();
+
+    public AnalyticsQueryStatistics( long queryCount, long sqlCount, long sqlMillis, long slowSqlCount,
+        int slowQueryThreshold, List<AnalyticsQueryRecord> recentQueries, List<AnalyticsSqlRecord> slowQueries,
+        List<AnalyticsCacheTierStatistics> cacheTiers )
+    {
+        this.queryCount = queryCount;
+        this.sqlCount = sqlCount;
+        this.sqlMillis = sqlMillis;
+        this.slowSqlCount = slowSqlCount;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.recentQueries = recentQueries;
+        this.slowQueries = slowQueries;
+        this.cacheTiers = cacheTiers;
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    /**
+     * The number of analytics queries since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getQueryCount()
+    {
+        return queryCount;
+    }
+
+    /**
+     * The number of analytics SQL statements since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSqlCount()
+    {
+        return sqlCount;
+    }
+
+    /**
+     * The total execution time of analytics SQL statements since startup.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSqlMillis()
+    {
+        return sqlMillis;
+    }
+
+    /**
+     * The number of analytics SQL statements since startup which exceeded
+     * the slow query threshold.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public long getSlowSqlCount()
+    {
+        return slowSqlCount;
+    }
+
+    /**
+     * The slow query threshold in milliseconds.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getSlowQueryThreshold()
+    {
+        return slowQueryThreshold;
+    }
+
+    @JsonProperty
+    @JacksonXmlElementWrapper( localName = "recentQueries", namespace = DxfNamespaces.DXF_2_0 )
+    @JacksonXmlProperty( localName = "recentQuery", namespace = DxfNamespaces.DXF_2_0 )
+    public List<AnalyticsQueryRecord> getRecentQueries()
+    {
+        return recentQueries;
+    }
+
+    @JsonProperty
+    @JacksonXmlElementWrapper( localName = "slowQueries", namespace = DxfNamespaces.DXF_2_0 )
+    @JacksonXmlProperty( localName = "slowQuery", namespace = DxfNamespaces.DXF_2_0 )
+    public List<AnalyticsSqlRecord> getSlowQueries()
+    {
+        return slowQueries;
+    }
+
+    /**
+     * The hit and miss counts of each analytics cache tier since startup,
+     * which are not reset when the statistics are cleared.
+     */
+    @JsonProperty
+    @JacksonXmlElementWrapper( localName = "cacheTiers", namespace = DxfNamespaces.DXF_2_0 )
+    @JacksonXmlProperty( localName = "cacheTier", namespace = DxfNamespaces.DXF_2_0 )
+    public List<AnalyticsCacheTierStatistics> getCacheTiers()
+    {
+        return cacheTiers;
+    }
+}
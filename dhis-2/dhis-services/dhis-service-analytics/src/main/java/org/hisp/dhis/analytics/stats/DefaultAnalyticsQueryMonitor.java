@@ -0,0 +1,205 @@
+package org.hisp.dhis.analytics.stats;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.AnalyticsCacheTier;
+import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.EvictingQueue;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+
+@Component( "org.hisp.dhis.analytics.stats.AnalyticsQueryMonitor" )
+public class DefaultAnalyticsQueryMonitor
+    implements AnalyticsQueryMonitor
+{
+    private static final Log log = LogFactory.getLog( DefaultAnalyticsQueryMonitor.class );
+
+    private static final int MAX_RECENT_QUERIES = 200;
+    private static final int MAX_SLOW_QUERIES = 200;
+
+    private final SystemSettingManager systemSettingManager;
+
+    private final AnalyticsCache analyticsCache;
+
+    private final ThreadLocal<AnalyticsQueryRecord> currentQuery = new ThreadLocal<>();
+
+    private final Queue<AnalyticsQueryRecord> recentQueries = Queues.synchronizedQueue( EvictingQueue.create( MAX_RECENT_QUERIES ) );
+
+    private final Queue<AnalyticsSqlRecord> slowQueries = Queues.synchronizedQueue( EvictingQueue.create( MAX_SLOW_QUERIES ) );
+
+    private final AtomicLong queryCount = new AtomicLong();
+
+    private final AtomicLong sqlCount = new AtomicLong();
+
+    private final AtomicLong sqlMillis = new AtomicLong();
+
+    private final AtomicLong slowSqlCount = new AtomicLong();
+
+    public DefaultAnalyticsQueryMonitor( SystemSettingManager systemSettingManager, AnalyticsCache analyticsCache )
+    {
+        checkNotNull( systemSettingManager );
+        checkNotNull( analyticsCache );
+
+        this.systemSettingManager = systemSettingManager;
+        this.analyticsCache = analyticsCache;
+    }
+
+    // -------------------------------------------------------------------------
+    // AnalyticsQueryMonitor implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public AnalyticsQueryRecord startQuery( String key )
+    {
+        if ( currentQuery.get() != null )
+        {
+            return null;
+        }
+
+        AnalyticsQueryRecord record = new AnalyticsQueryRecord( key );
+
+        currentQuery.set( record );
+
+        return record;
+    }
+
+    @Override
+    public void endQuery( AnalyticsQueryRecord record )
+    {
+        if ( record == null )
+        {
+            return;
+        }
+
+        currentQuery.remove();
+
+        record.complete( System.currentTimeMillis() - record.getStarted().getTime() );
+
+        recentQueries.add( record );
+        queryCount.incrementAndGet();
+
+        log.debug( String.format( "Analytics query completed: %s", record ) );
+    }
+
+    @Override
+    public AnalyticsQueryRecord getCurrentQuery()
+    {
+        return currentQuery.get();
+    }
+
+    @Override
+    public void recordSql( DataQueryParams params, String sql, long millis, long rows )
+    {
+        sqlCount.incrementAndGet();
+        sqlMillis.addAndGet( millis );
+
+        int threshold = getSlowQueryThreshold();
+
+        if ( threshold > 0 && millis >= threshold )
+        {
+            String partitions = !params.isSkipPartitioning() && params.hasPartitions() ?
+                TextUtils.getCommaDelimitedString( params.getPartitions().getPartitions() ) : null;
+
+            slowQueries.add( new AnalyticsSqlRecord( params.getKey(), params.getTableName(), partitions, sql, millis, rows ) );
+            slowSqlCount.incrementAndGet();
+
+            log.warn( String.format( "Slow analytics query in %d ms, rows: %d, table: %s, partitions: %s, SQL: %s",
+                millis, rows, params.getTableName(), partitions, sql ) );
+        }
+    }
+
+    @Override
+    public AnalyticsQueryStatistics getStatistics()
+    {
+        ArrayList<AnalyticsQueryRecord> queries;
+        ArrayList<AnalyticsSqlRecord> slow;
+
+        synchronized ( recentQueries )
+        {
+            queries = Lists.newArrayList( recentQueries );
+        }
+
+        synchronized ( slowQueries )
+        {
+            slow = Lists.newArrayList( slowQueries );
+        }
+
+        return new AnalyticsQueryStatistics( queryCount.get(), sqlCount.get(), sqlMillis.get(),
+            slowSqlCount.get(), getSlowQueryThreshold(), Lists.reverse( queries ), Lists.reverse( slow ),
+            getCacheTierStatistics() );
+    }
+
+    @Override
+    public void clear()
+    {
+        recentQueries.clear();
+        slowQueries.clear();
+        queryCount.set( 0 );
+        sqlCount.set( 0 );
+        sqlMillis.set( 0 );
+        slowSqlCount.set( 0 );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private int getSlowQueryThreshold()
+    {
+        return (Integer) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_SLOW_QUERY_THRESHOLD );
+    }
+
+    private List<AnalyticsCacheTierStatistics> getCacheTierStatistics()
+    {
+        List<AnalyticsCacheTierStatistics> cacheTiers = new ArrayList<>();
+
+        for ( AnalyticsCacheTier tier : AnalyticsCacheTier.values() )
+        {
+            cacheTiers.add( new AnalyticsCacheTierStatistics( tier,
+                analyticsCache.getHitCount( tier ), analyticsCache.getMissCount( tier ) ) );
+        }
+
+        return cacheTiers;
+    }
+}
@@ -70,6 +70,8 @@ import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 
+import com.google.common.collect.Lists;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import static org.hisp.dhis.analytics.ColumnDataType.TEXT;
@@ -207,6 +209,12 @@ public abstract class AbstractJdbcTableManager
 
         table.getPartitionTables().stream().forEach( p -> swapTable( p.getTempTableName(), p.getTableName() ) );
 
+        if ( params.isPartialUpdate() && !params.isLatestUpdate() && table.getTableType().hasLatestPartition() )
+        {
+            restoreLatestPartitionData( table );
+            dropTable( PartitionUtils.getPartitionName( table.getTableName(), AnalyticsTablePartition.LATEST_PARTITION ) );
+        }
+
         if ( !skipMasterTable )
         {
             swapTable( table.getTempTableName(), table.getTableName() );
@@ -218,6 +226,23 @@ public abstract class AbstractJdbcTableManager
         }
     }
 
+    /**
+     * Override in order to remove updated data before the latest partition
+     * is swapped.
+     */
+    @Override
+    public void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+    }
+
+    /**
+     * Override in order to support pre-aggregated rollup tables.
+     */
+    @Override
+    public void updateRollupTables( AnalyticsTableUpdateParams params )
+    {
+    }
+
     @Override
     public void dropTempTable( AnalyticsTable table )
     {
@@ -263,6 +288,36 @@ public abstract class AbstractJdbcTableManager
         return null;
     }
 
+    @Override
+    public long getEstimatedRowCount( AnalyticsTablePartition partition )
+    {
+        final String sql =
+            "select cast(reltuples as bigint) from pg_class " +
+            "where relname = '" + partition.getTableName() + "'";
+
+        try
+        {
+            List<Long> rows = jdbcTemplate.queryForList( sql, Long.class );
+
+            return rows.isEmpty() || rows.get( 0 ) == null ? 0 : Math.max( 0, rows.get( 0 ) );
+        }
+        catch ( BadSqlGrammarException ex )
+        {
+            log.debug( ex.getMessage() );
+
+            return 0;
+        }
+    }
+
+    /**
+     * Override in order to support population of partitions in chunks.
+     */
+    @Override
+    public List<AnalyticsTablePartition> getPartitionChunks( AnalyticsTablePartition partition, int chunks )
+    {
+        return Lists.newArrayList( partition );
+    }
+
     @Override
     public int invokeAnalyticsTableSqlHooks()
     {
@@ -501,10 +556,6 @@ public abstract class AbstractJdbcTableManager
         } ).collect( Collectors.toList() );
     }
 
-    // -------------------------------------------------------------------------
-    // Private supportive methods
-    // -------------------------------------------------------------------------
-
     /**
      * Swaps a database table, meaning drops the real table and renames the
      * temporary table to become the real table.
@@ -512,7 +563,7 @@ public abstract class AbstractJdbcTableManager
      * @param tempTableName the temporary table name.
      * @param realTableName the real table name.
      */
-    private void swapTable( String tempTableName, String realTableName )
+    protected void swapTable( String tempTableName, String realTableName )
     {
         final String sql =
             "drop table if exists " + realTableName + " cascade; " +
@@ -521,6 +572,67 @@ public abstract class AbstractJdbcTableManager
         executeSilently( sql );
     }
 
+    // -------------------------------------------------------------------------
+    // Private supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Moves the rows of the latest partition for years which are not part of
+     * the given table back into the yearly partitions of the real master table.
+     * Updated data for these years was removed from the yearly partitions when
+     * the latest partition was populated, and would otherwise be lost when the
+     * latest partition is dropped. Yearly partitions which do not exist are
+     * created.
+     *
+     * @param table the analytics table.
+     */
+    private void restoreLatestPartitionData( AnalyticsTable table )
+    {
+        final String latestPartitionName = PartitionUtils.getPartitionName( table.getTableName(), AnalyticsTablePartition.LATEST_PARTITION );
+
+        if ( !partitionManager.tableExists( latestPartitionName ) )
+        {
+            return;
+        }
+
+        final Set<Integer> updatedYears = table.getPartitionTables().stream()
+            .filter( p -> !p.isLatestPartition() )
+            .map( AnalyticsTablePartition::getYear )
+            .collect( Collectors.toSet() );
+
+        final List<Integer> latestYears = jdbcTemplate.queryForList(
+            "select distinct year from " + latestPartitionName + " where year is not null", Integer.class );
+
+        for ( Integer year : latestYears )
+        {
+            if ( updatedYears.contains( year ) )
+            {
+                continue;
+            }
+
+            final String partitionName = PartitionUtils.getPartitionName( table.getTableName(), year );
+
+            if ( !partitionManager.tableExists( partitionName ) )
+            {
+                final String sqlCreate = "create table " + partitionName + " (check (year = " + year + ")) inherits (" + table.getTableName() + ")";
+
+                log.info( String.format( "Creating partition table: %s", partitionName ) );
+
+                jdbcTemplate.execute( sqlCreate );
+            }
+
+            final String columns = jdbcTemplate.queryForList(
+                "select column_name from information_schema.columns where table_name = '" + partitionName + "' order by ordinal_position", String.class )
+                .stream().map( c -> quote( c ) ).collect( Collectors.joining( "," ) );
+
+            final String sql =
+                "insert into " + partitionName + " (" + columns + ") " +
+                "select " + columns + " from " + latestPartitionName + " where year = " + year;
+
+            invokeTimeAndLog( sql, String.format( "Restore latest partition data for year %d into %s", year, partitionName ) );
+        }
+    }
+
     /**
      * Updates table inheritance of a table partition from the temp master table
      * to the real master table.
@@ -43,6 +43,7 @@ import org.hisp.dhis.analytics.AnalyticsTableGenerator;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.commons.collection.CollectionUtils;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.message.MessageService;
@@ -74,21 +75,25 @@ public class DefaultAnalyticsTableGenerator
 
     private Notifier notifier;
 
+    private AnalyticsCache analyticsCache;
+
     public DefaultAnalyticsTableGenerator( List<AnalyticsTableService> analyticsTableServices,
         ResourceTableService resourceTableService, MessageService messageService,
-        SystemSettingManager systemSettingManager, Notifier notifier )
+        SystemSettingManager systemSettingManager, Notifier notifier, AnalyticsCache analyticsCache )
     {
         checkNotNull( analyticsTableServices );
         checkNotNull( resourceTableService );
         checkNotNull( messageService );
         checkNotNull( systemSettingManager );
         checkNotNull( notifier );
+        checkNotNull( analyticsCache );
 
         this.analyticsTableServices = analyticsTableServices;
         this.resourceTableService = resourceTableService;
         this.messageService = messageService;
         this.systemSettingManager = systemSettingManager;
         this.notifier = notifier;
+        this.analyticsCache = analyticsCache;
     }
 
     // -------------------------------------------------------------------------
@@ -112,7 +117,7 @@ public class DefaultAnalyticsTableGenerator
         {
             notifier.clear( jobId ).notify( jobId, "Analytics table update process started" );
 
-            if ( !params.isSkipResourceTables() )
+            if ( !params.isSkipResourceTables() && !params.isLatestUpdate() )
             {
                 notifier.notify( jobId, "Updating resource tables" );
                 generateResourceTables();
@@ -122,7 +127,7 @@ public class DefaultAnalyticsTableGenerator
             {
                 AnalyticsTableType tableType = service.getAnalyticsTableType();
 
-                if ( !skipTypes.contains( tableType ) )
+                if ( !skipTypes.contains( tableType ) && ( !params.isLatestUpdate() || tableType.hasLatestPartition() ) )
                 {
                     notifier.notify( jobId, "Updating tables: " + tableType );
 
@@ -144,9 +149,26 @@ public class DefaultAnalyticsTableGenerator
 
             throw ex;
         }
+        finally
+        {
+            analyticsCache.invalidateAll();
+        }
 
-        systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE, params.getStartTime() );
-        systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_RUNTIME, DateUtils.getPrettyInterval( clock.getSplitTime() ) );
+        if ( params.isLatestUpdate() )
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE, params.getStartTime() );
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_RUNTIME, DateUtils.getPrettyInterval( clock.getSplitTime() ) );
+        }
+        else
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE, params.getStartTime() );
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_RUNTIME, DateUtils.getPrettyInterval( clock.getSplitTime() ) );
+        }
+
+        if ( !params.isPartialUpdate() && !skipTypes.contains( AnalyticsTableType.DATA_VALUE ) )
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_FULL_ANALYTICS_TABLES_UPDATE, params.getStartTime() );
+        }
     }
 
     @Override
@@ -156,6 +178,8 @@ public class DefaultAnalyticsTableGenerator
         {
             service.dropTables();
         }
+
+        analyticsCache.invalidateAll();
     }
 
     @Override
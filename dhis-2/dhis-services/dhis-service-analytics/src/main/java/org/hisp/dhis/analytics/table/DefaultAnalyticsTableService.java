@@ -54,6 +54,7 @@ import com.google.common.collect.Lists;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -69,6 +70,11 @@ public class DefaultAnalyticsTableService
 {
     private static final Log log = LogFactory.getLog( DefaultAnalyticsTableService.class );
 
+    /**
+     * Max number of chunks to split a large partition into for population.
+     */
+    private static final int MAX_PARTITION_CHUNKS = 4;
+
     private AnalyticsTableManager tableManager;
 
     private OrganisationUnitService organisationUnitService;
@@ -193,10 +199,25 @@ public class DefaultAnalyticsTableService
         analyzeTables( tables );
 
         clock.logTime( "Analyzed tables" );
+
+        if ( params.isLatestUpdate() )
+        {
+            notifier.notify( jobId, "Removing updated and deleted data" );
+
+            tableManager.removeUpdatedData( params, tables );
+
+            clock.logTime( "Removed updated and deleted data" );
+        }
+
         notifier.notify( jobId, "Swapping analytics tables" );
 
         swapTables( params, tables );
 
+        clock.logTime( "Swapped analytics tables" );
+        notifier.notify( jobId, "Updating rollup tables" );
+
+        tableManager.updateRollupTables( params );
+
         clock.logTime( "Table update done: " + tableType.getTableName() );
         notifier.notify( jobId, "Table update done" );
     }
@@ -252,7 +273,7 @@ public class DefaultAnalyticsTableService
      */
     private void populateTables( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
     {
-        List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
+        List<AnalyticsTablePartition> partitions = getScheduledPartitions( PartitionUtils.getTablePartitions( tables ), getProcessNo() );
 
         int taskNo = Math.min( getProcessNo(), partitions.size() );
 
@@ -270,6 +291,51 @@ public class DefaultAnalyticsTableService
         ConcurrentUtils.waitForCompletion( futures );
     }
 
+    /**
+     * Returns the given partitions ordered by estimated number of rows, largest
+     * first, so that the largest partitions are not populated last while other
+     * processes are idle. Partitions which are estimated to be larger than the
+     * average work per process are split into chunks which are populated in
+     * parallel, where supported by the table manager.
+     *
+     * @param partitions the list of {@link AnalyticsTablePartition}.
+     * @param processNo the number of processes.
+     * @return a list of {@link AnalyticsTablePartition}.
+     */
+    private List<AnalyticsTablePartition> getScheduledPartitions( List<AnalyticsTablePartition> partitions, int processNo )
+    {
+        partitions.forEach( p -> p.setEstimatedRows( tableManager.getEstimatedRowCount( p ) ) );
+
+        long totalRows = partitions.stream().mapToLong( AnalyticsTablePartition::getEstimatedRows ).sum();
+        long rowsPerProcess = totalRows / Math.max( 1, processNo );
+
+        List<AnalyticsTablePartition> scheduledPartitions = new ArrayList<>();
+
+        for ( AnalyticsTablePartition partition : partitions )
+        {
+            if ( processNo > 1 && rowsPerProcess > 0 && partition.getEstimatedRows() > rowsPerProcess )
+            {
+                int chunkNo = (int) Math.min( MAX_PARTITION_CHUNKS, ( partition.getEstimatedRows() + rowsPerProcess - 1 ) / rowsPerProcess );
+
+                List<AnalyticsTablePartition> chunks = tableManager.getPartitionChunks( partition, chunkNo );
+
+                chunks.forEach( c -> c.setEstimatedRows( partition.getEstimatedRows() / chunks.size() ) );
+
+                scheduledPartitions.addAll( chunks );
+            }
+            else
+            {
+                scheduledPartitions.add( partition );
+            }
+        }
+
+        scheduledPartitions.sort( Comparator.comparingLong( AnalyticsTablePartition::getEstimatedRows ).reversed() );
+
+        log.info( String.format( "Scheduled %d partitions in %d population tasks, estimated rows: %d", partitions.size(), scheduledPartitions.size(), totalRows ) );
+
+        return scheduledPartitions;
+    }
+
     /**
      * Applies aggregation levels to the given analytics tables.
      *
@@ -39,13 +39,17 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsIndex;
+import org.hisp.dhis.analytics.AnalyticsRollup;
 import org.hisp.dhis.analytics.AnalyticsTable;
 import org.hisp.dhis.analytics.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
@@ -54,10 +58,12 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.util.AnalyticsSqlUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryOptionGroupSet;
 import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.commons.collection.ListUtils;
@@ -76,6 +82,7 @@ import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.util.ObjectUtils;
+import org.joda.time.DateTime;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -144,6 +151,11 @@ public class JdbcAnalyticsTableManager
     @Transactional
     public List<AnalyticsTable> getAnalyticsTables( AnalyticsTableUpdateParams params )
     {
+        if ( params.isLatestUpdate() )
+        {
+            return getLatestAnalyticsTables( params );
+        }
+
         AnalyticsTable table = getAnalyticsTable( getDataYears( params.getFromDate() ), getDimensionColumns(), getValueColumns() );
 
         return table.hasPartitionTables() ? newArrayList( table ) : newArrayList();
@@ -182,6 +194,11 @@ public class JdbcAnalyticsTableManager
     @Override
     protected List<String> getPartitionChecks( AnalyticsTablePartition partition )
     {
+        if ( partition.isLatestPartition() )
+        {
+            return newArrayList();
+        }
+
         return newArrayList(
             "year = " + partition.getYear() + "",
             "pestartdate < '" + DateUtils.getMediumDateString( partition.getEndDate() ) + "'" );
@@ -198,6 +215,13 @@ public class JdbcAnalyticsTableManager
         final String zeroValueCondition = skipZeroValues ? "" : " or de.zeroissignificant = true";
         final String zeroValueClause = "(dv.value != '0' or de.aggregationtype in ('" + AggregationType.AVERAGE + ',' + AggregationType.AVERAGE_SUM_ORG_UNIT + "')" + zeroValueCondition + ") ";
         final String intClause = zeroValueClause + numericClause;
+        final boolean singlePass = (Boolean) systemSettingManager.getSystemSetting( SettingKey.SINGLE_PASS_ANALYTICS_TABLE_POPULATION );
+
+        if ( singlePass )
+        {
+            populateTableSinglePass( params, partition, dbl, intClause );
+            return;
+        }
 
         populateTable( params, partition, "cast(dv.value as " + dbl + ")", "null", ValueType.NUMERIC_TYPES, intClause );
 
@@ -208,6 +232,58 @@ public class JdbcAnalyticsTableManager
         populateTable( params, partition, "null", "dv.value", Sets.union( ValueType.TEXT_TYPES, ValueType.DATE_TYPES ), null );
     }
 
+    /**
+     * Populates the given analytics table with a single statement for all
+     * value types, which means the data value table is scanned once per partition.
+     * The numeric and text value columns are derived from the data element value
+     * type with case expressions. The result is equal to populating the table with
+     * one statement per group of value types.
+     *
+     * @param dbl the double column type.
+     * @param intClause the where clause to constrain numeric data values.
+     */
+    private void populateTableSinglePass( AnalyticsTableUpdateParams params, AnalyticsTablePartition partition,
+        String dbl, String intClause )
+    {
+        final String numericTypes = getQuotedValueTypes( ValueType.NUMERIC_TYPES );
+        final String booleanTypes = getQuotedValueTypes( ValueType.BOOLEAN_TYPES );
+        final String textTypes = getQuotedValueTypes( Sets.union( ValueType.TEXT_TYPES, ValueType.DATE_TYPES ) );
+        final String booleanType = getQuotedValueTypes( Sets.newHashSet( ValueType.BOOLEAN ) );
+
+        final String valueExpression =
+            "(case " +
+            "when de.valuetype in (" + numericTypes + ") then cast(dv.value as " + dbl + ") " +
+            "when de.valuetype in (" + booleanTypes + ") and dv.value = 'true' then 1 " +
+            "when de.valuetype in (" + booleanType + ") and dv.value = 'false' then 0 " +
+            "else null end)";
+
+        final String textValueExpression =
+            "(case when de.valuetype in (" + textTypes + ") then dv.value else null end)";
+
+        final String whereClause =
+            "((de.valuetype in (" + numericTypes + ") and " + intClause + ") " +
+            "or (de.valuetype in (" + booleanTypes + ") and dv.value = 'true') " +
+            "or (de.valuetype in (" + booleanType + ") and dv.value = 'false') " +
+            "or (de.valuetype in (" + textTypes + "))) ";
+
+        Set<ValueType> valueTypes = Sets.newHashSet( ValueType.NUMERIC_TYPES );
+        valueTypes.addAll( ValueType.BOOLEAN_TYPES );
+        valueTypes.addAll( ValueType.TEXT_TYPES );
+        valueTypes.addAll( ValueType.DATE_TYPES );
+
+        populateTable( params, partition, valueExpression, textValueExpression, valueTypes, whereClause );
+    }
+
+    /**
+     * Returns a quoted, comma delimited string of the given value types.
+     *
+     * @param valueTypes the set of {@link ValueType}.
+     */
+    private String getQuotedValueTypes( Set<ValueType> valueTypes )
+    {
+        return TextUtils.getQuotedCommaDelimitedString( ObjectUtils.asStringList( valueTypes ) );
+    }
+
     /**
      * Populates the given analytics table.
      *
@@ -220,13 +296,14 @@ public class JdbcAnalyticsTableManager
         String valueExpression, String textValueExpression, Set<ValueType> valueTypes, String whereClause )
     {
         final String tableName = partition.getTempTableName();
-        final String valTypes = TextUtils.getQuotedCommaDelimitedString( ObjectUtils.asStringList( valueTypes ) );
+        final String valTypes = getQuotedValueTypes( valueTypes );
         final boolean respectStartEndDates = (Boolean) systemSettingManager.getSystemSetting( SettingKey.RESPECT_META_DATA_START_END_DATES_IN_ANALYTICS_TABLE_EXPORT );
-        final String approvalClause = getApprovalJoinClause( partition.getYear() );
+        final Integer year = partition.isLatestPartition() ? null : partition.getYear();
+        final String approvalClause = getApprovalJoinClause( year );
 
         String sql = "insert into " + partition.getTempTableName() + " (";
 
-        List<AnalyticsTableColumn> columns = getDimensionColumns( partition.getYear() );
+        List<AnalyticsTableColumn> columns = getDimensionColumns( year, partition.isLatestPartition() );
         List<AnalyticsTableColumn> values = partition.getMasterTable().getValueColumns();
 
         validateDimensionColumns( columns );
@@ -268,7 +345,7 @@ public class JdbcAnalyticsTableManager
             approvalClause +
             "where de.valuetype in (" + valTypes + ") " +
             "and de.domaintype = 'AGGREGATE' " +
-            "and ps.year = " + partition.getYear() + " " +
+            getPartitionClause( partition ) +
             "and dv.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
             "and dv.value is not null " +
             "and dv.deleted is false ";
@@ -290,6 +367,229 @@ public class JdbcAnalyticsTableManager
         invokeTimeAndLog( sql, String.format( "Populate %s %s", tableName, valueTypes ) );
     }
 
+    /**
+     * Returns the where clause restricting the data to the given partition. The
+     * latest partition is restricted by the last updated time of data values,
+     * other partitions are restricted by year.
+     *
+     * @param partition the {@link AnalyticsTablePartition}.
+     */
+    private String getPartitionClause( AnalyticsTablePartition partition )
+    {
+        if ( partition.isLatestPartition() )
+        {
+            return "and dv.lastupdated > '" + getLongDateString( partition.getStartDate() ) + "' ";
+        }
+
+        String sql = "and ps.year = " + partition.getYear() + " ";
+
+        if ( partition.getChunkStartDate() != null )
+        {
+            sql += "and pe.startdate >= '" + getLongDateString( partition.getChunkStartDate() ) + "' ";
+        }
+
+        if ( partition.getChunkEndDate() != null )
+        {
+            sql += "and pe.startdate < '" + getLongDateString( partition.getChunkEndDate() ) + "' ";
+        }
+
+        return sql;
+    }
+
+    /**
+     * Splits yearly partitions into chunks of equal date ranges based on the
+     * start date of periods. The first chunk has no lower bound and the last
+     * chunk has no upper bound, so that every data value of the partition is
+     * included in exactly one chunk.
+     */
+    @Override
+    public List<AnalyticsTablePartition> getPartitionChunks( AnalyticsTablePartition partition, int chunks )
+    {
+        if ( chunks < 2 || partition.isLatestPartition() || partition.getYear() == null ||
+            partition.getStartDate() == null || partition.getEndDate() == null )
+        {
+            return newArrayList( partition );
+        }
+
+        final long start = partition.getStartDate().getTime();
+        final long span = partition.getEndDate().getTime() - start;
+
+        List<AnalyticsTablePartition> partitionChunks = new ArrayList<>();
+
+        for ( int i = 0; i < chunks; i++ )
+        {
+            Date chunkStartDate = i == 0 ? null : new Date( start + ( span * i / chunks ) );
+            Date chunkEndDate = i == ( chunks - 1 ) ? null : new Date( start + ( span * ( i + 1 ) / chunks ) );
+
+            partitionChunks.add( partition.getChunk( chunkStartDate, chunkEndDate ) );
+        }
+
+        return partitionChunks;
+    }
+
+    @Override
+    public void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+        final Date lastUpdate = getLastLatestPartitionUpdate();
+
+        if ( lastUpdate == null )
+        {
+            return;
+        }
+
+        for ( AnalyticsTable table : tables )
+        {
+            for ( AnalyticsTablePartition partition : table.getPartitionTables() )
+            {
+                if ( partition.isLatestPartition() )
+                {
+                    final String sql =
+                        "delete from " + table.getTableName() + " ax " +
+                        "using (" +
+                            "select de.uid as dx, co.uid as co, ao.uid as ao, ps.iso as pe, ou.uid as ou, ps.year as year " +
+                            "from datavalue dv " +
+                            "inner join dataelement de on dv.dataelementid=de.dataelementid " +
+                            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+                            "inner join organisationunit ou on dv.sourceid=ou.organisationunitid " +
+                            "inner join categoryoptioncombo co on dv.categoryoptioncomboid=co.categoryoptioncomboid " +
+                            "inner join categoryoptioncombo ao on dv.attributeoptioncomboid=ao.categoryoptioncomboid " +
+                            "where dv.lastupdated > '" + getLongDateString( lastUpdate ) + "' " +
+                            "and dv.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "') as dvs " +
+                        "where ax.year = dvs.year " +
+                        "and ax.pe = dvs.pe " +
+                        "and ax.dx = dvs.dx " +
+                        "and ax.ou = dvs.ou " +
+                        "and ax.co = dvs.co " +
+                        "and ax.ao = dvs.ao";
+
+                    invokeTimeAndLog( sql, String.format( "Remove updated data values from %s", table.getTableName() ) );
+                }
+            }
+        }
+    }
+
+    @Override
+    public void updateRollupTables( AnalyticsTableUpdateParams params )
+    {
+        final String rollupSetting = (String) systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_ROLLUPS );
+        final int orgUnitLevels = organisationUnitService.getNumberOfOrganisationalLevels();
+
+        final List<Integer> years = getRollupUpdateYears( params );
+
+        if ( years != null && years.isEmpty() )
+        {
+            log.info( "No data years updated, not updating rollup tables" );
+            return;
+        }
+
+        List<AnalyticsRollup> rollups = AnalyticsRollup.fromString( rollupSetting );
+        Set<String> rollupTables = new HashSet<>();
+
+        for ( AnalyticsRollup rollup : rollups )
+        {
+            if ( rollup.getOrgUnitLevel() > orgUnitLevels )
+            {
+                log.warn( String.format( "Skipping analytics rollup with level above number of levels: %d, rollup: %s", orgUnitLevels, rollup ) );
+                continue;
+            }
+
+            if ( rollupTables.add( rollup.getTableName() ) )
+            {
+                populateRollupTable( rollup, partitionManager.tableExists( rollup.getTableName() ) ? years : null );
+            }
+        }
+
+        getExistingDatabaseTables().stream()
+            .filter( table -> table.startsWith( AnalyticsRollup.TABLE_PREFIX ) && !rollupTables.contains( table ) )
+            .forEach( this::dropTable );
+
+        partitionManager.clearCaches();
+    }
+
+    /**
+     * Returns the data years for which the rollup tables must be refreshed, or
+     * null if the rollup tables must be rebuilt for all years. For latest
+     * updates these are the years of data values updated since the last latest
+     * update, for updates of the last years these are the years being updated.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    private List<Integer> getRollupUpdateYears( AnalyticsTableUpdateParams params )
+    {
+        if ( params.isLatestUpdate() )
+        {
+            Date lastUpdate = getLastLatestPartitionUpdate();
+
+            return lastUpdate != null ? getUpdatedDataYears( lastUpdate, params.getStartTime() ) : newArrayList();
+        }
+        else if ( params.isPartialUpdate() )
+        {
+            return getDataYears( params.getFromDate() );
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates and populates the table of the given rollup by aggregating the
+     * analytics table by the dimension columns of the rollup. Only data elements
+     * with an aggregation type which sums over organisation units are included,
+     * as only such values can be aggregated further from the rollup. If years
+     * are given, only data of those years is aggregated, and data of other
+     * years is copied from the existing rollup table.
+     *
+     * @param rollup the {@link AnalyticsRollup}.
+     * @param years the data years to aggregate, null to aggregate all years.
+     */
+    private void populateRollupTable( AnalyticsRollup rollup, List<Integer> years )
+    {
+        final String tempTableName = rollup.getTempTableName();
+        final String columns = rollup.getDimensionColumns().stream()
+            .map( AnalyticsSqlUtils::quote )
+            .collect( Collectors.joining( "," ) ) + "," + quote( "year" );
+
+        dropTableCascade( tempTableName );
+
+        String sql = "create table " + tempTableName + " as ";
+
+        if ( years != null )
+        {
+            sql +=
+                "select " + columns + ", daysxvalue, daysno, value " +
+                "from " + rollup.getTableName() + " " +
+                "where year not in (" + TextUtils.getCommaDelimitedString( years ) + ") " +
+                "union all ";
+        }
+
+        sql +=
+            "select " + columns + ", " +
+            "sum(daysxvalue) as daysxvalue, " +
+            "sum(daysno) as daysno, " +
+            "sum(value) as value " +
+            "from " + getTableName() + " " +
+            "where dx in (" +
+                "select de.uid from dataelement de " +
+                "where de.aggregationtype in (" + AnalyticsRollup.AGGREGATION_TYPES.stream()
+                    .map( type -> "'" + type + "'" ).collect( Collectors.joining( "," ) ) + ")) " +
+            "and value is not null " +
+            ( years != null ? "and year in (" + TextUtils.getCommaDelimitedString( years ) + ") " : "" ) +
+            "group by " + columns;
+
+        invokeTimeAndLog( sql, String.format( "Populate rollup %s for years: %s", tempTableName, years != null ? years : "all" ) );
+
+        ConcurrentLinkedQueue<AnalyticsIndex> indexes = new ConcurrentLinkedQueue<>();
+
+        indexes.add( new AnalyticsIndex( tempTableName, newArrayList( quote( DimensionalObject.DATA_X_DIM_ID ) ), null ) );
+        indexes.add( new AnalyticsIndex( tempTableName, newArrayList( quote( DataQueryParams.LEVEL_PREFIX + rollup.getOrgUnitLevel() ) ), null ) );
+        indexes.add( new AnalyticsIndex( tempTableName, newArrayList( quote( rollup.getPeriodType().getName().toLowerCase() ) ), null ) );
+
+        createIndexesAsync( indexes );
+
+        analyzeTable( tempTableName );
+
+        swapTable( tempTableName, rollup.getTableName() );
+    }
+
     /**
      * Returns sub-query for approval level. First looks for approval level in
      * data element resource table which will indicate level 0 (highest) if approval
@@ -321,10 +621,18 @@ public class JdbcAnalyticsTableManager
 
     private List<AnalyticsTableColumn> getDimensionColumns()
     {
-        return getDimensionColumns( null );
+        return getDimensionColumns( null, false );
     }
 
-    private List<AnalyticsTableColumn> getDimensionColumns( Integer year )
+    /**
+     * Returns the dimension columns.
+     *
+     * @param year the data year, null if the data spans multiple years.
+     * @param latestPartition whether the columns are for the latest partition,
+     *        which spans multiple years and for which the approval max years
+     *        threshold is applied per row.
+     */
+    private List<AnalyticsTableColumn> getDimensionColumns( Integer year, boolean latestPartition )
     {
         List<AnalyticsTableColumn> columns = new ArrayList<>();
 
@@ -388,7 +696,7 @@ public class JdbcAnalyticsTableManager
         columns.addAll( addPeriodColumns( "ps" ) );
 
         String approvalCol = isApprovalEnabled( year ) ?
-            "coalesce(des.datasetapprovallevel, aon.approvallevel, da.minlevel, " + APPROVAL_LEVEL_UNAPPROVED + ") as approvallevel " :
+            getApprovalLevelExpression( latestPartition ) + " as approvallevel " :
             DataApprovalLevelService.APPROVAL_LEVEL_HIGHEST + " as approvallevel";
 
         columns.add( new AnalyticsTableColumn( quote( "approvallevel" ), INTEGER, approvalCol ) );
@@ -406,6 +714,130 @@ public class JdbcAnalyticsTableManager
             new AnalyticsTableColumn( quote( "textvalue" ), TEXT, "textvalue" ) );
     }
 
+    /**
+     * Returns a list with the analytics table holding the latest partition. The
+     * latest partition contains data values which were updated or deleted after
+     * the last full analytics table update. Returns an empty list if no full
+     * update has been performed yet, or if no data values were updated since the
+     * last update of the latest partition.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    private List<AnalyticsTable> getLatestAnalyticsTables( AnalyticsTableUpdateParams params )
+    {
+        Date lastFullTableUpdate = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_FULL_ANALYTICS_TABLES_UPDATE );
+
+        if ( lastFullTableUpdate == null )
+        {
+            log.info( "No full analytics table update has been performed, not updating latest partition" );
+            return newArrayList();
+        }
+
+        Date lastUpdate = getLastLatestPartitionUpdate();
+
+        if ( !hasUpdatedData( lastUpdate, params.getStartTime() ) )
+        {
+            log.info( String.format( "No data values updated since: %s, not updating latest partition", getLongDateString( lastUpdate ) ) );
+            return newArrayList();
+        }
+
+        AnalyticsTable table = new AnalyticsTable( getAnalyticsTableType(), getDimensionColumns(), getValueColumns() );
+
+        table.addLatestPartitionTable( lastFullTableUpdate, params.getStartTime() );
+
+        return newArrayList( table );
+    }
+
+    /**
+     * Indicates whether data values were updated or deleted within the given
+     * last updated range, start exclusive and end inclusive.
+     *
+     * @param startDate the start date.
+     * @param endDate the end date.
+     */
+    private boolean hasUpdatedData( Date startDate, Date endDate )
+    {
+        final String sql =
+            "select dv.dataelementid " +
+            "from datavalue dv " +
+            "where dv.lastupdated > '" + getLongDateString( startDate ) + "' " +
+            "and dv.lastupdated <= '" + getLongDateString( endDate ) + "' " +
+            "limit 1";
+
+        return jdbcTemplate.queryForRowSet( sql ).next();
+    }
+
+    /**
+     * Returns the approval level expression. For the latest partition, which
+     * spans multiple years, data of years outside the approval max years
+     * threshold is considered approved at the highest level, as is done for
+     * yearly partitions outside the threshold.
+     *
+     * @param latestPartition whether the expression is for the latest partition.
+     */
+    private String getApprovalLevelExpression( boolean latestPartition )
+    {
+        final String approvalLevel = "coalesce(des.datasetapprovallevel, aon.approvallevel, da.minlevel, " + APPROVAL_LEVEL_UNAPPROVED + ")";
+
+        Integer maxYears = (Integer) systemSettingManager.getSystemSetting( SettingKey.IGNORE_ANALYTICS_APPROVAL_YEAR_THRESHOLD );
+
+        if ( latestPartition && maxYears != null && maxYears > 0 )
+        {
+            int minYear = new DateTime().getYear() - maxYears;
+
+            return "case when ps.year > " + minYear + " then " + approvalLevel + " " +
+                "else " + DataApprovalLevelService.APPROVAL_LEVEL_HIGHEST + " end";
+        }
+
+        return approvalLevel;
+    }
+
+    /**
+     * Returns the last updated time from which data values must be removed from
+     * the yearly partitions when updating the latest partition. This is the time
+     * of the last latest partition update if the latest partition exists and was
+     * updated after the last full update, as data updated before that time was
+     * removed by the previous latest update. Otherwise, this is the time of the
+     * last full analytics table update. Returns null if no full update has been
+     * performed.
+     */
+    private Date getLastLatestPartitionUpdate()
+    {
+        Date lastFullTableUpdate = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_FULL_ANALYTICS_TABLES_UPDATE );
+        Date lastLatestPartitionUpdate = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE );
+
+        if ( lastFullTableUpdate == null )
+        {
+            return null;
+        }
+
+        String latestPartitionName = PartitionUtils.getPartitionName( getTableName(), AnalyticsTablePartition.LATEST_PARTITION );
+
+        boolean latestPartitionExists = partitionManager.tableExists( latestPartitionName );
+
+        return latestPartitionExists && lastLatestPartitionUpdate != null && lastLatestPartitionUpdate.after( lastFullTableUpdate ) ?
+            lastLatestPartitionUpdate : lastFullTableUpdate;
+    }
+
+    /**
+     * Returns the years of data values which were updated or deleted within
+     * the given last updated range, start exclusive and end inclusive.
+     *
+     * @param startDate the start date.
+     * @param endDate the end date.
+     */
+    private List<Integer> getUpdatedDataYears( Date startDate, Date endDate )
+    {
+        final String sql =
+            "select distinct ps.year " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            "where dv.lastupdated > '" + getLongDateString( startDate ) + "' " +
+            "and dv.lastupdated <= '" + getLongDateString( endDate ) + "'";
+
+        return jdbcTemplate.queryForList( sql, Integer.class );
+    }
+
     private List<Integer> getDataYears( Date earliest )
     {
         String sql =
@@ -207,7 +207,9 @@ public class PartitionUtils
     }
 
     /**
-     * Returns partition name. Aggregate only for now!
+     * Returns partition name. Aggregate only for now! The
+     * {@link AnalyticsTablePartition#LATEST_PARTITION} is named with the
+     * {@link AnalyticsTablePartition#LATEST_PARTITION_SUFFIX}.
      *
      * @param tableName the table name.
      * @param partitiont the partition.
@@ -215,6 +217,9 @@ public class PartitionUtils
      */
     public static String getPartitionName( String tableName, Integer partition )
     {
-        return tableName + SEP + partition;
+        String suffix = AnalyticsTablePartition.LATEST_PARTITION.equals( partition ) ?
+            AnalyticsTablePartition.LATEST_PARTITION_SUFFIX : String.valueOf( partition );
+
+        return tableName + SEP + suffix;
     }
 }
@@ -0,0 +1,102 @@
+package org.hisp.dhis.analytics;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.indicator.Indicator;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.QuarterlyPeriodType;
+import org.junit.Test;
+
+public class AnalyticsRollupTest
+{
+    @Test
+    public void testFromString()
+    {
+        List<AnalyticsRollup> rollups = AnalyticsRollup.fromString( "2:Monthly, 3:quarterly,x:Monthly,4:Unknown,5" );
+
+        assertEquals( 2, rollups.size() );
+        assertEquals( 2, rollups.get( 0 ).getOrgUnitLevel() );
+        assertEquals( new MonthlyPeriodType(), rollups.get( 0 ).getPeriodType() );
+        assertEquals( 3, rollups.get( 1 ).getOrgUnitLevel() );
+        assertEquals( new QuarterlyPeriodType(), rollups.get( 1 ).getPeriodType() );
+
+        assertTrue( AnalyticsRollup.fromString( null ).isEmpty() );
+        assertTrue( AnalyticsRollup.fromString( "" ).isEmpty() );
+    }
+
+    @Test
+    public void testIsRollupItem()
+    {
+        DataElement deA = new DataElement( "DataElementA" );
+        deA.setAggregationType( AggregationType.SUM );
+        DataElement deB = new DataElement( "DataElementB" );
+        deB.setAggregationType( AggregationType.AVERAGE_SUM_ORG_UNIT );
+        DataElement deC = new DataElement( "DataElementC" );
+        deC.setAggregationType( AggregationType.AVERAGE );
+        DataElement deD = new DataElement( "DataElementD" );
+        deD.setAggregationType( AggregationType.COUNT );
+
+        assertTrue( AnalyticsRollup.isRollupItem( deA ) );
+        assertTrue( AnalyticsRollup.isRollupItem( deB ) );
+        assertFalse( AnalyticsRollup.isRollupItem( deC ) );
+        assertFalse( AnalyticsRollup.isRollupItem( deD ) );
+        assertFalse( AnalyticsRollup.isRollupItem( new Indicator() ) );
+    }
+
+    @Test
+    public void testGetTableName()
+    {
+        AnalyticsRollup rollup = new AnalyticsRollup( 3, new MonthlyPeriodType() );
+
+        assertEquals( "analytics_rollup_l3_monthly", rollup.getTableName() );
+        assertEquals( "analytics_rollup_l3_monthly_temp", rollup.getTempTableName() );
+    }
+
+    @Test
+    public void testGetDimensionColumns()
+    {
+        AnalyticsRollup rollup = new AnalyticsRollup( 2, new QuarterlyPeriodType() );
+
+        assertTrue( rollup.getDimensionColumns().contains( "dx" ) );
+        assertTrue( rollup.getDimensionColumns().contains( "uidlevel1" ) );
+        assertTrue( rollup.getDimensionColumns().contains( "uidlevel2" ) );
+        assertFalse( rollup.getDimensionColumns().contains( "uidlevel3" ) );
+        assertTrue( rollup.getDimensionColumns().contains( "quarterly" ) );
+        assertTrue( rollup.getDimensionColumns().contains( "yearly" ) );
+        assertFalse( rollup.getDimensionColumns().contains( "monthly" ) );
+        assertFalse( rollup.getDimensionColumns().contains( "co" ) );
+    }
+}
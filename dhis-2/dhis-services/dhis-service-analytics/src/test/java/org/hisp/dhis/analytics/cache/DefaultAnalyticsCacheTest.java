@@ -0,0 +1,124 @@
+package org.hisp.dhis.analytics.cache;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.core.env.Environment;
+
+public class DefaultAnalyticsCacheTest
+{
+    @Mock
+    private DhisConfigurationProvider dhisConfig;
+
+    @Mock
+    private CacheProvider cacheProvider;
+
+    @Mock
+    private Environment environment;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private DefaultAnalyticsCache analyticsCache;
+
+    @Before
+    public void setUp()
+    {
+        when( dhisConfig.getAnalyticsCacheExpiration() ).thenReturn( 600L );
+        when( dhisConfig.getProperty( ConfigurationKey.REDIS_ENABLED ) ).thenReturn( "false" );
+        when( environment.getActiveProfiles() ).thenReturn( new String[0] );
+        when( cacheProvider.newCacheBuilder( any() ) ).thenAnswer( invocation -> new CacheBuilder<>( null, dhisConfig ) );
+
+        analyticsCache = new DefaultAnalyticsCache( dhisConfig, cacheProvider, environment );
+        analyticsCache.init();
+    }
+
+    @Test
+    public void testGetResponse()
+    {
+        assertTrue( analyticsCache.isEnabled() );
+
+        Grid grid = new ListGrid();
+
+        assertEquals( grid, analyticsCache.getResponse( "keyA", key -> grid ).get() );
+        assertEquals( grid, analyticsCache.getResponse( "keyA", key -> new ListGrid() ).get() );
+
+        assertEquals( 1, analyticsCache.getHitCount( AnalyticsCacheTier.RESPONSE ) );
+        assertEquals( 1, analyticsCache.getMissCount( AnalyticsCacheTier.RESPONSE ) );
+    }
+
+    @Test
+    public void testSubQueryValues()
+    {
+        Map<String, Object> values = new HashMap<>();
+        values.put( "dxA-201901-ouA", 4d );
+
+        assertFalse( analyticsCache.getSubQueryValues( "keyA" ).isPresent() );
+
+        analyticsCache.putSubQueryValues( "keyA", values );
+        analyticsCache.putSubQueryValues( "keyB", new HashMap<>() );
+
+        assertEquals( values, analyticsCache.getSubQueryValues( "keyA" ).get() );
+        assertTrue( analyticsCache.getSubQueryValues( "keyB" ).get().isEmpty() );
+
+        assertEquals( 2, analyticsCache.getHitCount( AnalyticsCacheTier.SUB_QUERY ) );
+        assertEquals( 1, analyticsCache.getMissCount( AnalyticsCacheTier.SUB_QUERY ) );
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        analyticsCache.putSubQueryValues( "keyA", new HashMap<>() );
+        analyticsCache.getResponse( "keyA", key -> new ListGrid() );
+
+        analyticsCache.invalidateAll();
+
+        assertFalse( analyticsCache.getSubQueryValues( "keyA" ).isPresent() );
+    }
+}
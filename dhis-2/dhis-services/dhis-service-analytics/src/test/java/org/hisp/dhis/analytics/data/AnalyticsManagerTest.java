@@ -39,6 +39,7 @@ import java.util.Map;
 
 import org.hisp.dhis.DhisConvenienceTest;
 import org.hisp.dhis.analytics.*;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryMonitor;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.period.Period;
@@ -72,6 +73,9 @@ public class AnalyticsManagerTest
         @Mock
         private JdbcTemplate jdbcTemplate;
 
+        @Mock
+        private AnalyticsQueryMonitor queryMonitor;
+
         @Rule
         public MockitoRule mockitoRule = MockitoJUnit.rule();
 
@@ -91,7 +95,7 @@ public class AnalyticsManagerTest
         @Before
         public void setUp()
         {
-            analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate );
+            analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, queryMonitor );
         }
 
         @Test
@@ -135,13 +139,16 @@ public class AnalyticsManagerTest
         @Mock
         private JdbcTemplate jdbcTemplate;
 
+        @Mock
+        private AnalyticsQueryMonitor queryMonitor;
+
         @Rule
         public MockitoRule mockitoRule = MockitoJUnit.rule();
 
         @Test
         public void testReplaceDataPeriodsWithAggregationPeriods()
         {
-            AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate );
+            AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, queryMonitor );
             Period y2012 = createPeriod( "2012" );
 
             AnalyticsAggregationType aggregationType = new AnalyticsAggregationType(
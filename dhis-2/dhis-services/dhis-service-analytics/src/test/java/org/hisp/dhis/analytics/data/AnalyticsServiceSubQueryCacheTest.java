@@ -0,0 +1,199 @@
+package org.hisp.dhis.analytics.data;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryGroups;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests the sub-query tier of the analytics cache through the analytics
+ * service, with a cache backed by a map.
+ */
+public class AnalyticsServiceSubQueryCacheTest
+    extends AnalyticsServiceBaseTest
+{
+    private final Map<String, Map<String, Object>> subQueryCache = new HashMap<>();
+
+    private final Map<String, Double> databaseValues = new HashMap<>();
+
+    private DataElement deA;
+
+    private OrganisationUnit ouA;
+
+    private Period peJan;
+
+    private Period peFeb;
+
+    private Period peMar;
+
+    @Before
+    @SuppressWarnings( "unchecked" )
+    public void setUp()
+    {
+        deA = createDataElement( 'A' );
+        ouA = new OrganisationUnit( "OrgUnitA" );
+        ouA.setUid( "ouabcdefghA" );
+
+        peJan = new MonthlyPeriodType().createPeriod( new DateTime( 2018, 1, 1, 0, 0 ).toDate() );
+        peFeb = new MonthlyPeriodType().createPeriod( new DateTime( 2018, 2, 1, 0, 0 ).toDate() );
+        peMar = new MonthlyPeriodType().createPeriod( new DateTime( 2018, 3, 1, 0, 0 ).toDate() );
+
+        databaseValues.put( peJan.getIsoDate(), 10d );
+        databaseValues.put( peFeb.getIsoDate(), 20d );
+        databaseValues.put( peMar.getIsoDate(), 30d );
+
+        when( securityManager.withDataApprovalConstraints( any( DataQueryParams.class ) ) ).then( returnsFirstArg() );
+        when( securityManager.withDimensionConstraints( any( DataQueryParams.class ) ) ).then( returnsFirstArg() );
+        when( queryPlanner.planQuery( any( DataQueryParams.class ), any( QueryPlannerParams.class ) ) ).thenAnswer( invocation ->
+            DataQueryGroups.newBuilder().withQueries( newArrayList( DataQueryParams.newBuilder( invocation.<DataQueryParams>getArgument( 0 ) )
+                .withPeriodType( MonthlyPeriodType.NAME ).build() ) ).build() );
+
+        when( analyticsCache.isEnabled() ).thenReturn( true );
+        when( analyticsCache.getResponse( anyString(), any() ) ).thenAnswer( invocation ->
+            Optional.ofNullable( ((Function<String, Grid>) invocation.getArgument( 1 )).apply( invocation.getArgument( 0 ) ) ) );
+        when( analyticsCache.getSubQueryValues( anyString() ) ).thenAnswer( invocation ->
+            Optional.ofNullable( subQueryCache.get( invocation.<String>getArgument( 0 ) ) ) );
+        doAnswer( invocation -> subQueryCache.put( invocation.getArgument( 0 ), new HashMap<>( invocation.<Map<String, Object>>getArgument( 1 ) ) ) )
+            .when( analyticsCache ).putSubQueryValues( anyString(), anyMap() );
+
+        when( analyticsManager.getAggregatedDataValues( any( DataQueryParams.class ), eq( AnalyticsTableType.DATA_VALUE ), anyInt() ) )
+            .thenAnswer( invocation -> CompletableFuture.completedFuture( getDatabaseValues( invocation.getArgument( 0 ) ) ) );
+    }
+
+    @Test
+    public void testReuseCachedPeriods()
+    {
+        Grid gridA = getGrid( newArrayList( peJan, peFeb ) );
+
+        assertEquals( 2, gridA.getHeight() );
+        assertEquals( 10d, getValue( gridA, peJan ), 0.01 );
+        assertEquals( 20d, getValue( gridA, peFeb ), 0.01 );
+
+        Grid gridB = getGrid( newArrayList( peFeb, peMar ) );
+
+        assertEquals( 2, gridB.getHeight() );
+        assertEquals( 20d, getValue( gridB, peFeb ), 0.01 );
+        assertEquals( 30d, getValue( gridB, peMar ), 0.01 );
+
+        ArgumentCaptor<DataQueryParams> queries = ArgumentCaptor.forClass( DataQueryParams.class );
+
+        verify( analyticsManager, times( 2 ) ).getAggregatedDataValues( queries.capture(), eq( AnalyticsTableType.DATA_VALUE ), anyInt() );
+
+        assertEquals( newArrayList( peJan, peFeb ), queries.getAllValues().get( 0 ).getPeriods() );
+        assertEquals( newArrayList( peMar ), queries.getAllValues().get( 1 ).getPeriods() );
+    }
+
+    @Test
+    public void testAllPeriodsCached()
+    {
+        getGrid( newArrayList( peJan, peFeb, peMar ) );
+
+        Grid grid = getGrid( newArrayList( peMar, peJan ) );
+
+        assertEquals( 2, grid.getHeight() );
+        assertEquals( 10d, getValue( grid, peJan ), 0.01 );
+        assertEquals( 30d, getValue( grid, peMar ), 0.01 );
+
+        verify( analyticsManager, times( 1 ) ).getAggregatedDataValues( any( DataQueryParams.class ), eq( AnalyticsTableType.DATA_VALUE ), anyInt() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Grid getGrid( List<Period> periods )
+    {
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withDataElements( newArrayList( deA ) )
+            .withPeriods( periods )
+            .withOrganisationUnit( ouA )
+            .withIgnoreLimit( true )
+            .build();
+
+        return target.getAggregatedDataValues( params );
+    }
+
+    private Map<String, Object> getDatabaseValues( DataQueryParams query )
+    {
+        Map<String, Object> values = new HashMap<>();
+
+        for ( DimensionalItemObject period : query.getPeriods() )
+        {
+            values.put( deA.getUid() + "-" + period.getDimensionItem() + "-" + ouA.getUid(), databaseValues.get( period.getDimensionItem() ) );
+        }
+
+        return values;
+    }
+
+    private double getValue( Grid grid, Period period )
+    {
+        for ( List<Object> row : grid.getRows() )
+        {
+            if ( period.getIsoDate().equals( row.get( 1 ) ) )
+            {
+                return ((Number) row.get( row.size() - 1 )).doubleValue();
+            }
+        }
+
+        throw new AssertionError( "No row for period: " + period.getIsoDate() );
+    }
+}
@@ -37,6 +37,7 @@ import static org.mockito.Mockito.when;
 
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryMonitor;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.ValueType;
@@ -73,6 +74,9 @@ public class JdbcAnalyticsManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private AnalyticsQueryMonitor queryMonitor;
+
     @Mock
     private SqlRowSet rowSet;
 
@@ -85,13 +89,13 @@ public class JdbcAnalyticsManagerTest
     public void setUp()
     {
         QueryPlanner queryPlanner = new DefaultQueryPlanner( new DefaultQueryValidator( this.systemSettingManager ),
-            partitionManager );
+            partitionManager, systemSettingManager );
 
         mockRowSet();
 
         when( jdbcTemplate.queryForRowSet( sql.capture() ) ).thenReturn( rowSet );
 
-        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate );
+        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, queryMonitor );
     }
 
     @Test
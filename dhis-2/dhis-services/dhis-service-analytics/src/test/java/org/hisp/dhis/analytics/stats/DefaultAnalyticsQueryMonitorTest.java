@@ -0,0 +1,152 @@
+package org.hisp.dhis.analytics.stats;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.AnalyticsCacheTier;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class DefaultAnalyticsQueryMonitorTest
+{
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private DefaultAnalyticsQueryMonitor queryMonitor;
+
+    @Before
+    public void setUp()
+    {
+        when( systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_SLOW_QUERY_THRESHOLD ) ).thenReturn( 1000 );
+
+        queryMonitor = new DefaultAnalyticsQueryMonitor( systemSettingManager, analyticsCache );
+    }
+
+    @Test
+    public void testStartEndQuery()
+    {
+        AnalyticsQueryRecord record = queryMonitor.startQuery( "keyA" );
+
+        assertEquals( record, queryMonitor.getCurrentQuery() );
+        assertNull( queryMonitor.startQuery( "keyB" ) );
+
+        record.addPlan( 5, 1, 3 );
+        record.addExecution( 20, 12 );
+        record.addSubQueryCacheLookup( true );
+        record.addSubQueryCacheLookup( false );
+        record.setGridBuildMillis( 40 );
+
+        queryMonitor.endQuery( record );
+
+        assertNull( queryMonitor.getCurrentQuery() );
+
+        AnalyticsQueryStatistics statistics = queryMonitor.getStatistics();
+
+        assertEquals( 1, statistics.getQueryCount() );
+        assertEquals( 1, statistics.getRecentQueries().size() );
+
+        AnalyticsQueryRecord recent = statistics.getRecentQueries().get( 0 );
+
+        assertEquals( "keyA", recent.getKey() );
+        assertEquals( 3, recent.getSubQueries() );
+        assertEquals( 12, recent.getRows() );
+        assertEquals( 15, recent.getGridMillis() );
+        assertEquals( 1, recent.getSubQueryCacheHits() );
+        assertEquals( 1, recent.getSubQueryCacheMisses() );
+        assertFalse( recent.isResponseCacheHit() );
+    }
+
+    @Test
+    public void testCacheTierStatistics()
+    {
+        when( analyticsCache.getHitCount( AnalyticsCacheTier.RESPONSE ) ).thenReturn( 4L );
+        when( analyticsCache.getMissCount( AnalyticsCacheTier.RESPONSE ) ).thenReturn( 2L );
+        when( analyticsCache.getHitCount( AnalyticsCacheTier.SUB_QUERY ) ).thenReturn( 7L );
+        when( analyticsCache.getMissCount( AnalyticsCacheTier.SUB_QUERY ) ).thenReturn( 3L );
+
+        queryMonitor.clear();
+
+        List<AnalyticsCacheTierStatistics> cacheTiers = queryMonitor.getStatistics().getCacheTiers();
+
+        assertEquals( 2, cacheTiers.size() );
+
+        assertEquals( AnalyticsCacheTier.RESPONSE, cacheTiers.get( 0 ).getTier() );
+        assertEquals( 4, cacheTiers.get( 0 ).getHitCount() );
+        assertEquals( 2, cacheTiers.get( 0 ).getMissCount() );
+
+        assertEquals( AnalyticsCacheTier.SUB_QUERY, cacheTiers.get( 1 ).getTier() );
+        assertEquals( 7, cacheTiers.get( 1 ).getHitCount() );
+        assertEquals( 3, cacheTiers.get( 1 ).getMissCount() );
+    }
+
+    @Test
+    public void testRecordSql()
+    {
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withTableName( "analytics" ).build();
+
+        queryMonitor.recordSql( params, "select 1", 200, 1 );
+        queryMonitor.recordSql( params, "select 2", 1500, 10 );
+
+        AnalyticsQueryStatistics statistics = queryMonitor.getStatistics();
+
+        assertEquals( 2, statistics.getSqlCount() );
+        assertEquals( 1700, statistics.getSqlMillis() );
+        assertEquals( 1, statistics.getSlowSqlCount() );
+        assertEquals( 1, statistics.getSlowQueries().size() );
+        assertEquals( "select 2", statistics.getSlowQueries().get( 0 ).getSql() );
+        assertEquals( "analytics", statistics.getSlowQueries().get( 0 ).getTableName() );
+
+        queryMonitor.clear();
+
+        assertTrue( queryMonitor.getStatistics().getSlowQueries().isEmpty() );
+        assertEquals( 0, queryMonitor.getStatistics().getSqlCount() );
+    }
+}
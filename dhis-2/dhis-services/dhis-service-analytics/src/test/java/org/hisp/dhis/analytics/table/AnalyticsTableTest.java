@@ -29,7 +29,9 @@ package org.hisp.dhis.analytics.table;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -88,6 +90,27 @@ public class AnalyticsTableTest
         assertEquals( "analytics_event_temp_uida_2015", partitionB.getTempTableName() );
     }
 
+    @Test
+    public void testGetLatestTablePartitionName()
+    {
+        Period periodA = new YearlyPeriodType().createPeriod( new DateTime( 2014, 1, 1, 0, 0 ).toDate() );
+
+        AnalyticsTable tableA = new AnalyticsTable( AnalyticsTableType.DATA_VALUE, Lists.newArrayList(), Lists.newArrayList() );
+
+        tableA.addPartitionTable( 2014, periodA.getStartDate(), periodA.getEndDate() );
+        tableA.addLatestPartitionTable( new DateTime( 2019, 3, 1, 0, 0 ).toDate(), new DateTime( 2019, 3, 2, 0, 0 ).toDate() );
+
+        AnalyticsTablePartition partitionA = tableA.getPartitionTables().get( 0 );
+        AnalyticsTablePartition partitionB = tableA.getPartitionTables().get( 1 );
+
+        assertFalse( partitionA.isLatestPartition() );
+        assertTrue( partitionB.isLatestPartition() );
+
+        assertEquals( "analytics_2014", partitionA.getTableName() );
+        assertEquals( "analytics_latest", partitionB.getTableName() );
+        assertEquals( "analytics_temp_latest", partitionB.getTempTableName() );
+    }
+
     @Test
     public void testEquals()
     {
@@ -0,0 +1,224 @@
+package org.hisp.dhis.analytics.table;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.hisp.dhis.analytics.AnalyticsTable;
+import org.hisp.dhis.analytics.AnalyticsTableHookService;
+import org.hisp.dhis.analytics.AnalyticsTablePartition;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataapproval.DataApprovalLevelService;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.resourcetable.ResourceTableService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.database.DatabaseInfo;
+import org.joda.time.DateTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class JdbcAnalyticsTableManagerTest
+{
+    @Mock
+    private IdentifiableObjectManager idObjectManager;
+
+    @Mock
+    private OrganisationUnitService organisationUnitService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private DataApprovalLevelService dataApprovalLevelService;
+
+    @Mock
+    private ResourceTableService resourceTableService;
+
+    @Mock
+    private AnalyticsTableHookService tableHookService;
+
+    @Mock
+    private StatementBuilder statementBuilder;
+
+    @Mock
+    private PartitionManager partitionManager;
+
+    @Mock
+    private DatabaseInfo databaseInfo;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @InjectMocks
+    private JdbcAnalyticsTableManager subject;
+
+    @Test
+    public void testGetPartitionChunks()
+    {
+        Date startDate = new DateTime( 2019, 1, 1, 0, 0 ).toDate();
+        Date endDate = new DateTime( 2020, 1, 1, 0, 0 ).toDate();
+
+        AnalyticsTable table = new AnalyticsTable( AnalyticsTableType.DATA_VALUE, Lists.newArrayList(), Lists.newArrayList() );
+        table.addPartitionTable( 2019, startDate, endDate );
+
+        AnalyticsTablePartition partition = table.getPartitionTables().get( 0 );
+
+        List<AnalyticsTablePartition> chunks = subject.getPartitionChunks( partition, 4 );
+
+        assertEquals( 4, chunks.size() );
+
+        assertNull( chunks.get( 0 ).getChunkStartDate() );
+        assertNull( chunks.get( 3 ).getChunkEndDate() );
+
+        for ( int i = 0; i < chunks.size(); i++ )
+        {
+            AnalyticsTablePartition chunk = chunks.get( i );
+
+            assertTrue( chunk.isChunk() );
+            assertEquals( Integer.valueOf( 2019 ), chunk.getYear() );
+            assertEquals( "analytics_2019", chunk.getTableName() );
+
+            if ( i > 0 )
+            {
+                assertEquals( chunks.get( i - 1 ).getChunkEndDate(), chunk.getChunkStartDate() );
+            }
+        }
+    }
+
+    @Test
+    public void testGetPartitionChunksLatestPartition()
+    {
+        AnalyticsTable table = new AnalyticsTable( AnalyticsTableType.DATA_VALUE, Lists.newArrayList(), Lists.newArrayList() );
+        table.addLatestPartitionTable( new DateTime( 2019, 3, 1, 0, 0 ).toDate(), new DateTime( 2019, 3, 2, 0, 0 ).toDate() );
+
+        AnalyticsTablePartition partition = table.getPartitionTables().get( 0 );
+
+        List<AnalyticsTablePartition> chunks = subject.getPartitionChunks( partition, 4 );
+
+        assertEquals( 1, chunks.size() );
+        assertFalse( chunks.get( 0 ).isChunk() );
+    }
+
+    @Test
+    public void testUpdateRollupTablesLastYears()
+    {
+        mockRollups();
+        when( partitionManager.tableExists( "analytics_rollup_l2_monthly" ) ).thenReturn( true );
+        when( jdbcTemplate.queryForList( anyString(), eq( Integer.class ) ) ).thenReturn( Lists.newArrayList( 2019, 2020 ) );
+
+        subject.updateRollupTables( AnalyticsTableUpdateParams.newBuilder().withLastYears( 2 ).build() );
+
+        String sql = getRollupSql().orElse( null );
+
+        assertNotNull( sql );
+        assertTrue( sql.contains( "from analytics_rollup_l2_monthly where year not in (2019, 2020) union all " ) );
+        assertTrue( sql.contains( "and year in (2019, 2020) group by " ) );
+    }
+
+    @Test
+    public void testUpdateRollupTablesFull()
+    {
+        mockRollups();
+        when( partitionManager.tableExists( "analytics_rollup_l2_monthly" ) ).thenReturn( true );
+
+        subject.updateRollupTables( AnalyticsTableUpdateParams.newBuilder().build() );
+
+        String sql = getRollupSql().orElse( null );
+
+        assertNotNull( sql );
+        assertFalse( sql.contains( "union all" ) );
+        assertFalse( sql.contains( "year in" ) );
+    }
+
+    @Test
+    public void testUpdateRollupTablesLatestWithoutUpdatedData()
+    {
+        mockRollups();
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_FULL_ANALYTICS_TABLES_UPDATE ) ).thenReturn( new DateTime( 2019, 3, 1, 0, 0 ).toDate() );
+        when( jdbcTemplate.queryForList( anyString(), eq( Integer.class ) ) ).thenReturn( Lists.newArrayList() );
+
+        subject.updateRollupTables( AnalyticsTableUpdateParams.newBuilder().withLatestUpdate( true ).build() );
+
+        verify( jdbcTemplate, never() ).execute( anyString() );
+    }
+
+    private void mockRollups()
+    {
+        when( systemSettingManager.getSystemSetting( SettingKey.ANALYTICS_ROLLUPS ) ).thenReturn( "2:Monthly" );
+        when( organisationUnitService.getNumberOfOrganisationalLevels() ).thenReturn( 4 );
+        when( partitionManager.getAnalyticsPartitions( AnalyticsTableType.DATA_VALUE ) ).thenReturn( Sets.newHashSet() );
+    }
+
+    private Optional<String> getRollupSql()
+    {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+
+        verify( jdbcTemplate, atLeastOnce() ).execute( sql.capture() );
+
+        return sql.getAllValues().stream()
+            .filter( s -> s.startsWith( "create table analytics_rollup_l2_monthly_temp as " ) )
+            .findFirst();
+    }
+}
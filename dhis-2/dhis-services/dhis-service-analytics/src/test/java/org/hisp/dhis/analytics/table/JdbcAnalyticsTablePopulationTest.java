@@ -0,0 +1,228 @@
+package org.hisp.dhis.analytics.table;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableGenerator;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Compares populating the aggregate analytics table with a single statement
+ * to populating it with one statement per group of value types.
+ */
+@Category( IntegrationTest.class )
+public class JdbcAnalyticsTablePopulationTest
+    extends IntegrationTestBase
+{
+    private static final Log log = LogFactory.getLog( JdbcAnalyticsTablePopulationTest.class );
+
+    private static final String ROWS_SQL =
+        "select dx, uidlevel1, monthly, co, ao, daysxvalue, daysno, value, textvalue from analytics " +
+        "order by dx, uidlevel1, monthly, co, ao";
+
+    private static final int BENCHMARK_RUNS = 3;
+
+    @Autowired
+    private DataElementService dataElementService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private DataValueService dataValueService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
+    @Autowired
+    private AnalyticsTableGenerator analyticsTableGenerator;
+
+    @Resource( name = "readOnlyJdbcTemplate" )
+    private JdbcTemplate jdbcTemplate;
+
+    private DataElement deBoolean;
+
+    @Override
+    public void setUpTest()
+    {
+        CategoryOptionCombo ocDef = categoryService.getDefaultCategoryOptionCombo();
+
+        DataElement deIntegerSum = createDataElement( 'A', ValueType.INTEGER, AggregationType.SUM );
+        DataElement deIntegerAverage = createDataElement( 'B', ValueType.INTEGER, AggregationType.AVERAGE );
+        DataElement deNumber = createDataElement( 'C', ValueType.NUMBER, AggregationType.SUM );
+        deBoolean = createDataElement( 'D', ValueType.BOOLEAN, AggregationType.SUM );
+        DataElement deTrueOnly = createDataElement( 'E', ValueType.TRUE_ONLY, AggregationType.SUM );
+        DataElement deText = createDataElement( 'F', ValueType.TEXT, AggregationType.NONE );
+        DataElement deDate = createDataElement( 'G', ValueType.DATE, AggregationType.NONE );
+
+        List<DataElement> dataElements = Lists.newArrayList( deIntegerSum, deIntegerAverage, deNumber,
+            deBoolean, deTrueOnly, deText, deDate );
+
+        dataElements.forEach( dataElementService::addDataElement );
+
+        List<OrganisationUnit> orgUnits = Lists.newArrayList( createOrganisationUnit( 'A' ),
+            createOrganisationUnit( 'B' ), createOrganisationUnit( 'C' ), createOrganisationUnit( 'D' ) );
+
+        orgUnits.forEach( organisationUnitService::addOrganisationUnit );
+
+        for ( int month = 1; month <= 12; month++ )
+        {
+            Period period = createPeriod( String.format( "2017%02d", month ) );
+            periodService.addPeriod( period );
+
+            for ( int i = 0; i < orgUnits.size(); i++ )
+            {
+                OrganisationUnit orgUnit = orgUnits.get( i );
+
+                // Zero values are only kept for data elements with average aggregation
+
+                dataValueService.addDataValue( createDataValue( deIntegerSum, period, orgUnit, String.valueOf( ( month * i ) % 3 ), ocDef ) );
+                dataValueService.addDataValue( createDataValue( deIntegerAverage, period, orgUnit, String.valueOf( ( month + i ) % 3 ), ocDef ) );
+                dataValueService.addDataValue( createDataValue( deNumber, period, orgUnit, month + "." + i, ocDef ) );
+                dataValueService.addDataValue( createDataValue( deBoolean, period, orgUnit, String.valueOf( ( month + i ) % 2 == 0 ), ocDef ) );
+                dataValueService.addDataValue( createDataValue( deTrueOnly, period, orgUnit, "true", ocDef ) );
+                dataValueService.addDataValue( createDataValue( deText, period, orgUnit, "Text " + month + i, ocDef ) );
+                dataValueService.addDataValue( createDataValue( deDate, period, orgUnit, String.format( "2017-%02d-%02d", month, i + 1 ), ocDef ) );
+            }
+        }
+
+        analyticsTableGenerator.generateTables( AnalyticsTableUpdateParams.newBuilder().build() );
+    }
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.SINGLE_PASS_ANALYTICS_TABLE_POPULATION, Boolean.TRUE );
+        analyticsTableGenerator.dropTables();
+    }
+
+    @Test
+    public void testSinglePassPopulationEqualsPerValueTypePopulation()
+    {
+        populateDataValueTable( true );
+
+        List<Map<String, Object>> singlePassRows = jdbcTemplate.queryForList( ROWS_SQL );
+
+        populateDataValueTable( false );
+
+        List<Map<String, Object>> perValueTypeRows = jdbcTemplate.queryForList( ROWS_SQL );
+
+        assertFalse( singlePassRows.isEmpty() );
+        assertEquals( perValueTypeRows, singlePassRows );
+
+        // False boolean values are populated as zero
+
+        assertFalse( jdbcTemplate.queryForList( "select value from analytics where dx = ? and value = 0",
+            deBoolean.getUid() ).isEmpty() );
+    }
+
+    @Test
+    public void benchmarkPopulation()
+    {
+        long singlePassNanos = 0;
+        long perValueTypeNanos = 0;
+
+        for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+        {
+            singlePassNanos += populateDataValueTable( true );
+            perValueTypeNanos += populateDataValueTable( false );
+        }
+
+        log.info( String.format( "Analytics table population over %d runs, single pass: %d ms, per value type: %d ms",
+            BENCHMARK_RUNS, singlePassNanos / BENCHMARK_RUNS / 1_000_000, perValueTypeNanos / BENCHMARK_RUNS / 1_000_000 ) );
+    }
+
+    /**
+     * Populates the data value analytics table with the given strategy.
+     *
+     * @param singlePass whether to populate the table with a single statement.
+     * @return the time spent, in nanoseconds.
+     */
+    private long populateDataValueTable( boolean singlePass )
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.SINGLE_PASS_ANALYTICS_TABLE_POPULATION, singlePass );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+            .withSkipResourceTables( true )
+            .withSkipTableTypes( Sets.newHashSet( AnalyticsTableType.COMPLETENESS, AnalyticsTableType.COMPLETENESS_TARGET,
+                AnalyticsTableType.ORG_UNIT_TARGET, AnalyticsTableType.EVENT, AnalyticsTableType.ENROLLMENT,
+                AnalyticsTableType.VALIDATION_RESULT ) )
+            .build();
+
+        long start = System.nanoTime();
+
+        analyticsTableGenerator.generateTables( params );
+
+        return System.nanoTime() - start;
+    }
+}
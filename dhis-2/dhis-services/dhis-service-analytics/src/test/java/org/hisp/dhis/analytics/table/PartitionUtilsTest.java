@@ -99,4 +99,11 @@ public class PartitionUtilsTest
 
         assertEquals( 3, partitions.size() );
     }
+
+    @Test
+    public void testGetPartitionName()
+    {
+        assertEquals( "analytics_2017", PartitionUtils.getPartitionName( "analytics", 2017 ) );
+        assertEquals( "analytics_latest", PartitionUtils.getPartitionName( "analytics", AnalyticsTablePartition.LATEST_PARTITION ) );
+    }
 }
@@ -0,0 +1,248 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate event listener which invalidates the {@link VersionedCache} beans
+ * when objects of the types they depend on, or collections of such objects,
+ * are changed.
+ * <p>
+ * Entity changes are handled once committed. Hibernate does not offer
+ * post-commit collection events, hence collection changes are handled when
+ * flushed and once more when the transaction completes. Otherwise a concurrent
+ * request could read the state which is about to be replaced after the
+ * version was incremented at flush time, and cache them for the new version.
+ */
+@Component( "org.hisp.dhis.cache.VersionedCacheInvalidator" )
+public class VersionedCacheInvalidator
+    implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+    PostCollectionUpdateEventListener, PostCollectionRecreateEventListener, PostCollectionRemoveEventListener
+{
+    private final SessionFactory sessionFactory;
+
+    @Autowired( required = false )
+    private List<VersionedCache> caches = new ArrayList<>();
+
+    public VersionedCacheInvalidator( SessionFactory sessionFactory )
+    {
+        checkNotNull( sessionFactory );
+
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Used only for testing.
+     */
+    public void setCaches( List<VersionedCache> caches )
+    {
+        this.caches = caches;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        EventListenerRegistry registry = sessionFactory.unwrap( SessionFactoryImplementor.class )
+            .getServiceRegistry().getService( EventListenerRegistry.class );
+
+        registry.appendListeners( EventType.POST_COMMIT_INSERT, this );
+        registry.appendListeners( EventType.POST_COMMIT_UPDATE, this );
+        registry.appendListeners( EventType.POST_COMMIT_DELETE, this );
+        registry.appendListeners( EventType.POST_COLLECTION_UPDATE, this );
+        registry.appendListeners( EventType.POST_COLLECTION_RECREATE, this );
+        registry.appendListeners( EventType.POST_COLLECTION_REMOVE, this );
+    }
+
+    // -------------------------------------------------------------------------
+    // Entity events
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        invalidate( event.getEntity() );
+    }
+
+    @Override
+    public void onPostInsertCommitFailed( PostInsertEvent event )
+    {
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        invalidate( event.getEntity() );
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed( PostUpdateEvent event )
+    {
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        invalidate( event.getEntity() );
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed( PostDeleteEvent event )
+    {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return true;
+    }
+
+    // -------------------------------------------------------------------------
+    // Collection events
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onPostUpdateCollection( PostCollectionUpdateEvent event )
+    {
+        invalidateOnCompletion( event.getAffectedOwnerOrNull() );
+    }
+
+    @Override
+    public void onPostRecreateCollection( PostCollectionRecreateEvent event )
+    {
+        invalidateOnCompletion( event.getAffectedOwnerOrNull() );
+    }
+
+    @Override
+    public void onPostRemoveCollection( PostCollectionRemoveEvent event )
+    {
+        invalidateOnCompletion( event.getAffectedOwnerOrNull() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Invalidates the caches which depend on the type of the given object.
+     *
+     * @param object the changed object.
+     * @return the invalidated caches.
+     */
+    Set<VersionedCache> invalidate( Object object )
+    {
+        Set<VersionedCache> invalidated = new HashSet<>();
+
+        if ( object == null )
+        {
+            return invalidated;
+        }
+
+        for ( VersionedCache cache : caches )
+        {
+            if ( cache.getDependencyTypes().stream().anyMatch( type -> type.isInstance( object ) ) )
+            {
+                cache.invalidateAll();
+                invalidated.add( cache );
+            }
+        }
+
+        return invalidated;
+    }
+
+    /**
+     * Invalidates the caches which depend on the type of the given object, and
+     * invalidates them again when the current transaction completes. Caches are
+     * registered once per transaction, as a flush may change many collections.
+     *
+     * @param object the changed object.
+     */
+    void invalidateOnCompletion( Object object )
+    {
+        Set<VersionedCache> invalidated = invalidate( object );
+
+        if ( invalidated.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            return;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        Set<VersionedCache> pending = (Set<VersionedCache>) TransactionSynchronizationManager.getResource( this );
+
+        if ( pending == null )
+        {
+            Set<VersionedCache> caches = new HashSet<>();
+
+            TransactionSynchronizationManager.bindResource( this, caches );
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCompletion( int status )
+                {
+                    TransactionSynchronizationManager.unbindResourceIfPossible( VersionedCacheInvalidator.this );
+
+                    caches.forEach( VersionedCache::invalidateAll );
+                }
+            } );
+
+            pending = caches;
+        }
+
+        pending.addAll( invalidated );
+    }
+}
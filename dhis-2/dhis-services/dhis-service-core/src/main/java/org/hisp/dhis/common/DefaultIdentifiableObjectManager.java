@@ -529,6 +529,28 @@ public class DefaultIdentifiableObjectManager
         return (List<T>) store.getAllByAttributes( attributes );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    @SuppressWarnings( "unchecked" )
+    public <T extends IdentifiableObject> List<T> getAllByAttributeAndValues( Class<T> klass, Attribute attribute, List<String> values )
+    {
+        Schema schema = schemaService.getDynamicSchema( klass );
+
+        if ( schema == null || !schema.havePersistedProperty( "attributeValues" ) || values.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        IdentifiableObjectStore<IdentifiableObject> store = getIdentifiableObjectStore( klass );
+
+        if ( store == null )
+        {
+            return new ArrayList<>();
+        }
+
+        return (List<T>) store.getAllByAttributeAndValues( attribute, values );
+    }
+
     @Override
     @Transactional( readOnly = true )
     @SuppressWarnings( "unchecked" )
@@ -941,18 +941,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         disjunction.add( Restrictions.like( "c.publicAccess", access ) );
         disjunction.add( Restrictions.isNull( "c.publicAccess" ) );
 
-        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
-        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
-        userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
-        userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
-
-        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
-        userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
-        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
-
-        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
-
-        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+        addUserGroupSharingRestriction( disjunction, user, access );
 
         DetachedCriteria userDetachedCriteria = DetachedCriteria.forClass( getClazz(), "udc" );
         userDetachedCriteria.createCriteria( "udc.userAccesses", "ua" );
@@ -999,18 +988,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         disjunction.add( Restrictions.isNull( "c.user.id" ) );
         disjunction.add( Restrictions.eq( "c.user.id", user.getId() ) );
 
-        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
-        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
-        userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
-        userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
-
-        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
-        userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
-        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
-
-        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
-
-        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+        addUserGroupSharingRestriction( disjunction, user, access );
 
         DetachedCriteria userDetachedCriteria = DetachedCriteria.forClass( getClazz(), "udc" );
         userDetachedCriteria.createCriteria( "udc.userAccesses", "ua" );
@@ -1029,6 +1007,48 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         return criteria;
     }
 
+    /**
+     * Adds a restriction to the given disjunction which matches objects shared
+     * with a user group the given user is a member of. User groups are matched
+     * on the identifiers of the user info when resolved, which avoids joining
+     * the members of every user group, and through the members otherwise.
+     *
+     * @param disjunction the disjunction.
+     * @param user        the user.
+     * @param access      the access string.
+     */
+    private void addUserGroupSharingRestriction( Disjunction disjunction, UserInfo user, String access )
+    {
+        Set<Long> userGroupIds = user.getUserGroupIds();
+
+        if ( userGroupIds != null && userGroupIds.isEmpty() )
+        {
+            return;
+        }
+
+        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
+        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
+
+        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
+
+        if ( userGroupIds != null )
+        {
+            userGroupDetachedCriteria.add( Restrictions.in( "uga.userGroup.id", userGroupIds ) );
+        }
+        else
+        {
+            userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
+            userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
+            userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
+        }
+
+        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
+
+        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
+
+        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+    }
+
     // ----------------------------------------------------------------------
     // JPA support methods
     // ----------------------------------------------------------------------
@@ -1138,7 +1158,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
             return userGroupSubQuery.where(
                 builder.and(
                     builder.equal( root.get( "id" ), ugdc.get( "id" ) ),
-                    builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() ),
+                    getUserGroupMemberPredicate( builder, uga, user ),
                     builder.like( uga.get( "access" ), access ) ) );
         });
 
@@ -1189,7 +1209,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
             return userGroupSubQuery.where(
                 builder.and(
                     builder.equal( root.get( "id" ), ugdc.get( "id" ) ),
-                    builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() ),
+                    getUserGroupMemberPredicate( builder, uga, user ),
                     builder.like( uga.get( "access" ), access ) ) );
         });
 
@@ -1215,6 +1235,28 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         return predicates;
     }
 
+    /**
+     * Returns a predicate which matches user group accesses for user groups the
+     * given user is a member of. User groups are matched on the identifiers of
+     * the user info when resolved, and through the members otherwise.
+     *
+     * @param builder the CriteriaBuilder.
+     * @param uga     the user group access join.
+     * @param user    the user.
+     * @return a Predicate.
+     */
+    private Predicate getUserGroupMemberPredicate( CriteriaBuilder builder, Join<T, UserGroupAccess> uga, UserInfo user )
+    {
+        Set<Long> userGroupIds = user.getUserGroupIds();
+
+        if ( userGroupIds == null )
+        {
+            return builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() );
+        }
+
+        return userGroupIds.isEmpty() ? builder.disjunction() : uga.get( "userGroup" ).get( "id" ).in( userGroupIds );
+    }
+
     // ----------------------------------------------------------------------
     // JPA Implementations
     // ----------------------------------------------------------------------
@@ -48,6 +48,7 @@ import org.hisp.dhis.scheduling.JobConfigurationService;
 import org.hisp.dhis.scheduling.SchedulingManager;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.startup.*;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.UserService;
 import org.springframework.context.annotation.Bean;
@@ -170,6 +171,17 @@ public class StartupConfig
         return upgrader;
     }
 
+    @Bean( "org.hisp.dhis.startup.TrackedEntityAttributeSearchIndexUpdater" )
+    public TrackedEntityAttributeSearchIndexUpdater trackedEntityAttributeSearchIndexUpdater(
+        TrackedEntityAttributeSearchIndexManager searchIndexManager )
+    {
+        TrackedEntityAttributeSearchIndexUpdater updater = new TrackedEntityAttributeSearchIndexUpdater( searchIndexManager );
+        updater.setRunlevel( 14 );
+        updater.setName( "TrackedEntityAttributeSearchIndexUpdater" );
+        updater.setSkipInTests( true );
+        return updater;
+    }
+
     @Bean
     public SchedulerStart schedulerStart( SystemSettingManager systemSettingManager,
         JobConfigurationService jobConfigurationService, SchedulingManager schedulingManager,
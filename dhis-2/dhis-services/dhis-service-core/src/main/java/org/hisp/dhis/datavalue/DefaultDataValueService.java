@@ -326,6 +326,13 @@ public class DefaultDataValueService
         return dataValueStore.getDataValues( source, period, dataElements, attributeOptionCombo );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<DataValue> getDataValues( Collection<DataValue> dataValues )
+    {
+        return dataValueStore.getDataValues( dataValues );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<DeflatedDataValue> getDeflatedDataValues( DataExportParams params )
@@ -35,7 +35,9 @@ import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -332,6 +334,67 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
         return getList( query );
     }
 
+    @Override
+    public List<DataValue> getDataValues( Collection<DataValue> dataValues )
+    {
+        if ( dataValues == null || dataValues.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        Map<String, DataValue> keyMap = new HashMap<>();
+
+        for ( DataValue dataValue : dataValues )
+        {
+            keyMap.putIfAbsent( getKey( dataValue.getDataElement().getId(), dataValue.getPeriod().getId(),
+                dataValue.getSource().getId(), dataValue.getCategoryOptionCombo().getId(),
+                dataValue.getAttributeOptionCombo().getId() ), dataValue );
+        }
+
+        // Match on the full key, as separate lists of ids would also match
+        // every combination of the ids across the data values
+
+        String keyList = keyMap.values().stream()
+            .map( dv -> "(" + dv.getDataElement().getId() + "," + dv.getPeriod().getId() + "," +
+                dv.getSource().getId() + "," + dv.getCategoryOptionCombo().getId() + "," +
+                dv.getAttributeOptionCombo().getId() + ")" )
+            .collect( Collectors.joining( "," ) );
+
+        String sql = "select dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid" +
+            ", dv.value, dv.storedby, dv.comment, dv.followup, dv.deleted" +
+            " from datavalue dv" +
+            " where (dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid)" +
+            " in (" + keyList + ")";
+
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+
+        List<DataValue> result = new ArrayList<>();
+
+        while ( rowSet.next() )
+        {
+            DataValue match = keyMap.get( getKey( rowSet.getLong( 1 ), rowSet.getLong( 2 ),
+                rowSet.getLong( 3 ), rowSet.getLong( 4 ), rowSet.getLong( 5 ) ) );
+
+            if ( match != null )
+            {
+                DataValue dataValue = new DataValue( match.getDataElement(), match.getPeriod(), match.getSource(),
+                    match.getCategoryOptionCombo(), match.getAttributeOptionCombo() );
+
+                dataValue.setValue( rowSet.getString( 6 ) );
+                dataValue.setStoredBy( rowSet.getString( 7 ) );
+                dataValue.setComment( rowSet.getString( 8 ) );
+                dataValue.setFollowup( rowSet.getBoolean( 9 ) );
+                dataValue.setDeleted( rowSet.getBoolean( 10 ) );
+
+                result.add( dataValue );
+            }
+        }
+
+        log.debug( result.size() + " DataValues returned from: " + sql );
+
+        return result;
+    }
+
     @Override
     public List<DeflatedDataValue> getDeflatedDataValues( DataExportParams params )
     {
@@ -517,6 +580,16 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Returns a key which uniquely identifies a data value based on the given
+     * identifiers.
+     */
+    private String getKey( long dataElementId, long periodId, long sourceId,
+        long categoryOptionComboId, long attributeOptionComboId )
+    {
+        return dataElementId + "-" + periodId + "-" + sourceId + "-" + categoryOptionComboId + "-" + attributeOptionComboId;
+    }
+
     /**
      * Gets a list of DataElementOperands to use for SQL query.
      *
@@ -35,6 +35,7 @@ import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.*;
 import static org.hisp.dhis.system.util.MathUtils.calculateExpression;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,6 +43,8 @@ import java.util.stream.Collectors;
 import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.stream.Stream;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -65,6 +68,8 @@ import org.hisp.dhis.indicator.IndicatorValue;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
 import org.hisp.dhis.parser.expression.*;
+import org.hisp.dhis.parser.expression.CompiledExpression.Slot;
+import org.hisp.dhis.parser.expression.CompiledExpression.SlotType;
 import org.hisp.dhis.parser.expression.item.ItemConstant;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.jep.CustomFunctions;
@@ -120,6 +125,14 @@ public class DefaultExpressionService
         .put( DAYS, new ItemDays() )
         .build();
 
+    /**
+     * Compiled expressions, or empty if an expression can only be evaluated
+     * by the visitor.
+     */
+    private final static Cache<String, Optional<CompiledExpression>> COMPILED_EXPRESSIONS = Caffeine.newBuilder()
+        .expireAfterAccess( 10, TimeUnit.MINUTES ).initialCapacity( 10000 )
+        .maximumSize( 50000 ).build();
+
     public DefaultExpressionService(
         @Qualifier( "org.hisp.dhis.expression.ExpressionStore" ) HibernateGenericStore<Expression> expressionStore,
         DataElementService dataElementService, ConstantService constantService, CategoryService categoryService,
@@ -356,6 +369,33 @@ public class DefaultExpressionService
             return null;
         }
 
+        CompiledExpression compiled = getCompiledExpression( expression );
+
+        if ( compiled != null )
+        {
+            Double[] values = evaluateCompiled( compiled, Collections.singletonList( valueMap ), constantMap,
+                orgUnitCountMap, Collections.singletonList( days ), missingValueStrategy );
+
+            if ( values != null )
+            {
+                return values[0];
+            }
+        }
+
+        return getExpressionValueByVisitor( expression, valueMap, constantMap, orgUnitCountMap, days,
+            missingValueStrategy );
+    }
+
+    /**
+     * Generates the calculated value of an expression with the expression
+     * visitor, without compiling the expression. Package-private so that
+     * tests can compare compiled evaluation with the visitor.
+     */
+    Double getExpressionValueByVisitor( String expression,
+        Map<DimensionalItemObject, Double> valueMap, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Integer days,
+        MissingValueStrategy missingValueStrategy )
+    {
         CommonExpressionVisitor expressionExprVisitor = newVisitor(
             FUNCTION_EVALUATE, ITEM_EVALUATE );
 
@@ -400,10 +440,311 @@ public class DefaultExpressionService
         return value;
     }
 
+    @Override
+    public <T> Map<T, Double> getExpressionValues( String expression,
+        Map<T, Map<DimensionalItemObject, Double>> valueMaps, Map<String, Double> constantMap,
+        Map<String, Integer> orgUnitCountMap, Map<T, Integer> daysMap,
+        MissingValueStrategy missingValueStrategy )
+    {
+        Map<T, Double> expressionValues = new HashMap<>();
+
+        if ( expression == null || valueMaps.isEmpty() )
+        {
+            return expressionValues;
+        }
+
+        List<T> keys = new ArrayList<>( valueMaps.keySet() );
+
+        CompiledExpression compiled = getCompiledExpression( expression );
+
+        Double[] values = compiled == null ? null : evaluateCompiled( compiled,
+            keys.stream().map( valueMaps::get ).collect( Collectors.toList() ), constantMap, orgUnitCountMap,
+            keys.stream().map( k -> daysMap != null ? daysMap.get( k ) : null ).collect( Collectors.toList() ),
+            missingValueStrategy );
+
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            T key = keys.get( i );
+
+            Double value = values != null ? values[i] : getExpressionValue( expression, valueMaps.get( key ),
+                constantMap, orgUnitCountMap, daysMap != null ? daysMap.get( key ) : null, missingValueStrategy );
+
+            if ( value != null )
+            {
+                expressionValues.put( key, value );
+            }
+        }
+
+        return expressionValues;
+    }
+
+    @Override
+    public Double[] getExpressionValues( String expression, Map<String, Integer> itemColumns,
+        double[][] values, boolean[][] missing, int rowCount, Map<String, Double> constantMap,
+        Integer days, MissingValueStrategy missingValueStrategy )
+    {
+        // Items in isNull() are not counted by the missing value strategy of
+        // the regular expression based evaluation when missing
+
+        if ( expression == null || ( missingValueStrategy != NEVER_SKIP && ISNULL_PATTERN.matcher( expression ).find() ) )
+        {
+            return null;
+        }
+
+        CompiledExpression compiled = getCompiledExpression( expression );
+
+        if ( compiled == null )
+        {
+            return null;
+        }
+
+        List<Slot> slots = compiled.getSlots();
+
+        double[][] slotValues = new double[slots.size()][];
+        boolean[][] slotMissing = new boolean[slots.size()][];
+
+        for ( int i = 0; i < slots.size(); i++ )
+        {
+            Slot slot = slots.get( i );
+
+            Integer column = slot.getType() == SlotType.ITEM ? itemColumns.get( slot.getKey() ) : null;
+
+            if ( column != null )
+            {
+                slotValues[i] = values[column];
+                slotMissing[i] = missing[column];
+            }
+            else
+            {
+                Double value = slot.getType() == SlotType.DAYS
+                    ? ( days != null ? days.doubleValue() : null )
+                    : getSlotValue( slot, constantMap, null );
+
+                slotValues[i] = new double[rowCount];
+                slotMissing[i] = new boolean[rowCount];
+
+                Arrays.fill( slotValues[i], value != null ? value : 0d );
+                Arrays.fill( slotMissing[i], value == null );
+            }
+        }
+
+        double[] results = new double[rowCount];
+        boolean[] skipped = new boolean[rowCount];
+
+        try
+        {
+            compiled.evaluate( slotValues, slotMissing, rowCount, NEVER_SKIP, results, skipped );
+        }
+        catch ( ParserException ex )
+        {
+            return null;
+        }
+
+        Double[] expressionValues = new Double[rowCount];
+
+        for ( int row = 0; row < rowCount; row++ )
+        {
+            expressionValues[row] = isSkipped( slots, slotMissing, row, missingValueStrategy ) ? null : results[row];
+        }
+
+        return expressionValues;
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Applies the missing value strategy to a row of a value matrix in the
+     * same way as the regular expression based evaluation does, counting
+     * every item of the expression, including the items of conditional
+     * branches which are not evaluated.
+     *
+     * @param slots the slots of the compiled expression.
+     * @param slotMissing whether each value is missing, by slot and row.
+     * @param row the row.
+     * @param missingValueStrategy the missing value strategy.
+     * @return true if the row is skipped.
+     */
+    private boolean isSkipped( List<Slot> slots, boolean[][] slotMissing, int row,
+        MissingValueStrategy missingValueStrategy )
+    {
+        int itemsFound = 0;
+        int itemValuesFound = 0;
+
+        for ( int i = 0; i < slots.size(); i++ )
+        {
+            if ( slots.get( i ).getType() == SlotType.ITEM )
+            {
+                itemsFound++;
+
+                if ( !slotMissing[i][row] )
+                {
+                    itemValuesFound++;
+                }
+            }
+        }
+
+        switch ( missingValueStrategy )
+        {
+            case SKIP_IF_ANY_VALUE_MISSING:
+                return itemValuesFound < itemsFound;
+
+            case SKIP_IF_ALL_VALUES_MISSING:
+                return itemsFound != 0 && itemValuesFound == 0;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Gets the compiled form of an expression, from the cache if possible.
+     *
+     * @param expression the expression.
+     * @return the compiled expression, or null if the expression must be
+     *         evaluated by the visitor.
+     */
+    private CompiledExpression getCompiledExpression( String expression )
+    {
+        return COMPILED_EXPRESSIONS.get( expression, this::compileExpression ).orElse( null );
+    }
+
+    private Optional<CompiledExpression> compileExpression( String expression )
+    {
+        try
+        {
+            return Optional.ofNullable( ExpressionCompiler.compile( expression, this::getSlot ) );
+        }
+        catch ( ParserException ex )
+        {
+            return Optional.empty(); // Reported when evaluated by the visitor
+        }
+    }
+
+    /**
+     * Resolves an expression item to the slot holding its value in a
+     * compiled expression.
+     */
+    private Slot getSlot( ItemContext ctx )
+    {
+        ExprItem item = EXPRESSION_ITEMS.get( ctx.it.getType() );
+
+        if ( item instanceof DimensionalItem )
+        {
+            return new Slot( SlotType.ITEM, ( (DimensionalItem) item ).getId( ctx ) );
+        }
+        else if ( item instanceof ItemConstant )
+        {
+            return new Slot( SlotType.CONSTANT, ctx.uid0.getText() );
+        }
+        else if ( item instanceof ItemOrgUnitGroup )
+        {
+            return new Slot( SlotType.ORG_UNIT_GROUP_COUNT, ctx.uid0.getText() );
+        }
+        else if ( item instanceof ItemDays )
+        {
+            return new Slot( SlotType.DAYS, ctx.getText() );
+        }
+
+        return null;
+    }
+
+    /**
+     * Evaluates a compiled expression for a list of value sets. Values are
+     * placed directly into the slots of the compiled expression, without
+     * building an intermediate map for each value set.
+     *
+     * @return the values, with null for skipped values, or null if the
+     *         expression must be evaluated by the visitor to report an error.
+     */
+    private Double[] evaluateCompiled( CompiledExpression compiled, List<Map<DimensionalItemObject, Double>> valueMaps,
+        Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap, List<Integer> days,
+        MissingValueStrategy missingValueStrategy )
+    {
+        List<Slot> slots = compiled.getSlots();
+
+        int rowCount = valueMaps.size();
+
+        double[][] values = new double[slots.size()][rowCount];
+        boolean[][] missing = new boolean[slots.size()][rowCount];
+
+        for ( int slot = 0; slot < slots.size(); slot++ )
+        {
+            Arrays.fill( missing[slot], true );
+
+            Double value = getSlotValue( slots.get( slot ), constantMap, orgUnitCountMap );
+
+            for ( int row = 0; row < rowCount; row++ )
+            {
+                if ( slots.get( slot ).getType() == SlotType.DAYS )
+                {
+                    value = days.get( row ) != null ? days.get( row ).doubleValue() : null;
+                }
+
+                if ( value != null )
+                {
+                    values[slot][row] = value;
+                    missing[slot][row] = false;
+                }
+            }
+        }
+
+        for ( int row = 0; row < rowCount; row++ )
+        {
+            for ( Map.Entry<DimensionalItemObject, Double> entry : valueMaps.get( row ).entrySet() )
+            {
+                int slot = compiled.getSlotIndex( new Slot( SlotType.ITEM, entry.getKey().getDimensionItem() ) );
+
+                if ( slot != -1 && entry.getValue() != null )
+                {
+                    values[slot][row] = entry.getValue();
+                    missing[slot][row] = false;
+                }
+            }
+        }
+
+        double[] results = new double[rowCount];
+        boolean[] skipped = new boolean[rowCount];
+
+        try
+        {
+            compiled.evaluate( values, missing, rowCount, missingValueStrategy, results, skipped );
+        }
+        catch ( ParserException ex )
+        {
+            return null;
+        }
+
+        Double[] expressionValues = new Double[rowCount];
+
+        for ( int row = 0; row < rowCount; row++ )
+        {
+            expressionValues[row] = skipped[row] ? null : results[row];
+        }
+
+        return expressionValues;
+    }
+
+    /**
+     * Gets the value of a constant or organisation unit group count slot.
+     */
+    private Double getSlotValue( Slot slot, Map<String, Double> constantMap, Map<String, Integer> orgUnitCountMap )
+    {
+        if ( slot.getType() == SlotType.CONSTANT && constantMap != null )
+        {
+            return constantMap.get( slot.getKey() );
+        }
+        else if ( slot.getType() == SlotType.ORG_UNIT_GROUP_COUNT && orgUnitCountMap != null )
+        {
+            Integer count = orgUnitCountMap.get( slot.getKey() );
+
+            return count != null ? count.doubleValue() : null;
+        }
+
+        return null;
+    }
+
     /**
      * Creates a new ExpressionItemsVisitor object.
      */
@@ -34,6 +34,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
+import org.hisp.dhis.attribute.AttributeValue;
 import org.hisp.dhis.category.CategoryDimension;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.BaseAnalyticalObject;
@@ -79,7 +80,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -94,6 +97,19 @@ public class DefaultPreheatService implements PreheatService
 {
     private static final Log log = LogFactory.getLog( DefaultPreheatService.class );
 
+    private static final int QUERY_PARTITION_SIZE = 20000;
+
+    /**
+     * Owned, persisted reference properties per class, schemas are static so these
+     * are only computed once and shared between (prototype scoped) service instances.
+     */
+    private static final Map<Class<?>, List<Property>> REFERENCE_PROPERTIES = new ConcurrentHashMap<>();
+
+    /**
+     * Owned, persisted, unique and simple properties per class.
+     */
+    private static final Map<Class<?>, List<Property>> UNIQUE_PROPERTIES = new ConcurrentHashMap<>();
+
     private final SchemaService schemaService;
 
     private final QueryService queryService;
@@ -238,20 +254,29 @@ public class DefaultPreheatService implements PreheatService
                 }
             }
 
-            for ( Class<? extends IdentifiableObject> klass : klasses )
+            // only load existing objects which collide with the unique property values being imported
+            Map<Class<?>, List<?>> uniqueTargets = new HashMap<>( params.getObjects() );
+
+            if ( uniqueTargets.containsKey( User.class ) )
             {
-                Query query = Query.from( schemaService.getDynamicSchema( klass ) );
-                query.setUser( preheat.getUser() );
-                List<? extends IdentifiableObject> objects = queryService.query( query );
+                uniqueTargets.put( UserCredentials.class, params.getObjects().get( User.class ).stream()
+                    .map( user -> ((User) user).getUserCredentials() )
+                    .filter( Objects::nonNull )
+                    .collect( Collectors.toList() ) );
+            }
+
+            for ( Class<?> klass : uniqueTargets.keySet() )
+            {
+                List<IdentifiableObject> objects = getUniqueCandidates( klass, uniqueTargets.get( klass ), preheat.getUser() );
 
                 if ( !objects.isEmpty() )
                 {
-                    uniqueCollectionMap.put( klass, new ArrayList<>( objects ) );
+                    uniqueCollectionMap.put( (Class<? extends IdentifiableObject>) klass, objects );
                 }
             }
         }
 
-        if ( uniqueCollectionMap.containsKey( User.class ) )
+        if ( uniqueCollectionMap.containsKey( User.class ) && !uniqueCollectionMap.containsKey( UserCredentials.class ) )
         {
             List<IdentifiableObject> userCredentials = new ArrayList<>();
 
@@ -368,7 +393,21 @@ public class DefaultPreheatService implements PreheatService
 
             uniqueAttributes.forEach( attribute -> preheat.getUniqueAttributes().get( klass ).add( attribute.getUid() ) );
 
-            List<? extends IdentifiableObject> uniqueAttributeValues = manager.getAllByAttributes( klass, uniqueAttributes );
+            List<IdentifiableObject> uniqueAttributeValues = new ArrayList<>();
+
+            for ( Attribute attribute : uniqueAttributes )
+            {
+                List<String> values = objects.get( klass ).stream()
+                    .flatMap( object -> object.getAttributeValues().stream() )
+                    .filter( av -> av.getAttribute() != null && attribute.getUid().equals( av.getAttribute().getUid() ) && av.getValue() != null )
+                    .map( AttributeValue::getValue )
+                    .distinct()
+                    .collect( Collectors.toList() );
+
+                Lists.partition( values, QUERY_PARTITION_SIZE ).forEach( partition ->
+                    uniqueAttributeValues.addAll( manager.getAllByAttributeAndValues( klass, attribute, partition ) ) );
+            }
+
             handleUniqueAttributeValues( klass, uniqueAttributeValues, preheat );
         }
 
@@ -508,10 +547,7 @@ public class DefaultPreheatService implements PreheatService
         for ( Class<?> klass : targets.keySet() )
         {
             Schema schema = schemaService.getDynamicSchema( klass );
-
-            List<Property> referenceProperties = schema.getProperties().stream()
-                .filter( p -> p.isPersisted() && p.isOwner() && (PropertyType.REFERENCE == p.getPropertyType() || PropertyType.REFERENCE == p.getItemPropertyType()) )
-                .collect( Collectors.toList() );
+            List<Property> referenceProperties = getReferenceProperties( schema );
 
             for ( Object object : targets.get( klass ) )
             {
@@ -841,10 +877,7 @@ public class DefaultPreheatService implements PreheatService
         }
 
         Schema schema = schemaService.getDynamicSchema( object.getClass() );
-
-        List<Property> properties = schema.getProperties().stream()
-            .filter( p -> p.isPersisted() && p.isOwner() && (PropertyType.REFERENCE == p.getPropertyType() || PropertyType.REFERENCE == p.getItemPropertyType()) )
-            .collect( Collectors.toList() );
+        List<Property> properties = getReferenceProperties( schema );
 
         for ( Property property : properties )
         {
@@ -946,11 +979,58 @@ public class DefaultPreheatService implements PreheatService
         if ( !StringUtils.isEmpty( identifiableObject.getCode() ) ) codeMap.get( klass ).add( identifiableObject.getCode() );
     }
 
-    private Map<String, Map<Object, String>> handleUniqueProperties( Schema schema, List<IdentifiableObject> objects )
+    private List<Property> getReferenceProperties( Schema schema )
+    {
+        return REFERENCE_PROPERTIES.computeIfAbsent( schema.getKlass(), klass -> schema.getProperties().stream()
+            .filter( p -> p.isPersisted() && p.isOwner() && (PropertyType.REFERENCE == p.getPropertyType() || PropertyType.REFERENCE == p.getItemPropertyType()) )
+            .collect( Collectors.toList() ) );
+    }
+
+    private List<Property> getUniqueProperties( Schema schema )
     {
-        List<Property> uniqueProperties = schema.getProperties().stream()
+        return UNIQUE_PROPERTIES.computeIfAbsent( schema.getKlass(), klass -> schema.getProperties().stream()
             .filter( p -> p.isPersisted() && p.isOwner() && p.isUnique() && p.isSimple() )
-            .collect( Collectors.toList() );
+            .collect( Collectors.toList() ) );
+    }
+
+    /**
+     * Loads the persisted objects of the given class which share at least one unique
+     * property value with the given objects, using an IN query per unique property.
+     */
+    private List<IdentifiableObject> getUniqueCandidates( Class<?> klass, List<?> objects, User user )
+    {
+        Schema schema = schemaService.getDynamicSchema( klass );
+
+        if ( schema == null || !schema.isPersisted() || objects.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        Map<String, IdentifiableObject> candidates = new HashMap<>();
+
+        for ( Property property : getUniqueProperties( schema ) )
+        {
+            List<Object> values = objects.stream()
+                .map( object -> ReflectionUtils.<Object>invokeMethod( object, property.getGetterMethod() ) )
+                .filter( Objects::nonNull )
+                .distinct()
+                .collect( Collectors.toList() );
+
+            for ( List<Object> partition : Lists.partition( values, QUERY_PARTITION_SIZE ) )
+            {
+                Query query = Query.from( schema );
+                query.setUser( user );
+                query.add( Restrictions.in( property.getName(), partition ) );
+                queryService.query( query ).forEach( object -> candidates.put( object.getUid(), object ) );
+            }
+        }
+
+        return new ArrayList<>( candidates.values() );
+    }
+
+    private Map<String, Map<Object, String>> handleUniqueProperties( Schema schema, List<IdentifiableObject> objects )
+    {
+        List<Property> uniqueProperties = getUniqueProperties( schema );
 
         Map<String, Map<Object, String>> map = new HashMap<>();
 
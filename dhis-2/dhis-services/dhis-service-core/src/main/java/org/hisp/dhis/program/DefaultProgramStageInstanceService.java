@@ -291,6 +291,17 @@ public class DefaultProgramStageInstanceService
     public void auditDataValuesChangesAndHandleFileDataValues( Set<EventDataValue> newDataValues,
         Set<EventDataValue> updatedDataValues, Set<EventDataValue> removedDataValues,
         Map<String, DataElement> dataElementsCache, ProgramStageInstance programStageInstance, boolean singleValue )
+    {
+        auditDataValuesChangesAndHandleFileDataValues( newDataValues, updatedDataValues, removedDataValues,
+            dataElementsCache, programStageInstance, singleValue, false );
+    }
+
+    @Override
+    @Transactional
+    public void auditDataValuesChangesAndHandleFileDataValues( Set<EventDataValue> newDataValues,
+        Set<EventDataValue> updatedDataValues, Set<EventDataValue> removedDataValues,
+        Map<String, DataElement> dataElementsCache, ProgramStageInstance programStageInstance, boolean singleValue,
+        boolean skipAudit )
     {
         Set<EventDataValue> updatedOrNewDataValues = Sets.union( newDataValues, updatedDataValues );
 
@@ -309,8 +320,12 @@ public class DefaultProgramStageInstanceService
             programStageInstance.setEventDataValues( updatedOrNewDataValues );
         }
 
-        auditDataValuesChanges( newDataValues, updatedDataValues, removedDataValues, dataElementsCache,
-            programStageInstance );
+        if ( !skipAudit )
+        {
+            auditDataValuesChanges( newDataValues, updatedDataValues, removedDataValues, dataElementsCache,
+                programStageInstance );
+        }
+
         handleFileDataValueChanges( newDataValues, updatedDataValues, removedDataValues, dataElementsCache );
     }
 
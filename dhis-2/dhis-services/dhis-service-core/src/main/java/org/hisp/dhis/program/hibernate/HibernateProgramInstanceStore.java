@@ -44,6 +44,7 @@ import javax.persistence.criteria.Root;
 import org.apache.commons.lang.time.DateUtils;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.commons.util.SqlHelper;
@@ -99,27 +100,47 @@ public class HibernateProgramInstanceStore
 
     private String buildCountProgramInstanceHql( ProgramInstanceQueryParams params )
     {
-        return buildProgramInstanceHql( params ).replaceFirst( "from ProgramInstance pi", "select count(distinct uid) from ProgramInstance pi" );
+        return buildProgramInstanceHql( params, false )
+            .replaceFirst( "from ProgramInstance pi", "select count(distinct uid) from ProgramInstance pi" )
+            .replaceFirst( "order by pi.lastUpdated desc, pi.id desc ", "" );
     }
 
     @Override
     @SuppressWarnings( "unchecked" )
     public List<ProgramInstance> getProgramInstances( ProgramInstanceQueryParams params )
     {
-        String hql = buildProgramInstanceHql( params );
+        String hql = buildProgramInstanceHql( params, true );
 
         Query query = getQuery( hql );
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            query.setMaxResults( params.getPageSizeWithDefault() );
+        }
+        else if ( params.isPaging() )
         {
             query.setFirstResult( params.getOffset() );
             query.setMaxResults( params.getPageSizeWithDefault() );
         }
 
-        return query.list();
+        List<ProgramInstance> programInstances = query.list();
+
+        if ( params.isPaging() && params.isKeysetPaging() && programInstances.size() >= params.getPageSizeWithDefault() )
+        {
+            ProgramInstance last = programInstances.get( programInstances.size() - 1 );
+
+            params.setNextPageCursor( new KeysetCursor( last.getLastUpdated(), last.getId() ) );
+        }
+
+        return programInstances;
     }
 
-    private String buildProgramInstanceHql( ProgramInstanceQueryParams params )
+    /**
+     * @param params the query parameters.
+     * @param applyPageCursor whether to restrict the query to enrollments after
+     *        the keyset page cursor, which is not done for counting.
+     */
+    private String buildProgramInstanceHql( ProgramInstanceQueryParams params, boolean applyPageCursor )
     {
         String hql = "from ProgramInstance pi";
         SqlHelper hlp = new SqlHelper( true );
@@ -191,6 +212,16 @@ public class HibernateProgramInstanceStore
             hql += hlp.whereAnd() + " pi.deleted is false ";
         }
 
+        if ( applyPageCursor && params.hasPageCursor() )
+        {
+            hql += hlp.whereAnd() + params.getPageCursor().getSqlCondition( "pi.lastUpdated", "pi.id" );
+        }
+
+        if ( params.isKeysetPaging() )
+        {
+            hql += " order by pi.lastUpdated desc, pi.id desc ";
+        }
+
         return hql;
     }
 
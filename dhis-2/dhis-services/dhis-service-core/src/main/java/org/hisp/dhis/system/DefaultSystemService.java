@@ -157,6 +157,7 @@ public class DefaultSystemService
         info.setCalendar( calendarService.getSystemCalendar().name() );
         info.setDateFormat( calendarService.getSystemDateFormat().getJs() );
         info.setServerDate( new Date() );
+        info.setReadReplicas( dataSourceManager.getReadReplicaInfo() );
         info.setLastAnalyticsTableSuccess( lastAnalyticsTableSuccess );
         info.setIntervalSinceLastAnalyticsTableSuccess( DateUtils.getPrettyInterval( lastAnalyticsTableSuccess, now ) );
         info.setLastSystemMonitoringSuccess( lastSystemMonitoringSuccess );
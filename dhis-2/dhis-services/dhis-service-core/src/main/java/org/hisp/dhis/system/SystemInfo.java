@@ -29,14 +29,17 @@ package org.hisp.dhis.system;
  */
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
 import org.hisp.dhis.common.DxfNamespaces;
+import org.hisp.dhis.datasource.ReadReplicaInfo;
 import org.hisp.dhis.logging.LoggingConfig;
 import org.hisp.dhis.system.database.DatabaseInfo;
 import org.springframework.beans.BeanUtils;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author Lars Helge Overland
@@ -108,6 +111,8 @@ public class SystemInfo
 
     private Integer readReplicaCount;
 
+    private List<ReadReplicaInfo> readReplicas;
+
     private String memoryInfo;
 
     private Integer cpuCores;
@@ -168,6 +173,7 @@ public class SystemInfo
         this.osVersion = null;
         this.externalDirectory = null;
         this.readReplicaCount = null;
+        this.readReplicas = null;
         this.memoryInfo = null;
         this.cpuCores = null;
         this.systemMonitoringUrl = null;
@@ -495,6 +501,19 @@ public class SystemInfo
         this.readReplicaCount = readReplicaCount;
     }
 
+    @JsonProperty
+    @JacksonXmlElementWrapper( localName = "readReplicas", namespace = DxfNamespaces.DXF_2_0 )
+    @JacksonXmlProperty( localName = "readReplica", namespace = DxfNamespaces.DXF_2_0 )
+    public List<ReadReplicaInfo> getReadReplicas()
+    {
+        return readReplicas;
+    }
+
+    public void setReadReplicas( List<ReadReplicaInfo> readReplicas )
+    {
+        this.readReplicas = readReplicas;
+    }
+
     @JsonProperty
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     public String getMemoryInfo()
@@ -0,0 +1,332 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.system.util.Clock;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Search index manager which maintains one partial trigram index on the lower
+ * case attribute values per searchable text attribute. Searches on attribute
+ * values filter on {@code lower(value)} together with the attribute identifier,
+ * so like and regular expression predicates can be answered by the index of
+ * the attribute instead of a sequential scan.
+ * <p>
+ * Indexes are created and dropped concurrently, so attribute values can be
+ * written while indexes are built. A concurrent build which fails leaves an
+ * invalid index behind, which is dropped and recreated by the next update.
+ * Prefix b-tree indexes are not used since attribute values can exceed the
+ * b-tree index row size.
+ */
+@Service( "org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager" )
+public class DefaultTrackedEntityAttributeSearchIndexManager
+    implements TrackedEntityAttributeSearchIndexManager
+{
+    private static final Log log = LogFactory.getLog( DefaultTrackedEntityAttributeSearchIndexManager.class );
+
+    private static final String INDEX_PREFIX = "in_teav_search_";
+
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DhisConfigurationProvider config;
+
+    public DefaultTrackedEntityAttributeSearchIndexManager( JdbcTemplate jdbcTemplate,
+        DhisConfigurationProvider config )
+    {
+        checkNotNull( jdbcTemplate );
+        checkNotNull( config );
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+    }
+
+    // -------------------------------------------------------------------------
+    // State
+    // -------------------------------------------------------------------------
+
+    private volatile Set<Long> indexedAttributes = new HashSet<>();
+
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+
+    private final LongAdder searchCount = new LongAdder();
+
+    private final LongAdder searchMillis = new LongAdder();
+
+    private final LongAccumulator maxSearchMillis = new LongAccumulator( Long::max, 0 );
+
+    private final LongAdder indexedSearchCount = new LongAdder();
+
+    private final LongAdder indexedSearchMillis = new LongAdder();
+
+    // -------------------------------------------------------------------------
+    // TrackedEntityAttributeSearchIndexManager implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    @Async
+    public void updateSearchIndexes()
+    {
+        if ( !config.isEnabled( ConfigurationKey.TRACKER_SEARCH_INDEX ) )
+        {
+            return;
+        }
+
+        // An update which has been requested but not started yet covers this request
+
+        if ( !updatePending.compareAndSet( false, true ) )
+        {
+            return;
+        }
+
+        synchronized ( this )
+        {
+            updatePending.set( false );
+
+            updateSearchIndexesInternal();
+        }
+    }
+
+    private void updateSearchIndexesInternal()
+    {
+        if ( !enableTrigramExtension() )
+        {
+            log.warn( "Extension pg_trgm is not available, tracked entity attribute search indexes are not created" );
+            return;
+        }
+
+        Clock clock = new Clock( log ).startClock();
+
+        Set<Long> searchable = getSearchableTextAttributes();
+        Map<Long, Boolean> indexes = getExistingIndexes();
+
+        Set<Long> invalid = indexes.entrySet().stream()
+            .filter( e -> !e.getValue() )
+            .map( Map.Entry::getKey )
+            .collect( Collectors.toSet() );
+
+        for ( Long attribute : invalid )
+        {
+            log.warn( "Dropping invalid tracked entity attribute search index: " + INDEX_PREFIX + attribute );
+
+            executeSilently( "drop index concurrently if exists " + INDEX_PREFIX + attribute );
+        }
+
+        Set<Long> indexed = Sets.difference( indexes.keySet(), invalid ).immutableCopy();
+
+        for ( Long attribute : Sets.difference( searchable, indexed ) )
+        {
+            String sql = "create index concurrently if not exists " + INDEX_PREFIX + attribute +
+                " on trackedentityattributevalue using gin (lower(value) gin_trgm_ops)" +
+                " where trackedentityattributeid = " + attribute;
+
+            executeSilently( sql );
+        }
+
+        for ( Long attribute : Sets.difference( indexed, searchable ) )
+        {
+            executeSilently( "drop index concurrently if exists " + INDEX_PREFIX + attribute );
+        }
+
+        indexedAttributes = getExistingIndexes().entrySet().stream()
+            .filter( Map.Entry::getValue )
+            .map( Map.Entry::getKey )
+            .collect( Collectors.toSet() );
+
+        clock.logTime( "Updated tracked entity attribute search indexes, indexed attributes: " + indexedAttributes.size() );
+    }
+
+    @Override
+    public Set<Long> getIndexedAttributes()
+    {
+        return new HashSet<>( indexedAttributes );
+    }
+
+    @Override
+    public void recordSearch( TrackedEntityInstanceQueryParams params, long millis )
+    {
+        searchCount.increment();
+        searchMillis.add( millis );
+        maxSearchMillis.accumulate( millis );
+
+        Set<Long> attributes = indexedAttributes;
+
+        List<QueryItem> queried = params.getAttributesAndFilters().stream()
+            .filter( item -> params.isOrQuery() || item.hasFilter() )
+            .collect( Collectors.toList() );
+
+        if ( !queried.isEmpty() && queried.stream().allMatch( item -> attributes.contains( item.getItem().getId() ) ) )
+        {
+            indexedSearchCount.increment();
+            indexedSearchMillis.add( millis );
+        }
+    }
+
+    @Override
+    public TrackedEntitySearchStatistics getSearchStatistics()
+    {
+        return new TrackedEntitySearchStatistics( searchCount.sum(), searchMillis.sum(), maxSearchMillis.get(),
+            indexedSearchCount.sum(), indexedSearchMillis.sum(), getIndexedAttributes() );
+    }
+
+    @Override
+    public void clearSearchStatistics()
+    {
+        searchCount.reset();
+        searchMillis.reset();
+        maxSearchMillis.reset();
+        indexedSearchCount.reset();
+        indexedSearchMillis.reset();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean enableTrigramExtension()
+    {
+        try
+        {
+            jdbcTemplate.execute( "create extension if not exists pg_trgm" );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.debug( "Could not create extension pg_trgm: " + ex.getMessage() );
+        }
+
+        try
+        {
+            return jdbcTemplate.queryForObject( "select count(*) from pg_extension where extname = 'pg_trgm'", Integer.class ) > 0;
+        }
+        catch ( DataAccessException ex )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the identifiers of text attributes which are unique or
+     * searchable for a program or tracked entity type.
+     */
+    private Set<Long> getSearchableTextAttributes()
+    {
+        final String sql =
+            "select tea.trackedentityattributeid, tea.valuetype from trackedentityattribute tea " +
+            "where tea.uniquefield = true " +
+            "or exists (select 1 from program_attributes pa " +
+                "where pa.trackedentityattributeid = tea.trackedentityattributeid and pa.searchable = true) " +
+            "or exists (select 1 from trackedentitytypeattribute tta " +
+                "where tta.trackedentityattributeid = tea.trackedentityattributeid and tta.searchable = true)";
+
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+
+        Set<Long> attributes = new HashSet<>();
+
+        while ( rowSet.next() )
+        {
+            String valueType = rowSet.getString( "valuetype" );
+
+            if ( valueType != null && ValueType.valueOf( valueType ).isText() )
+            {
+                attributes.add( rowSet.getLong( "trackedentityattributeid" ) );
+            }
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Returns whether the existing search index of each attribute is valid,
+     * mapped by attribute identifier.
+     */
+    private Map<Long, Boolean> getExistingIndexes()
+    {
+        final String sql =
+            "select ic.relname as indexname, i.indisvalid as valid from pg_index i " +
+            "inner join pg_class ic on i.indexrelid = ic.oid " +
+            "inner join pg_class tc on i.indrelid = tc.oid " +
+            "where tc.relname = 'trackedentityattributevalue' and ic.relname like '" + INDEX_PREFIX + "%'";
+
+        Map<Long, Boolean> indexes = new HashMap<>();
+
+        for ( Map<String, Object> row : jdbcTemplate.queryForList( sql ) )
+        {
+            String attribute = ( (String) row.get( "indexname" ) ).substring( INDEX_PREFIX.length() );
+
+            if ( StringUtils.isNumeric( attribute ) )
+            {
+                indexes.put( Long.valueOf( attribute ), Boolean.TRUE.equals( row.get( "valid" ) ) );
+            }
+        }
+
+        return indexes;
+    }
+
+    private void executeSilently( String sql )
+    {
+        try
+        {
+            log.debug( "Search index SQL: " + sql );
+
+            jdbcTemplate.execute( sql );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Search index statement failed: " + sql, ex );
+        }
+    }
+}
@@ -335,10 +335,18 @@ public class DefaultTrackedEntityInstanceService
 
             if ( params.isTotalPages() )
             {
-                count = trackedEntityInstanceStore.getTrackedEntityInstanceCount( params );
+                Integer estimate = params.isApproximateCount() ? trackedEntityInstanceStore.getEstimatedTrackedEntityInstanceCount( params ) : null;
+
+                count = estimate != null ? estimate : trackedEntityInstanceStore.getTrackedEntityInstanceCount( params );
             }
 
             Pager pager = new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() );
+
+            if ( params.getNextPageCursor() != null )
+            {
+                pager.setNextPageToken( params.getNextPageCursor().encode() );
+            }
+
             metaData.put( PAGER_META_KEY, pager );
         }
 
@@ -512,6 +520,11 @@ public class DefaultTrackedEntityInstanceService
             violation = "Filters cannot be specified more than once: " + params.getDuplicateFilters();
         }
 
+        if ( params.isKeysetPaging() && params.getOrders() != null && !params.getOrders().isEmpty() )
+        {
+            violation = "Order cannot be specified when paging with page tokens";
+        }
+
         if ( violation != null )
         {
             log.warn( "Validation failed: " + violation );
@@ -877,6 +890,14 @@ public class DefaultTrackedEntityInstanceService
         trackedEntityInstanceStore.updateTrackedEntityInstancesSyncTimestamp( trackedEntityInstanceUIDs, lastSynchronized );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void loadAssociations( List<TrackedEntityInstance> trackedEntityInstances, boolean includeEnrollments,
+        boolean includeEvents, boolean includeRelationships )
+    {
+        trackedEntityInstanceStore.loadAssociations( trackedEntityInstances, includeEnrollments, includeEvents, includeRelationships );
+    }
+
     @Override
     @Transactional
     public void deleteTrackedEntityInstance( TrackedEntityInstance instance )
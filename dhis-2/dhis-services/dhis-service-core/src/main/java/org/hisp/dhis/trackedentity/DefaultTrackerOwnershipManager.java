@@ -28,6 +28,11 @@ package org.hisp.dhis.trackedentity;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -50,7 +55,10 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.Lists;
+
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 
 /**
  * @author Ameen Mohamed
@@ -62,6 +70,8 @@ public class DefaultTrackerOwnershipManager implements TrackerOwnershipManager
 
     private static final int TEMPORARY_OWNERSHIP_VALIDITY_IN_HOURS = 3;
 
+    private static final int OWNER_PARTITION_SIZE = 10000;
+
     private static final Log log = LogFactory.getLog( DefaultTrackerOwnershipManager.class );
 
     // -------------------------------------------------------------------------
@@ -228,6 +238,61 @@ public class DefaultTrackerOwnershipManager implements TrackerOwnershipManager
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<TrackedEntityInstance, Set<Program>> getAccessiblePrograms( User user, List<TrackedEntityInstance> entityInstances,
+        Collection<Program> programs )
+    {
+        Map<Long, Map<Long, OrganisationUnit>> owners = new HashMap<>();
+
+        boolean ownershipCheck = programs.stream().anyMatch( program -> !canSkipOwnershipCheck( user, program ) );
+
+        if ( ownershipCheck )
+        {
+            for ( List<Long> partition : Lists.partition( getIdentifiers( entityInstances ), OWNER_PARTITION_SIZE ) )
+            {
+                for ( TrackedEntityProgramOwner owner : trackedEntityProgramOwnerService.getTrackedEntityProgramOwnersUsingId( partition ) )
+                {
+                    owners.computeIfAbsent( owner.getEntityInstance().getId(), id -> new HashMap<>() )
+                        .put( owner.getProgram().getId(), owner.getOrganisationUnit() );
+                }
+            }
+        }
+
+        Map<TrackedEntityInstance, Set<Program>> accessiblePrograms = new HashMap<>();
+
+        for ( TrackedEntityInstance entityInstance : entityInstances )
+        {
+            Map<Long, OrganisationUnit> entityInstanceOwners = owners.getOrDefault( entityInstance.getId(), new HashMap<>() );
+
+            Set<Program> accessible = new HashSet<>();
+
+            for ( Program program : programs )
+            {
+                if ( canSkipOwnershipCheck( user, program ) )
+                {
+                    accessible.add( program );
+                    continue;
+                }
+
+                OrganisationUnit ou = entityInstanceOwners.getOrDefault( program.getId(), entityInstance.getOrganisationUnit() );
+
+                boolean hasAccess = program.isOpen() || program.isAudited() ?
+                    isInHierarchy( ou, user.getTeiSearchOrganisationUnitsWithFallback() ) :
+                    isInHierarchy( ou, user.getOrganisationUnits() ) || hasTemporaryAccess( entityInstance, program, user );
+
+                if ( hasAccess )
+                {
+                    accessible.add( program );
+                }
+            }
+
+            accessiblePrograms.put( entityInstance, accessible );
+        }
+
+        return accessiblePrograms;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean hasAccess( User user, ProgramInstance programInstance )
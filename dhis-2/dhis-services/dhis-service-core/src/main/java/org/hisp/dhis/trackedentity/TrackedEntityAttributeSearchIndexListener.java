@@ -0,0 +1,171 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Hibernate event listener which updates the tracked entity attribute search
+ * indexes once changes to the searchable or unique flags of attributes, or to
+ * the value type of attributes, are committed.
+ */
+@Component( "org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexListener" )
+public class TrackedEntityAttributeSearchIndexListener
+    implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener
+{
+    private static final Set<String> INDEXED_PROPERTIES = ImmutableSet.of( "searchable", "unique", "valueType" );
+
+    private final SessionFactory sessionFactory;
+
+    private final TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
+    public TrackedEntityAttributeSearchIndexListener( SessionFactory sessionFactory,
+        TrackedEntityAttributeSearchIndexManager searchIndexManager )
+    {
+        checkNotNull( sessionFactory );
+        checkNotNull( searchIndexManager );
+
+        this.sessionFactory = sessionFactory;
+        this.searchIndexManager = searchIndexManager;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        EventListenerRegistry registry = sessionFactory.unwrap( SessionFactoryImplementor.class )
+            .getServiceRegistry().getService( EventListenerRegistry.class );
+
+        registry.appendListeners( EventType.POST_COMMIT_INSERT, this );
+        registry.appendListeners( EventType.POST_COMMIT_UPDATE, this );
+        registry.appendListeners( EventType.POST_COMMIT_DELETE, this );
+    }
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        if ( isSearchable( event.getEntity() ) )
+        {
+            searchIndexManager.updateSearchIndexes();
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed( PostInsertEvent event )
+    {
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        if ( isAttributeOrMembership( event.getEntity() ) && event.getDirtyProperties() != null &&
+            Arrays.stream( event.getDirtyProperties() )
+                .mapToObj( i -> event.getPersister().getPropertyNames()[i] )
+                .anyMatch( INDEXED_PROPERTIES::contains ) )
+        {
+            searchIndexManager.updateSearchIndexes();
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed( PostUpdateEvent event )
+    {
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        if ( isSearchable( event.getEntity() ) )
+        {
+            searchIndexManager.updateSearchIndexes();
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed( PostDeleteEvent event )
+    {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return true;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isAttributeOrMembership( Object object )
+    {
+        return object instanceof TrackedEntityAttribute || object instanceof TrackedEntityTypeAttribute ||
+            object instanceof ProgramTrackedEntityAttribute;
+    }
+
+    /**
+     * Indicates whether the given object makes an attribute searchable.
+     */
+    private boolean isSearchable( Object object )
+    {
+        if ( object instanceof TrackedEntityAttribute )
+        {
+            return Boolean.TRUE.equals( ( (TrackedEntityAttribute) object ).isUnique() );
+        }
+        else if ( object instanceof TrackedEntityTypeAttribute )
+        {
+            return Boolean.TRUE.equals( ( (TrackedEntityTypeAttribute) object ).isSearchable() );
+        }
+        else if ( object instanceof ProgramTrackedEntityAttribute )
+        {
+            return Boolean.TRUE.equals( ( (ProgramTrackedEntityAttribute) object ).isSearchable() );
+        }
+
+        return false;
+    }
+}
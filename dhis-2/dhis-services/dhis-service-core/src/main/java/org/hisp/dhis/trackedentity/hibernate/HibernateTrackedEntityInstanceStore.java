@@ -28,12 +28,14 @@ package org.hisp.dhis.trackedentity.hibernate;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.query.Query;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
@@ -44,7 +46,9 @@ import org.hisp.dhis.deletedobject.DeletedObjectService;
 import org.hisp.dhis.event.EventStatus;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceStore;
@@ -66,11 +70,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
 import static org.hisp.dhis.commons.util.TextUtils.*;
+import static org.hisp.dhis.system.util.SqlUtils.getEstimatedRowCount;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.*;
 import static org.hisp.dhis.util.DateUtils.getDateAfterAddition;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
@@ -85,22 +91,30 @@ public class HibernateTrackedEntityInstanceStore
 {
     private static final Log log = LogFactory.getLog( HibernateTrackedEntityInstanceStore.class );
 
+    private static final String KEYSET_ID = "keysetid";
+
+    private static final int ASSOCIATION_PARTITION_SIZE = 10000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
 
     private final StatementBuilder statementBuilder;
 
+    private final TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
     public HibernateTrackedEntityInstanceStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
         CurrentUserService currentUserService, DeletedObjectService deletedObjectService, AclService aclService,
-        StatementBuilder statementBuilder )
+        StatementBuilder statementBuilder, TrackedEntityAttributeSearchIndexManager searchIndexManager )
     {
         super( sessionFactory, jdbcTemplate, TrackedEntityInstance.class, currentUserService, deletedObjectService,
             aclService, false );
 
         checkNotNull( statementBuilder );
+        checkNotNull( searchIndexManager );
 
         this.statementBuilder = statementBuilder;
+        this.searchIndexManager = searchIndexManager;
     }
 
     // -------------------------------------------------------------------------
@@ -120,7 +134,7 @@ public class HibernateTrackedEntityInstanceStore
     @SuppressWarnings( "unchecked" )
     public List<TrackedEntityInstance> getTrackedEntityInstances( TrackedEntityInstanceQueryParams params )
     {
-        String hql = buildTrackedEntityInstanceHql( params );
+        String hql = buildTrackedEntityInstanceHql( params, true );
 
         //If it is a sync job running a query, I need to adjust an HQL a bit, because I am adding 2 joins and don't want duplicates in results
         if ( params.isSynchronizationQuery() )
@@ -130,27 +144,46 @@ public class HibernateTrackedEntityInstanceStore
 
         Query query = getQuery( hql );
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            query.setMaxResults( params.getPageSizeWithDefault() );
+        }
+        else if ( params.isPaging() )
         {
             query.setFirstResult( params.getOffset() );
             query.setMaxResults( params.getPageSizeWithDefault() );
         }
 
-        return query.list();
+        List<TrackedEntityInstance> trackedEntityInstances = query.list();
+
+        if ( params.isPaging() && params.isKeysetPaging() && trackedEntityInstances.size() >= params.getPageSizeWithDefault() )
+        {
+            TrackedEntityInstance last = trackedEntityInstances.get( trackedEntityInstances.size() - 1 );
+
+            params.setNextPageCursor( new KeysetCursor( last.getLastUpdated(), last.getId() ) );
+        }
+
+        return trackedEntityInstances;
     }
 
     private String buildTrackedEntityInstanceCountHql( TrackedEntityInstanceQueryParams params )
     {
-        return buildTrackedEntityInstanceHql( params )
+        return buildTrackedEntityInstanceHql( params, false )
             .replaceFirst( "select tei from", "select count(distinct tei) from" )
             .replaceFirst( "inner join fetch tei.programInstances", "inner join tei.programInstances" )
             .replaceFirst( "inner join fetch pi.programStageInstances", "inner join pi.programStageInstances" )
             .replaceFirst( "inner join fetch psi.assignedUser", "inner join psi.assignedUser" )
             .replaceFirst( "order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ", "" )
+            .replaceFirst( "order by tei.lastUpdated desc, tei.id desc ", "" )
             .replaceFirst( "order by tei.lastUpdated desc ", "" );
     }
 
-    private String buildTrackedEntityInstanceHql( TrackedEntityInstanceQueryParams params )
+    /**
+     * @param params the query parameters.
+     * @param applyPageCursor whether to restrict the query to instances after
+     *        the keyset page cursor, which is not done for counting.
+     */
+    private String buildTrackedEntityInstanceHql( TrackedEntityInstanceQueryParams params, boolean applyPageCursor )
     {
         SqlHelper hlp = new SqlHelper( true );
 
@@ -314,7 +347,16 @@ public class HibernateTrackedEntityInstanceStore
             hql += hlp.whereAnd() + " tei.deleted is false ";
         }
 
-        if ( params.hasProgram() )
+        if ( applyPageCursor && params.hasPageCursor() )
+        {
+            hql += hlp.whereAnd() + params.getPageCursor().getSqlCondition( "tei.lastUpdated", "tei.id" );
+        }
+
+        if ( params.isKeysetPaging() )
+        {
+            hql += " order by tei.lastUpdated desc, tei.id desc ";
+        }
+        else if ( params.hasProgram() )
         {
             hql += " order by case when pi.status = 'ACTIVE' then 1 when pi.status = 'COMPLETED' then 2 else 3 end asc, tei.lastUpdated desc ";
         }
@@ -344,6 +386,7 @@ public class HibernateTrackedEntityInstanceStore
                 "te.uid as " + TRACKED_ENTITY_ID + ", " +
                 (params.hasProgram() ? "en.status as enrollment_status, " : "") +
                 (params.isIncludeDeleted() ? "tei.deleted as " + DELETED + ", " : "") +
+                (params.isKeysetPaging() ? "tei.trackedentityinstanceid as " + KEYSET_ID + ", " : "") +
                 "tei.inactive as " + INACTIVE_ID + ", ";
 
         for ( QueryItem item : params.getAttributes() )
@@ -363,6 +406,11 @@ public class HibernateTrackedEntityInstanceStore
 
         sql += getFromWhereClause( params, hlp );
 
+        if ( params.hasPageCursor() )
+        {
+            sql += hlp.whereAnd() + params.getPageCursor().getSqlCondition( "tei.lastupdated", "tei.trackedentityinstanceid" );
+        }
+
         // ---------------------------------------------------------------------
         // Order clause
         // ---------------------------------------------------------------------
@@ -373,7 +421,11 @@ public class HibernateTrackedEntityInstanceStore
         // Paging clause
         // ---------------------------------------------------------------------
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            sql += " limit " + params.getPageSizeWithDefault();
+        }
+        else if ( params.isPaging() )
         {
             sql += " limit " + params.getPageSizeWithDefault() + " offset " + params.getOffset();
         }
@@ -382,14 +434,25 @@ public class HibernateTrackedEntityInstanceStore
         // Query
         // ---------------------------------------------------------------------
 
+        long start = System.currentTimeMillis();
+
         SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
 
+        searchIndexManager.recordSearch( params, System.currentTimeMillis() - start );
+
         log.debug( "Tracked entity instance query SQL: " + sql );
 
         List<Map<String, String>> list = new ArrayList<>();
 
+        KeysetCursor lastRowCursor = null;
+
         while ( rowSet.next() )
         {
+            if ( params.isKeysetPaging() )
+            {
+                lastRowCursor = new KeysetCursor( rowSet.getTimestamp( LAST_UPDATED_ID ), rowSet.getLong( KEYSET_ID ) );
+            }
+
             final Map<String, String> map = new HashMap<>();
 
             map.put( TRACKED_ENTITY_INSTANCE_ID, rowSet.getString( TRACKED_ENTITY_INSTANCE_ID ) );
@@ -413,6 +476,11 @@ public class HibernateTrackedEntityInstanceStore
             list.add( map );
         }
 
+        if ( params.isPaging() && params.isKeysetPaging() && list.size() >= params.getPageSizeWithDefault() )
+        {
+            params.setNextPageCursor( lastRowCursor );
+        }
+
         return list;
     }
 
@@ -437,16 +505,34 @@ public class HibernateTrackedEntityInstanceStore
         // Query
         // ---------------------------------------------------------------------
 
+        long start = System.currentTimeMillis();
+
         Integer count = jdbcTemplate.queryForObject( sql, Integer.class );
 
+        searchIndexManager.recordSearch( params, System.currentTimeMillis() - start );
+
         log.debug( "Tracked entity instance count SQL: " + sql );
 
         return count;
     }
 
+    @Override
+    public Integer getEstimatedTrackedEntityInstanceCount( TrackedEntityInstanceQueryParams params )
+    {
+        String sql = "select tei.trackedentityinstanceid " + getFromWhereClause( params, new SqlHelper() );
+
+        Long estimate = getEstimatedRowCount( jdbcTemplate, sql );
+
+        log.debug( "Tracked entity instance estimated count: " + estimate + " for SQL: " + sql );
+
+        return estimate != null ? estimate.intValue() : null;
+    }
+
     /**
      * From, join and where clause. For attribute params, restriction is set in
-     * inner join. For query params, restriction is set in where clause.
+     * inner join. For query params, restriction is set in where clause. Values
+     * are matched on lower case and together with the attribute identifier, so
+     * the attribute search indexes can be used.
      */
     private String getFromWhereClause( TrackedEntityInstanceQueryParams params, SqlHelper hlp )
     {
@@ -589,16 +675,16 @@ public class HibernateTrackedEntityInstanceStore
             {
                 final String query = statementBuilder.encode( queryToken, false );
 
-                sql += "(";
+                sql += "tei.trackedentityinstanceid in (";
 
                 for ( QueryItem item : params.getAttributesAndFilters() )
                 {
-                    final String col = statementBuilder.columnQuote( item.getItemId() );
-
-                    sql += col + ".value " + regexp + " '" + start + StringUtils.lowerCase( query ) + end + "' or ";
+                    sql += "select trackedentityinstanceid from trackedentityattributevalue " +
+                        "where trackedentityattributeid = " + item.getItem().getId() + " " +
+                        "and lower(value) " + regexp + " '" + start + StringUtils.lowerCase( query ) + end + "' union ";
                 }
 
-                sql = removeLastOr( sql ) + ") and ";
+                sql = removeLast( sql, "union" ) + ") and ";
             }
 
             sql = removeLastAnd( sql ) + ") ";
@@ -614,6 +700,11 @@ public class HibernateTrackedEntityInstanceStore
 
     private String getOrderClause( TrackedEntityInstanceQueryParams params )
     {
+        if ( params.isKeysetPaging() )
+        {
+            return "order by tei.lastupdated desc, tei.trackedentityinstanceid desc ";
+        }
+
         List<String> cols = getStaticGridColumns();
 
         if ( params.getOrders() != null && params.getAttributes() != null && !params.getAttributes().isEmpty()
@@ -815,6 +906,81 @@ public class HibernateTrackedEntityInstanceStore
             .list();
     }
 
+    @Override
+    public void loadAssociations( List<TrackedEntityInstance> trackedEntityInstances, boolean includeEnrollments,
+        boolean includeEvents, boolean includeRelationships )
+    {
+        if ( trackedEntityInstances.isEmpty() )
+        {
+            return;
+        }
+
+        List<Long> teiIds = getIdentifiers( trackedEntityInstances );
+
+        // One query per collection, as fetching several collections in one
+        // query would return the cartesian product of the collections
+
+        fetch( "select distinct tei from TrackedEntityInstance tei left join fetch tei.trackedEntityAttributeValues teav " +
+            "left join fetch teav.attribute where tei.id in (:ids)", teiIds );
+
+        fetch( "select distinct tei from TrackedEntityInstance tei left join fetch tei.programOwners " +
+            "where tei.id in (:ids)", teiIds );
+
+        if ( includeRelationships )
+        {
+            fetch( "select distinct tei from TrackedEntityInstance tei left join fetch tei.relationshipItems ri " +
+                "left join fetch ri.relationship where tei.id in (:ids)", teiIds );
+        }
+
+        if ( !includeEnrollments )
+        {
+            return;
+        }
+
+        fetch( "select distinct tei from TrackedEntityInstance tei left join fetch tei.programInstances " +
+            "where tei.id in (:ids)", teiIds );
+
+        List<Long> piIds = trackedEntityInstances.stream()
+            .flatMap( tei -> tei.getProgramInstances().stream() )
+            .map( ProgramInstance::getId )
+            .collect( Collectors.toList() );
+
+        if ( piIds.isEmpty() )
+        {
+            return;
+        }
+
+        fetch( "select distinct pi from ProgramInstance pi left join fetch pi.comments where pi.id in (:ids)", piIds );
+
+        if ( includeRelationships )
+        {
+            fetch( "select distinct pi from ProgramInstance pi left join fetch pi.relationshipItems ri " +
+                "left join fetch ri.relationship where pi.id in (:ids)", piIds );
+        }
+
+        if ( includeEvents )
+        {
+            fetch( "select distinct pi from ProgramInstance pi left join fetch pi.programStageInstances " +
+                "where pi.id in (:ids)", piIds );
+
+            fetch( "select distinct psi from ProgramStageInstance psi left join fetch psi.comments " +
+                "left join fetch psi.assignedUser where psi.programInstance.id in (:ids)", piIds );
+        }
+    }
+
+    /**
+     * Runs the given fetch query for partitions of the given identifiers. The
+     * results are discarded, as the query is run for its effect of
+     * initializing collections of objects in the session.
+     */
+    private void fetch( String hql, List<Long> ids )
+    {
+        for ( List<Long> partition : Lists.partition( ids, ASSOCIATION_PARTITION_SIZE ) )
+        {
+            getSession().createQuery( hql ).setParameterList( "ids", partition ).list();
+        }
+    }
+
     @Override
     protected void preProcessPredicates( CriteriaBuilder builder, List<Function<Root<TrackedEntityInstance>, Predicate>> predicates )
     {
@@ -74,13 +74,18 @@ public class DefaultCurrentUserService
 
     private final Environment env;
 
-    public DefaultCurrentUserService( CurrentUserStore currentUserStore, Environment env )
+    private final UserGroupMembershipCache userGroupMembershipCache;
+
+    public DefaultCurrentUserService( CurrentUserStore currentUserStore, Environment env,
+        UserGroupMembershipCache userGroupMembershipCache )
     {
         checkNotNull( currentUserStore );
         checkNotNull( env );
+        checkNotNull( userGroupMembershipCache );
 
         this.currentUserStore = currentUserStore;
         this.env = env;
+        this.userGroupMembershipCache = userGroupMembershipCache;
     }
 
     // -------------------------------------------------------------------------
@@ -140,7 +145,8 @@ public class DefaultCurrentUserService
             .stream().map( GrantedAuthority::getAuthority )
             .collect( Collectors.toSet() );
 
-        return new UserInfo( userId, userDetails.getUsername(), authorities );
+        return new UserInfo( userId, userDetails.getUsername(), authorities,
+            userGroupMembershipCache.getUserGroupIds( userId ) );
     }
 
     private Long getUserId( String username )
@@ -0,0 +1,129 @@
+package org.hisp.dhis.user;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+@Component( "org.hisp.dhis.user.UserGroupMembershipCache" )
+public class DefaultUserGroupMembershipCache
+    implements UserGroupMembershipCache
+{
+    private static final Log log = LogFactory.getLog( DefaultUserGroupMembershipCache.class );
+
+    private static final int MAX_ENTRIES = 20000;
+    private static final int EXPIRATION_HOURS = 3;
+    private static final String REGION = "userGroupMembership";
+
+    private static final Set<Class<?>> DEPENDENCY_TYPES = ImmutableSet.of( User.class, UserGroup.class );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CacheProvider cacheProvider;
+
+    private final Environment environment;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<HashSet<Long>> cache;
+
+    public DefaultUserGroupMembershipCache( JdbcTemplate jdbcTemplate, CacheProvider cacheProvider, Environment environment )
+    {
+        checkNotNull( jdbcTemplate );
+        checkNotNull( cacheProvider );
+        checkNotNull( environment );
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheProvider = cacheProvider;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public void init()
+    {
+        boolean enabled = !SystemUtils.isTestRun( environment.getActiveProfiles() );
+
+        cache = cacheProvider.newCacheBuilder( (Class<HashSet<Long>>) (Class) HashSet.class ).forRegion( REGION )
+            .expireAfterWrite( EXPIRATION_HOURS, TimeUnit.HOURS ).withMaximumSize( enabled ? MAX_ENTRIES : 0 ).build();
+
+        log.info( String.format( "User group membership cache is enabled: %b", enabled ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // UserGroupMembershipCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Set<Long> getUserGroupIds( long userId )
+    {
+        return cache.get( version.get() + ":" + userId, k -> loadUserGroupIds( userId ) ).orElse( new HashSet<>() );
+    }
+
+    @Override
+    public Set<Class<?>> getDependencyTypes()
+    {
+        return DEPENDENCY_TYPES;
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        version.incrementAndGet();
+
+        cache.invalidateAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private HashSet<Long> loadUserGroupIds( long userId )
+    {
+        return new HashSet<>( jdbcTemplate.queryForList(
+            "select usergroupid from usergroupmembers where userid = ?", Long.class, userId ) );
+    }
+}
@@ -0,0 +1,142 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.user.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class VersionedCacheInvalidatorTest
+{
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private VersionedCache metadataCache;
+
+    @Mock
+    private VersionedCache userCache;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private VersionedCacheInvalidator invalidator;
+
+    @Before
+    public void setUp()
+    {
+        when( metadataCache.getDependencyTypes() ).thenReturn( ImmutableSet.of( DataElement.class ) );
+        when( userCache.getDependencyTypes() ).thenReturn( ImmutableSet.of( User.class ) );
+
+        invalidator = new VersionedCacheInvalidator( sessionFactory );
+        invalidator.setCaches( Lists.newArrayList( metadataCache, userCache ) );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.unbindResourceIfPossible( invalidator );
+    }
+
+    @Test
+    public void testInvalidateDependentCaches()
+    {
+        assertEquals( Sets.newHashSet( metadataCache ), invalidator.invalidate( new DataElement( "DataElementA" ) ) );
+
+        verify( metadataCache ).invalidateAll();
+        verify( userCache, never() ).invalidateAll();
+    }
+
+    @Test
+    public void testInvalidateOtherObject()
+    {
+        assertTrue( invalidator.invalidate( new DataValue() ).isEmpty() );
+        assertTrue( invalidator.invalidate( null ).isEmpty() );
+
+        verify( metadataCache, never() ).invalidateAll();
+        verify( userCache, never() ).invalidateAll();
+    }
+
+    @Test
+    public void testInvalidateOnCompletionWithoutTransaction()
+    {
+        invalidator.invalidateOnCompletion( new User() );
+
+        verify( userCache ).invalidateAll();
+        verify( metadataCache, never() ).invalidateAll();
+    }
+
+    @Test
+    public void testInvalidateOnCompletion()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.invalidateOnCompletion( new User() );
+        invalidator.invalidateOnCompletion( new User() );
+
+        verify( userCache, times( 2 ) ).invalidateAll();
+        assertEquals( 1, TransactionSynchronizationManager.getSynchronizations().size() );
+
+        for ( TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() )
+        {
+            synchronization.afterCompletion( TransactionSynchronization.STATUS_COMMITTED );
+        }
+
+        verify( userCache, times( 3 ) ).invalidateAll();
+        verify( metadataCache, never() ).invalidateAll();
+        assertFalse( TransactionSynchronizationManager.hasResource( invalidator ) );
+    }
+}
@@ -35,6 +35,7 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
@@ -62,6 +63,9 @@ public class DataValueServiceTest
 
     @Autowired
     private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private DbmsManager dbmsManager;
     
     // -------------------------------------------------------------------------
     // Supporting data
@@ -474,4 +478,30 @@ public class DataValueServiceTest
         assertEquals( 1, dataValueService.getDataValues(  sourceB,  periodA, Lists.newArrayList( dataElementA ), optionCombo ).size() );
         assertEquals( 1, dataValueService.getDataValues(  sourceA,  periodA, Lists.newArrayList( dataElementA, dataElementB ), optionCombo ).size() );
     }
+
+    @Test
+    public void testGetDataValuesByDataValues()
+    {
+        DataValue dataValueA = new DataValue( dataElementA, periodA, sourceA, optionCombo, optionCombo, "1" );
+        DataValue dataValueB = new DataValue( dataElementA, periodA, sourceB, optionCombo, optionCombo, "2" );
+        DataValue dataValueC = new DataValue( dataElementB, periodA, sourceB, optionCombo, optionCombo, "3" );
+
+        dataValueService.addDataValue( dataValueA );
+        dataValueService.addDataValue( dataValueB );
+        dataValueService.addDataValue( dataValueC );
+
+        dbmsManager.flushSession();
+
+        List<DataValue> values = dataValueService.getDataValues( Lists.newArrayList(
+            new DataValue( dataElementA, periodA, sourceA, optionCombo, optionCombo ),
+            new DataValue( dataElementB, periodA, sourceB, optionCombo, optionCombo ),
+            new DataValue( dataElementB, periodA, sourceA, optionCombo, optionCombo ) ) );
+
+        assertEquals( 2, values.size() );
+        assertTrue( values.contains( dataValueA ) );
+        assertTrue( values.contains( dataValueC ) );
+        assertEquals( "3", values.get( values.indexOf( dataValueC ) ).getValue() );
+
+        assertEquals( 0, dataValueService.getDataValues( Lists.newArrayList() ).size() );
+    }
 }
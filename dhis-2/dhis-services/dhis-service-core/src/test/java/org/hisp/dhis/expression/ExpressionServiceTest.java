@@ -41,12 +41,15 @@ import static org.hisp.dhis.expression.ExpressionValidationOutcome.*;
 import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
 import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ALL_VALUES_MISSING;
 import static org.hisp.dhis.expression.MissingValueStrategy.SKIP_IF_ANY_VALUE_MISSING;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.category.Category;
@@ -80,8 +83,10 @@ import org.hisp.dhis.program.ProgramTrackedEntityAttributeDimensionItem;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 /**
  * @author Jim Grace
@@ -89,6 +94,8 @@ import com.google.common.collect.ImmutableMap;
 public class ExpressionServiceTest
     extends DhisSpringTest
 {
+    private static final Log log = LogFactory.getLog( ExpressionServiceTest.class );
+
     @Autowired
     private ExpressionService expressionService;
 
@@ -504,6 +511,9 @@ public class ExpressionServiceTest
      * getExpressionValueRegEx. Returns a string containing first the returned
      * value from getExpressionValueRegEx, and then the items returned from
      * getItemsInExpression, if any, separated by spaces.
+     * <p>
+     * Also asserts that the value is the same when the expression is
+     * evaluated by the visitor instead of being compiled.
      *
      * @param expr expression to evaluate
      * @param missingValueStrategy strategy to use if item value is missing
@@ -527,9 +537,25 @@ public class ExpressionServiceTest
             .getExpressionValue( expr, valueMap, constantMap,
                 ORG_UNIT_COUNT_MAP, DAYS, missingValueStrategy );
 
+        Object visitorValue = getDefaultExpressionService()
+            .getExpressionValueByVisitor( expr, valueMap, constantMap,
+                ORG_UNIT_COUNT_MAP, DAYS, missingValueStrategy );
+
+        assertEquals( "Compiled and visitor values differ for " + expr,
+            result( visitorValue, items ), result( value, items ) );
+
         return result( value, items );
     }
 
+    /**
+     * Gets the expression service implementation behind any proxy, to
+     * evaluate expressions by the visitor.
+     */
+    private DefaultExpressionService getDefaultExpressionService()
+    {
+        return AopTestUtils.getUltimateTargetObject( expressionService );
+    }
+
     /**
      * Evaluates a test expression, returns NULL if any values are missing.
      *
@@ -1049,6 +1075,153 @@ public class ExpressionServiceTest
         assertEquals( "0 DeE", eval( "#{dataElemenE}", NEVER_SKIP ) );
     }
 
+    @Test
+    public void testGetExpressionValues()
+    {
+        Map<String, Map<DimensionalItemObject, Double>> valueMaps = new HashMap<>();
+        valueMaps.put( "A", ImmutableMap.of( dataElementA, 3.0, dataElementB, 13.0 ) );
+        valueMaps.put( "B", ImmutableMap.of( dataElementA, 5.0 ) );
+        valueMaps.put( "C", ImmutableMap.of() );
+
+        Map<String, Integer> daysMap = ImmutableMap.of( "A", 30, "B", 31, "C", 28 );
+
+        // Compiled expression
+
+        Map<String, Double> values = expressionService.getExpressionValues( "#{dataElemenA} + #{dataElemenB} + [days]",
+            valueMaps, constantMap, ORG_UNIT_COUNT_MAP, daysMap, SKIP_IF_ALL_VALUES_MISSING );
+
+        assertEquals( ImmutableMap.of( "A", 46.0, "B", 36.0 ), values );
+
+        values = expressionService.getExpressionValues( "#{dataElemenA} + #{dataElemenB} + [days]",
+            valueMaps, constantMap, ORG_UNIT_COUNT_MAP, daysMap, NEVER_SKIP );
+
+        assertEquals( ImmutableMap.of( "A", 46.0, "B", 36.0, "C", 28.0 ), values );
+
+        values = expressionService.getExpressionValues( "if( isNull( #{dataElemenB} ), firstNonNull( #{dataElemenA}, 7 ), OUG{orgUnitGrpA} )",
+            valueMaps, constantMap, ORG_UNIT_COUNT_MAP, null, SKIP_IF_ANY_VALUE_MISSING );
+
+        assertEquals( ImmutableMap.of( "A", 1000000.0, "B", 5.0, "C", 7.0 ), values );
+
+        // Expression evaluated by the visitor
+
+        values = expressionService.getExpressionValues( "if( 'a' < 'b', #{dataElemenA}, 0 )",
+            valueMaps, constantMap, ORG_UNIT_COUNT_MAP, daysMap, NEVER_SKIP );
+
+        assertEquals( ImmutableMap.of( "A", 3.0, "B", 5.0, "C", 0.0 ), values );
+    }
+
+    @Test
+    public void testCompiledExpressionTiming()
+    {
+        String expr = "if( isNull( #{dataElemenE} ), #{dataElemenA} * #{dataElemenB} + C{xxxxxxxxx05} / [days], " +
+            "greatest( #{dataElemenA}, #{dataElemenB} ) ) - OUG{orgUnitGrpA} % 7";
+
+        int runs = 10000;
+
+        DefaultExpressionService defaultExpressionService = getDefaultExpressionService();
+
+        Double compiledValue = null;
+        Double visitorValue = null;
+
+        long start = System.nanoTime();
+
+        for ( int i = 0; i < runs; i++ )
+        {
+            compiledValue = expressionService.getExpressionValue( expr, valueMap, constantMap,
+                ORG_UNIT_COUNT_MAP, DAYS, NEVER_SKIP );
+        }
+
+        long compiledNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for ( int i = 0; i < runs; i++ )
+        {
+            visitorValue = defaultExpressionService.getExpressionValueByVisitor( expr, valueMap, constantMap,
+                ORG_UNIT_COUNT_MAP, DAYS, NEVER_SKIP );
+        }
+
+        long visitorNanos = System.nanoTime() - start;
+
+        log.info( String.format( "Evaluated expression %d times, compiled: %d ms, visitor: %d ms",
+            runs, compiledNanos / 1_000_000, visitorNanos / 1_000_000 ) );
+
+        assertEquals( visitorValue, compiledValue );
+    }
+
+    @Test
+    public void testGetExpressionValuesForMatrix()
+    {
+        Map<String, Integer> itemColumns = ImmutableMap.of( "dataElemenA", 0, "dataElemenB", 1 );
+
+        double[][] values = { { 3.0, 5.0, 0.0 }, { 13.0, 0.0, 0.0 } };
+        boolean[][] missing = { { false, false, true }, { false, true, true } };
+
+        // Compiled expression
+
+        assertArrayEquals( new Double[] { 46.0, 35.0, null }, expressionService.getExpressionValues(
+            "#{dataElemenA} + #{dataElemenB} + [days]", itemColumns, values, missing, 3, constantMap, 30,
+            SKIP_IF_ALL_VALUES_MISSING ) );
+
+        assertArrayEquals( new Double[] { 46.0, 35.0, 30.0 }, expressionService.getExpressionValues(
+            "#{dataElemenA} + #{dataElemenB} + [days]", itemColumns, values, missing, 3, constantMap, 30,
+            NEVER_SKIP ) );
+
+        assertArrayEquals( new Double[] { 1.5, 2.5, null }, expressionService.getExpressionValues(
+            "#{dataElemenA} * C{xxxxxxxxx05} + #{dataElemenC}", itemColumns, values, missing, 3, constantMap, null,
+            SKIP_IF_ALL_VALUES_MISSING ) );
+
+        // Expressions which must be evaluated row by row
+
+        assertNull( expressionService.getExpressionValues( "if( 'a' < 'b', #{dataElemenA}, 0 )",
+            itemColumns, values, missing, 3, constantMap, 30, NEVER_SKIP ) );
+
+        assertNull( expressionService.getExpressionValues( "#{dataElemenA} + OUG{orgUnitGrpA}",
+            itemColumns, values, missing, 3, constantMap, 30, NEVER_SKIP ) );
+
+        assertNull( expressionService.getExpressionValues( "if( isNull( #{dataElemenB} ), 1, 0 )",
+            itemColumns, values, missing, 3, constantMap, 30, SKIP_IF_ANY_VALUE_MISSING ) );
+    }
+
+    @Test
+    public void testGetExpressionValuesForMatrixMatchesRegEx()
+    {
+        Map<String, Integer> itemColumns = ImmutableMap.of( "dataElemenA", 0, "dataElemenB", 1 );
+
+        double[][] values = { { 3.0, 5.0, 0.0, 0.0 }, { 13.0, 0.0, 7.0, 0.0 } };
+        boolean[][] missing = { { false, false, true, true }, { false, true, false, true } };
+
+        List<Map<DimensionalItemObject, Double>> rowValueMaps = Lists.newArrayList(
+            ImmutableMap.of( dataElementA, 3.0, dataElementB, 13.0 ),
+            ImmutableMap.of( dataElementA, 5.0 ),
+            ImmutableMap.of( dataElementB, 7.0 ),
+            ImmutableMap.of() );
+
+        List<String> expressions = Lists.newArrayList(
+            "#{dataElemenA} + #{dataElemenB}",
+            "#{dataElemenA} * C{xxxxxxxxx05} - #{dataElemenB} / 2",
+            "if( #{dataElemenA} > 4, #{dataElemenA}, #{dataElemenB} )",
+            "if( #{dataElemenB} > 10, 1, 0 ) + #{dataElemenA}",
+            "#{dataElemenA} + #{dataElemenC} + [days]" );
+
+        for ( MissingValueStrategy strategy : MissingValueStrategy.values() )
+        {
+            for ( String expression : expressions )
+            {
+                Double[] matrixValues = expressionService.getExpressionValues( expression, itemColumns, values,
+                    missing, 4, constantMap, DAYS, strategy );
+
+                for ( int row = 0; row < 4; row++ )
+                {
+                    Double value = expressionService.getExpressionValueRegEx( new Expression( expression, "", strategy ),
+                        rowValueMaps.get( row ), constantMap, null, DAYS );
+
+                    assertEquals( expression + " " + strategy + " row " + row, value, matrixValues[row] );
+                }
+            }
+        }
+    }
+
     @Test
     public void testGetExpressionOrgUnitGroups()
     {
@@ -592,6 +592,38 @@ public class PreheatServiceTest
         assertEquals( 1, preheat.getMandatoryAttributes().get( DataElement.class ).size() );
     }
 
+    @Test
+    public void testPreheatReferenceUniquenessOnlyLoadsCollidingObjects()
+    {
+        DataElement de1 = createDataElement( 'A' );
+        DataElement de2 = createDataElement( 'B' );
+        DataElement de3 = createDataElement( 'C' );
+
+        manager.save( de1 );
+        manager.save( de2 );
+        manager.save( de3 );
+
+        DataElement de4 = createDataElement( 'D' );
+        de4.setCode( de1.getCode() );
+        de4.setName( de2.getName() );
+
+        PreheatParams params = new PreheatParams();
+        params.setPreheatIdentifier( PreheatIdentifier.UID );
+        params.setPreheatMode( PreheatMode.REFERENCE );
+        params.getObjects().put( DataElement.class, Lists.newArrayList( de4 ) );
+
+        preheatService.validate( params );
+        Preheat preheat = preheatService.preheat( params );
+
+        Map<String, Map<Object, String>> uniquenessMap = preheat.getUniquenessMap().get( DataElement.class );
+
+        assertNotNull( uniquenessMap );
+        assertEquals( de1.getUid(), uniquenessMap.get( "code" ).get( de1.getCode() ) );
+        assertEquals( de2.getUid(), uniquenessMap.get( "name" ).get( de2.getName() ) );
+        assertFalse( uniquenessMap.get( "code" ).containsKey( de3.getCode() ) );
+        assertFalse( uniquenessMap.get( "name" ).containsKey( de3.getName() ) );
+    }
+
     @Test
     public void testPreheatWithDataSetElements()
     {
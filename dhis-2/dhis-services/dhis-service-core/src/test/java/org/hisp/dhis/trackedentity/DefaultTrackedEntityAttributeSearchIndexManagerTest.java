@@ -0,0 +1,178 @@
+package org.hisp.dhis.trackedentity;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.QueryOperator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class DefaultTrackedEntityAttributeSearchIndexManagerTest
+{
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private SqlRowSet rowSet;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private DefaultTrackedEntityAttributeSearchIndexManager searchIndexManager;
+
+    private TrackedEntityAttribute attributeA;
+
+    private TrackedEntityAttribute attributeB;
+
+    @Before
+    public void setUp()
+    {
+        searchIndexManager = new DefaultTrackedEntityAttributeSearchIndexManager( jdbcTemplate, config );
+
+        attributeA = new TrackedEntityAttribute();
+        attributeA.setId( 1L );
+        attributeB = new TrackedEntityAttribute();
+        attributeB.setId( 2L );
+    }
+
+    @Test
+    public void testUpdateSearchIndexes()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_SEARCH_INDEX ) ).thenReturn( true );
+        when( jdbcTemplate.queryForObject( contains( "pg_extension" ), eq( Integer.class ) ) ).thenReturn( 1 );
+        when( jdbcTemplate.queryForRowSet( anyString() ) ).thenReturn( rowSet );
+        when( rowSet.next() ).thenReturn( true, true, false );
+        when( rowSet.getString( "valuetype" ) ).thenReturn( "TEXT", "INTEGER" );
+        when( rowSet.getLong( "trackedentityattributeid" ) ).thenReturn( 1L, 2L );
+        when( jdbcTemplate.queryForList( anyString() ) )
+            .thenReturn( Collections.singletonList( index( "in_teav_search_3", true ) ),
+                Collections.singletonList( index( "in_teav_search_1", true ) ) );
+
+        searchIndexManager.updateSearchIndexes();
+
+        verify( jdbcTemplate ).execute( "create index concurrently if not exists in_teav_search_1 " +
+            "on trackedentityattributevalue using gin (lower(value) gin_trgm_ops) where trackedentityattributeid = 1" );
+        verify( jdbcTemplate, never() ).execute( contains( "in_teav_search_2" ) );
+        verify( jdbcTemplate ).execute( "drop index concurrently if exists in_teav_search_3" );
+
+        assertEquals( Sets.newHashSet( 1L ), searchIndexManager.getIndexedAttributes() );
+    }
+
+    @Test
+    public void testRecreateInvalidSearchIndexes()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_SEARCH_INDEX ) ).thenReturn( true );
+        when( jdbcTemplate.queryForObject( contains( "pg_extension" ), eq( Integer.class ) ) ).thenReturn( 1 );
+        when( jdbcTemplate.queryForRowSet( anyString() ) ).thenReturn( rowSet );
+        when( rowSet.next() ).thenReturn( true, false );
+        when( rowSet.getString( "valuetype" ) ).thenReturn( "TEXT" );
+        when( rowSet.getLong( "trackedentityattributeid" ) ).thenReturn( 1L );
+        when( jdbcTemplate.queryForList( anyString() ) )
+            .thenReturn( Lists.newArrayList( index( "in_teav_search_1", false ), index( "in_teav_search_3", false ) ),
+                Collections.singletonList( index( "in_teav_search_1", true ) ) );
+
+        searchIndexManager.updateSearchIndexes();
+
+        InOrder inOrder = inOrder( jdbcTemplate );
+        inOrder.verify( jdbcTemplate ).execute( "drop index concurrently if exists in_teav_search_1" );
+        inOrder.verify( jdbcTemplate ).execute( startsWith( "create index concurrently if not exists in_teav_search_1 " ) );
+
+        verify( jdbcTemplate ).execute( "drop index concurrently if exists in_teav_search_3" );
+        verify( jdbcTemplate, never() ).execute( startsWith( "create index concurrently if not exists in_teav_search_3 " ) );
+
+        assertEquals( Sets.newHashSet( 1L ), searchIndexManager.getIndexedAttributes() );
+    }
+
+    @Test
+    public void testUpdateSearchIndexesDisabled()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_SEARCH_INDEX ) ).thenReturn( false );
+
+        searchIndexManager.updateSearchIndexes();
+
+        verify( jdbcTemplate, never() ).execute( anyString() );
+    }
+
+    @Test
+    public void testRecordSearch()
+    {
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams();
+        params.addFilter( new QueryItem( attributeA, QueryOperator.LIKE, "john", null, null, null ) );
+
+        searchIndexManager.recordSearch( params, 40 );
+        searchIndexManager.recordSearch( params, 20 );
+
+        TrackedEntitySearchStatistics statistics = searchIndexManager.getSearchStatistics();
+
+        assertEquals( 2, statistics.getSearchCount() );
+        assertEquals( 60, statistics.getSearchMillis() );
+        assertEquals( 40, statistics.getMaxSearchMillis() );
+        assertEquals( 30, statistics.getAverageSearchMillis() );
+        assertEquals( 0, statistics.getIndexedSearchCount() );
+
+        searchIndexManager.clearSearchStatistics();
+
+        assertEquals( 0, searchIndexManager.getSearchStatistics().getSearchCount() );
+        assertEquals( 0, searchIndexManager.getSearchStatistics().getMaxSearchMillis() );
+    }
+
+    private Map<String, Object> index( String name, boolean valid )
+    {
+        return ImmutableMap.<String, Object>of( "indexname", name, "valid", valid );
+    }
+}
@@ -29,9 +29,14 @@ package org.hisp.dhis.trackedentity;
  */
 
 import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.common.AccessLevel;
 import org.hisp.dhis.mock.MockCurrentUserService;
@@ -45,6 +50,8 @@ import org.hisp.dhis.user.UserService;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.collect.Lists;
+
 /**
  * @author Ameen Mohamed <ameen@dhis2.org>
  */
@@ -145,4 +152,24 @@ public class TrackerOwnershipManagerTest extends DhisSpringTest
         assertTrue(trackerOwnershipAccessManager.hasAccess( userB,entityInstanceA1, programA ));
 
     }
+
+    @Test
+    public void testGetAccessiblePrograms()
+    {
+        trackerOwnershipAccessManager.assignOwnership( entityInstanceB1, programA, organisationUnitA, false, true );
+
+        List<TrackedEntityInstance> entityInstances = Lists.newArrayList( entityInstanceA1, entityInstanceB1 );
+
+        Map<TrackedEntityInstance, Set<Program>> accessibleProgramsA = trackerOwnershipAccessManager
+            .getAccessiblePrograms( userA, entityInstances, Lists.newArrayList( programA ) );
+
+        assertEquals( newHashSet( programA ), accessibleProgramsA.get( entityInstanceA1 ) );
+        assertEquals( newHashSet( programA ), accessibleProgramsA.get( entityInstanceB1 ) );
+
+        Map<TrackedEntityInstance, Set<Program>> accessibleProgramsB = trackerOwnershipAccessManager
+            .getAccessiblePrograms( userB, entityInstances, Lists.newArrayList( programA ) );
+
+        assertTrue( accessibleProgramsB.get( entityInstanceA1 ).isEmpty() );
+        assertTrue( accessibleProgramsB.get( entityInstanceB1 ).isEmpty() );
+    }
 }
@@ -0,0 +1,159 @@
+package org.hisp.dhis.user;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.VersionedCacheInvalidator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class DefaultUserGroupMembershipCacheTest
+{
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DhisConfigurationProvider dhisConfig;
+
+    @Mock
+    private CacheProvider cacheProvider;
+
+    @Mock
+    private Environment environment;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private DefaultUserGroupMembershipCache membershipCache;
+
+    @Before
+    public void setUp()
+    {
+        when( dhisConfig.getProperty( ConfigurationKey.REDIS_ENABLED ) ).thenReturn( "false" );
+        when( environment.getActiveProfiles() ).thenReturn( new String[0] );
+        when( cacheProvider.newCacheBuilder( any() ) ).thenAnswer( invocation -> new CacheBuilder<>( null, dhisConfig ) );
+        when( jdbcTemplate.queryForList( anyString(), eq( Long.class ), eq( 1L ) ) ).thenReturn( Lists.newArrayList( 10L, 11L ) );
+
+        membershipCache = new DefaultUserGroupMembershipCache( jdbcTemplate, cacheProvider, environment );
+        membershipCache.init();
+    }
+
+    @Test
+    public void testGetUserGroupIds()
+    {
+        assertEquals( Sets.newHashSet( 10L, 11L ), membershipCache.getUserGroupIds( 1L ) );
+        assertEquals( Sets.newHashSet( 10L, 11L ), membershipCache.getUserGroupIds( 1L ) );
+
+        verify( jdbcTemplate, times( 1 ) ).queryForList( anyString(), eq( Long.class ), eq( 1L ) );
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        membershipCache.getUserGroupIds( 1L );
+
+        membershipCache.invalidateAll();
+
+        membershipCache.getUserGroupIds( 1L );
+
+        verify( jdbcTemplate, times( 2 ) ).queryForList( anyString(), eq( Long.class ), eq( 1L ) );
+    }
+
+    @Test
+    public void testGetDependencyTypes()
+    {
+        assertEquals( Sets.newHashSet( User.class, UserGroup.class ), membershipCache.getDependencyTypes() );
+    }
+
+    @Test
+    public void testRemoveMemberInTransaction()
+    {
+        VersionedCacheInvalidator invalidator = new VersionedCacheInvalidator( sessionFactory );
+        invalidator.setCaches( Lists.newArrayList( membershipCache ) );
+
+        PostCollectionUpdateEvent event = mock( PostCollectionUpdateEvent.class );
+        when( event.getAffectedOwnerOrNull() ).thenReturn( new UserGroup( "UserGroupA" ) );
+
+        assertEquals( Sets.newHashSet( 10L, 11L ), membershipCache.getUserGroupIds( 1L ) );
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            // Member removed from user group 11 and flushed, but not yet committed
+
+            invalidator.onPostUpdateCollection( event );
+
+            // Concurrent read of the committed memberships caches the old state for the new version
+
+            assertEquals( Sets.newHashSet( 10L, 11L ), membershipCache.getUserGroupIds( 1L ) );
+
+            when( jdbcTemplate.queryForList( anyString(), eq( Long.class ), eq( 1L ) ) ).thenReturn( Lists.newArrayList( 10L ) );
+
+            for ( TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations() )
+            {
+                synchronization.afterCompletion( TransactionSynchronization.STATUS_COMMITTED );
+            }
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals( Sets.newHashSet( 10L ), membershipCache.getUserGroupIds( 1L ) );
+    }
+}
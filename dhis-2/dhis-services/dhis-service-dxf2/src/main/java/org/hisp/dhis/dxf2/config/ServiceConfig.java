@@ -28,6 +28,7 @@ package org.hisp.dhis.dxf2.config;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.hisp.dhis.dxf2.datavalueset.DefaultDataValueSetService;
 import org.hisp.dhis.dxf2.metadata.sync.exception.MetadataSyncServiceException;
 import org.hisp.dhis.external.conf.ConfigurationPropertyFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -74,4 +76,23 @@ public class ServiceConfig
 
         return retryTemplate;
     }
+
+    /**
+     * Long-lived thread pool shared by all pipelined data value imports, where
+     * each import runs its parsing and persistence stages on two threads of the
+     * pool. The pool has no work queue and grows on demand, as a stage waiting
+     * for a thread would block the import which feeds the other stages. Idle
+     * threads above the core pool size are released after one minute.
+     */
+    @Bean( DefaultDataValueSetService.IMPORT_TASK_EXECUTOR )
+    public ThreadPoolTaskExecutor dataValueImportTaskExecutor()
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize( 2 );
+        executor.setMaxPoolSize( Integer.MAX_VALUE );
+        executor.setQueueCapacity( 0 );
+        executor.setKeepAliveSeconds( 60 );
+        executor.setThreadNamePrefix( "data-value-import-" );
+        return executor;
+    }
 }
@@ -0,0 +1,356 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Pipeline for data value imports. When pipelined, the data value set is
+ * parsed on one thread of the shared import executor and validated data values
+ * are persisted on another, while validation takes place on the import thread.
+ * The stages are connected through bounded queues, so that the memory usage
+ * stays constant regardless of the size of the data value set.
+ * <p>
+ * Validation is not parallelised: it runs on the import thread only, as it
+ * depends on the Hibernate session of that thread and on lazily loaded
+ * associations of the meta-data objects, neither of which can be shared with
+ * other threads. The throughput of an import is therefore bounded by the speed
+ * of validation on a single thread; pipelining only overlaps validation with
+ * parsing and persistence, and adding threads to the import executor does not
+ * make validation faster. Data values are handed over to the persistence stage
+ * in input order, which implies that the import summary is identical to the
+ * one produced without pipelining. When not pipelined, all operations are
+ * delegated directly to the data value set and the persister.
+ * <p>
+ * Data values are copied on the parsing thread before being handed over, as
+ * streaming data values read lazily from a parser which is not thread-safe.
+ */
+class DataValueImportPipeline
+    implements AutoCloseable
+{
+    private static final org.hisp.dhis.dxf2.datavalue.DataValue END_OF_VALUES = new org.hisp.dhis.dxf2.datavalue.DataValue();
+
+    private static final PersistTask END_OF_TASKS = new PersistTask( null, null, null, null );
+
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final DataValueSet dataValueSet;
+
+    private final DataValuePersister persister;
+
+    private final boolean pipelined;
+
+    private BlockingQueue<org.hisp.dhis.dxf2.datavalue.DataValue> valueQueue;
+
+    private BlockingQueue<PersistTask> taskQueue;
+
+    private Future<Void> parser;
+
+    private Future<Void> writer;
+
+    private org.hisp.dhis.dxf2.datavalue.DataValue nextValue;
+
+    /**
+     * Constructor.
+     *
+     * @param dataValueSet the data value set to read data values from.
+     * @param persister the persister to save data values with.
+     * @param pipelined whether to run parsing and persistence on separate threads.
+     * @param executor the executor to run the parsing and persistence stages on.
+     * @param queueSize the capacity of the queues between the stages.
+     */
+    DataValueImportPipeline( DataValueSet dataValueSet, DataValuePersister persister, boolean pipelined,
+        AsyncTaskExecutor executor, int queueSize )
+    {
+        this.dataValueSet = dataValueSet;
+        this.persister = persister;
+        this.pipelined = pipelined;
+
+        if ( pipelined )
+        {
+            this.valueQueue = new ArrayBlockingQueue<>( queueSize );
+            this.taskQueue = new ArrayBlockingQueue<>( queueSize );
+            this.parser = executor.submit( this::parse );
+            this.writer = executor.submit( this::write );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the data value set has more data values.
+     */
+    boolean hasNextDataValue()
+    {
+        if ( !pipelined )
+        {
+            return dataValueSet.hasNextDataValue();
+        }
+
+        if ( nextValue == null )
+        {
+            nextValue = take( valueQueue, parser );
+        }
+
+        return nextValue != END_OF_VALUES;
+    }
+
+    /**
+     * Returns the next data value of the data value set.
+     */
+    org.hisp.dhis.dxf2.datavalue.DataValue getNextDataValue()
+    {
+        if ( !pipelined )
+        {
+            return dataValueSet.getNextDataValue();
+        }
+
+        org.hisp.dhis.dxf2.datavalue.DataValue value = hasNextDataValue() ? nextValue : null;
+
+        nextValue = value != null ? null : END_OF_VALUES;
+
+        return value;
+    }
+
+    /**
+     * Saves, updates or deletes the given validated data value. See
+     * {@link DataValuePersister#persist(DataValue, DataElement, DataValue, String)}.
+     */
+    void persist( DataValue internalValue, DataElement dataElement, DataValue actualDataValue, String storedBy )
+    {
+        if ( !pipelined )
+        {
+            persister.persist( internalValue, dataElement, actualDataValue, storedBy );
+            return;
+        }
+
+        put( taskQueue, new PersistTask( internalValue, dataElement, actualDataValue, storedBy ), writer );
+    }
+
+    /**
+     * Waits for all data values to be persisted and flushes the batch handlers.
+     * Must be invoked after the last data value has been read and persisted.
+     */
+    void finish()
+    {
+        if ( !pipelined )
+        {
+            persister.flush();
+            return;
+        }
+
+        put( taskQueue, END_OF_TASKS, writer );
+
+        await( writer );
+        await( parser );
+    }
+
+    @Override
+    public void close()
+    {
+        if ( pipelined )
+        {
+            parser.cancel( true );
+            writer.cancel( true );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Stages
+    // -------------------------------------------------------------------------
+
+    private Void parse()
+        throws InterruptedException
+    {
+        while ( dataValueSet.hasNextDataValue() )
+        {
+            valueQueue.put( copy( dataValueSet.getNextDataValue() ) );
+        }
+
+        valueQueue.put( END_OF_VALUES );
+
+        return null;
+    }
+
+    private Void write()
+        throws InterruptedException
+    {
+        PersistTask task;
+
+        while ( ( task = taskQueue.take() ) != END_OF_TASKS )
+        {
+            persister.persist( task.internalValue, task.dataElement, task.actualDataValue, task.storedBy );
+        }
+
+        persister.flush();
+
+        return null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Copies the given data value into a plain data value which does not depend
+     * on the state of the underlying parser.
+     */
+    private static org.hisp.dhis.dxf2.datavalue.DataValue copy( org.hisp.dhis.dxf2.datavalue.DataValue value )
+    {
+        org.hisp.dhis.dxf2.datavalue.DataValue copy = new org.hisp.dhis.dxf2.datavalue.DataValue();
+        copy.setDataElement( value.getDataElement() );
+        copy.setPeriod( value.getPeriod() );
+        copy.setOrgUnit( value.getOrgUnit() );
+        copy.setCategoryOptionCombo( value.getCategoryOptionCombo() );
+        copy.setAttributeOptionCombo( value.getAttributeOptionCombo() );
+        copy.setValue( value.getValue() );
+        copy.setStoredBy( value.getStoredBy() );
+        copy.setCreated( value.getCreated() );
+        copy.setLastUpdated( value.getLastUpdated() );
+        copy.setComment( value.getComment() );
+        copy.setFollowup( value.getFollowup() );
+        copy.setDeleted( value.getDeleted() );
+        return copy;
+    }
+
+    /**
+     * Takes the next element from the given queue. Fails if the stage producing
+     * the elements has failed, to avoid waiting forever.
+     */
+    private static <T> T take( BlockingQueue<T> queue, Future<Void> producer )
+    {
+        try
+        {
+            T element;
+
+            while ( ( element = queue.poll( POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS ) ) == null )
+            {
+                checkFailure( producer );
+            }
+
+            return element;
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException( "Data value import was interrupted", ex );
+        }
+    }
+
+    /**
+     * Puts the given element on the given queue. Fails if the stage consuming
+     * the elements has failed, to avoid waiting forever.
+     */
+    private static <T> void put( BlockingQueue<T> queue, T element, Future<Void> consumer )
+    {
+        try
+        {
+            while ( !queue.offer( element, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS ) )
+            {
+                checkFailure( consumer );
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException( "Data value import was interrupted", ex );
+        }
+    }
+
+    /**
+     * Rethrows the exception of the given stage if it has completed exceptionally.
+     */
+    private static void checkFailure( Future<Void> stage )
+    {
+        if ( stage.isDone() )
+        {
+            await( stage );
+        }
+    }
+
+    /**
+     * Waits for the given stage to complete and rethrows its exception if any.
+     */
+    private static void await( Future<Void> stage )
+    {
+        try
+        {
+            stage.get();
+        }
+        catch ( ExecutionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new RuntimeException( "Data value import failed", ex.getCause() );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException( "Data value import was interrupted", ex );
+        }
+    }
+
+    /**
+     * Validated data value to be persisted.
+     */
+    private static class PersistTask
+    {
+        private final DataValue internalValue;
+
+        private final DataElement dataElement;
+
+        private final DataValue actualDataValue;
+
+        private final String storedBy;
+
+        PersistTask( DataValue internalValue, DataElement dataElement, DataValue actualDataValue, String storedBy )
+        {
+            this.internalValue = internalValue;
+            this.dataElement = dataElement;
+            this.actualDataValue = actualDataValue;
+            this.storedBy = storedBy;
+        }
+    }
+}
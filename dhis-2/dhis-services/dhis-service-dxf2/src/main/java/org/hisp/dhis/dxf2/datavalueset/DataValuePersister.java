@@ -0,0 +1,362 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.common.AuditType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueAudit;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.quick.BatchHandler;
+
+/**
+ * Saves, updates and deletes validated data values through batch handlers and
+ * keeps track of the resulting import counts. Instances are not thread-safe,
+ * but may be handed over to a single dedicated persistence thread.
+ * <p>
+ * Unless the existing check is skipped, data values are collected in chunks
+ * and existing data values are looked up with a single query per chunk instead
+ * of one query per data value. Data values are processed in the order they were
+ * given, so import counts and audits are the same as for individual lookups.
+ * <p>
+ * File resources are not updated directly since the file resource service
+ * requires the Hibernate session of the import thread. The identifiers of the
+ * affected file resources are collected and must be applied by the caller once
+ * persistence has finished.
+ */
+class DataValuePersister
+{
+    private final BatchHandler<DataValue> dataValueBatchHandler;
+
+    private final BatchHandler<DataValueAudit> auditBatchHandler;
+
+    private final DataValueService dataValueService;
+
+    private final ImportStrategy strategy;
+
+    private final boolean dryRun;
+
+    private final boolean skipAudit;
+
+    private final boolean skipExistingCheck;
+
+    private final int chunkSize;
+
+    private final List<PendingValue> chunk = new ArrayList<>();
+
+    private int importCount = 0;
+
+    private int updateCount = 0;
+
+    private int deleteCount = 0;
+
+    private final List<String> assignedFileResources = new ArrayList<>();
+
+    private final List<String> updatedFileResources = new ArrayList<>();
+
+    DataValuePersister( BatchHandler<DataValue> dataValueBatchHandler, BatchHandler<DataValueAudit> auditBatchHandler,
+        DataValueService dataValueService, ImportStrategy strategy, boolean dryRun, boolean skipAudit,
+        boolean skipExistingCheck, int chunkSize )
+    {
+        this.dataValueBatchHandler = dataValueBatchHandler;
+        this.auditBatchHandler = auditBatchHandler;
+        this.dataValueService = dataValueService;
+        this.strategy = strategy;
+        this.dryRun = dryRun;
+        this.skipAudit = skipAudit;
+        this.skipExistingCheck = skipExistingCheck;
+        this.chunkSize = chunkSize;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Saves, updates or deletes the given data value depending on the import
+     * strategy and whether the data value already exists. The data value might
+     * not be persisted before the chunk it belongs to is complete or
+     * {@link #flush()} is invoked.
+     *
+     * @param internalValue the validated data value.
+     * @param dataElement the data element of the data value.
+     * @param actualDataValue the currently stored file data value when deleting
+     *        file data values, can be null.
+     * @param storedBy the stored by value used for audits.
+     */
+    void persist( DataValue internalValue, DataElement dataElement, DataValue actualDataValue, String storedBy )
+    {
+        if ( skipExistingCheck )
+        {
+            persist( internalValue, dataElement, actualDataValue, storedBy, null );
+            return;
+        }
+
+        chunk.add( new PendingValue( internalValue, dataElement, actualDataValue, storedBy ) );
+
+        if ( chunk.size() >= chunkSize )
+        {
+            persistChunk();
+        }
+    }
+
+    /**
+     * Persists the data values of the current chunk after looking up the
+     * existing data values for the chunk with a single query.
+     */
+    private void persistChunk()
+    {
+        if ( chunk.isEmpty() )
+        {
+            return;
+        }
+
+        List<DataValue> internalValues = chunk.stream()
+            .map( pending -> pending.internalValue )
+            .collect( Collectors.toList() );
+
+        Map<DataValue, DataValue> existingValues = dataValueService.getDataValues( internalValues ).stream()
+            .collect( Collectors.toMap( Function.identity(), Function.identity(), ( dv1, dv2 ) -> dv1 ) );
+
+        for ( PendingValue pending : chunk )
+        {
+            boolean written = persist( pending.internalValue, pending.dataElement, pending.actualDataValue,
+                pending.storedBy, existingValues.get( pending.internalValue ) );
+
+            if ( written )
+            {
+                existingValues.put( pending.internalValue, pending.internalValue );
+            }
+        }
+
+        chunk.clear();
+    }
+
+    /**
+     * Saves, updates or deletes the given data value given the existing data
+     * value, and returns whether the data value was written. Data values which
+     * occur again later in the same chunk must be compared against the written
+     * data value rather than the one looked up for the chunk.
+     */
+    private boolean persist( DataValue internalValue, DataElement dataElement, DataValue actualDataValue, String storedBy,
+        DataValue existingValue )
+    {
+        boolean written = false;
+
+        // ---------------------------------------------------------------------
+        // Check soft deleted data values on update and import
+        // ---------------------------------------------------------------------
+
+        if ( !skipExistingCheck && existingValue != null && !existingValue.isDeleted() )
+        {
+            if ( strategy.isCreateAndUpdate() || strategy.isUpdate() )
+            {
+                AuditType auditType = AuditType.UPDATE;
+
+                if ( internalValue.isNullValue() || internalValue.isDeleted() )
+                {
+                    internalValue.setDeleted( true );
+
+                    auditType = AuditType.DELETE;
+
+                    deleteCount++;
+                }
+                else
+                {
+                    updateCount++;
+                }
+
+                if ( !dryRun )
+                {
+                    dataValueBatchHandler.updateObject( internalValue );
+                    written = true;
+
+                    if ( !skipAudit )
+                    {
+                        DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(), storedBy, auditType );
+
+                        auditBatchHandler.addObject( auditValue );
+                    }
+
+                    if ( dataElement.isFileType() )
+                    {
+                        assignedFileResources.add( internalValue.getValue() );
+                    }
+                }
+            }
+            else if ( strategy.isDelete() )
+            {
+                internalValue.setDeleted( true );
+
+                deleteCount++;
+
+                if ( !dryRun )
+                {
+                    if ( dataElement.isFileType() && actualDataValue != null )
+                    {
+                        updatedFileResources.add( actualDataValue.getValue() );
+                    }
+
+                    dataValueBatchHandler.updateObject( internalValue );
+                    written = true;
+
+                    if ( !skipAudit )
+                    {
+                        DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(), storedBy, AuditType.DELETE );
+
+                        auditBatchHandler.addObject( auditValue );
+                    }
+                }
+            }
+        }
+        else
+        {
+            if ( strategy.isCreateAndUpdate() || strategy.isCreate() )
+            {
+                if ( !internalValue.isNullValue() ) // Ignore null values
+                {
+                    if ( existingValue != null && existingValue.isDeleted() )
+                    {
+                        importCount++;
+
+                        if ( !dryRun )
+                        {
+                            dataValueBatchHandler.updateObject( internalValue );
+                            written = true;
+
+                            if ( dataElement.isFileType() )
+                            {
+                                assignedFileResources.add( internalValue.getValue() );
+                            }
+                        }
+                    }
+                    else
+                    {
+                        boolean added = false;
+
+                        if ( !dryRun )
+                        {
+                            added = dataValueBatchHandler.addObject( internalValue );
+                            written = added;
+
+                            if ( added && dataElement.isFileType() )
+                            {
+                                assignedFileResources.add( internalValue.getValue() );
+                            }
+                        }
+
+                        if ( dryRun || added )
+                        {
+                            importCount++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * Persists the remaining data values and flushes the underlying batch
+     * handlers.
+     */
+    void flush()
+    {
+        persistChunk();
+
+        dataValueBatchHandler.flush();
+        auditBatchHandler.flush();
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    int getImportCount()
+    {
+        return importCount;
+    }
+
+    int getUpdateCount()
+    {
+        return updateCount;
+    }
+
+    int getDeleteCount()
+    {
+        return deleteCount;
+    }
+
+    /**
+     * Returns the identifiers of file resources which must be marked as assigned.
+     */
+    List<String> getAssignedFileResources()
+    {
+        return assignedFileResources;
+    }
+
+    /**
+     * Returns the identifiers of file resources which must be updated.
+     */
+    List<String> getUpdatedFileResources()
+    {
+        return updatedFileResources;
+    }
+
+    /**
+     * Validated data value waiting for the existing data values of its chunk
+     * to be looked up.
+     */
+    private static class PendingValue
+    {
+        private final DataValue internalValue;
+
+        private final DataElement dataElement;
+
+        private final DataValue actualDataValue;
+
+        private final String storedBy;
+
+        PendingValue( DataValue internalValue, DataElement dataElement, DataValue actualDataValue, String storedBy )
+        {
+            this.internalValue = internalValue;
+            this.dataElement = dataElement;
+            this.actualDataValue = actualDataValue;
+            this.storedBy = storedBy;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.cache.VersionedCache;
+
+/**
+ * Application-level cache for meta-data lookups performed during data value set
+ * imports. The cache is shared between imports, so that the per-import lookup
+ * maps do not have to be populated from scratch for every data value set. Only
+ * lookups which depend on meta-data alone may be cached, as opposed to lookups
+ * depending on the current user, the current date or data.
+ * <p>
+ * Cache keys are qualified with the current meta-data version, which is
+ * incremented whenever a meta-data object relevant to data value set imports
+ * is changed. Values computed before a change are hence never returned after
+ * the change.
+ */
+public interface DataValueSetMetadataCache
+    extends VersionedCache
+{
+    /**
+     * Returns the current meta-data version.
+     */
+    long getVersion();
+
+    /**
+     * Returns the cached flag for the given key, computing and caching it with
+     * the given supplier if absent.
+     *
+     * @param key the key.
+     * @param supplier the supplier of the flag.
+     * @return the flag.
+     */
+    boolean getFlag( String key, Supplier<Boolean> supplier );
+
+    /**
+     * Returns the cached set of strings for the given key, computing and caching
+     * it with the given supplier if absent.
+     *
+     * @param key the key.
+     * @param supplier the supplier of the set of strings.
+     * @return the set of strings.
+     */
+    Set<String> getStrings( String key, Supplier<Set<String>> supplier );
+}
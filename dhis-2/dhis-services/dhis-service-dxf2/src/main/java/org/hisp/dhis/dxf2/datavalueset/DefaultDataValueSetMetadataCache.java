@@ -0,0 +1,174 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.category.Category;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.dataset.DataSetElement;
+import org.hisp.dhis.option.Option;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+@Component( "org.hisp.dhis.dxf2.datavalueset.DataValueSetMetadataCache" )
+public class DefaultDataValueSetMetadataCache
+    implements DataValueSetMetadataCache
+{
+    private static final Log log = LogFactory.getLog( DefaultDataValueSetMetadataCache.class );
+
+    private static final int MAX_FLAG_ENTRIES = 200000;
+    private static final int MAX_STRINGS_ENTRIES = 20000;
+    private static final int EXPIRATION_HOURS = 6;
+    private static final String FLAG_REGION = "dataValueSetMetadataFlag";
+    private static final String STRINGS_REGION = "dataValueSetMetadataStrings";
+
+    /**
+     * Meta-data types which data value set import lookups depend on.
+     */
+    private static final Set<Class<?>> METADATA_TYPES = ImmutableSet.of(
+        DataElement.class, DataSet.class, DataSetElement.class, OrganisationUnit.class,
+        CategoryCombo.class, Category.class, CategoryOption.class, CategoryOptionCombo.class,
+        OptionSet.class, Option.class );
+
+    private final CacheProvider cacheProvider;
+
+    private final Environment environment;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<Boolean> flagCache;
+
+    private Cache<HashSet<String>> stringsCache;
+
+    public DefaultDataValueSetMetadataCache( CacheProvider cacheProvider, Environment environment )
+    {
+        checkNotNull( cacheProvider );
+        checkNotNull( environment );
+
+        this.cacheProvider = cacheProvider;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        init( !SystemUtils.isTestRun( environment.getActiveProfiles() ) );
+    }
+
+    /**
+     * Creates the underlying caches. When disabled, the caches hold no entries.
+     * Tests may enable the cache explicitly, as it is disabled during test phase.
+     *
+     * @param enabled whether the cache is enabled.
+     */
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    void init( boolean enabled )
+    {
+        flagCache = cacheProvider.newCacheBuilder( Boolean.class ).forRegion( FLAG_REGION )
+            .expireAfterWrite( EXPIRATION_HOURS, TimeUnit.HOURS ).withMaximumSize( enabled ? MAX_FLAG_ENTRIES : 0 ).build();
+
+        stringsCache = cacheProvider.newCacheBuilder( (Class<HashSet<String>>) (Class) HashSet.class ).forRegion( STRINGS_REGION )
+            .expireAfterWrite( EXPIRATION_HOURS, TimeUnit.HOURS ).withMaximumSize( enabled ? MAX_STRINGS_ENTRIES : 0 ).build();
+
+        log.info( String.format( "Data value set meta-data cache is enabled: %b", enabled ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // DataValueSetMetadataCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public long getVersion()
+    {
+        return version.get();
+    }
+
+    @Override
+    public boolean getFlag( String key, Supplier<Boolean> supplier )
+    {
+        return flagCache.get( getVersionedKey( key ), k -> supplier.get() ).orElse( false );
+    }
+
+    @Override
+    public Set<String> getStrings( String key, Supplier<Set<String>> supplier )
+    {
+        return stringsCache.get( getVersionedKey( key ), k -> new HashSet<>( supplier.get() ) ).orElse( new HashSet<>() );
+    }
+
+    @Override
+    public Set<Class<?>> getDependencyTypes()
+    {
+        return METADATA_TYPES;
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        version.incrementAndGet();
+
+        flagCache.invalidateAll();
+        stringsCache.invalidateAll();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Qualifies the given key with the current meta-data version. Values being
+     * computed while meta-data changes are stored for the previous version and
+     * will hence not be returned.
+     */
+    private String getVersionedKey( String key )
+    {
+        return version.get() + ":" + key;
+    }
+}
@@ -212,6 +212,11 @@ public abstract class AbstractEnrollmentService
         List<ProgramInstance> programInstances = programInstanceService.getProgramInstances( params );
         enrollments.setEnrollments( getEnrollments( programInstances ) );
 
+        if ( enrollments.getPager() != null && params.getNextPageCursor() != null )
+        {
+            enrollments.getPager().setNextPageToken( params.getNextPageCursor().encode() );
+        }
+
         return enrollments;
     }
 
@@ -38,6 +38,7 @@ import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.AssignedUserSelectionMode;
+import org.hisp.dhis.common.AuditType;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
@@ -107,6 +108,8 @@ import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.Authorities;
 import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
@@ -117,6 +120,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityInstanceService;
 import org.hisp.dhis.trackedentity.TrackerOwnershipManager;
 import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
 import org.hisp.dhis.trackedentitycomment.TrackedEntityCommentService;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAudit;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserCredentials;
@@ -247,6 +251,9 @@ public abstract class AbstractEventService
     @Autowired
     private ProgramRuleVariableService ruleVariableService;
 
+    @Autowired
+    protected SystemSettingManager systemSettingManager;
+
     protected static final int FLUSH_FREQUENCY = 100;
 
     // -------------------------------------------------------------------------
@@ -293,6 +300,9 @@ public abstract class AbstractEventService
         notifier.clear( jobId ).notify( jobId, "Importing events" );
         Clock clock = new Clock( log ).startClock();
 
+        boolean bulkImport = !importOptions.isDryRun() &&
+            (Boolean) systemSettingManager.getSystemSetting( SettingKey.EVENT_BULK_IMPORT );
+
         List<List<Event>> partitions = Lists.partition( events, FLUSH_FREQUENCY );
 
         for ( List<Event> _events : partitions )
@@ -338,7 +348,7 @@ public abstract class AbstractEventService
                 }
             }
 
-            importSummaries.addImportSummaries( addEvents( create, importOptions, true ) );
+            importSummaries.addImportSummaries( bulkImport ? addEventsInBulk( create, importOptions ) : addEvents( create, importOptions, true ) );
             importSummaries.addImportSummaries( updateEvents( update, importOptions, false, true ) );
             importSummaries.addImportSummaries( deleteEvents( delete, true ) );
 
@@ -394,6 +404,50 @@ public abstract class AbstractEventService
         return importSummaries;
     }
 
+    /**
+     * Adds the given events like {@link #addEvents(List, ImportOptions, boolean)},
+     * but writes the new program stage instances of each chunk with batched
+     * JDBC statements instead of saving them one by one through Hibernate.
+     * Events with notes are saved through Hibernate since notes are stored as
+     * separate entities.
+     */
+    private ImportSummaries addEventsInBulk( List<Event> events, ImportOptions importOptions )
+    {
+        ImportSummaries importSummaries = new ImportSummaries();
+        List<List<Event>> partitions = Lists.partition( events, FLUSH_FREQUENCY );
+
+        for ( List<Event> _events : partitions )
+        {
+            reloadUser( importOptions );
+            prepareCaches( importOptions.getUser(), _events );
+
+            List<ProgramStageInstance> bulkInserts = new ArrayList<>();
+
+            for ( Event event : _events )
+            {
+                if ( event.getNotes().isEmpty() )
+                {
+                    importSummaries.addImportSummary( addEvent( event, importOptions, true, bulkInserts ) );
+                }
+                else
+                {
+                    importSummaries.addImportSummary( addEvent( event, importOptions, true ) );
+                }
+            }
+
+            saveBulkInserts( bulkInserts, importOptions );
+
+            if ( events.size() >= FLUSH_FREQUENCY )
+            {
+                clearSession( importOptions.getUser() );
+            }
+        }
+
+        updateEntities( importOptions.getUser() );
+
+        return importSummaries;
+    }
+
     @Override
     public ImportSummaries addEvents( List<Event> events, ImportOptions importOptions, JobConfiguration jobId )
     {
@@ -421,6 +475,17 @@ public abstract class AbstractEventService
 
     @Override
     public ImportSummary addEvent( Event event, ImportOptions importOptions, boolean bulkImport )
+    {
+        return addEvent( event, importOptions, bulkImport, null );
+    }
+
+    /**
+     * Adds the given event. If a list of bulk inserts is given, a new program
+     * stage instance is validated and added to the list instead of being saved
+     * through Hibernate, and notifications are left to the caller.
+     */
+    private ImportSummary addEvent( Event event, ImportOptions importOptions, boolean bulkImport,
+        List<ProgramStageInstance> bulkInserts )
     {
         importOptions = updateImportOptions( importOptions );
 
@@ -492,7 +557,8 @@ public abstract class AbstractEventService
                 programInstance = programInstances.get( 0 );
             }
 
-            if ( !programStage.getRepeatable() && programInstance.hasProgramStageInstance( programStage ) )
+            if ( !programStage.getRepeatable() && ( programInstance.hasProgramStageInstance( programStage ) ||
+                hasBulkInsert( bulkInserts, programInstance, programStage ) ) )
             {
                 return new ImportSummary( ImportStatus.ERROR, "Program stage is not repeatable and an event already exists" )
                     .setReference( event.getEvent() ).incrementIgnored();
@@ -576,7 +642,7 @@ public abstract class AbstractEventService
             return importSummary;
         }
 
-        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, assignedUser, importOptions, bulkImport );
+        return saveEvent( program, programInstance, programStage, programStageInstance, organisationUnit, event, assignedUser, importOptions, bulkImport, bulkInserts );
     }
 
     // -------------------------------------------------------------------------
@@ -616,6 +682,11 @@ public abstract class AbstractEventService
 
         List<Event> eventList = eventStore.getEvents( params, organisationUnits, Collections.emptyMap() );
 
+        if ( events.getPager() != null && params.getNextPageCursor() != null )
+        {
+            events.getPager().setNextPageToken( params.getNextPageCursor().encode() );
+        }
+
         for ( Event event : eventList )
         {
             if ( trackerOwnershipAccessManager.hasAccess( user,
@@ -1614,7 +1685,7 @@ public abstract class AbstractEventService
 
     private ImportSummary saveEvent( Program program, ProgramInstance programInstance, ProgramStage programStage,
         ProgramStageInstance programStageInstance, OrganisationUnit organisationUnit, Event event, User assignedUser,
-        ImportOptions importOptions, boolean bulkSave )
+        ImportOptions importOptions, boolean bulkSave, List<ProgramStageInstance> bulkInserts )
     {
         Assert.notNull( program, "Program cannot be null" );
         Assert.notNull( programInstance, "Program instance cannot be null" );
@@ -1705,9 +1776,9 @@ public abstract class AbstractEventService
             {
                 programStageInstance = createProgramStageInstance( event, programStage, programInstance,
                     organisationUnit, dueDate, executionDate, event.getStatus().getValue(),
-                    completedBy, storedBy, event.getEvent(), aoc, assignedUser, importOptions, importSummary );
+                    completedBy, storedBy, event.getEvent(), aoc, assignedUser, importOptions, importSummary, bulkInserts );
 
-                if ( program.isRegistration() )
+                if ( program.isRegistration() && bulkInserts == null )
                 {
                     programInstance.getProgramStageInstances().add( programStageInstance );
                 }
@@ -1716,7 +1787,7 @@ public abstract class AbstractEventService
             {
                 updateProgramStageInstance( event, programStage, programInstance, organisationUnit, dueDate,
                     executionDate, event.getStatus().getValue(), completedBy, storedBy,
-                    programStageInstance, aoc, assignedUser, importOptions, importSummary );
+                    programStageInstance, aoc, assignedUser, importOptions, importSummary, null );
             }
 
             if ( !importOptions.isSkipLastUpdated() )
@@ -1737,7 +1808,11 @@ public abstract class AbstractEventService
         }
 
         programInstanceCache.put( programInstance.getUid(), programInstance );
-        sendProgramNotification( programStageInstance, importOptions );
+
+        if ( bulkInserts == null )
+        {
+            sendProgramNotification( programStageInstance, importOptions );
+        }
 
         if ( importSummary.getConflicts().size() > 0 )
         {
@@ -1753,6 +1828,49 @@ public abstract class AbstractEventService
         return importSummary;
     }
 
+    /**
+     * Writes the given new program stage instances and the audits of their data
+     * values with batched JDBC statements, and publishes the program
+     * notification events, which are handled once the transaction commits.
+     */
+    private void saveBulkInserts( List<ProgramStageInstance> bulkInserts, ImportOptions importOptions )
+    {
+        if ( bulkInserts.isEmpty() )
+        {
+            return;
+        }
+
+        // Program instances created for events must be written before the events refer to them
+
+        dbmsManager.flushSession();
+
+        eventStore.saveEvents( bulkInserts );
+
+        List<TrackedEntityDataValueAudit> audits = new ArrayList<>();
+
+        for ( ProgramStageInstance programStageInstance : bulkInserts )
+        {
+            for ( EventDataValue dataValue : programStageInstance.getEventDataValues() )
+            {
+                audits.add( new TrackedEntityDataValueAudit( dataElementCache.get( dataValue.getDataElement() ),
+                    programStageInstance, dataValue.getValue(), dataValue.getStoredBy(),
+                    dataValue.getProvidedElsewhere(), AuditType.CREATE ) );
+            }
+        }
+
+        eventStore.saveTrackedEntityDataValueAudits( audits );
+
+        bulkInserts.forEach( programStageInstance -> sendProgramNotification( programStageInstance, importOptions ) );
+    }
+
+    private boolean hasBulkInsert( List<ProgramStageInstance> bulkInserts, ProgramInstance programInstance,
+        ProgramStage programStage )
+    {
+        return bulkInserts != null && bulkInserts.stream()
+            .anyMatch( psi -> psi.getProgramInstance().getUid().equals( programInstance.getUid() ) &&
+                psi.getProgramStage().getUid().equals( programStage.getUid() ) && psi.getStatus() != EventStatus.SKIPPED );
+    }
+
     private void sendProgramNotification( ProgramStageInstance programStageInstance, ImportOptions importOptions )
     {
         if ( !importOptions.isSkipNotifications() )
@@ -1773,7 +1891,8 @@ public abstract class AbstractEventService
     private ProgramStageInstance createProgramStageInstance( Event event, ProgramStage programStage,
         ProgramInstance programInstance, OrganisationUnit organisationUnit, Date dueDate, Date executionDate,
         int status, String completedBy, String storedBy, String programStageInstanceIdentifier,
-        CategoryOptionCombo aoc, User assignedUser, ImportOptions importOptions, ImportSummary importSummary )
+        CategoryOptionCombo aoc, User assignedUser, ImportOptions importOptions, ImportSummary importSummary,
+        List<ProgramStageInstance> bulkInserts )
     {
         ProgramStageInstance programStageInstance = new ProgramStageInstance();
 
@@ -1792,7 +1911,7 @@ public abstract class AbstractEventService
         programStageInstance.setStoredBy( storedBy );
 
         updateProgramStageInstance( event, programStage, programInstance, organisationUnit, dueDate, executionDate,
-            status, completedBy, storedBy, programStageInstance, aoc, assignedUser, importOptions, importSummary );
+            status, completedBy, storedBy, programStageInstance, aoc, assignedUser, importOptions, importSummary, bulkInserts );
 
         return programStageInstance;
     }
@@ -1800,7 +1919,7 @@ public abstract class AbstractEventService
     private void updateProgramStageInstance( Event event, ProgramStage programStage, ProgramInstance programInstance,
         OrganisationUnit organisationUnit, Date dueDate, Date executionDate, int status,
         String completedBy, String storedBy, ProgramStageInstance programStageInstance, CategoryOptionCombo aoc, User assignedUser,
-        ImportOptions importOptions, ImportSummary importSummary )
+        ImportOptions importOptions, ImportSummary importSummary, List<ProgramStageInstance> bulkInserts )
     {
         programStageInstance.setProgramInstance( programInstance );
         programStageInstance.setProgramStage( programStage );
@@ -1834,7 +1953,14 @@ public abstract class AbstractEventService
 
         preheatDataElementsCache( event );
 
-        if ( programStageInstance.getId() == 0 )
+        if ( programStageInstance.getId() == 0 && bulkInserts != null )
+        {
+            programStageInstance.setAutoFields();
+
+            eventDataValueService.processDataValues( programStageInstance, event, false, false, importOptions, importSummary, dataElementCache, true );
+            bulkInserts.add( programStageInstance );
+        }
+        else if ( programStageInstance.getId() == 0 )
         {
             programStageInstance.setAutoFields();
             programStageInstanceService.addProgramStageInstance( programStageInstance );
@@ -2077,6 +2203,12 @@ public abstract class AbstractEventService
             violation = "At least one of the following query parameters are required: orgUnit, program, trackedEntityInstance or event";
         }
 
+        if ( params.isKeysetPaging() && ( ( params.getOrders() != null && !params.getOrders().isEmpty() ) ||
+            ( params.getGridOrders() != null && !params.getGridOrders().isEmpty() ) ) )
+        {
+            violation = "Order cannot be specified when paging with page tokens";
+        }
+
         if ( violation != null )
         {
             log.warn( "Validation failed: " + violation );
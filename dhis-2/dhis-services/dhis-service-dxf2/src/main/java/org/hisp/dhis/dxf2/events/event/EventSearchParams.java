@@ -31,6 +31,7 @@ package org.hisp.dhis.dxf2.events.event;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.AssignedUserSelectionMode;
 import org.hisp.dhis.common.IdSchemes;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.event.EventStatus;
@@ -126,6 +127,28 @@ public class EventSearchParams
 
     private boolean skipPaging;
 
+    /**
+     * Indicates whether to page on last updated and id instead of offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position after which to start the page when using keyset paging, null
+     * for the first page.
+     */
+    private KeysetCursor pageCursor;
+
+    /**
+     * Position of the last retrieved event, set by the store when using keyset
+     * paging and more events might be available.
+     */
+    private KeysetCursor nextPageCursor;
+
+    /**
+     * Indicates whether to use the query planner estimate for total pages.
+     */
+    private boolean approximateCount;
+
     private List<Order> orders;
 
     private List<String> gridOrders;
@@ -201,6 +224,11 @@ public class EventSearchParams
         this.skipPaging = false;
     }
 
+    public boolean hasPageCursor()
+    {
+        return pageCursor != null;
+    }
+
     public boolean hasProgram()
     {
     	return program != null;
@@ -469,6 +497,46 @@ public class EventSearchParams
         this.skipPaging = skipPaging;
     }
 
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+
+    public void setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public KeysetCursor getPageCursor()
+    {
+        return pageCursor;
+    }
+
+    public void setPageCursor( KeysetCursor pageCursor )
+    {
+        this.pageCursor = pageCursor;
+    }
+
+    public KeysetCursor getNextPageCursor()
+    {
+        return nextPageCursor;
+    }
+
+    public void setNextPageCursor( KeysetCursor nextPageCursor )
+    {
+        this.nextPageCursor = nextPageCursor;
+    }
+
+    public boolean isApproximateCount()
+    {
+        return approximateCount;
+    }
+
+    public void setApproximateCount( boolean approximateCount )
+    {
+        this.approximateCount = approximateCount;
+    }
+
     public boolean isIncludeAttributes()
     {
         return includeAttributes;
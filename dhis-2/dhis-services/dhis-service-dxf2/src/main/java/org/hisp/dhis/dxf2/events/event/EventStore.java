@@ -34,6 +34,8 @@ import java.util.Set;
 
 import org.hisp.dhis.dxf2.events.report.EventRow;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAudit;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -47,4 +49,22 @@ public interface EventStore
     List<EventRow> getEventRows( EventSearchParams params, List<OrganisationUnit> organisationUnits );
 
     int getEventCount( EventSearchParams params, List<OrganisationUnit> organisationUnits );
+
+    /**
+     * Inserts the given new program stage instances, including their event data
+     * values, with batched JDBC statements in the current transaction. The
+     * identifiers are allocated from the program stage instance sequence and set
+     * on the given objects.
+     *
+     * @param programStageInstances the program stage instances to insert.
+     */
+    void saveEvents( List<ProgramStageInstance> programStageInstances );
+
+    /**
+     * Inserts the given data value audits with batched JDBC statements in the
+     * current transaction. The audited program stage instances must be saved.
+     *
+     * @param audits the data value audits to insert.
+     */
+    void saveTrackedEntityDataValueAudits( List<TrackedEntityDataValueAudit> audits );
 }
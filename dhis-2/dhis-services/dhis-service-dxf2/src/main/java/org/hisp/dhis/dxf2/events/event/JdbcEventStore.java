@@ -39,6 +39,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
@@ -55,21 +56,27 @@ import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.program.ProgramStatus;
 import org.hisp.dhis.program.ProgramType;
 import org.hisp.dhis.query.Order;
 import org.hisp.dhis.security.acl.AccessStringHelper;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAudit;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.Resource;
 import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -83,6 +90,7 @@ import static org.hisp.dhis.common.IdentifiableObjectUtils.getIdentifiers;
 import static org.hisp.dhis.commons.util.TextUtils.*;
 import static org.hisp.dhis.dxf2.events.event.AbstractEventService.STATIC_EVENT_COLUMNS;
 import static org.hisp.dhis.dxf2.events.event.EventSearchParams.*;
+import static org.hisp.dhis.system.util.SqlUtils.getEstimatedRowCount;
 import static org.hisp.dhis.util.DateUtils.getDateAfterAddition;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 
@@ -115,12 +123,27 @@ public class JdbcEventStore
     @Resource( name = "readOnlyJdbcTemplate" )
     private JdbcTemplate jdbcTemplate;
 
+    @Resource( name = "jdbcTemplate" )
+    private JdbcTemplate writeJdbcTemplate;
+
     @Autowired
     private CurrentUserService currentUserService;
 
     @Autowired
     private IdentifiableObjectManager manager;
 
+    private static final JsonEventDataValueSetBinaryType EVENT_DATA_VALUE_TYPE = new JsonEventDataValueSetBinaryType();
+
+    private static final String INSERT_EVENT_SQL = "insert into programstageinstance (programstageinstanceid, uid, code, " +
+        "created, lastupdated, createdatclient, lastupdatedatclient, programinstanceid, programstageid, attributeoptioncomboid, " +
+        "deleted, storedby, duedate, executiondate, organisationunitid, status, completedby, completeddate, geometry, " +
+        "assigneduserid, eventdatavalues) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?, ?, " +
+        "ST_GeomFromText(?, 4326), ?, ?)";
+
+    private static final String INSERT_DATA_VALUE_AUDIT_SQL = "insert into trackedentitydatavalueaudit " +
+        "(trackedentitydatavalueauditid, programstageinstanceid, dataelementid, value, created, providedelsewhere, " +
+        "modifiedby, audittype) values (nextval('trackedentitydatavalueaudit_sequence'), ?, ?, ?, ?, ?, ?, ?)";
+
     //Cannot use DefaultRenderService mapper. Does not work properly - DHIS2-6102
     private static final ObjectReader eventDataValueJsonReader =
         JsonEventDataValueSetBinaryType.MAPPER.readerFor( new TypeReference<Map<String, EventDataValue>>() {} );
@@ -158,8 +181,19 @@ public class JdbcEventStore
 
         IdSchemes idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
 
+        int rowCount = 0;
+
+        KeysetCursor lastRowCursor = null;
+
         while ( rowSet.next() )
         {
+            rowCount++;
+
+            if ( params.isKeysetPaging() && rowSet.getString( "psi_uid" ) != null )
+            {
+                lastRowCursor = new KeysetCursor( rowSet.getTimestamp( "psi_lastupdated" ), rowSet.getLong( "psi_id" ) );
+            }
+
             if ( rowSet.getString( "psi_uid" ) == null || (params.getCategoryOptionCombo() == null && !isSuperUser && !userHasAccess( rowSet )) )
             {
                 continue;
@@ -292,6 +326,14 @@ public class JdbcEventStore
             }
         }
 
+        // Joined rows are never fewer than paged event rows, so a full page
+        // means more events might follow the last row
+
+        if ( params.isKeysetPaging() && rowCount >= params.getPageSizeWithDefault() )
+        {
+            params.setNextPageCursor( lastRowCursor );
+        }
+
         if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
         {
             return events.stream().filter( ev -> ev.getAttributeCategoryOptions() != null && splitToArray( ev.getAttributeCategoryOptions(), TextUtils.SEMICOLON ).size() == ev.getOptionSize() ).collect( Collectors.toList() );
@@ -482,11 +524,115 @@ public class JdbcEventStore
 
         sql = sql.replaceFirst( "limit \\d+ offset \\d+", "" );
 
+        if ( params.isApproximateCount() )
+        {
+            Long estimate = getEstimatedRowCount( jdbcTemplate, sql.replaceFirst( "select count\\(\\*\\) from", "select 1 from" ) );
+
+            if ( estimate != null )
+            {
+                log.debug( "Event query estimated count: " + estimate + " for SQL: " + sql );
+
+                return estimate.intValue();
+            }
+        }
+
         log.debug( "Event query count SQL: " + sql );
 
         return jdbcTemplate.queryForObject( sql, Integer.class );
     }
 
+    @Override
+    public void saveEvents( List<ProgramStageInstance> programStageInstances )
+    {
+        if ( programStageInstances.isEmpty() )
+        {
+            return;
+        }
+
+        List<Long> ids = writeJdbcTemplate.queryForList( "select nextval('programstageinstance_sequence') " +
+            "from generate_series(1," + programStageInstances.size() + ")", Long.class );
+
+        for ( int i = 0; i < programStageInstances.size(); i++ )
+        {
+            programStageInstances.get( i ).setId( ids.get( i ) );
+        }
+
+        writeJdbcTemplate.batchUpdate( INSERT_EVENT_SQL, new BatchPreparedStatementSetter()
+        {
+            @Override
+            public void setValues( PreparedStatement ps, int i )
+                throws SQLException
+            {
+                ProgramStageInstance psi = programStageInstances.get( i );
+
+                ps.setLong( 1, psi.getId() );
+                ps.setString( 2, psi.getUid() );
+                ps.setString( 3, psi.getCode() );
+                ps.setTimestamp( 4, toTimestamp( psi.getCreated() ) );
+                ps.setTimestamp( 5, toTimestamp( psi.getLastUpdated() ) );
+                ps.setTimestamp( 6, toTimestamp( psi.getCreatedAtClient() ) );
+                ps.setTimestamp( 7, toTimestamp( psi.getLastUpdatedAtClient() ) );
+                ps.setLong( 8, psi.getProgramInstance().getId() );
+                ps.setLong( 9, psi.getProgramStage().getId() );
+                ps.setObject( 10, psi.getAttributeOptionCombo() != null ? psi.getAttributeOptionCombo().getId() : null );
+                ps.setString( 11, psi.getStoredBy() );
+                ps.setTimestamp( 12, toTimestamp( psi.getDueDate() ) );
+                ps.setTimestamp( 13, toTimestamp( psi.getExecutionDate() ) );
+                ps.setObject( 14, psi.getOrganisationUnit() != null ? psi.getOrganisationUnit().getId() : null );
+                ps.setString( 15, psi.getStatus().name() );
+                ps.setString( 16, psi.getCompletedBy() );
+                ps.setTimestamp( 17, toTimestamp( psi.getCompletedDate() ) );
+                ps.setString( 18, psi.getGeometry() != null ? psi.getGeometry().toText() : null );
+                ps.setObject( 19, psi.getAssignedUser() != null ? psi.getAssignedUser().getId() : null );
+                EVENT_DATA_VALUE_TYPE.nullSafeSet( ps, psi.getEventDataValues(), 20, null );
+            }
+
+            @Override
+            public int getBatchSize()
+            {
+                return programStageInstances.size();
+            }
+        } );
+    }
+
+    @Override
+    public void saveTrackedEntityDataValueAudits( List<TrackedEntityDataValueAudit> audits )
+    {
+        if ( audits.isEmpty() )
+        {
+            return;
+        }
+
+        writeJdbcTemplate.batchUpdate( INSERT_DATA_VALUE_AUDIT_SQL, new BatchPreparedStatementSetter()
+        {
+            @Override
+            public void setValues( PreparedStatement ps, int i )
+                throws SQLException
+            {
+                TrackedEntityDataValueAudit audit = audits.get( i );
+
+                ps.setLong( 1, audit.getProgramStageInstance().getId() );
+                ps.setLong( 2, audit.getDataElement().getId() );
+                ps.setString( 3, audit.getValue() );
+                ps.setTimestamp( 4, toTimestamp( audit.getCreated() ) );
+                ps.setBoolean( 5, audit.getProvidedElsewhere() );
+                ps.setString( 6, audit.getModifiedBy() );
+                ps.setString( 7, audit.getAuditType().name() );
+            }
+
+            @Override
+            public int getBatchSize()
+            {
+                return audits.size();
+            }
+        } );
+    }
+
+    private Timestamp toTimestamp( Date date )
+    {
+        return date != null ? new Timestamp( date.getTime() ) : null;
+    }
+
     private DataValue convertEventDataValueIntoDtoDataValue( EventDataValue eventDataValue ) {
         DataValue dataValue = new DataValue();
         dataValue.setCreated( DateUtils.getIso8601NoTz( eventDataValue.getCreated() ) );
@@ -561,7 +707,15 @@ public class JdbcEventStore
     {
         String sql = "select * from (";
 
-        sql += getEventSelectQuery( params, organisationUnits, user );
+        if ( params.hasPageCursor() )
+        {
+            sql += "select * from (" + getEventSelectQuery( params, organisationUnits, user ) + ") as ev where " +
+                params.getPageCursor().getSqlCondition( "ev.psi_lastupdated", "ev.psi_id" );
+        }
+        else
+        {
+            sql += getEventSelectQuery( params, organisationUnits, user );
+        }
 
         sql += getOrderQuery( params );
 
@@ -1053,7 +1207,11 @@ public class JdbcEventStore
     {
         String sql = " ";
 
-        if ( params.isPaging() )
+        if ( params.isPaging() && params.isKeysetPaging() )
+        {
+            sql += "limit " + params.getPageSizeWithDefault() + " ";
+        }
+        else if ( params.isPaging() )
         {
             sql += "limit " + params.getPageSizeWithDefault() + " offset " + params.getOffset() + " ";
         }
@@ -1116,6 +1274,11 @@ public class JdbcEventStore
 
     private String getOrderQuery( EventSearchParams params )
     {
+        if ( params.isKeysetPaging() )
+        {
+            return "order by psi_lastupdated desc, psi_id desc ";
+        }
+
         ArrayList<String> orderFields = new ArrayList<String>();
 
         if ( params.getGridOrders() != null )
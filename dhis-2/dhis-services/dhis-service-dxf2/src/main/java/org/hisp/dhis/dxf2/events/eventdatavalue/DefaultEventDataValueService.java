@@ -86,6 +86,14 @@ public class DefaultEventDataValueService implements EventDataValueService
     public void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
         boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache ) {
 
+        processDataValues( programStageInstance, event, isUpdate, singleValue, importOptions, importSummary, dataElementsCache, false );
+    }
+
+    @Override
+    public void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
+        boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache,
+        boolean skipAudit ) {
+
         Map<String, EventDataValue> dataElementValueMap = getDataElementToEventDataValueMap( programStageInstance.getEventDataValues() );
 
         boolean validateMandatoryAttributes = doValidationOfMandatoryAttributes( importOptions.getUser() );
@@ -121,7 +129,7 @@ public class DefaultEventDataValueService implements EventDataValueService
             }
         }
 
-        programStageInstanceService.auditDataValuesChangesAndHandleFileDataValues( newDataValues, updatedDataValues, removedDataValuesDueToEmptyValue, dataElementsCache, programStageInstance, singleValue );
+        programStageInstanceService.auditDataValuesChangesAndHandleFileDataValues( newDataValues, updatedDataValues, removedDataValuesDueToEmptyValue, dataElementsCache, programStageInstance, singleValue, skipAudit );
     }
 
     private void prepareDataValueForStorage( Map<String, EventDataValue> dataElementToValueMap, DataValue dataValue,
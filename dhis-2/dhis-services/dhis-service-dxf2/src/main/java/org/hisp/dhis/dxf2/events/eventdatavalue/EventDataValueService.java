@@ -53,4 +53,20 @@ public interface EventDataValueService
      */
     void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
         boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache );
+
+    /**
+     * Process the data values: validates and then saves/updates/deletes data values.
+     *
+     * @param programStageInstance The ProgramStageInstance the EventDataValues are related to
+     * @param event Event that holds the data values to process
+     * @param isUpdate specifies whether a request is an update request
+     * @param singleValue Specifies whether request updates only a single value or not
+     * @param importOptions ImportOptions
+     * @param importSummary ImportSummary
+     * @param dataElementsCache Cache with DataElements related to EventDataValues that are being updated
+     * @param skipAudit Specifies whether audits should be skipped, e.g. because the ProgramStageInstance is not persisted yet
+     */
+    void processDataValues( ProgramStageInstance programStageInstance, Event event, boolean isUpdate,
+        boolean singleValue, ImportOptions importOptions, ImportSummary importSummary, Map<String, DataElement> dataElementsCache,
+        boolean skipAudit );
 }
@@ -184,6 +184,11 @@ public abstract class AbstractTrackedEntityInstanceService
         List<org.hisp.dhis.trackedentity.TrackedEntityInstance> daoTEIs = teiService
             .getTrackedEntityInstances( queryParams, skipAccessValidation );
 
+        // Load associations of the whole page up front instead of per instance
+
+        teiService.loadAssociations( daoTEIs, params.isIncludeEnrollments(), params.isIncludeEvents(),
+            params.isIncludeRelationships() );
+
         List<TrackedEntityInstance> dtoTeis = new ArrayList<>();
         User user = currentUserService.getCurrentUser();
 
@@ -194,24 +199,30 @@ public abstract class AbstractTrackedEntityInstanceService
 
         Set<TrackedEntityAttribute> attributes = new HashSet<>();
 
-        if ( queryParams != null && queryParams.isIncludeAllAttributes() )
+        // Check ownership of all programs, which is needed for the attributes
+        // and enrollments to include, for the whole page in bulk
+
+        Map<org.hisp.dhis.trackedentity.TrackedEntityInstance, Set<Program>> accessiblePrograms = null;
+
+        if ( ( queryParams != null && queryParams.isIncludeAllAttributes() ) || params.isIncludeEnrollments() )
         {
-            List<Program> programs = manager.getAll( Program.class );
+            accessiblePrograms = trackerOwnershipAccessManager.getAccessiblePrograms( user, daoTEIs, manager.getAll( Program.class ) );
+        }
 
+        if ( queryParams != null && queryParams.isIncludeAllAttributes() )
+        {
             for ( org.hisp.dhis.trackedentity.TrackedEntityInstance daoTrackedEntityInstance : daoTEIs )
             {
                 attributes = new HashSet<>( trackedEntityTypeAttributes );
 
                 // pick only those program attributes that user is the owner
-                for ( Program program : programs )
+                for ( Program program : accessiblePrograms.get( daoTrackedEntityInstance ) )
                 {
-                    if ( trackerOwnershipAccessManager.hasAccess( user, daoTrackedEntityInstance, program ) )
-                    {
-                        attributes.addAll( program.getTrackedEntityAttributes() );
-                    }
+                    attributes.addAll( program.getTrackedEntityAttributes() );
                 }
 
-                dtoTeis.add( getTei( daoTrackedEntityInstance, attributes, params, user ) );
+                dtoTeis.add( getTei( daoTrackedEntityInstance, attributes, params, user,
+                    accessiblePrograms.get( daoTrackedEntityInstance ) ) );
 
             }
         }
@@ -226,9 +237,15 @@ public abstract class AbstractTrackedEntityInstanceService
 
             for ( org.hisp.dhis.trackedentity.TrackedEntityInstance daoTrackedEntityInstance : daoTEIs )
             {
-                if ( trackerOwnershipAccessManager.hasAccess( user, daoTrackedEntityInstance, queryParams.getProgram() ) )
+                Set<Program> teiAccessiblePrograms = accessiblePrograms != null ? accessiblePrograms.get( daoTrackedEntityInstance ) : null;
+
+                boolean hasAccess = teiAccessiblePrograms != null && queryParams.hasProgram() ?
+                    teiAccessiblePrograms.contains( queryParams.getProgram() ) :
+                    trackerOwnershipAccessManager.hasAccess( user, daoTrackedEntityInstance, queryParams.getProgram() );
+
+                if ( hasAccess )
                 {
-                    dtoTeis.add( getTei( daoTrackedEntityInstance, attributes, params, user ) );
+                    dtoTeis.add( getTei( daoTrackedEntityInstance, attributes, params, user, teiAccessiblePrograms ) );
                 }
             }
         }
@@ -294,7 +311,7 @@ public abstract class AbstractTrackedEntityInstanceService
 
         Set<TrackedEntityAttribute> readableAttributes = trackedEntityAttributeService.getAllUserReadableTrackedEntityAttributes();
 
-        return getTei( daoTrackedEntityInstance, readableAttributes, params, user );
+        return getTei( daoTrackedEntityInstance, readableAttributes, params, user, null );
     }
 
     private org.hisp.dhis.trackedentity.TrackedEntityInstance createDAOTrackedEntityInstance(
@@ -1232,8 +1249,16 @@ public abstract class AbstractTrackedEntityInstanceService
         return importConflicts;
     }
 
+    /**
+     * Converts the given tracked entity instance to its DTO.
+     *
+     * @param accessiblePrograms the programs for which ownership access to the
+     *        tracked entity instance has already been checked, or null to check
+     *        ownership for each enrollment.
+     */
     private TrackedEntityInstance getTei( org.hisp.dhis.trackedentity.TrackedEntityInstance daoTrackedEntityInstance,
-        Set<TrackedEntityAttribute> readableAttributes, TrackedEntityInstanceParams params, User user )
+        Set<TrackedEntityAttribute> readableAttributes, TrackedEntityInstanceParams params, User user,
+        Set<Program> accessiblePrograms )
     {
         if ( daoTrackedEntityInstance == null )
         {
@@ -1282,7 +1307,14 @@ public abstract class AbstractTrackedEntityInstanceService
         {
             for ( ProgramInstance programInstance : daoTrackedEntityInstance.getProgramInstances() )
             {
-                if ( trackerAccessManager.canRead( user, programInstance, false ).isEmpty() && (params.isIncludeDeleted() || !programInstance.isDeleted()) )
+                boolean ownershipChecked = accessiblePrograms != null;
+
+                if ( ownershipChecked && !accessiblePrograms.contains( programInstance.getProgram() ) )
+                {
+                    continue;
+                }
+
+                if ( trackerAccessManager.canRead( user, programInstance, ownershipChecked ).isEmpty() && (params.isIncludeDeleted() || !programInstance.isDeleted()) )
                 {
                     trackedEntityInstance.getEnrollments()
                         .add( enrollmentService.getEnrollment( user, programInstance, params, true ) );
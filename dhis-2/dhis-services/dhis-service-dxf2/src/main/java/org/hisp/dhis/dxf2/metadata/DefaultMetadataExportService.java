@@ -29,6 +29,7 @@ package org.hisp.dhis.dxf2.metadata;
  */
 
 import com.google.common.base.Enums;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.hisp.dhis.attribute.Attribute;
@@ -38,6 +39,7 @@ import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.chart.Chart;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.commons.timer.SystemTimer;
@@ -71,6 +73,7 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.option.OptionSet;
 import org.hisp.dhis.program.Program;
@@ -85,8 +88,10 @@ import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.planner.QueryPlanner;
 import org.hisp.dhis.report.Report;
 import org.hisp.dhis.reporttable.ReportTable;
 import org.hisp.dhis.schema.Schema;
@@ -104,6 +109,7 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -115,6 +121,8 @@ public class DefaultMetadataExportService implements MetadataExportService
 {
     private static final LoggingManager.Logger log = LoggingManager.createLogger( DefaultMetadataExportService.class );
 
+    static final int STREAMING_PAGE_SIZE = 1000;
+
     @Autowired
     private SchemaService schemaService;
 
@@ -136,47 +144,25 @@ public class DefaultMetadataExportService implements MetadataExportService
     @Autowired
     private SystemService systemService;
 
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private QueryPlanner queryPlanner;
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata( MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
 
-        if ( params.getUser() == null )
-        {
-            params.setUser( currentUserService.getCurrentUser() );
-        }
-
-        if ( params.getClasses().isEmpty() )
-        {
-            schemaService.getMetadataSchemas().stream().filter( Schema::isIdentifiableObject ).filter( s -> !s.isSecondaryMetadata() )
-                .forEach( schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
-        }
+        prepareParams( params );
 
         log.info( "(" + params.getUsername() + ") Export:Start" );
 
         for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
         {
-            Query query;
-
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(), orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
-
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
-
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
+            Query query = getQuery( params, klass );
 
             List<? extends IdentifiableObject> objects = queryService.query( query );
 
@@ -195,16 +181,7 @@ public class DefaultMetadataExportService implements MetadataExportService
     @Override
     public RootNode getMetadataAsNode( MetadataExportParams params )
     {
-        RootNode rootNode = NodeUtils.createMetadata();
-        rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
-
-        SystemInfo systemInfo = systemService.getSystemInfo();
-
-        ComplexNode system = rootNode.addChild( new ComplexNode( "system" ) );
-        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
-        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
-        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
-        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+        RootNode rootNode = createMetadataRootNode( params );
 
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = getMetadata( params );
 
@@ -224,6 +201,26 @@ public class DefaultMetadataExportService implements MetadataExportService
         return rootNode;
     }
 
+    @Override
+    public RootNode getMetadataAsStreamingNode( MetadataExportParams params )
+    {
+        RootNode rootNode = createMetadataRootNode( params );
+
+        prepareParams( params );
+
+        for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+        {
+            Iterator<CollectionNode> pages = getCollectionNodePages( params, klass, getQuery( params, klass ) );
+
+            if ( pages.hasNext() )
+            {
+                rootNode.addChild( new StreamingCollectionNode( pages.next(), pages ) );
+            }
+        }
+
+        return rootNode;
+    }
+
     @Override
     public void validate( MetadataExportParams params )
     {
@@ -383,6 +380,129 @@ public class DefaultMetadataExportService implements MetadataExportService
     // Utility Methods
     //-----------------------------------------------------------------------------------
 
+    private RootNode createMetadataRootNode( MetadataExportParams params )
+    {
+        RootNode rootNode = NodeUtils.createMetadata();
+        rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
+
+        SystemInfo systemInfo = systemService.getSystemInfo();
+
+        ComplexNode system = rootNode.addChild( new ComplexNode( "system" ) );
+        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
+        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
+        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
+        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+
+        return rootNode;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void prepareParams( MetadataExportParams params )
+    {
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getClasses().isEmpty() )
+        {
+            schemaService.getMetadataSchemas().stream().filter( Schema::isIdentifiableObject ).filter( s -> !s.isSecondaryMetadata() )
+                .forEach( schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
+        }
+    }
+
+    private Query getQuery( MetadataExportParams params, Class<? extends IdentifiableObject> klass )
+    {
+        Query query;
+
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
+        {
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(), orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
+
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
+
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
+
+        return query;
+    }
+
+    /**
+     * Returns an iterator over the objects matching the given query as
+     * collection nodes of at most {@link #STREAMING_PAGE_SIZE} objects. Pages
+     * are queried when the iterator advances, and the objects of a page are
+     * evicted from the session once converted. Queries which are already paged,
+     * or which are filtered or ordered in memory and hence can not be paged in
+     * the database, are returned as a single page.
+     */
+    private Iterator<CollectionNode> getCollectionNodePages( MetadataExportParams params,
+        Class<? extends IdentifiableObject> klass, Query query )
+    {
+        boolean paged = query.getFirstResult() != null || query.getMaxResults() != null || !query.ordersPersisted() ||
+            !queryPlanner.planQuery( query ).getNonPersistedQuery().getCriterions().isEmpty();
+
+        if ( !paged && query.getSchema().havePersistedProperty( "id" ) )
+        {
+            // Order by identifier last for a stable order across pages
+
+            query.addOrder( Order.asc( query.getSchema().getPersistedProperty( "id" ) ) );
+        }
+
+        return new AbstractIterator<CollectionNode>()
+        {
+            private int firstResult = 0;
+
+            private boolean lastPage = false;
+
+            @Override
+            protected CollectionNode computeNext()
+            {
+                while ( !lastPage )
+                {
+                    Query pageQuery = query;
+
+                    if ( !paged )
+                    {
+                        pageQuery = Query.from( query );
+                        pageQuery.setDefaults( query.getDefaults() );
+                        pageQuery.setFirstResult( firstResult );
+                        pageQuery.setMaxResults( STREAMING_PAGE_SIZE );
+                    }
+
+                    List<? extends IdentifiableObject> objects = queryService.query( pageQuery );
+
+                    lastPage = paged || objects.size() < STREAMING_PAGE_SIZE;
+                    firstResult += objects.size();
+
+                    FieldFilterParams fieldFilterParams = new FieldFilterParams( objects, params.getFields( klass ), params.getDefaults(), params.getSkipSharing() );
+                    fieldFilterParams.setUser( params.getUser() );
+
+                    CollectionNode collectionNode = fieldFilterService.toCollectionNode( klass, fieldFilterParams );
+
+                    objects.stream().filter( object -> !object.equals( params.getUser() ) ).forEach( manager::evict );
+
+                    if ( !collectionNode.getUnorderedChildren().isEmpty() )
+                    {
+                        log.info( "(" + params.getUsername() + ") Exported " + firstResult + " objects of type " + klass.getSimpleName() );
+
+                        return collectionNode;
+                    }
+                }
+
+                return endOfData();
+            }
+        };
+    }
+
     private boolean isSelectedClass( @Nonnull List<String> values )
     {
         if ( values.stream().anyMatch( "false"::equalsIgnoreCase ) )
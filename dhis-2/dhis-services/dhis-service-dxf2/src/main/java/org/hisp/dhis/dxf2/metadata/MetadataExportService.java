@@ -57,6 +57,17 @@ public interface MetadataExportService
      */
     RootNode getMetadataAsNode( MetadataExportParams params );
 
+    /**
+     * Returns the metadata as a root node which loads the objects of each type
+     * page by page while it is serialized, so that memory use is bounded by the
+     * page size rather than by the number of exported objects. The node must
+     * be serialized once, while a session is available.
+     *
+     * @param params Export parameters
+     * @return RootNode with streaming collection nodes
+     */
+    RootNode getMetadataAsStreamingNode( MetadataExportParams params );
+
     /**
      * Validates the import params. Not currently implemented.
      *
@@ -47,6 +47,8 @@ import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueAudit;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.importsummary.ImportStatus;
 import org.hisp.dhis.dxf2.importsummary.ImportSummary;
@@ -66,6 +68,8 @@ import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.security.Authorities;
 import org.hisp.dhis.security.acl.AccessStringHelper;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserService;
@@ -122,6 +126,18 @@ public class DataValueSetServiceTest
     @Autowired
     private UserService _userService;
 
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
+    @Autowired
+    private DataValueService dataValueService;
+
+    @Autowired
+    private DbmsManager dbmsManager;
+
+    @Autowired
+    private DefaultDataValueSetMetadataCache metadataCache;
+
     private Attribute attribute;
 
     private CategoryOptionCombo ocDef;
@@ -301,6 +317,14 @@ public class DataValueSetServiceTest
         registrationService.saveCompleteDataSetRegistration(completeDataSetRegistration);
     }
 
+    @Override
+    public void tearDownTest()
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.DATA_IMPORT_PIPELINE, false );
+
+        metadataCache.init( false );
+    }
+
     // -------------------------------------------------------------------------
     // Tests
     // -------------------------------------------------------------------------
@@ -424,6 +448,47 @@ public class DataValueSetServiceTest
         assertImportDataValues( summary );
     }
 
+    @Test
+    public void testImportDataValuesXmlPipelined()
+        throws Exception
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.DATA_IMPORT_PIPELINE, true );
+
+        in = new ClassPathResource( "datavalueset/dataValueSetB.xml" ).getInputStream();
+
+        ImportSummary summary = dataValueSetService.saveDataValueSet( in );
+
+        assertEquals( summary.getConflicts().toString(), 0, summary.getConflicts().size() );
+        assertEquals( 12, summary.getImportCount().getImported() );
+        assertEquals( 0, summary.getImportCount().getUpdated() );
+        assertEquals( 0, summary.getImportCount().getDeleted() );
+        assertEquals( 0, summary.getImportCount().getIgnored() );
+        assertEquals( ImportStatus.SUCCESS, summary.getStatus() );
+
+        assertImportDataValues( summary );
+    }
+
+    @Test
+    public void testImportDataValueSetXmlPipelinedValues()
+        throws Exception
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.DATA_IMPORT_PIPELINE, true );
+
+        in = new ClassPathResource( "datavalueset/dataValueSetA.xml" ).getInputStream();
+
+        ImportSummary summary = dataValueSetService.saveDataValueSet( in );
+
+        assertEquals( summary.getConflicts().toString(), 0, summary.getConflicts().size() );
+        assertEquals( ImportStatus.SUCCESS, summary.getStatus() );
+
+        List<DataValue> dataValues = mockDataValueBatchHandler.getInserts();
+
+        assertEquals( 3, dataValues.size() );
+        assertDataValue( dataValues.get( 0 ), deA, peA, ouA, "10001" );
+        assertDataValue( dataValues.get( 1 ), deA, peA, ouB, "10002" );
+        assertDataValue( dataValues.get( 2 ), deA, peB, ouA, "10003" );
+    }
+
     @Test
     public void testImportDataValuesXmlWithCodeB()
         throws Exception
@@ -590,6 +655,27 @@ public class DataValueSetServiceTest
         }
     }
 
+    @Test
+    public void testImportDataValuesBooleanCsvPipelined()
+        throws Exception
+    {
+        in = new ClassPathResource( "datavalueset/dataValueSetBooleanTest.csv" ).getInputStream();
+
+        ImportSummary expected = dataValueSetService.saveDataValueSetCsv( in, null, null );
+
+        systemSettingManager.saveSystemSetting( SettingKey.DATA_IMPORT_PIPELINE, true );
+
+        in = new ClassPathResource( "datavalueset/dataValueSetBooleanTest.csv" ).getInputStream();
+
+        ImportSummary summary = dataValueSetService.saveDataValueSetCsv( in, null, null );
+
+        assertEquals( expected.getConflicts(), summary.getConflicts() );
+        assertEquals( expected.getImportCount().getImported(), summary.getImportCount().getImported() );
+        assertEquals( expected.getImportCount().getUpdated(), summary.getImportCount().getUpdated() );
+        assertEquals( expected.getImportCount().getIgnored(), summary.getImportCount().getIgnored() );
+        assertEquals( expected.getStatus(), summary.getStatus() );
+    }
+
     @Test
     public void testImportDataValuesXmlDryRun()
         throws Exception
@@ -880,6 +966,32 @@ public class DataValueSetServiceTest
         assertEquals( ImportStatus.WARNING, summary.getStatus() );
     }
 
+    @Test
+    public void testImportDataValuesOptionCodeAddedWithMetadataCache()
+        throws Exception
+    {
+        metadataCache.init( true );
+
+        in = new ClassPathResource( "datavalueset/dataValueSetInvalid.xml" ).getInputStream();
+
+        ImportSummary summary = dataValueSetService.saveDataValueSet( in );
+
+        assertEquals( summary.getConflicts().toString(), 1, summary.getConflicts().size() );
+        assertEquals( 2, summary.getImportCount().getImported() );
+
+        osA.getOptions().add( new Option( "Purple", "7" ) );
+        idObjectManager.update( osA );
+        dbmsManager.flushSession();
+
+        in = new ClassPathResource( "datavalueset/dataValueSetInvalid.xml" ).getInputStream();
+
+        summary = dataValueSetService.saveDataValueSet( in );
+
+        assertEquals( summary.getConflicts().toString(), 0, summary.getConflicts().size() );
+        assertEquals( 3, summary.getImportCount().getImported() );
+        assertEquals( ImportStatus.SUCCESS, summary.getStatus() );
+    }
+
     @Test
     public void testImportDataValuesInvalidAttributeOptionComboDates()
         throws Exception
@@ -938,7 +1050,7 @@ public class DataValueSetServiceTest
     public void testImportDataValuesUpdatedAudit()
         throws Exception
     {
-        mockDataValueBatchHandler.withFindSelf( true );
+        addExistingDataValues();
 
         in = new ClassPathResource( "datavalueset/dataValueSetA.xml" ).getInputStream();
 
@@ -961,11 +1073,36 @@ public class DataValueSetServiceTest
         assertEquals( 3, auditValues.size() );
     }
 
+    @Test
+    public void testImportDataValuesUpdatedTwiceAudit()
+    {
+        addExistingDataValues();
+
+        String importData =
+            "<dataValueSet xmlns=\"http://dhis2.org/schema/dxf/2.0\" idScheme=\"code\" orgUnit=\"OU_A\" period=\"201201\">\n" +
+            "  <dataValue dataElement=\"DE_A\" value=\"10001\" />\n" +
+            "  <dataValue dataElement=\"DE_A\" value=\"10002\" />\n" +
+            "</dataValueSet>\n";
+
+        in = new ByteArrayInputStream( importData.getBytes( StandardCharsets.UTF_8 ) );
+
+        ImportSummary summary = dataValueSetService.saveDataValueSet( in );
+
+        assertEquals( summary.getConflicts().toString(), 0, summary.getConflicts().size() );
+        assertEquals( 2, summary.getImportCount().getUpdated() );
+
+        List<DataValueAudit> auditValues = mockDataValueAuditBatchHandler.getInserts();
+
+        assertEquals( 2, auditValues.size() );
+        assertEquals( "10000", auditValues.get( 0 ).getValue() );
+        assertEquals( "10001", auditValues.get( 1 ).getValue() );
+    }
+
     @Test
     public void testImportDataValuesUpdatedSkipAudit()
         throws Exception
     {
-        mockDataValueBatchHandler.withFindSelf( true );
+        addExistingDataValues();
 
         in = new ClassPathResource( "datavalueset/dataValueSetA.xml" ).getInputStream();
 
@@ -1192,6 +1329,18 @@ public class DataValueSetServiceTest
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Persists data values matching the data values of dataValueSetA.xml.
+     */
+    private void addExistingDataValues()
+    {
+        dataValueService.addDataValue( new DataValue( deA, peA, ouA, ocDef, ocDef, "10000" ) );
+        dataValueService.addDataValue( new DataValue( deA, peA, ouB, ocDef, ocDef, "10000" ) );
+        dataValueService.addDataValue( new DataValue( deA, peB, ouA, ocDef, ocDef, "10000" ) );
+
+        dbmsManager.flushSession();
+    }
+
     private void assertImportDataValues( ImportSummary summary )
     {
         assertNotNull( summary );
@@ -1215,6 +1364,17 @@ public class DataValueSetServiceTest
         assertTrue( dataValues.contains( new DataValue( deC, peB, ouB, ocDef, ocDef ) ) );
     }
 
+    private void assertDataValue( DataValue dataValue, DataElement dataElement, Period period, OrganisationUnit source, String value )
+    {
+        assertEquals( dataElement, dataValue.getDataElement() );
+        assertEquals( period, dataValue.getPeriod() );
+        assertEquals( source, dataValue.getSource() );
+        assertEquals( ocDef, dataValue.getCategoryOptionCombo() );
+        assertEquals( ocDef, dataValue.getAttributeOptionCombo() );
+        assertEquals( value, dataValue.getValue() );
+        assertEquals( "comment", dataValue.getComment() );
+    }
+
     private Period createMonthlyPeriod( Date monthStart )
     {
         Date monthEnd = DateUtils.addDays( DateUtils.addMonths( monthStart, 1 ), -1 );
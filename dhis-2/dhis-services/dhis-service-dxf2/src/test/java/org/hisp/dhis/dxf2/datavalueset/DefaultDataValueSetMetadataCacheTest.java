@@ -0,0 +1,114 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.core.env.Environment;
+
+import com.google.common.collect.Sets;
+
+public class DefaultDataValueSetMetadataCacheTest
+{
+    @Mock
+    private DhisConfigurationProvider dhisConfig;
+
+    @Mock
+    private CacheProvider cacheProvider;
+
+    @Mock
+    private Environment environment;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private DefaultDataValueSetMetadataCache metadataCache;
+
+    @Before
+    public void setUp()
+    {
+        when( dhisConfig.getProperty( ConfigurationKey.REDIS_ENABLED ) ).thenReturn( "false" );
+        when( environment.getActiveProfiles() ).thenReturn( new String[0] );
+        when( cacheProvider.newCacheBuilder( any() ) ).thenAnswer( invocation -> new CacheBuilder<>( null, dhisConfig ) );
+
+        metadataCache = new DefaultDataValueSetMetadataCache( cacheProvider, environment );
+        metadataCache.init();
+    }
+
+    @Test
+    public void testGetFlag()
+    {
+        assertTrue( metadataCache.getFlag( "keyA", () -> true ) );
+        assertTrue( metadataCache.getFlag( "keyA", () -> false ) );
+        assertFalse( metadataCache.getFlag( "keyB", () -> false ) );
+    }
+
+    @Test
+    public void testGetStrings()
+    {
+        assertEquals( Sets.newHashSet( "A", "B" ), metadataCache.getStrings( "keyA", () -> Sets.newHashSet( "A", "B" ) ) );
+        assertEquals( Sets.newHashSet( "A", "B" ), metadataCache.getStrings( "keyA", () -> Sets.newHashSet( "C" ) ) );
+    }
+
+    @Test
+    public void testInvalidateAll()
+    {
+        long version = metadataCache.getVersion();
+
+        assertTrue( metadataCache.getFlag( "keyA", () -> true ) );
+
+        metadataCache.invalidateAll();
+        assertEquals( version + 1, metadataCache.getVersion() );
+
+        assertFalse( metadataCache.getFlag( "keyA", () -> false ) );
+    }
+
+    @Test
+    public void testGetDependencyTypes()
+    {
+        assertTrue( metadataCache.getDependencyTypes().contains( DataElement.class ) );
+        assertFalse( metadataCache.getDependencyTypes().contains( DataValue.class ) );
+    }
+}
@@ -0,0 +1,248 @@
+package org.hisp.dhis.dxf2.events;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.AuditType;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.events.event.DataValue;
+import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.EventService;
+import org.hisp.dhis.dxf2.importsummary.ImportStatus;
+import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramInstanceService;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramStageDataElementService;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramStageInstanceService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAudit;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAuditService;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@Category( IntegrationTest.class )
+public class EventBulkImportTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private ProgramStageDataElementService programStageDataElementService;
+
+    @Autowired
+    private ProgramInstanceService programInstanceService;
+
+    @Autowired
+    private ProgramStageInstanceService programStageInstanceService;
+
+    @Autowired
+    private TrackedEntityDataValueAuditService trackedEntityDataValueAuditService;
+
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private UserService _userService;
+
+    private OrganisationUnit organisationUnitA;
+    private DataElement dataElementA;
+    private DataElement dataElementB;
+    private Program programA;
+    private ProgramStage programStageA;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    protected void setUpTest()
+        throws Exception
+    {
+        userService = _userService;
+
+        organisationUnitA = createOrganisationUnit( 'A' );
+        manager.save( organisationUnitA );
+
+        dataElementA = createDataElement( 'A' );
+        dataElementA.setValueType( ValueType.INTEGER );
+        dataElementB = createDataElement( 'B' );
+        dataElementB.setValueType( ValueType.INTEGER );
+        manager.save( dataElementA );
+        manager.save( dataElementB );
+
+        programStageA = createProgramStage( 'A', 0 );
+        manager.save( programStageA );
+
+        programA = createProgram( 'A', new HashSet<>(), organisationUnitA );
+        programA.setProgramType( ProgramType.WITHOUT_REGISTRATION );
+        manager.save( programA );
+
+        for ( DataElement dataElement : new DataElement[] { dataElementA, dataElementB } )
+        {
+            ProgramStageDataElement programStageDataElement = new ProgramStageDataElement();
+            programStageDataElement.setDataElement( dataElement );
+            programStageDataElement.setProgramStage( programStageA );
+            programStageDataElementService.addProgramStageDataElement( programStageDataElement );
+
+            programStageA.getProgramStageDataElements().add( programStageDataElement );
+        }
+
+        programStageA.setProgram( programA );
+        programA.getProgramStages().add( programStageA );
+
+        manager.update( programStageA );
+        manager.update( programA );
+
+        ProgramInstance programInstance = new ProgramInstance();
+        programInstance.setProgram( programA );
+        programInstance.setIncidentDate( new Date() );
+        programInstance.setEnrollmentDate( new Date() );
+
+        programInstanceService.addProgramInstance( programInstance );
+
+        createUserAndInjectSecurityContext( true );
+
+        systemSettingManager.saveSystemSetting( SettingKey.EVENT_BULK_IMPORT, Boolean.TRUE );
+    }
+
+    @Override
+    protected void tearDownTest()
+    {
+        systemSettingManager.saveSystemSetting( SettingKey.EVENT_BULK_IMPORT, Boolean.FALSE );
+    }
+
+    @Test
+    public void testProcessEventImportInBulk()
+    {
+        List<Event> events = new ArrayList<>();
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            events.add( createEvent( String.valueOf( i ), String.valueOf( 10 + i ) ) );
+        }
+
+        ImportSummaries importSummaries = eventService.processEventImport( events, new ImportOptions(), null );
+
+        assertEquals( ImportStatus.SUCCESS, importSummaries.getStatus() );
+        assertEquals( 5, importSummaries.getImported() );
+
+        List<ProgramStageInstance> programStageInstances = new ArrayList<>();
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            ImportSummary importSummary = importSummaries.getImportSummaries().get( i );
+
+            ProgramStageInstance programStageInstance = programStageInstanceService.getProgramStageInstance( importSummary.getReference() );
+
+            assertNotNull( programStageInstance );
+            assertEquals( organisationUnitA.getUid(), programStageInstance.getOrganisationUnit().getUid() );
+            assertEquals( programStageA.getUid(), programStageInstance.getProgramStage().getUid() );
+
+            Map<String, String> values = getValues( programStageInstance );
+
+            assertEquals( 2, values.size() );
+            assertEquals( String.valueOf( i ), values.get( dataElementA.getUid() ) );
+            assertEquals( String.valueOf( 10 + i ), values.get( dataElementB.getUid() ) );
+
+            programStageInstances.add( programStageInstance );
+        }
+
+        List<DataElement> dataElements = new ArrayList<>();
+        dataElements.add( dataElementA );
+        dataElements.add( dataElementB );
+
+        List<TrackedEntityDataValueAudit> audits = trackedEntityDataValueAuditService.getTrackedEntityDataValueAudits(
+            dataElements, programStageInstances, AuditType.CREATE );
+
+        assertEquals( 10, audits.size() );
+
+        for ( TrackedEntityDataValueAudit audit : audits )
+        {
+            String expected = getValues( audit.getProgramStageInstance() ).get( audit.getDataElement().getUid() );
+
+            assertEquals( expected, audit.getValue() );
+        }
+    }
+
+    private Map<String, String> getValues( ProgramStageInstance programStageInstance )
+    {
+        Map<String, String> values = new HashMap<>();
+
+        for ( EventDataValue dataValue : programStageInstance.getEventDataValues() )
+        {
+            values.put( dataValue.getDataElement(), dataValue.getValue() );
+        }
+
+        return values;
+    }
+
+    private Event createEvent( String valueA, String valueB )
+    {
+        Event event = new Event();
+        event.setProgram( programA.getUid() );
+        event.setOrgUnit( organisationUnitA.getUid() );
+        event.setEventDate( "2019-01-01" );
+
+        event.getDataValues().add( new DataValue( dataElementA.getUid(), valueA ) );
+        event.getDataValues().add( new DataValue( dataElementB.getUid(), valueB ) );
+
+        return event;
+    }
+}
@@ -0,0 +1,277 @@
+package org.hisp.dhis.dxf2.events;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.IntegrationTest;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.events.enrollment.Enrollment;
+import org.hisp.dhis.dxf2.events.enrollment.EnrollmentService;
+import org.hisp.dhis.dxf2.events.event.DataValue;
+import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.EventService;
+import org.hisp.dhis.dxf2.events.event.Note;
+import org.hisp.dhis.dxf2.events.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.dxf2.events.trackedentity.TrackedEntityInstanceService;
+import org.hisp.dhis.dxf2.importsummary.ImportStatus;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramStageDataElementService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.relationship.Relationship;
+import org.hisp.dhis.relationship.RelationshipConstraint;
+import org.hisp.dhis.relationship.RelationshipItem;
+import org.hisp.dhis.relationship.RelationshipService;
+import org.hisp.dhis.relationship.RelationshipType;
+import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentity.TrackedEntityTypeService;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.collect.Sets;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that exporting a page of tracked entity instances, which loads the
+ * associations of the whole page in bulk, produces the same tracked entity
+ * instances as exporting each instance on its own.
+ */
+@Category( IntegrationTest.class )
+public class TrackedEntityInstanceExportTest
+    extends IntegrationTestBase
+{
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TrackedEntityTypeService trackedEntityTypeService;
+
+    @Autowired
+    private TrackedEntityInstanceService trackedEntityInstanceService;
+
+    @Autowired
+    private ProgramStageDataElementService programStageDataElementService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private RelationshipService relationshipService;
+
+    @Autowired
+    private RenderService renderService;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private UserService _userService;
+
+    private org.hisp.dhis.trackedentity.TrackedEntityInstance teiA;
+    private org.hisp.dhis.trackedentity.TrackedEntityInstance teiB;
+
+    private TrackedEntityType trackedEntityType;
+    private OrganisationUnit organisationUnitA;
+    private Program programA;
+    private ProgramStage programStageA;
+    private DataElement dataElementA;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    protected void setUpTest()
+        throws Exception
+    {
+        userService = _userService;
+
+        organisationUnitA = createOrganisationUnit( 'A' );
+        manager.save( organisationUnitA );
+
+        trackedEntityType = createTrackedEntityType( 'A' );
+        trackedEntityTypeService.addTrackedEntityType( trackedEntityType );
+
+        teiA = createTrackedEntityInstance( organisationUnitA );
+        teiB = createTrackedEntityInstance( organisationUnitA );
+
+        teiA.setTrackedEntityType( trackedEntityType );
+        teiB.setTrackedEntityType( trackedEntityType );
+
+        manager.save( teiA );
+        manager.save( teiB );
+
+        dataElementA = createDataElement( 'A' );
+        dataElementA.setValueType( ValueType.INTEGER );
+        manager.save( dataElementA );
+
+        programStageA = createProgramStage( 'A', 0 );
+        manager.save( programStageA );
+
+        programA = createProgram( 'A', new HashSet<>(), organisationUnitA );
+        programA.setProgramType( ProgramType.WITH_REGISTRATION );
+        programA.setTrackedEntityType( trackedEntityType );
+        manager.save( programA );
+
+        ProgramStageDataElement programStageDataElement = new ProgramStageDataElement();
+        programStageDataElement.setDataElement( dataElementA );
+        programStageDataElement.setProgramStage( programStageA );
+        programStageDataElementService.addProgramStageDataElement( programStageDataElement );
+
+        programStageA.getProgramStageDataElements().add( programStageDataElement );
+        programStageA.setProgram( programA );
+        programA.getProgramStages().add( programStageA );
+
+        manager.update( programStageA );
+        manager.update( programA );
+
+        RelationshipType relationshipType = new RelationshipType();
+        relationshipType.setAutoFields();
+        relationshipType.setName( "RelationshipTypeA" );
+        relationshipType.setFromToName( "fromA" );
+        relationshipType.setToFromName( "toA" );
+        relationshipType.setFromConstraint( new RelationshipConstraint() );
+        relationshipType.setToConstraint( new RelationshipConstraint() );
+        manager.save( relationshipType );
+
+        RelationshipItem from = new RelationshipItem();
+        from.setTrackedEntityInstance( teiA );
+        RelationshipItem to = new RelationshipItem();
+        to.setTrackedEntityInstance( teiB );
+
+        Relationship relationship = new Relationship();
+        relationship.setRelationshipType( relationshipType );
+        relationship.setFrom( from );
+        relationship.setTo( to );
+        relationshipService.addRelationship( relationship );
+
+        createUserAndInjectSecurityContext( true );
+
+        for ( org.hisp.dhis.trackedentity.TrackedEntityInstance tei : Sets.newHashSet( teiA, teiB ) )
+        {
+            assertEquals( ImportStatus.SUCCESS, enrollmentService.addEnrollment(
+                createEnrollment( tei.getUid() ), null, null ).getStatus() );
+
+            assertEquals( ImportStatus.SUCCESS, eventService.addEvent(
+                createEvent( tei.getUid() ), null, false ).getStatus() );
+        }
+
+        dbmsManager.flushSession();
+    }
+
+    @Test
+    public void testExportPageEqualsExportPerInstance()
+    {
+        TrackedEntityInstanceQueryParams queryParams = new TrackedEntityInstanceQueryParams();
+        queryParams.setOrganisationUnits( Sets.newHashSet( organisationUnitA ) );
+        queryParams.setOrganisationUnitMode( OrganisationUnitSelectionMode.SELECTED );
+        queryParams.setProgram( programA );
+
+        dbmsManager.clearSession();
+
+        List<TrackedEntityInstance> page = trackedEntityInstanceService.getTrackedEntityInstances( queryParams,
+            TrackedEntityInstanceParams.TRUE, true );
+
+        assertEquals( 2, page.size() );
+
+        for ( TrackedEntityInstance tei : page )
+        {
+            assertEquals( 1, tei.getRelationships().size() );
+            assertEquals( 1, tei.getEnrollments().size() );
+
+            Enrollment enrollment = tei.getEnrollments().get( 0 );
+
+            assertEquals( 1, enrollment.getNotes().size() );
+            assertEquals( 1, enrollment.getEvents().size() );
+            assertEquals( 1, enrollment.getEvents().get( 0 ).getNotes().size() );
+
+            dbmsManager.clearSession();
+
+            TrackedEntityInstance single = trackedEntityInstanceService.getTrackedEntityInstance(
+                tei.getTrackedEntityInstance(), TrackedEntityInstanceParams.TRUE );
+
+            assertEquals( renderService.toJsonAsString( single ), renderService.toJsonAsString( tei ) );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Enrollment createEnrollment( String trackedEntityInstance )
+    {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setOrgUnit( organisationUnitA.getUid() );
+        enrollment.setProgram( programA.getUid() );
+        enrollment.setTrackedEntityInstance( trackedEntityInstance );
+        enrollment.setEnrollmentDate( new Date() );
+        enrollment.setIncidentDate( new Date() );
+        enrollment.getNotes().add( createNote( "Enrollment note" ) );
+
+        return enrollment;
+    }
+
+    private Event createEvent( String trackedEntityInstance )
+    {
+        Event event = new Event();
+        event.setProgram( programA.getUid() );
+        event.setProgramStage( programStageA.getUid() );
+        event.setOrgUnit( organisationUnitA.getUid() );
+        event.setTrackedEntityInstance( trackedEntityInstance );
+        event.setEventDate( "2019-01-01" );
+        event.getDataValues().add( new DataValue( dataElementA.getUid(), "10" ) );
+        event.getNotes().add( createNote( "Event note" ) );
+
+        return event;
+    }
+
+    private Note createNote( String value )
+    {
+        Note note = new Note();
+        note.setValue( value );
+
+        return note;
+    }
+}
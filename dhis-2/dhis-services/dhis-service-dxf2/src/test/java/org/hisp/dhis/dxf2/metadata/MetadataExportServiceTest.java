@@ -28,13 +28,20 @@ package org.hisp.dhis.dxf2.metadata;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.node.Node;
+import org.hisp.dhis.node.types.CollectionNode;
+import org.hisp.dhis.node.types.RootNode;
+import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.query.Disjunction;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.Restrictions;
 import org.hisp.dhis.schema.SchemaService;
@@ -45,6 +52,8 @@ import org.hisp.dhis.user.UserGroupAccess;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -218,6 +227,56 @@ public class MetadataExportServiceTest
             .forEach( element -> checkSharingFields( element ) );
     }
 
+    @Test
+    public void testStreamingMetadataExportWithNonPersistedOrder()
+    {
+        int count = DefaultMetadataExportService.STREAMING_PAGE_SIZE + 5;
+
+        for ( int i = 0; i < count; i++ )
+        {
+            // Names in reverse order of creation and hence of identifiers
+
+            DataElement dataElement = createDataElement( 'A' );
+            dataElement.setName( String.format( "DataElement%05d", count - i ) );
+            dataElement.setShortName( String.format( "DataElementShort%05d", count - i ) );
+            dataElement.setCode( String.format( "DataElementCode%05d", count - i ) );
+
+            manager.save( dataElement );
+        }
+
+        Query deQuery = Query.from( schemaService.getDynamicSchema( DataElement.class ) );
+        deQuery.addOrder( Order.asc( deQuery.getSchema().getProperty( "displayName" ) ) );
+
+        assertFalse( deQuery.ordersPersisted() );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.addQuery( deQuery );
+        params.setDefaultFields( Lists.newArrayList( "id", "name" ) );
+
+        RootNode rootNode = metadataExportService.getMetadataAsStreamingNode( params );
+
+        CollectionNode collectionNode = (CollectionNode) rootNode.getChildren().get( 0 );
+
+        assertTrue( collectionNode instanceof StreamingCollectionNode );
+
+        List<String> names = new ArrayList<>();
+        Iterator<Node> children = ( (StreamingCollectionNode) collectionNode ).childIterator();
+
+        while ( children.hasNext() )
+        {
+            children.next().getChildren().stream()
+                .filter( child -> "name".equals( child.getName() ) )
+                .forEach( child -> names.add( (String) ( (SimpleNode) child ).getValue() ) );
+        }
+
+        assertEquals( count, names.size() );
+
+        for ( int i = 0; i < count; i++ )
+        {
+            assertEquals( String.format( "DataElement%05d", i + 1 ), names.get( i ) );
+        }
+    }
+
     private void checkSharingFields( IdentifiableObject object )
     {
         assertTrue( object.getUserAccesses().isEmpty() );
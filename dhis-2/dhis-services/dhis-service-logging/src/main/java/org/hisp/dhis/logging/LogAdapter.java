@@ -64,4 +64,11 @@ public interface LogAdapter extends ApplicationListener<LogEvent>
     default void log( Log log )
     {
     }
+
+    /**
+     * Flushes buffered output. Invoked after each batch of logs.
+     */
+    default void flush()
+    {
+    }
 }
@@ -0,0 +1,176 @@
+package org.hisp.dhis.logging;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer.
+ * Each slot carries a sequence number which tells producers whether the slot
+ * is free and the consumer whether the slot has been published, so that
+ * producers only contend on a compare-and-set of the tail position. Offering
+ * to a full buffer fails instead of blocking.
+ *
+ * @param <E> the element type.
+ */
+class LogRingBuffer<E>
+{
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity the capacity, must be a power of two.
+     */
+    LogRingBuffer( int capacity )
+    {
+        if ( capacity < 2 || Integer.bitCount( capacity ) != 1 )
+        {
+            throw new IllegalArgumentException( "Capacity must be a power of two: " + capacity );
+        }
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>( capacity );
+        this.sequences = new AtomicLongArray( capacity );
+
+        for ( int i = 0; i < capacity; i++ )
+        {
+            sequences.set( i, i );
+        }
+    }
+
+    /**
+     * Adds the given element to the buffer. May be invoked concurrently.
+     *
+     * @param element the element.
+     * @return true if the element was added, false if the buffer is full.
+     */
+    boolean offer( E element )
+    {
+        long position = tail.get();
+
+        while ( true )
+        {
+            int index = (int) ( position & mask );
+            long diff = sequences.get( index ) - position;
+
+            if ( diff == 0 )
+            {
+                if ( tail.compareAndSet( position, position + 1 ) )
+                {
+                    elements.lazySet( index, element );
+                    sequences.set( index, position + 1 );
+                    return true;
+                }
+
+                position = tail.get();
+            }
+            else if ( diff < 0 )
+            {
+                return false;
+            }
+            else
+            {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next element. Must only be invoked by the
+     * consumer thread.
+     *
+     * @return the next element, or null if the buffer is empty.
+     */
+    E poll()
+    {
+        long position = head.get();
+        int index = (int) ( position & mask );
+
+        if ( sequences.get( index ) != position + 1 )
+        {
+            return null;
+        }
+
+        E element = elements.get( index );
+        elements.lazySet( index, null );
+        sequences.set( index, position + capacity );
+        head.lazySet( position + 1 );
+
+        return element;
+    }
+
+    /**
+     * Removes up to the given number of elements and passes them to the given
+     * consumer. Must only be invoked by the consumer thread.
+     *
+     * @param consumer the element consumer.
+     * @param limit the maximum number of elements to remove.
+     * @return the number of elements removed.
+     */
+    int drain( Consumer<E> consumer, int limit )
+    {
+        int count = 0;
+
+        E element;
+
+        while ( count < limit && ( element = poll() ) != null )
+        {
+            consumer.accept( element );
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the approximate number of elements in the buffer.
+     */
+    int size()
+    {
+        return (int) Math.max( 0, tail.get() - head.get() );
+    }
+
+    int getCapacity()
+    {
+        return capacity;
+    }
+}
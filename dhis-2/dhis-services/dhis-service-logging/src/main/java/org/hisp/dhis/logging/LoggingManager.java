@@ -35,25 +35,55 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang.StringUtils;
 import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingChangedEvent;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * Logs are passed to the log adapters through a bounded, lock-free ring
+ * buffer which is drained in batches by a dedicated writer thread, so that
+ * logging does not block the calling thread on I/O. Logs which no adapter is
+ * enabled for are discarded before being buffered. When the buffer is full,
+ * error and fatal logs are retried briefly, while other logs are dropped.
+ * Dropped logs and adapter failures are counted and reported periodically by
+ * the writer thread. The logging configuration is cached and reloaded when
+ * logging settings change.
+ *
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 @Component
-public class LoggingManager implements ApplicationEventPublisherAware, InitializingBean
+public class LoggingManager implements InitializingBean, DisposableBean
 {
     public final static ObjectMapper objectMapper = new ObjectMapper();
     private static LoggingManager instance;
 
+    private static final int BUFFER_CAPACITY = 16384;
+    private static final int BATCH_SIZE = 1024;
+    private static final int BACKPRESSURE_RETRIES = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 20 );
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private static final Set<SettingKey> LOGGING_SETTING_KEYS = ImmutableSet.of(
+        SettingKey.LOGGING_LEVEL, SettingKey.LOGGING_FORMAT, SettingKey.LOGGING_ADAPTER_CONSOLE,
+        SettingKey.LOGGING_ADAPTER_CONSOLE_LEVEL, SettingKey.LOGGING_ADAPTER_CONSOLE_FORMAT,
+        SettingKey.LOGGING_ADAPTER_FILE, SettingKey.LOGGING_ADAPTER_FILE_NAME,
+        SettingKey.LOGGING_ADAPTER_FILE_LEVEL, SettingKey.LOGGING_ADAPTER_FILE_FORMAT );
+
     static
     {
         objectMapper.setSerializationInclusion( JsonInclude.Include.NON_EMPTY );
@@ -72,11 +102,32 @@ public class LoggingManager implements ApplicationEventPublisherAware, Initializ
 
     private final SystemSettingManager systemSettingManager;
 
-    private ApplicationEventPublisher publisher;
+    private final List<LogAdapter> adapters;
+
+    private final LogRingBuffer<LogEvent> buffer = new LogRingBuffer<>( BUFFER_CAPACITY );
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder backpressureCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
 
-    public LoggingManager( SystemSettingManager systemSettingManager )
+    private volatile String lastFailure;
+
+    private long reportedDroppedCount = 0;
+
+    private long reportedFailureCount = 0;
+
+    private volatile LoggingConfig loggingConfig;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public LoggingManager( SystemSettingManager systemSettingManager, List<LogAdapter> adapters )
     {
         this.systemSettingManager = systemSettingManager;
+        this.adapters = adapters;
     }
 
     public void log( Log log )
@@ -100,19 +151,43 @@ public class LoggingManager implements ApplicationEventPublisherAware, Initializ
             log.setUsername( "system-process" );
         }
 
-        publisher.publishEvent( new LogEvent( this, log, getLoggingConfig() ) );
+        LogEvent event = new LogEvent( this, log, getLoggingConfig() );
+
+        if ( adapters.stream().noneMatch( adapter -> adapter.isEnabled( event ) ) )
+        {
+            return;
+        }
+
+        if ( running )
+        {
+            enqueue( event );
+        }
+        else
+        {
+            dispatch( event );
+        }
     }
 
     @Override
-    public void setApplicationEventPublisher( ApplicationEventPublisher publisher )
+    public void afterPropertiesSet() throws Exception
     {
-        this.publisher = publisher;
+        instance = this;
+
+        running = true;
+
+        writerThread = new Thread( this::write, "dhis2-log-writer" );
+        writerThread.setDaemon( true );
+        writerThread.start();
     }
 
     @Override
-    public void afterPropertiesSet() throws Exception
+    public void destroy() throws Exception
     {
-        instance = this;
+        running = false;
+
+        LockSupport.unpark( writerThread );
+
+        writerThread.join( SHUTDOWN_TIMEOUT_MILLIS );
     }
 
     public static LoggingManager getInstance()
@@ -120,7 +195,64 @@ public class LoggingManager implements ApplicationEventPublisherAware, Initializ
         return instance;
     }
 
+    /**
+     * Returns the number of logs which were dropped as the buffer was full.
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Returns the number of logs which had to be retried as the buffer was full.
+     */
+    public long getBackpressureCount()
+    {
+        return backpressureCount.sum();
+    }
+
+    /**
+     * Returns the number of times a log adapter failed to write or flush logs.
+     */
+    public long getFailureCount()
+    {
+        return failureCount.sum();
+    }
+
+    /**
+     * Returns the approximate number of logs waiting to be written.
+     */
+    public int getPendingCount()
+    {
+        return buffer.size();
+    }
+
+    /**
+     * Returns the cached logging configuration, loading it if not cached.
+     */
     public LoggingConfig getLoggingConfig()
+    {
+        LoggingConfig config = loggingConfig;
+
+        if ( config == null )
+        {
+            config = loadLoggingConfig();
+            loggingConfig = config;
+        }
+
+        return config;
+    }
+
+    @TransactionalEventListener( fallbackExecution = true )
+    public void handleSystemSettingChanged( SystemSettingChangedEvent event )
+    {
+        if ( LOGGING_SETTING_KEYS.stream().anyMatch( event::isChanged ) )
+        {
+            loggingConfig = null;
+        }
+    }
+
+    private LoggingConfig loadLoggingConfig()
     {
         return new LoggingConfig(
             LogLevel.valueOf( ((String) systemSettingManager.getSystemSetting( SettingKey.LOGGING_LEVEL )).toUpperCase() ),
@@ -135,6 +267,135 @@ public class LoggingManager implements ApplicationEventPublisherAware, Initializ
         );
     }
 
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void enqueue( LogEvent event )
+    {
+        if ( buffer.offer( event ) )
+        {
+            return;
+        }
+
+        if ( LogLevel.ERROR.isEnabled( event.getLog().getLogLevel() ) )
+        {
+            backpressureCount.increment();
+
+            for ( int i = 0; i < BACKPRESSURE_RETRIES; i++ )
+            {
+                LockSupport.unpark( writerThread );
+                Thread.yield();
+
+                if ( buffer.offer( event ) )
+                {
+                    return;
+                }
+            }
+        }
+
+        droppedCount.increment();
+    }
+
+    /**
+     * Drains the buffer in batches until stopped, flushing the adapters when
+     * the buffer is empty and at least once per flush interval.
+     */
+    private void write()
+    {
+        long lastFlush = System.nanoTime();
+
+        while ( running || buffer.size() > 0 )
+        {
+            int count = buffer.drain( this::dispatch, BATCH_SIZE );
+
+            if ( count < BATCH_SIZE || System.nanoTime() - lastFlush > FLUSH_INTERVAL_NANOS )
+            {
+                reportDropped();
+                flush();
+                lastFlush = System.nanoTime();
+            }
+
+            if ( count == 0 )
+            {
+                LockSupport.parkNanos( IDLE_PARK_NANOS );
+            }
+        }
+
+        flush();
+    }
+
+    private void dispatch( LogEvent event )
+    {
+        for ( LogAdapter adapter : adapters )
+        {
+            try
+            {
+                adapter.onApplicationEvent( event );
+            }
+            catch ( RuntimeException ex )
+            {
+                handleFailure( adapter, ex );
+            }
+        }
+    }
+
+    private void flush()
+    {
+        for ( LogAdapter adapter : adapters )
+        {
+            try
+            {
+                adapter.flush();
+            }
+            catch ( RuntimeException ex )
+            {
+                handleFailure( adapter, ex );
+            }
+        }
+    }
+
+    private void handleFailure( LogAdapter adapter, RuntimeException ex )
+    {
+        failureCount.increment();
+
+        lastFailure = adapter.getClass().getSimpleName() + ": " + ex.getMessage();
+    }
+
+    /**
+     * Reports the logs dropped and the adapter failures since the last report.
+     * Failures of adapters while writing the report itself are not reported,
+     * so that a failing adapter does not cause a report on every flush.
+     */
+    private void reportDropped()
+    {
+        long dropped = droppedCount.sum();
+
+        if ( dropped > reportedDroppedCount )
+        {
+            Log log = new Log( String.format( "Dropped %d logs as the logging buffer was full, total dropped: %d",
+                dropped - reportedDroppedCount, dropped ) )
+                .setLogLevel( LogLevel.WARN ).setSource( LoggingManager.class ).setUsername( "system-process" );
+
+            reportedDroppedCount = dropped;
+
+            dispatch( new LogEvent( this, log, getLoggingConfig() ) );
+        }
+
+        long failures = failureCount.sum();
+
+        if ( failures > reportedFailureCount )
+        {
+            Log log = new Log( String.format( "Log adapters failed %d times, total failures: %d, last failure: %s",
+                failures - reportedFailureCount, failures, lastFailure ) )
+                .setLogLevel( LogLevel.ERROR ).setSource( LoggingManager.class ).setUsername( "system-process" );
+
+            dispatch( new LogEvent( this, log, getLoggingConfig() ) );
+
+            reportedFailureCount = failureCount.sum();
+        }
+    }
+
     public static String toJson( Log log )
     {
         try
@@ -28,6 +28,9 @@ package org.hisp.dhis.logging.adapter;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import org.apache.commons.lang.math.NumberUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.external.location.LocationManager;
 import org.hisp.dhis.logging.Log;
 import org.hisp.dhis.logging.LogAdapter;
@@ -36,28 +39,72 @@ import org.hisp.dhis.logging.LoggingConfig;
 import org.hisp.dhis.logging.LoggingManager;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Locale;
 
 /**
+ * Writes logs to a file in the logs directory of the external directory. The
+ * file is kept open with a buffered stream, which is flushed after each batch
+ * of logs. The file is rotated when it exceeds the maximum file size and when
+ * the date changes, keeping the configured number of archives, at least one.
+ * Logs are written by the logging manager writer thread only. Failures to
+ * write are thrown as {@link UncheckedIOException} so that the logging manager
+ * can count them.
+ *
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 @Component
 public class FileLogAdapter implements LogAdapter
 {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private String logDirectory;
 
-    public FileLogAdapter( LocationManager locationManager )
+    private final long maxFileSize;
+
+    private final int maxArchives;
+
+    private OutputStream out;
+
+    private Path currentPath;
+
+    private long currentSize;
+
+    private LocalDate currentDate;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    public FileLogAdapter( LocationManager locationManager, DhisConfigurationProvider config )
     {
         if ( locationManager.externalDirectorySet() )
         {
             File externalDirectory = locationManager.getExternalDirectory();
             this.logDirectory = externalDirectory.getAbsolutePath() + "/logs";
         }
+
+        this.maxFileSize = parseFileSize( config.getProperty( ConfigurationKey.LOGGING_FILE_MAX_SIZE ) );
+        this.maxArchives = Math.max( 1, NumberUtils.toInt( config.getProperty( ConfigurationKey.LOGGING_FILE_MAX_ARCHIVES ) ) );
+    }
+
+    /**
+     * Used only for testing.
+     */
+    void setClock( Clock clock )
+    {
+        this.clock = clock;
     }
 
     @Override
@@ -72,18 +119,169 @@ public class FileLogAdapter implements LogAdapter
     }
 
     @Override
-    public void log( Log log, LoggingConfig config )
+    public synchronized void log( Log log, LoggingConfig config )
     {
         Path path = Paths.get( logDirectory, config.getFileName() );
-        String logText = logFormat( log, config );
+        byte[] bytes = logFormat( log, config ).getBytes( StandardCharsets.UTF_8 );
 
         try
         {
-            Files.write( path, logText.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+            prepare( path, bytes.length );
+
+            out.write( bytes );
+            currentSize += bytes.length;
+        }
+        catch ( IOException ex )
+        {
+            close();
+
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public synchronized void flush()
+    {
+        if ( out != null )
+        {
+            try
+            {
+                out.flush();
+            }
+            catch ( IOException ex )
+            {
+                close();
+
+                throw new UncheckedIOException( ex );
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close()
+    {
+        if ( out != null )
+        {
+            try
+            {
+                out.close();
+            }
+            catch ( IOException ignored )
+            {
+            }
+
+            out = null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Makes sure that the output stream is open for the given path, rotating
+     * the file first if the date has changed or if writing the given number of
+     * bytes would exceed the maximum file size.
+     */
+    private void prepare( Path path, int length )
+        throws IOException
+    {
+        LocalDate today = LocalDate.now( clock );
+
+        if ( out != null && !path.equals( currentPath ) )
+        {
+            close();
+        }
+
+        if ( out == null )
+        {
+            open( path );
+        }
+
+        if ( !today.equals( currentDate ) || ( maxFileSize > 0 && currentSize > 0 && currentSize + length > maxFileSize ) )
+        {
+            close();
+            rotate( path );
+            open( path );
+        }
+    }
+
+    private void open( Path path )
+        throws IOException
+    {
+        Files.createDirectories( path.getParent() );
+
+        boolean exists = Files.exists( path );
+
+        out = new BufferedOutputStream( Files.newOutputStream( path, StandardOpenOption.CREATE, StandardOpenOption.APPEND ), BUFFER_SIZE );
+        currentPath = path;
+        currentSize = exists ? Files.size( path ) : 0;
+        currentDate = exists ? Files.getLastModifiedTime( path ).toInstant().atZone( clock.getZone() ).toLocalDate() : LocalDate.now( clock );
+    }
+
+    /**
+     * Shifts the archives of the given file, deleting the oldest, and moves the
+     * file to the first archive.
+     */
+    private void rotate( Path path )
+        throws IOException
+    {
+        Files.deleteIfExists( getArchive( path, maxArchives ) );
+
+        for ( int i = maxArchives - 1; i >= 1; i-- )
+        {
+            Path archive = getArchive( path, i );
+
+            if ( Files.exists( archive ) )
+            {
+                Files.move( archive, getArchive( path, i + 1 ), StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+
+        if ( Files.exists( path ) )
+        {
+            Files.move( path, getArchive( path, 1 ), StandardCopyOption.REPLACE_EXISTING );
         }
-        catch ( IOException ignored )
+    }
+
+    private Path getArchive( Path path, int index )
+    {
+        return path.resolveSibling( path.getFileName() + "." + index );
+    }
+
+    /**
+     * Parses file sizes such as "100MB", "512KB" and "1GB". Returns 0, which
+     * disables size based rotation, if the size cannot be parsed.
+     */
+    private static long parseFileSize( String size )
+    {
+        if ( size == null )
         {
+            return 0;
         }
+
+        String value = size.trim().toUpperCase( Locale.ENGLISH );
+        long multiplier = 1;
+
+        if ( value.endsWith( "KB" ) )
+        {
+            multiplier = 1024L;
+        }
+        else if ( value.endsWith( "MB" ) )
+        {
+            multiplier = 1024L * 1024;
+        }
+        else if ( value.endsWith( "GB" ) )
+        {
+            multiplier = 1024L * 1024 * 1024;
+        }
+
+        if ( multiplier > 1 )
+        {
+            value = value.substring( 0, value.length() - 2 ).trim();
+        }
+
+        return NumberUtils.toLong( value ) * multiplier;
     }
 
     private String logFormat( Log log, LoggingConfig config )
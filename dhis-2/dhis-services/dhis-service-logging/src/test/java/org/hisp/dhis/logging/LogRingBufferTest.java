@@ -0,0 +1,147 @@
+package org.hisp.dhis.logging;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class LogRingBufferTest
+{
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidCapacity()
+    {
+        new LogRingBuffer<String>( 10 );
+    }
+
+    @Test
+    public void testOfferPoll()
+    {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>( 4 );
+
+        assertNull( buffer.poll() );
+
+        assertTrue( buffer.offer( "A" ) );
+        assertTrue( buffer.offer( "B" ) );
+        assertEquals( 2, buffer.size() );
+
+        assertEquals( "A", buffer.poll() );
+        assertEquals( "B", buffer.poll() );
+        assertNull( buffer.poll() );
+        assertEquals( 0, buffer.size() );
+    }
+
+    @Test
+    public void testFull()
+    {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>( 2 );
+
+        assertTrue( buffer.offer( "A" ) );
+        assertTrue( buffer.offer( "B" ) );
+        assertFalse( buffer.offer( "C" ) );
+
+        assertEquals( "A", buffer.poll() );
+        assertTrue( buffer.offer( "C" ) );
+
+        assertEquals( "B", buffer.poll() );
+        assertEquals( "C", buffer.poll() );
+    }
+
+    @Test
+    public void testDrain()
+    {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>( 8 );
+
+        buffer.offer( "A" );
+        buffer.offer( "B" );
+        buffer.offer( "C" );
+
+        List<String> drained = new ArrayList<>();
+
+        assertEquals( 2, buffer.drain( drained::add, 2 ) );
+        assertEquals( 1, buffer.drain( drained::add, 2 ) );
+        assertEquals( 0, buffer.drain( drained::add, 2 ) );
+
+        assertEquals( 3, drained.size() );
+        assertEquals( "A", drained.get( 0 ) );
+        assertEquals( "C", drained.get( 2 ) );
+    }
+
+    @Test
+    public void testConcurrentProducers()
+        throws InterruptedException
+    {
+        int producers = 4;
+        int perProducer = 10000;
+
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>( 1024 );
+
+        List<Thread> threads = new ArrayList<>();
+
+        for ( int p = 0; p < producers; p++ )
+        {
+            int offset = p * perProducer;
+
+            threads.add( new Thread( () -> {
+                for ( int i = 0; i < perProducer; i++ )
+                {
+                    while ( !buffer.offer( offset + i ) )
+                    {
+                        Thread.yield();
+                    }
+                }
+            } ) );
+        }
+
+        threads.forEach( Thread::start );
+
+        Set<Integer> received = new HashSet<>();
+
+        while ( received.size() < producers * perProducer )
+        {
+            buffer.drain( received::add, 256 );
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertEquals( producers * perProducer, received.size() );
+        assertNull( buffer.poll() );
+    }
+}
@@ -0,0 +1,210 @@
+package org.hisp.dhis.logging.adapter;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.external.location.LocationManager;
+import org.hisp.dhis.logging.Log;
+import org.hisp.dhis.logging.LogFormat;
+import org.hisp.dhis.logging.LogLevel;
+import org.hisp.dhis.logging.LoggingConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class FileLogAdapterTest
+{
+    private static final String FILE_NAME = "dhis.log";
+
+    private static final LocalDate DATE = LocalDate.of( 2019, 6, 1 );
+
+    @Mock
+    private LocationManager locationManager;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LoggingConfig loggingConfig;
+
+    private FileLogAdapter adapter;
+
+    private Path logFile;
+
+    @Before
+    public void setUp()
+    {
+        when( locationManager.externalDirectorySet() ).thenReturn( true );
+        when( locationManager.getExternalDirectory() ).thenReturn( folder.getRoot() );
+
+        loggingConfig = new LoggingConfig( LogLevel.INFO, LogFormat.TEXT, false, LogLevel.INFO, LogFormat.TEXT,
+            true, FILE_NAME, LogLevel.INFO, LogFormat.TEXT );
+
+        logFile = folder.getRoot().toPath().resolve( "logs" ).resolve( FILE_NAME );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if ( adapter != null )
+        {
+            adapter.close();
+        }
+    }
+
+    @Test
+    public void testRotateBySize()
+        throws IOException
+    {
+        // Every log exceeds the maximum size, so each log after the first rotates the file
+
+        adapter = createAdapter( "10", "2" );
+
+        log( "Log A" );
+        log( "Log B" );
+        log( "Log C" );
+
+        assertLog( "Log C", logFile );
+        assertLog( "Log B", getArchive( 1 ) );
+        assertLog( "Log A", getArchive( 2 ) );
+
+        log( "Log D" );
+
+        assertLog( "Log D", logFile );
+        assertLog( "Log C", getArchive( 1 ) );
+        assertLog( "Log B", getArchive( 2 ) );
+        assertFalse( Files.exists( getArchive( 3 ) ) );
+    }
+
+    @Test
+    public void testNoRotationBelowSize()
+        throws IOException
+    {
+        adapter = createAdapter( "1KB", "2" );
+
+        log( "Log A" );
+        log( "Log B" );
+
+        String content = read( logFile );
+
+        assertTrue( content.contains( "Log A" ) );
+        assertTrue( content.contains( "Log B" ) );
+        assertFalse( Files.exists( getArchive( 1 ) ) );
+    }
+
+    @Test
+    public void testRotateByDate()
+        throws IOException
+    {
+        adapter = createAdapter( "1KB", "2" );
+
+        log( "Log A" );
+        log( "Log B" );
+
+        assertFalse( Files.exists( getArchive( 1 ) ) );
+
+        adapter.setClock( getClock( DATE.plusDays( 1 ) ) );
+
+        log( "Log C" );
+
+        String archived = read( getArchive( 1 ) );
+
+        assertTrue( archived.contains( "Log A" ) );
+        assertTrue( archived.contains( "Log B" ) );
+        assertLog( "Log C", logFile );
+    }
+
+    private FileLogAdapter createAdapter( String maxSize, String maxArchives )
+    {
+        when( config.getProperty( ConfigurationKey.LOGGING_FILE_MAX_SIZE ) ).thenReturn( maxSize );
+        when( config.getProperty( ConfigurationKey.LOGGING_FILE_MAX_ARCHIVES ) ).thenReturn( maxArchives );
+
+        FileLogAdapter fileLogAdapter = new FileLogAdapter( locationManager, config );
+        fileLogAdapter.setClock( getClock( DATE ) );
+
+        return fileLogAdapter;
+    }
+
+    private void log( String message )
+    {
+        adapter.log( new Log( message ), loggingConfig );
+        adapter.flush();
+    }
+
+    private void assertLog( String message, Path path )
+        throws IOException
+    {
+        String content = read( path );
+
+        assertTrue( content.contains( message ) );
+        assertEquals( 1, content.split( "\n" ).length );
+    }
+
+    private Path getArchive( int index )
+    {
+        return logFile.resolveSibling( FILE_NAME + "." + index );
+    }
+
+    private String read( Path path )
+        throws IOException
+    {
+        return new String( Files.readAllBytes( path ), StandardCharsets.UTF_8 );
+    }
+
+    private Clock getClock( LocalDate date )
+    {
+        ZoneId zone = ZoneId.systemDefault();
+
+        return Clock.fixed( date.atStartOfDay( zone ).toInstant(), zone );
+    }
+}
@@ -33,10 +33,12 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
 import java.io.OutputStream;
+import java.util.Iterator;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -127,6 +129,12 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected void writeCollectionNode( CollectionNode collectionNode ) throws Exception
     {
+        if ( collectionNode instanceof StreamingCollectionNode )
+        {
+            writeStreamingCollectionNode( (StreamingCollectionNode) collectionNode );
+            return;
+        }
+
         if ( !config.getInclusionStrategy().include( collectionNode.getChildren() ) )
         {
             return;
@@ -145,6 +153,26 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected abstract void endWriteCollectionNode( CollectionNode collectionNode ) throws Exception;
 
+    /**
+     * Writes the children of the given node page by page as they are loaded,
+     * without holding all children in memory. Streaming collection nodes are
+     * never empty, so they are included by every inclusion strategy.
+     */
+    protected void writeStreamingCollectionNode( StreamingCollectionNode collectionNode ) throws Exception
+    {
+        startWriteCollectionNode( collectionNode );
+
+        Iterator<Node> children = collectionNode.childIterator();
+
+        while ( children.hasNext() )
+        {
+            dispatcher( children.next() );
+            flushStream();
+        }
+
+        endWriteCollectionNode( collectionNode );
+    }
+
     protected void dispatcher( Node node ) throws Exception
     {
         switch ( node.getType() )
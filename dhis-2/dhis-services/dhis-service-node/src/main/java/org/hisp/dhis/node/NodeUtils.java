@@ -89,6 +89,7 @@ public final class NodeUtils
         pagerNode.addChild( new SimpleNode( "pageSize", pager.getPageSize() ) );
         pagerNode.addChild( new SimpleNode( "nextPage", pager.getNextPage() ) );
         pagerNode.addChild( new SimpleNode( "prevPage", pager.getPrevPage() ) );
+        pagerNode.addChild( new SimpleNode( "nextPageToken", pager.getNextPageToken() ) );
 
         return pagerNode;
     }
@@ -42,6 +42,7 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
@@ -172,7 +173,7 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     @Override
     protected void startWriteCollectionNode( CollectionNode collectionNode ) throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && !isEmpty( collectionNode ) )
         {
             writeStartElement( collectionNode );
         }
@@ -181,12 +182,17 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     @Override
     protected void endWriteCollectionNode( CollectionNode collectionNode ) throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && !isEmpty( collectionNode ) )
         {
             writer.writeEndElement();
         }
     }
 
+    private boolean isEmpty( CollectionNode collectionNode )
+    {
+        return !( collectionNode instanceof StreamingCollectionNode ) && collectionNode.getChildren().isEmpty();
+    }
+
     private void writeStartElement( Node node ) throws XMLStreamException
     {
         if ( !StringUtils.isEmpty( node.getComment() ) )
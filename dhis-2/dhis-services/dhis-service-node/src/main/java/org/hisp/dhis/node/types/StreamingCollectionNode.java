@@ -0,0 +1,165 @@
+package org.hisp.dhis.node.types;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.hisp.dhis.node.Node;
+
+/**
+ * Collection node which is populated page by page while it is serialized,
+ * so that only a single page of children is held in memory at a time.
+ * Serializers which stream nodes should iterate the children using
+ * {@link #childIterator()}, which can only be done once. Calling
+ * {@link #getChildren()} loads all remaining pages into the node.
+ * <p>
+ * A streaming collection node is never empty, as it is created from its first
+ * page of children.
+ */
+public class StreamingCollectionNode extends CollectionNode
+{
+    private CollectionNode currentPage;
+
+    private final Iterator<CollectionNode> remainingPages;
+
+    private boolean streamed;
+
+    /**
+     * @param firstPage the first page of children, which can not be empty.
+     *        The name, namespace and wrapping of the node are taken from it.
+     * @param remainingPages iterator over the remaining pages of children.
+     */
+    public StreamingCollectionNode( CollectionNode firstPage, Iterator<CollectionNode> remainingPages )
+    {
+        super( firstPage.getName(), firstPage.isWrapping() );
+
+        checkArgument( !firstPage.getUnorderedChildren().isEmpty(), "First page of streaming collection node is empty" );
+
+        setNamespace( firstPage.getNamespace() );
+        setComment( firstPage.getComment() );
+        setProperty( firstPage.getProperty() );
+
+        this.currentPage = firstPage;
+        this.remainingPages = remainingPages;
+    }
+
+    /**
+     * Returns an iterator over the children of this node, which loads the
+     * pages of children on demand. Each page is released as soon as the
+     * iterator moves on to the next page.
+     *
+     * @return an iterator over the children.
+     * @throws IllegalStateException if the children have already been streamed.
+     */
+    public Iterator<Node> childIterator()
+    {
+        if ( streamed )
+        {
+            throw new IllegalStateException( "Children of streaming collection node have already been streamed" );
+        }
+
+        streamed = true;
+
+        if ( currentPage == null )
+        {
+            return super.getChildren().iterator();
+        }
+
+        return new Iterator<Node>()
+        {
+            private Iterator<Node> pageIterator = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext()
+            {
+                while ( !pageIterator.hasNext() )
+                {
+                    CollectionNode page = nextPage();
+
+                    if ( page == null )
+                    {
+                        return false;
+                    }
+
+                    pageIterator = page.getChildren().iterator();
+                }
+
+                return true;
+            }
+
+            @Override
+            public Node next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return pageIterator.next();
+            }
+        };
+    }
+
+    @Override
+    public List<Node> getChildren()
+    {
+        if ( !streamed )
+        {
+            CollectionNode page;
+
+            while ( ( page = nextPage() ) != null )
+            {
+                addChildren( page.getUnorderedChildren() );
+            }
+        }
+
+        return super.getChildren();
+    }
+
+    private CollectionNode nextPage()
+    {
+        CollectionNode page = currentPage;
+
+        if ( page != null )
+        {
+            currentPage = null;
+        }
+        else if ( remainingPages.hasNext() )
+        {
+            page = remainingPages.next();
+        }
+
+        return page;
+    }
+}
@@ -0,0 +1,100 @@
+package org.hisp.dhis.node.types;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Iterator;
+
+import org.hisp.dhis.node.Node;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for {@link StreamingCollectionNode}.
+ */
+public class StreamingCollectionNodeTest
+{
+    private final SimpleNode nodeA = new SimpleNode( "id", "A" );
+
+    private final SimpleNode nodeB = new SimpleNode( "id", "B" );
+
+    private final SimpleNode nodeC = new SimpleNode( "id", "C" );
+
+    @Test
+    public void childIterator()
+    {
+        StreamingCollectionNode collectionNode = createNode();
+
+        Assert.assertEquals( "ids", collectionNode.getName() );
+        Assert.assertFalse( collectionNode.isWrapping() );
+        Assert.assertThat( Lists.newArrayList( collectionNode.childIterator() ), Matchers.contains( nodeA, nodeB, nodeC ) );
+    }
+
+    @Test
+    public void getChildren()
+    {
+        StreamingCollectionNode collectionNode = createNode();
+
+        Assert.assertThat( collectionNode.getChildren(), Matchers.contains( nodeA, nodeB, nodeC ) );
+        Assert.assertThat( Lists.newArrayList( collectionNode.childIterator() ), Matchers.contains( nodeA, nodeB, nodeC ) );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void childIteratorTwice()
+    {
+        StreamingCollectionNode collectionNode = createNode();
+
+        Iterator<Node> children = collectionNode.childIterator();
+        children.forEachRemaining( child -> {} );
+
+        collectionNode.childIterator();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void emptyFirstPage()
+    {
+        new StreamingCollectionNode( new CollectionNode( "ids" ), Lists.<CollectionNode>newArrayList().iterator() );
+    }
+
+    private StreamingCollectionNode createNode()
+    {
+        CollectionNode pageA = new CollectionNode( "ids", false );
+        pageA.addChild( nodeA );
+
+        CollectionNode pageB = new CollectionNode( "ids", false );
+
+        CollectionNode pageC = new CollectionNode( "ids", false );
+        pageC.addChild( nodeB );
+        pageC.addChild( nodeC );
+
+        return new StreamingCollectionNode( pageA, Lists.newArrayList( pageB, pageC ).iterator() );
+    }
+}
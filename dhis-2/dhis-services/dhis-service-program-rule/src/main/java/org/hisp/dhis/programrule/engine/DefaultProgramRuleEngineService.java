@@ -84,13 +84,36 @@ public class DefaultProgramRuleEngineService
     @Override
     public List<RuleEffect> evaluateEnrollment( long programInstance )
     {
-        List<RuleEffect> ruleEffects = new ArrayList<>();
-
         ProgramInstance pi = programInstanceService.getProgramInstance( programInstance );
 
+        List<RuleEffect> ruleEffects = getEnrollmentEffects( pi );
+
+        implementEffects( ruleEffects, pi );
+
+        return ruleEffects;
+    }
+
+    @Override
+    public List<RuleEffect> evaluateEvent( long programStageInstance )
+    {
+        ProgramStageInstance psi = programStageInstanceService.getProgramStageInstance( programStageInstance );
+
+        List<RuleEffect> ruleEffects = getEventEffects( psi );
+
+        implementEffects( ruleEffects, psi );
+
+        return ruleEffects;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private List<RuleEffect> getEnrollmentEffects( ProgramInstance pi )
+    {
         try
         {
-            ruleEffects = programRuleEngine.evaluateEnrollment( pi );
+            return programRuleEngine.evaluateEnrollment( pi );
         }
         catch( Exception ex )
         {
@@ -98,6 +121,31 @@ public class DefaultProgramRuleEngineService
             log.error( DebugUtils.getStackTrace( ex.getCause() ) );
         }
 
+        return new ArrayList<>();
+    }
+
+    private List<RuleEffect> getEventEffects( ProgramStageInstance psi )
+    {
+        try
+        {
+            return programRuleEngine.evaluateEvent( psi );
+        }
+        catch( Exception ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex ) );
+            log.error( DebugUtils.getStackTrace( ex.getCause() ) );
+        }
+
+        return new ArrayList<>();
+    }
+
+    private void implementEffects( List<RuleEffect> ruleEffects, ProgramInstance pi )
+    {
+        if ( pi == null )
+        {
+            return;
+        }
+
         for ( RuleEffect effect : ruleEffects )
         {
             ruleActionImplementers.stream().filter( i -> i.accept( effect.ruleAction() ) ).forEach( i ->
@@ -107,25 +155,13 @@ public class DefaultProgramRuleEngineService
                 i.implement( effect, pi );
             } );
         }
-
-        return ruleEffects;
     }
 
-    @Override
-    public List<RuleEffect> evaluateEvent( long programStageInstance )
+    private void implementEffects( List<RuleEffect> ruleEffects, ProgramStageInstance psi )
     {
-        List<RuleEffect> ruleEffects = new ArrayList<>();
-
-        ProgramStageInstance psi = programStageInstanceService.getProgramStageInstance( programStageInstance );
-
-        try
+        if ( psi == null )
         {
-            ruleEffects = programRuleEngine.evaluateEvent( psi );
-        }
-        catch( Exception ex )
-        {
-            log.error( DebugUtils.getStackTrace( ex ) );
-            log.error( DebugUtils.getStackTrace( ex.getCause() ) );
+            return;
         }
 
         for ( RuleEffect effect : ruleEffects )
@@ -137,7 +173,5 @@ public class DefaultProgramRuleEngineService
                 i.implement( effect, psi );
             } );
         }
-
-        return ruleEffects;
     }
 }
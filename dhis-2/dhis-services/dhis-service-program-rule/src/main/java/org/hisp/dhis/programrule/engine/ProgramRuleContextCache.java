@@ -0,0 +1,153 @@
+package org.hisp.dhis.programrule.engine;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.cache.VersionedCache;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.option.Option;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
+import org.hisp.dhis.programrule.ProgramRule;
+import org.hisp.dhis.programrule.ProgramRuleAction;
+import org.hisp.dhis.programrule.ProgramRuleVariable;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Cache of {@link ProgramRuleContext} per program. Cache keys are qualified
+ * with a version which is incremented whenever a meta-data object which rule
+ * contexts are built from is changed, so that contexts built before a change
+ * are never returned after the change. Contexts hold rule engine model objects
+ * which are not serializable, hence the cache is local. Disabled during test
+ * phase.
+ */
+@Component( "org.hisp.dhis.programrule.engine.ProgramRuleContextCache" )
+public class ProgramRuleContextCache
+    implements VersionedCache
+{
+    private static final Log log = LogFactory.getLog( ProgramRuleContextCache.class );
+
+    private static final int MAX_ENTRIES = 2000;
+    private static final int EXPIRATION_MINUTES = 30;
+
+    /**
+     * Meta-data types which program rule contexts depend on.
+     */
+    private static final Set<Class<?>> METADATA_TYPES = ImmutableSet.of(
+        Program.class, ProgramStage.class, ProgramStageDataElement.class, ProgramTrackedEntityAttribute.class,
+        ProgramRule.class, ProgramRuleAction.class, ProgramRuleVariable.class, DataElement.class,
+        TrackedEntityAttribute.class, OptionSet.class, Option.class, OrganisationUnitGroup.class );
+
+    private final Environment environment;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<String, ProgramRuleContext> cache;
+
+    public ProgramRuleContextCache( Environment environment )
+    {
+        checkNotNull( environment );
+
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        init( !SystemUtils.isTestRun( environment.getActiveProfiles() ) );
+    }
+
+    /**
+     * Creates the underlying cache. When disabled, the cache holds no entries.
+     * Tests may enable the cache explicitly, as it is disabled during test phase.
+     *
+     * @param enabled whether the cache is enabled.
+     */
+    void init( boolean enabled )
+    {
+        cache = Caffeine.newBuilder()
+            .expireAfterWrite( EXPIRATION_MINUTES, TimeUnit.MINUTES )
+            .maximumSize( enabled ? MAX_ENTRIES : 0 )
+            .build();
+
+        log.info( String.format( "Program rule context cache is enabled: %b", enabled ) );
+    }
+
+    /**
+     * Returns the cached context for the given program, building and caching
+     * it with the given supplier if absent.
+     *
+     * @param program the program.
+     * @param supplier the supplier of the context.
+     * @return the context.
+     */
+    public ProgramRuleContext get( Program program, Supplier<ProgramRuleContext> supplier )
+    {
+        return cache.get( version.get() + ":" + program.getUid(), k -> supplier.get() );
+    }
+
+    // -------------------------------------------------------------------------
+    // VersionedCache implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Set<Class<?>> getDependencyTypes()
+    {
+        return METADATA_TYPES;
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        version.incrementAndGet();
+
+        cache.invalidateAll();
+    }
+}
@@ -33,6 +33,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
@@ -51,6 +52,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -83,11 +87,13 @@ public class ProgramRuleEngine
 
     private final CurrentUserService currentUserService;
 
+    private final ProgramRuleContextCache contextCache;
+
     public ProgramRuleEngine( ProgramRuleEntityMapperService programRuleEntityMapperService,
         ProgramRuleExpressionEvaluator programRuleExpressionEvaluator, ProgramRuleService programRuleService,
         ProgramRuleVariableService programRuleVariableService,
         OrganisationUnitGroupService organisationUnitGroupService, RuleVariableInMemoryMap inMemoryMap,
-        CurrentUserService currentUserService )
+        CurrentUserService currentUserService, ProgramRuleContextCache contextCache )
     {
 
         checkNotNull( programRuleEntityMapperService );
@@ -97,6 +103,7 @@ public class ProgramRuleEngine
         checkNotNull( organisationUnitGroupService );
         checkNotNull( currentUserService );
         checkNotNull( inMemoryMap );
+        checkNotNull( contextCache );
 
         this.programRuleEntityMapperService = programRuleEntityMapperService;
         this.programRuleExpressionEvaluator = programRuleExpressionEvaluator;
@@ -105,6 +112,7 @@ public class ProgramRuleEngine
         this.organisationUnitGroupService = organisationUnitGroupService;
         this.inMemoryMap = inMemoryMap;
         this.currentUserService = currentUserService;
+        this.contextCache = contextCache;
     }
 
     public List<RuleEffect> evaluateEnrollment(ProgramInstance enrollment )
@@ -116,15 +124,13 @@ public class ProgramRuleEngine
 
         List<RuleEffect> ruleEffects = new ArrayList<>();
 
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
+        ProgramRuleContext context = getProgramRuleContext( enrollment.getProgram() );
 
-        if ( implementableProgramRules.isEmpty() ) // if implementation does not exist on back end side
+        if ( context.isEmpty() ) // if implementation does not exist on back end side
         {
             return ruleEffects;
         }
 
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
-
         RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
 
         List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances() );
@@ -133,7 +139,7 @@ public class ProgramRuleEngine
 
         try
         {
-            ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).events( ruleEvents ).build();
+            ruleEngine = ruleEngineBuilder( context ).events( ruleEvents ).build();
 
             ruleEffects = ruleEngine.evaluate( ruleEnrollment  ).call();
 
@@ -160,15 +166,13 @@ public class ProgramRuleEngine
 
         ProgramInstance enrollment = programStageInstance.getProgramInstance();
 
-        List<ProgramRule> implementableProgramRules = getImplementableRules( enrollment.getProgram() );
+        ProgramRuleContext context = getProgramRuleContext( enrollment.getProgram() );
 
-        if ( implementableProgramRules.isEmpty() )
+        if ( context.isEmpty() )
         {
             return ruleEffects;
         }
 
-        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( enrollment.getProgram() );
-
         RuleEnrollment ruleEnrollment = programRuleEntityMapperService.toMappedRuleEnrollment( enrollment );
 
         List<RuleEvent> ruleEvents = programRuleEntityMapperService.toMappedRuleEvents( enrollment.getProgramStageInstances(), programStageInstance );
@@ -177,7 +181,7 @@ public class ProgramRuleEngine
 
         try
         {
-            ruleEngine = ruleEngineBuilder( implementableProgramRules, programRuleVariables ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
+            ruleEngine = ruleEngineBuilder( context ).enrollment( ruleEnrollment ).events( ruleEvents ).build();
 
             ruleEffects = ruleEngine.evaluate( programRuleEntityMapperService.toMappedRuleEvent( programStageInstance )  ).call();
 
@@ -193,11 +197,50 @@ public class ProgramRuleEngine
         return ruleEffects;
     }
 
-    private RuleEngine.Builder ruleEngineBuilder( List<ProgramRule> programRules, List<ProgramRuleVariable> programRuleVariables )
+    private RuleEngine.Builder ruleEngineBuilder( ProgramRuleContext context )
     {
-        Map<String, List<String>> supplementaryData = new HashMap<>();
+        Map<String, List<String>> supplementaryData = new HashMap<>( context.getOrgUnitGroupMembers() );
+
+        if ( currentUserService.getCurrentUser() != null )
+        {
+            supplementaryData.put( USER, currentUserService.getCurrentUser().getUserCredentials().getUserAuthorityGroups().stream().map( UserAuthorityGroup::getUid ).collect( Collectors.toList() ) );
+        }
 
-        List<String> orgUnitGroups = new ArrayList<>();
+        return RuleEngineContext
+            .builder( programRuleExpressionEvaluator )
+            .supplementaryData( supplementaryData )
+            .calculatedValueMap( inMemoryMap.getVariablesMap() )
+            .rules( context.getRules() )
+            .ruleVariables( context.getRuleVariables() )
+            .build().toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+    }
+
+    /**
+     * Returns the cached rule context of the given program, building it if not
+     * cached.
+     */
+    private ProgramRuleContext getProgramRuleContext( Program program )
+    {
+        return contextCache.get( program, () -> buildProgramRuleContext( program ) );
+    }
+
+    /**
+     * Builds the rule context of the given program by mapping its implementable
+     * rules and its rule variables, and by loading the members of the
+     * organisation unit groups referenced in rule conditions.
+     */
+    private ProgramRuleContext buildProgramRuleContext( Program program )
+    {
+        List<ProgramRule> programRules = getImplementableRules( program );
+
+        if ( programRules.isEmpty() )
+        {
+            return ProgramRuleContext.EMPTY;
+        }
+
+        List<ProgramRuleVariable> programRuleVariables = programRuleVariableService.getProgramRuleVariable( program );
+
+        Set<String> orgUnitGroups = new HashSet<>();
 
         List<Rule> rules = new ArrayList<>();
 
@@ -218,24 +261,18 @@ public class ProgramRuleEngine
             }
         }
 
-        if ( !orgUnitGroups.isEmpty() )
-        {
-            supplementaryData = orgUnitGroups.stream().collect( Collectors.toMap( g -> g,  g -> organisationUnitGroupService.getOrganisationUnitGroup( g ).getMembers()
-                .stream().map( OrganisationUnit::getUid ).collect( Collectors.toList() ) ) );
-        }
+        Map<String, List<String>> orgUnitGroupMembers = new HashMap<>();
 
-        if ( currentUserService.getCurrentUser() != null )
+        for ( String orgUnitGroup : orgUnitGroups )
         {
-            supplementaryData.put( USER, currentUserService.getCurrentUser().getUserCredentials().getUserAuthorityGroups().stream().map( UserAuthorityGroup::getUid ).collect( Collectors.toList() ) );
+            OrganisationUnitGroup group = organisationUnitGroupService.getOrganisationUnitGroup( orgUnitGroup );
+
+            orgUnitGroupMembers.put( orgUnitGroup, group != null ? ImmutableSet.copyOf( group.getMembers().stream()
+                .map( OrganisationUnit::getUid ).collect( Collectors.toList() ) ).asList() : ImmutableList.of() );
         }
 
-        return RuleEngineContext
-            .builder( programRuleExpressionEvaluator )
-            .supplementaryData( supplementaryData )
-            .calculatedValueMap( inMemoryMap.getVariablesMap() )
-            .rules( rules )
-            .ruleVariables( programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ) )
-            .build().toEngineBuilder().triggerEnvironment( TriggerEnvironment.SERVER );
+        return new ProgramRuleContext( rules, programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ),
+            orgUnitGroupMembers );
     }
 
     private List<ProgramRule> getImplementableRules( Program program )
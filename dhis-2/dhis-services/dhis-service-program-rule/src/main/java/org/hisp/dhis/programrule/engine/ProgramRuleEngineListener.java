@@ -28,7 +28,6 @@ package org.hisp.dhis.programrule.engine;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.stereotype.Component;
 
@@ -38,39 +37,38 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Zubair Asghar.
  */
 
-@Async
 @Component( "org.hisp.dhis.programrule.engine.ProgramRuleEngineListener" )
 public class ProgramRuleEngineListener
 {
-    private final ProgramRuleEngineService programRuleEngineService;
+    private final ProgramRuleEvaluationQueue programRuleEvaluationQueue;
 
-    public ProgramRuleEngineListener( ProgramRuleEngineService programRuleEngineService )
+    public ProgramRuleEngineListener( ProgramRuleEvaluationQueue programRuleEvaluationQueue )
     {
-        checkNotNull( programRuleEngineService );
-        this.programRuleEngineService = programRuleEngineService;
+        checkNotNull( programRuleEvaluationQueue );
+        this.programRuleEvaluationQueue = programRuleEvaluationQueue;
     }
 
     @TransactionalEventListener
     public void onEnrollment( EnrollmentEvaluationEvent event )
     {
-        programRuleEngineService.evaluateEnrollment( event.getProgramInstance() );
+        programRuleEvaluationQueue.addEnrollment( event.getProgramInstance() );
     }
 
     @TransactionalEventListener
     public void onDataValueChange( DataValueUpdatedEvent event )
     {
-        programRuleEngineService.evaluateEvent( event.getProgramStageInstance() );
+        programRuleEvaluationQueue.addEvent( event.getProgramStageInstance() );
     }
 
     @TransactionalEventListener
     public void onEventCompletion( StageCompletionEvaluationEvent event )
     {
-        programRuleEngineService.evaluateEvent( event.getProgramStageInstance() );
+        programRuleEvaluationQueue.addEvent( event.getProgramStageInstance() );
     }
 
     @TransactionalEventListener
     public void onScheduledEvent( StageScheduledEvaluationEvent event )
     {
-        programRuleEngineService.evaluateEvent( event.getProgramStageInstance() );
+        programRuleEvaluationQueue.addEvent( event.getProgramStageInstance() );
     }
 }
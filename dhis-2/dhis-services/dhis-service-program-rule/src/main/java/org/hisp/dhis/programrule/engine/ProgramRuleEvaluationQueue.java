@@ -0,0 +1,552 @@
+package org.hisp.dhis.programrule.engine;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Queue of program rule evaluations which are processed in batches in the
+ * background. Evaluations of the same enrollment or event which are queued
+ * before being processed are de-duplicated. Each batch is grouped by enrollment
+ * and split between the workers on the enrollment identifier, so that all
+ * evaluations of an enrollment are processed by the same worker in the order
+ * they were queued. The evaluations of an enrollment, including implementing
+ * the rule effects, run in one transaction, so that the events of the
+ * enrollment are loaded once per batch, and a failure only rolls back the
+ * effects for that enrollment.
+ * <p>
+ * Queued evaluations are persisted in the programruleevaluationqueue table
+ * until they have been processed, and evaluations which were queued when the
+ * server stopped are queued again at startup. Evaluations are hence processed
+ * at least once. The queue is held in memory only in test runs.
+ */
+@Component( "org.hisp.dhis.programrule.engine.ProgramRuleEvaluationQueue" )
+public class ProgramRuleEvaluationQueue
+{
+    private static final Log log = LogFactory.getLog( ProgramRuleEvaluationQueue.class );
+
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_INTERVAL_MILLIS = 500;
+    private static final int EVENT_LOOKUP_PARTITION_SIZE = 5000;
+
+    private static final String TABLE_NAME = "programruleevaluationqueue";
+
+    private final ProgramRuleEngineService programRuleEngineService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DhisConfigurationProvider config;
+
+    private final Environment environment;
+
+    private final Queue<Evaluation> queue = new ConcurrentLinkedQueue<>();
+
+    private final Set<Evaluation> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder processedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder totalLatencyMillis = new LongAdder();
+
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    private ScheduledExecutorService dispatcher;
+
+    private List<ExecutorService> workers;
+
+    private volatile boolean persistent;
+
+    public ProgramRuleEvaluationQueue( ProgramRuleEngineService programRuleEngineService, JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate, DhisConfigurationProvider config, Environment environment )
+    {
+        checkNotNull( programRuleEngineService );
+        checkNotNull( jdbcTemplate );
+        checkNotNull( transactionTemplate );
+        checkNotNull( config );
+        checkNotNull( environment );
+
+        this.programRuleEngineService = programRuleEngineService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        int poolSize = Integer.parseInt( config.getProperty( ConfigurationKey.RULE_ENGINE_THREAD_POOL_SIZE ) );
+
+        if ( poolSize <= 0 )
+        {
+            int cpuCores = SystemUtils.getCpuCores();
+
+            poolSize = cpuCores > 2 ? cpuCores / 2 : 1;
+        }
+
+        if ( !SystemUtils.isTestRun( environment.getActiveProfiles() ) )
+        {
+            initPersistence();
+        }
+
+        initWorkers( poolSize );
+
+        dispatcher = Executors.newSingleThreadScheduledExecutor( new ThreadFactoryBuilder()
+            .setNameFormat( "program-rule-dispatcher" ).setDaemon( true ).build() );
+
+        dispatcher.scheduleWithFixedDelay( this::dispatch, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+
+        log.info( String.format( "Program rule evaluation queue started with workers: %d", poolSize ) );
+    }
+
+    /**
+     * Creates the given number of single threaded workers. Tests may create the
+     * workers and dispatch the queue explicitly, without starting the dispatcher.
+     *
+     * @param poolSize the number of workers.
+     */
+    void initWorkers( int poolSize )
+    {
+        workers = new ArrayList<>();
+
+        for ( int i = 0; i < poolSize; i++ )
+        {
+            workers.add( Executors.newSingleThreadExecutor( new ThreadFactoryBuilder()
+                .setNameFormat( "program-rule-worker-" + i ).setDaemon( true ).build() ) );
+        }
+    }
+
+    /**
+     * Enables persisting queued evaluations and queues the evaluations which
+     * were persisted but not processed before the server stopped.
+     */
+    void initPersistence()
+    {
+        persistent = true;
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "select event, itemid, queued from " + TABLE_NAME + " order by queued" );
+
+        for ( Map<String, Object> row : rows )
+        {
+            Evaluation evaluation = new Evaluation( (Boolean) row.get( "event" ),
+                ( (Number) row.get( "itemid" ) ).longValue(), ( (Date) row.get( "queued" ) ).getTime() );
+
+            if ( pending.add( evaluation ) )
+            {
+                queue.add( evaluation );
+            }
+        }
+
+        log.info( String.format( "Restored program rule evaluations: %d", rows.size() ) );
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        if ( dispatcher != null )
+        {
+            dispatcher.shutdownNow();
+        }
+
+        workers.forEach( ExecutorService::shutdownNow );
+    }
+
+    // -------------------------------------------------------------------------
+    // Queue
+    // -------------------------------------------------------------------------
+
+    /**
+     * Queues the evaluation of the given enrollment.
+     *
+     * @param enrollment the enrollment identifier.
+     */
+    public void addEnrollment( long enrollment )
+    {
+        add( new Evaluation( false, enrollment ) );
+    }
+
+    /**
+     * Queues the evaluation of the given event.
+     *
+     * @param event the event identifier.
+     */
+    public void addEvent( long event )
+    {
+        add( new Evaluation( true, event ) );
+    }
+
+    /**
+     * Returns the number of evaluations waiting to be processed.
+     */
+    public int getQueueDepth()
+    {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of processed evaluations.
+     */
+    public long getProcessedCount()
+    {
+        return processedCount.sum();
+    }
+
+    /**
+     * Returns the number of processed evaluations which failed, including
+     * evaluations of the same enrollment which were rolled back.
+     */
+    public long getFailedCount()
+    {
+        return failedCount.sum();
+    }
+
+    /**
+     * Returns the average time in milliseconds from an evaluation being queued
+     * until it has been processed.
+     */
+    public long getAverageLatencyMillis()
+    {
+        long processed = processedCount.sum();
+
+        return processed > 0 ? totalLatencyMillis.sum() / processed : 0;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds from an evaluation being queued
+     * until it has been processed.
+     */
+    public long getMaxLatencyMillis()
+    {
+        return maxLatencyMillis.get();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void add( Evaluation evaluation )
+    {
+        if ( pending.add( evaluation ) )
+        {
+            persist( evaluation );
+
+            queue.add( evaluation );
+        }
+    }
+
+    /**
+     * Persists the given evaluation. An evaluation which is queued again while
+     * being processed replaces the persisted evaluation, so that it is not
+     * removed when the previous evaluation has been processed.
+     */
+    private void persist( Evaluation evaluation )
+    {
+        if ( !persistent )
+        {
+            return;
+        }
+
+        try
+        {
+            jdbcTemplate.update( "insert into " + TABLE_NAME + " (event, itemid, queued) values (?, ?, ?) " +
+                "on conflict (event, itemid) do update set queued = excluded.queued",
+                evaluation.event, evaluation.id, new Date( evaluation.queued ) );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.error( String.format( "Failed to persist program rule evaluation, event: %b, id: %d", evaluation.event, evaluation.id ) );
+            log.error( DebugUtils.getStackTrace( ex ) );
+        }
+    }
+
+    /**
+     * Removes the given processed evaluations from the persisted queue, except
+     * for evaluations which have been queued again since.
+     */
+    private void removePersisted( List<Evaluation> evaluations )
+    {
+        if ( !persistent )
+        {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate( "delete from " + TABLE_NAME + " where event = ? and itemid = ? and queued <= ?",
+            evaluations.stream()
+                .map( e -> new Object[] { e.event, e.id, new Date( e.queued ) } )
+                .collect( Collectors.toList() ) );
+    }
+
+    /**
+     * Processes queued evaluations batch by batch until the queue is empty.
+     */
+    void dispatch()
+    {
+        try
+        {
+            List<Evaluation> batch;
+
+            while ( !( batch = poll() ).isEmpty() )
+            {
+                process( batch );
+            }
+        }
+        catch ( Exception ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex ) );
+        }
+    }
+
+    private List<Evaluation> poll()
+    {
+        List<Evaluation> batch = new ArrayList<>();
+
+        Evaluation evaluation;
+
+        while ( batch.size() < BATCH_SIZE && ( evaluation = queue.poll() ) != null )
+        {
+            pending.remove( evaluation );
+            batch.add( evaluation );
+        }
+
+        return batch;
+    }
+
+    /**
+     * Groups the given batch by enrollment, keeping the order of the
+     * evaluations, splits it between the workers and waits for the workers to
+     * complete.
+     */
+    private void process( List<Evaluation> batch )
+        throws InterruptedException
+    {
+        Map<Long, Long> eventEnrollments = getEventEnrollments( batch.stream()
+            .filter( e -> e.event ).map( e -> e.id ).collect( Collectors.toList() ) );
+
+        Map<Integer, Map<Long, List<Evaluation>>> workerBatches = new HashMap<>();
+
+        for ( Evaluation evaluation : batch )
+        {
+            Long enrollment = evaluation.event ? eventEnrollments.get( evaluation.id ) : evaluation.id;
+
+            if ( enrollment != null )
+            {
+                int worker = Math.floorMod( enrollment.hashCode(), workers.size() );
+
+                workerBatches.computeIfAbsent( worker, w -> new LinkedHashMap<>() )
+                    .computeIfAbsent( enrollment, e -> new ArrayList<>() ).add( evaluation );
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+
+        workerBatches.forEach( ( worker, evaluations ) -> futures.add( workers.get( worker ).submit( () -> evaluate( evaluations ) ) ) );
+
+        for ( Future<?> future : futures )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( ExecutionException ex )
+            {
+                log.error( DebugUtils.getStackTrace( ex.getCause() ) );
+            }
+        }
+
+        removePersisted( batch );
+
+        log.debug( String.format( "Processed program rule evaluations: %d, queue depth: %d, average latency: %d ms, max latency: %d ms",
+            batch.size(), getQueueDepth(), getAverageLatencyMillis(), getMaxLatencyMillis() ) );
+    }
+
+    private void evaluate( Map<Long, List<Evaluation>> enrollmentEvaluations )
+    {
+        enrollmentEvaluations.forEach( this::evaluate );
+    }
+
+    /**
+     * Evaluates the given evaluations of an enrollment in order in one
+     * transaction. Failures are logged, so that the evaluations of other
+     * enrollments proceed.
+     */
+    private void evaluate( Long enrollment, List<Evaluation> evaluations )
+    {
+        try
+        {
+            transactionTemplate.execute( status -> {
+                for ( Evaluation evaluation : evaluations )
+                {
+                    if ( evaluation.event )
+                    {
+                        programRuleEngineService.evaluateEvent( evaluation.id );
+                    }
+                    else
+                    {
+                        programRuleEngineService.evaluateEnrollment( evaluation.id );
+                    }
+                }
+
+                return null;
+            } );
+        }
+        catch ( RuntimeException ex )
+        {
+            failedCount.add( evaluations.size() );
+
+            log.error( String.format( "Program rule evaluation failed for enrollment: %d", enrollment ) );
+            log.error( DebugUtils.getStackTrace( ex ) );
+        }
+
+        long now = System.currentTimeMillis();
+
+        for ( Evaluation evaluation : evaluations )
+        {
+            long latency = now - evaluation.queued;
+
+            processedCount.increment();
+            totalLatencyMillis.add( latency );
+            maxLatencyMillis.accumulateAndGet( latency, Math::max );
+        }
+    }
+
+    /**
+     * Returns a mapping of the given event identifiers to the identifiers of
+     * the enrollments of the events.
+     */
+    private Map<Long, Long> getEventEnrollments( List<Long> events )
+    {
+        Map<Long, Long> eventEnrollments = new HashMap<>();
+
+        for ( List<Long> partition : Lists.partition( new ArrayList<>( new HashSet<>( events ) ), EVENT_LOOKUP_PARTITION_SIZE ) )
+        {
+            String sql = "select programstageinstanceid, programinstanceid from programstageinstance " +
+                "where programstageinstanceid in (" + StringUtils.join( partition, "," ) + ")";
+
+            jdbcTemplate.query( sql, rs -> {
+                eventEnrollments.put( rs.getLong( 1 ), rs.getLong( 2 ) );
+            } );
+        }
+
+        return eventEnrollments;
+    }
+
+    /**
+     * Evaluation of an enrollment or an event. Equality is based on the type
+     * and identifier only, so that evaluations are de-duplicated.
+     */
+    private static final class Evaluation
+    {
+        private final boolean event;
+
+        private final long id;
+
+        private final long queued;
+
+        Evaluation( boolean event, long id )
+        {
+            this( event, id, System.currentTimeMillis() );
+        }
+
+        Evaluation( boolean event, long id, long queued )
+        {
+            this.event = event;
+            this.id = id;
+            this.queued = queued;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Evaluation other = (Evaluation) o;
+
+            return event == other.event && id == other.id;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( event, id );
+        }
+    }
+}
@@ -45,6 +45,7 @@ import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementDomain;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.program.Program;
@@ -177,6 +178,12 @@ public class ProgramRuleEngineTest extends DhisSpringTest
     @Autowired
     private ProgramNotificationTemplateStore programNotificationTemplateStore;
 
+    @Autowired
+    private ProgramRuleContextCache contextCache;
+
+    @Autowired
+    private DbmsManager dbmsManager;
+
     @Override
     public void setUpTest()
     {
@@ -198,6 +205,12 @@ public class ProgramRuleEngineTest extends DhisSpringTest
         setupProgramRuleEngine();
     }
 
+    @Override
+    public void tearDownTest()
+    {
+        contextCache.init( false );
+    }
+
     @Test
     public void testSendMessageForEnrollment() throws Exception
     {
@@ -238,6 +251,31 @@ public class ProgramRuleEngineTest extends DhisSpringTest
         assertEquals( "PNT-1", ruleActionSendMessage.notification() );
     }
 
+    @Test
+    public void testSendMessageForEnrollmentAfterProgramRuleChange() throws Exception
+    {
+        contextCache.init( true );
+
+        setUpSendMessageForEnrollment();
+
+        ProgramInstance programInstance = programInstanceService.getProgramInstance( "UID-P1" );
+
+        List<RuleEffect> ruleEffects = programRuleEngine.evaluateEnrollment( programInstance );
+
+        assertEquals( 1, ruleEffects.size() );
+        assertTrue( ruleEffects.get( 0 ).ruleAction() instanceof RuleActionSendMessage );
+
+        // Removing the action changes the actions collection, which invalidates the cached context once flushed
+
+        programRuleC.getProgramRuleActions().clear();
+        programRuleService.updateProgramRule( programRuleC );
+        dbmsManager.flushSession();
+
+        ruleEffects = programRuleEngine.evaluateEnrollment( programInstance );
+
+        assertTrue( ruleEffects.isEmpty() );
+    }
+
     @Test
     public void testSchedulingByProgramRule() throws Exception
     {
@@ -0,0 +1,296 @@
+package org.hisp.dhis.programrule.engine;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class ProgramRuleEvaluationQueueTest
+{
+    private static final long ENROLLMENT_A = 10L;
+
+    private static final long ENROLLMENT_B = 11L;
+
+    /**
+     * Events mapped to their enrollments.
+     */
+    private static final Map<Long, Long> EVENT_ENROLLMENTS = ImmutableMap.of(
+        1L, ENROLLMENT_A, 2L, ENROLLMENT_A, 3L, ENROLLMENT_B );
+
+    @Mock
+    private ProgramRuleEngineService programRuleEngineService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private Environment environment;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private final Map<Long, String> enrollmentThreads = new ConcurrentHashMap<>();
+
+    private ProgramRuleEvaluationQueue queue;
+
+    @Before
+    @SuppressWarnings( "unchecked" )
+    public void setUp()
+    {
+        when( transactionTemplate.execute( any() ) ).thenAnswer(
+            invocation -> ( (TransactionCallback<Object>) invocation.getArgument( 0 ) ).doInTransaction( null ) );
+
+        mockEventEnrollments();
+
+        when( programRuleEngineService.evaluateEnrollment( anyLong() ) ).thenAnswer( invocation -> {
+            enrollmentThreads.put( invocation.getArgument( 0 ), Thread.currentThread().getName() );
+            return new ArrayList<>();
+        } );
+
+        when( programRuleEngineService.evaluateEvent( anyLong() ) ).thenAnswer( invocation -> {
+            enrollmentThreads.put( EVENT_ENROLLMENTS.get( invocation.<Long>getArgument( 0 ) ), Thread.currentThread().getName() );
+            return new ArrayList<>();
+        } );
+
+        queue = new ProgramRuleEvaluationQueue( programRuleEngineService, jdbcTemplate, transactionTemplate, config, environment );
+        queue.initWorkers( 2 );
+    }
+
+    @After
+    public void tearDown()
+    {
+        queue.destroy();
+    }
+
+    @Test
+    public void testDeduplicate()
+    {
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.addEvent( 1L );
+        queue.addEvent( 1L );
+
+        assertEquals( 2, queue.getQueueDepth() );
+
+        queue.dispatch();
+
+        verify( programRuleEngineService, times( 1 ) ).evaluateEnrollment( ENROLLMENT_A );
+        verify( programRuleEngineService, times( 1 ) ).evaluateEvent( 1L );
+
+        assertEquals( 0, queue.getQueueDepth() );
+        assertEquals( 2, queue.getProcessedCount() );
+        assertEquals( 0, queue.getFailedCount() );
+
+        // Evaluations queued after being processed are evaluated again
+
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.dispatch();
+
+        verify( programRuleEngineService, times( 2 ) ).evaluateEnrollment( ENROLLMENT_A );
+        assertEquals( 3, queue.getProcessedCount() );
+    }
+
+    @Test
+    public void testKeepOrderPerEnrollment()
+    {
+        queue.addEvent( 2L );
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.addEvent( 1L );
+
+        queue.dispatch();
+
+        InOrder inOrder = inOrder( programRuleEngineService );
+        inOrder.verify( programRuleEngineService ).evaluateEvent( 2L );
+        inOrder.verify( programRuleEngineService ).evaluateEnrollment( ENROLLMENT_A );
+        inOrder.verify( programRuleEngineService ).evaluateEvent( 1L );
+
+        // All evaluations of the enrollment run in one transaction
+
+        verify( transactionTemplate, times( 1 ) ).execute( any() );
+    }
+
+    @Test
+    public void testRouteByEnrollment()
+    {
+        queue.addEvent( 1L );
+        queue.addEvent( 3L );
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.addEnrollment( ENROLLMENT_B );
+
+        queue.dispatch();
+
+        assertEquals( "program-rule-worker-0", enrollmentThreads.get( ENROLLMENT_A ) );
+        assertEquals( "program-rule-worker-1", enrollmentThreads.get( ENROLLMENT_B ) );
+        assertEquals( 4, queue.getProcessedCount() );
+        assertEquals( 0, queue.getQueueDepth() );
+    }
+
+    @Test
+    public void testSkipEventWithoutEnrollment()
+    {
+        queue.addEvent( 4L );
+
+        queue.dispatch();
+
+        verify( programRuleEngineService, never() ).evaluateEvent( 4L );
+        assertEquals( 0, queue.getProcessedCount() );
+    }
+
+    @Test
+    public void testFailureIsolatedToEnrollment()
+    {
+        when( programRuleEngineService.evaluateEnrollment( ENROLLMENT_A ) ).thenThrow( new IllegalStateException( "Failed" ) );
+
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.addEvent( 1L );
+        queue.addEnrollment( ENROLLMENT_B );
+
+        queue.dispatch();
+
+        // The event of the failed enrollment is not evaluated, as the transaction is rolled back
+
+        verify( programRuleEngineService, never() ).evaluateEvent( 1L );
+        verify( programRuleEngineService ).evaluateEnrollment( ENROLLMENT_B );
+
+        assertEquals( 3, queue.getProcessedCount() );
+        assertEquals( 2, queue.getFailedCount() );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testPersistence()
+    {
+        when( jdbcTemplate.queryForList( startsWith( "select event, itemid, queued" ) ) ).thenReturn( Lists.<Map<String, Object>>newArrayList(
+            ImmutableMap.<String, Object>of( "event", false, "itemid", ENROLLMENT_B, "queued", new Date( 1000L ) ),
+            ImmutableMap.<String, Object>of( "event", true, "itemid", 1L, "queued", new Date( 2000L ) ) ) );
+
+        queue.initPersistence();
+
+        assertEquals( 2, queue.getQueueDepth() );
+
+        queue.addEvent( 1L );
+        queue.addEvent( 2L );
+
+        // Restored evaluations are not persisted again
+
+        assertEquals( 3, queue.getQueueDepth() );
+        verify( jdbcTemplate, times( 1 ) ).update( startsWith( "insert into programruleevaluationqueue" ),
+            eq( true ), eq( 2L ), any( Date.class ) );
+
+        queue.dispatch();
+
+        verify( programRuleEngineService ).evaluateEnrollment( ENROLLMENT_B );
+        verify( programRuleEngineService ).evaluateEvent( 1L );
+        verify( programRuleEngineService ).evaluateEvent( 2L );
+
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass( List.class );
+        verify( jdbcTemplate ).batchUpdate( startsWith( "delete from programruleevaluationqueue" ), deleted.capture() );
+
+        assertEquals( 3, deleted.getValue().size() );
+    }
+
+    @Test
+    public void testNotPersistedByDefault()
+    {
+        queue.addEnrollment( ENROLLMENT_A );
+        queue.dispatch();
+
+        verify( jdbcTemplate, never() ).update( anyString(), any(), any(), any() );
+        verify( jdbcTemplate, never() ).batchUpdate( anyString(), anyList() );
+    }
+
+    private void mockEventEnrollments()
+    {
+        doAnswer( invocation -> {
+            String sql = invocation.getArgument( 0 );
+            RowCallbackHandler handler = invocation.getArgument( 1 );
+
+            List<Map.Entry<Long, Long>> rows = new ArrayList<>();
+
+            EVENT_ENROLLMENTS.entrySet().stream()
+                .filter( e -> sql.matches( ".*\\D" + e.getKey() + "\\D.*" ) )
+                .forEach( rows::add );
+
+            for ( Map.Entry<Long, Long> row : rows )
+            {
+                ResultSet rs = mock( ResultSet.class );
+                when( rs.getLong( 1 ) ).thenReturn( row.getKey() );
+                when( rs.getLong( 2 ) ).thenReturn( row.getValue() );
+
+                handler.processRow( rs );
+            }
+
+            return null;
+        } ).when( jdbcTemplate ).query( anyString(), any( RowCallbackHandler.class ) );
+    }
+}
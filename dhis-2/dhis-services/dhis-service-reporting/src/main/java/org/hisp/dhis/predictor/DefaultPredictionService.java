@@ -41,6 +41,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -81,6 +83,8 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -97,6 +101,11 @@ public class DefaultPredictionService
 {
     private static final Log log = LogFactory.getLog( DefaultPredictionService.class );
 
+    /**
+     * Name of the shared thread pool bean which runs prediction tasks.
+     */
+    public static final String TASK_EXECUTOR = "predictionTaskExecutor";
+
     private final PredictorService predictorService;
 
     private final ConstantService constantService;
@@ -121,11 +130,14 @@ public class DefaultPredictionService
 
     private CurrentUserService currentUserService;
 
+    private ThreadPoolTaskExecutor taskExecutor;
+
     public DefaultPredictionService( PredictorService predictorService, ConstantService constantService,
         ExpressionService expressionService, DataValueService dataValueService, CategoryService categoryService,
         OrganisationUnitService organisationUnitService, PeriodService periodService,
         IdentifiableObjectManager idObjectManager, AnalyticsService analyticsService, Notifier notifier,
-        BatchHandlerFactory batchHandlerFactory, CurrentUserService currentUserService )
+        BatchHandlerFactory batchHandlerFactory, CurrentUserService currentUserService,
+        @Qualifier( TASK_EXECUTOR ) ThreadPoolTaskExecutor taskExecutor )
     {
         checkNotNull( predictorService );
         checkNotNull( constantService );
@@ -138,6 +150,7 @@ public class DefaultPredictionService
         checkNotNull( notifier );
         checkNotNull( batchHandlerFactory );
         checkNotNull( currentUserService );
+        checkNotNull( taskExecutor );
 
         this.predictorService = predictorService;
         this.constantService = constantService;
@@ -151,6 +164,7 @@ public class DefaultPredictionService
         this.notifier = notifier;
         this.batchHandlerFactory = batchHandlerFactory;
         this.currentUserService = currentUserService;
+        this.taskExecutor = taskExecutor;
     }
 
     /**
@@ -170,12 +184,23 @@ public class DefaultPredictionService
         this.currentUserService = currentUserService;
     }
 
+    /**
+     * Used only for testing, remove when test is refactored
+     */
+    @Deprecated
+    public void setTaskExecutor( ThreadPoolTaskExecutor taskExecutor )
+    {
+        this.taskExecutor = taskExecutor;
+    }
+
     // -------------------------------------------------------------------------
     // Prediction business logic
     // -------------------------------------------------------------------------
 
     private final static String NON_AOC = ""; // String that is not an Attribute Option Combo
 
+    private final static int ORG_UNITS_PER_PARTITION = 500; // Organisation units to fetch data for at a time
+
     @Override
     public PredictionSummary predictJob( PredictorJobParameters params, JobConfiguration jobId )
     {
@@ -273,7 +298,6 @@ public class DefaultPredictionService
         User currentUser = currentUserService.getCurrentUser();
         Set<String> defaultOptionComboAsSet = Sets.newHashSet( categoryService.getDefaultCategoryOptionCombo().getUid() );
         Map4<OrganisationUnit, Period, String, DimensionalItemObject, Double> emptyMap4 = new Map4<>();
-        MapMapMap<Period, String, DimensionalItemObject, Double> emptyMapMapMap = new MapMapMap<>();
         boolean usingAttributeOptions = hasAttributeOptions( aggregateDimensionItems ) || hasAttributeOptions( nonAggregateDimensionItems );
 
         CategoryOptionCombo outputOptionCombo = predictor.getOutputCombo() == null ?
@@ -291,6 +315,13 @@ public class DefaultPredictionService
 
         predictionSummary.incrementPredictors();
 
+        PredictorContext context = new PredictorContext( generator, skipTest, outputDataElement, aggregates,
+            constantMap, outputPeriods, samplePeriodsMap, usingAttributeOptions, defaultOptionComboAsSet );
+
+        int threadPoolSize = taskExecutor.getMaxPoolSize();
+
+        BatchHandler<DataValue> dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
+
         for ( OrganisationUnitLevel orgUnitLevel : predictor.getOrganisationUnitLevels() )
         {
             List<OrganisationUnit> orgUnitsAtLevel = organisationUnitService.getOrganisationUnitsAtOrgUnitLevels(
@@ -301,7 +332,10 @@ public class DefaultPredictionService
                 continue;
             }
 
-            List<List<OrganisationUnit>> orgUnitLists = Lists.partition(orgUnitsAtLevel, 500);
+            List<List<OrganisationUnit>> orgUnitLists = Lists.partition( orgUnitsAtLevel, ORG_UNITS_PER_PARTITION );
+
+            List<OrganisationUnit> pendingOrgUnits = null;
+            List<Future<List<Prediction>>> pendingPredictions = null;
 
             for ( List<OrganisationUnit> orgUnits : orgUnitLists )
             {
@@ -313,71 +347,166 @@ public class DefaultPredictionService
                     nonAggregateDimensionItems.isEmpty() ? emptyMap4 :
                         getDataValues( nonAggregateDimensionItems, outputPeriods, existingOutputPeriods, orgUnits );
 
-                List<DataValue> predictions = new ArrayList<>();
+                List<Future<List<Prediction>>> predictions = new ArrayList<>();
+
+                int orgUnitsPerTask = Math.max( 1, ( orgUnits.size() + threadPoolSize - 1 ) / threadPoolSize );
 
-                for ( OrganisationUnit orgUnit : orgUnits )
+                for ( List<OrganisationUnit> taskOrgUnits : Lists.partition( orgUnits, orgUnitsPerTask ) )
                 {
-                    MapMapMap<Period, String, DimensionalItemObject, Double> aggregateDataMap = aggregateDataMap4.get( orgUnit );
+                    predictions.add( taskExecutor.submit( () -> predictOrgUnits( context, taskOrgUnits,
+                        aggregateDataMap4, nonAggregateDataMap4 ) ) );
+                }
 
-                    MapMapMap<Period, String, DimensionalItemObject, Double> nonAggregateDataMap =
-                        firstNonNull( nonAggregateDataMap4.get( orgUnit ), emptyMapMapMap );
+                // Write the previous partition while this partition is being predicted
 
-                    applySkipTest( aggregateDataMap, skipTest, constantMap );
+                if ( pendingPredictions != null )
+                {
+                    writePredictions( getPredictedDataValues( pendingPredictions, outputDataElement, outputOptionCombo, storedBy, now ),
+                        outputDataElement, outputOptionCombo, outputPeriods, pendingOrgUnits, storedBy,
+                        dataValueBatchHandler, predictionSummary );
+                }
 
-                    for ( Period period : outputPeriods )
-                    {
-                        ListMapMap<String, String, Double> aggregateSampleMap = getAggregateSamples( aggregateDataMap,
-                            aggregates, samplePeriodsMap.get( period ), constantMap, generator.getMissingValueStrategy() );
+                pendingOrgUnits = orgUnits;
+                pendingPredictions = predictions;
+            }
 
-                        MapMap<String, DimensionalItemObject, Double> nonAggregateSampleMap = firstNonNull(
-                            nonAggregateDataMap.get( period ), new MapMap<>() );
+            writePredictions( getPredictedDataValues( pendingPredictions, outputDataElement, outputOptionCombo, storedBy, now ),
+                outputDataElement, outputOptionCombo, outputPeriods, pendingOrgUnits, storedBy,
+                dataValueBatchHandler, predictionSummary );
+        }
 
-                        Set<String> attributeOptionCombos = usingAttributeOptions ?
-                            Sets.union( aggregateSampleMap.keySet(), nonAggregateSampleMap.keySet() ) : defaultOptionComboAsSet;
+        dataValueBatchHandler.flush();
+    }
 
-                        if ( attributeOptionCombos.isEmpty() && generator.getMissingValueStrategy() == MissingValueStrategy.NEVER_SKIP )
-                        {
-                            attributeOptionCombos = defaultOptionComboAsSet;
-                        }
+    /**
+     * Makes the predictions for a list of organisation units. This runs in a
+     * worker thread, and must not access the database: all data comes from
+     * the data maps fetched for the partition, and the predictions are
+     * converted to data values in the calling thread.
+     *
+     * @param context the predictor context.
+     * @param orgUnits the organisation units to predict for.
+     * @param aggregateDataMap4 the aggregate data of the partition.
+     * @param nonAggregateDataMap4 the non-aggregate data of the partition.
+     * @return the predictions, in organisation unit and period order.
+     */
+    private List<Prediction> predictOrgUnits( PredictorContext context, List<OrganisationUnit> orgUnits,
+        Map4<OrganisationUnit, Period, String, DimensionalItemObject, Double> aggregateDataMap4,
+        Map4<OrganisationUnit, Period, String, DimensionalItemObject, Double> nonAggregateDataMap4 )
+    {
+        Expression generator = context.generator;
+        DataElement outputDataElement = context.outputDataElement;
+        MapMapMap<Period, String, DimensionalItemObject, Double> emptyMapMapMap = new MapMapMap<>();
 
-                        ListMap<String, Double> aggregateSampleMapNonAoc = aggregateSampleMap.get( NON_AOC );
+        List<Prediction> predictions = new ArrayList<>();
 
-                        Map<DimensionalItemObject, Double> nonAggregateSampleMapNonAoc = nonAggregateSampleMap.get( NON_AOC );
+        for ( OrganisationUnit orgUnit : orgUnits )
+        {
+            MapMapMap<Period, String, DimensionalItemObject, Double> aggregateDataMap = aggregateDataMap4.get( orgUnit );
 
-                        for ( String aoc : attributeOptionCombos )
-                        {
-                            if ( NON_AOC.compareTo( aoc ) == 0 )
-                            {
-                                continue;
-                            }
-
-                            ListMap<String, Double> aggregateValueMap = ListMap.union( aggregateSampleMap.get( aoc ), aggregateSampleMapNonAoc );
-
-                            Map<DimensionalItemObject, Double> nonAggregateValueMap = combine( nonAggregateSampleMap.get( aoc ), nonAggregateSampleMapNonAoc );
-
-                            Double value = expressionService.getExpressionValueRegEx( generator, nonAggregateValueMap,
-                                constantMap, null, period.getDaysInPeriod(), aggregateValueMap );
-
-                            if ( value != null && !value.isNaN() && !value.isInfinite() &&
-                                !dataValueIsZeroAndInsignificant( Double.toString( value ), outputDataElement ) )
-                            {
-                                String valueString = outputDataElement.getValueType().isInteger() ?
-                                    Long.toString( Math.round( value ) ) :
-                                    Double.toString( MathUtils.roundFraction( value, 4 ) );
-
-                                predictions.add( new DataValue( outputDataElement,
-                                    periodService.reloadPeriod( period ), orgUnit,
-                                    outputOptionCombo, categoryService.getCategoryOptionCombo( aoc ),
-                                    valueString, storedBy, now, null ) );
-                            }
-                        }
+            MapMapMap<Period, String, DimensionalItemObject, Double> nonAggregateDataMap =
+                firstNonNull( nonAggregateDataMap4.get( orgUnit ), emptyMapMapMap );
+
+            applySkipTest( aggregateDataMap, context.skipTest, context.constantMap );
+
+            for ( Period period : context.outputPeriods )
+            {
+                ListMapMap<String, String, Double> aggregateSampleMap = getAggregateSamples( aggregateDataMap,
+                    context.aggregates, context.samplePeriodsMap.get( period ), context.constantMap, generator.getMissingValueStrategy() );
+
+                MapMap<String, DimensionalItemObject, Double> nonAggregateSampleMap = firstNonNull(
+                    nonAggregateDataMap.get( period ), new MapMap<>() );
+
+                Set<String> attributeOptionCombos = context.usingAttributeOptions ?
+                    Sets.union( aggregateSampleMap.keySet(), nonAggregateSampleMap.keySet() ) : context.defaultOptionComboAsSet;
+
+                if ( attributeOptionCombos.isEmpty() && generator.getMissingValueStrategy() == MissingValueStrategy.NEVER_SKIP )
+                {
+                    attributeOptionCombos = context.defaultOptionComboAsSet;
+                }
+
+                ListMap<String, Double> aggregateSampleMapNonAoc = aggregateSampleMap.get( NON_AOC );
+
+                Map<DimensionalItemObject, Double> nonAggregateSampleMapNonAoc = nonAggregateSampleMap.get( NON_AOC );
+
+                for ( String aoc : attributeOptionCombos )
+                {
+                    if ( NON_AOC.compareTo( aoc ) == 0 )
+                    {
+                        continue;
+                    }
+
+                    ListMap<String, Double> aggregateValueMap = ListMap.union( aggregateSampleMap.get( aoc ), aggregateSampleMapNonAoc );
+
+                    Map<DimensionalItemObject, Double> nonAggregateValueMap = combine( nonAggregateSampleMap.get( aoc ), nonAggregateSampleMapNonAoc );
+
+                    Double value = expressionService.getExpressionValueRegEx( generator, nonAggregateValueMap,
+                        context.constantMap, null, period.getDaysInPeriod(), aggregateValueMap );
+
+                    if ( value != null && !value.isNaN() && !value.isInfinite() &&
+                        !dataValueIsZeroAndInsignificant( Double.toString( value ), outputDataElement ) )
+                    {
+                        String valueString = outputDataElement.getValueType().isInteger() ?
+                            Long.toString( Math.round( value ) ) :
+                            Double.toString( MathUtils.roundFraction( value, 4 ) );
+
+                        predictions.add( new Prediction( orgUnit, period, aoc, valueString ) );
                     }
                 }
+            }
+        }
+
+        return predictions;
+    }
+
+    /**
+     * Waits for the prediction tasks of a partition, and converts their
+     * predictions to data values in task order, so that the result is the
+     * same as when predicting on a single thread.
+     *
+     * @param futures the prediction tasks of the partition.
+     * @param outputDataElement the predictor output data element.
+     * @param outputOptionCombo the predictor output category option combo.
+     * @param storedBy the user storing the predictions.
+     * @param now the time of the predictions.
+     * @return the predicted data values.
+     */
+    private List<DataValue> getPredictedDataValues( List<Future<List<Prediction>>> futures,
+        DataElement outputDataElement, CategoryOptionCombo outputOptionCombo, String storedBy, Date now )
+    {
+        List<DataValue> dataValues = new ArrayList<>();
 
-                writePredictions( predictions, outputDataElement, outputOptionCombo,
-                    outputPeriods, orgUnits, storedBy, predictionSummary );
+        for ( Future<List<Prediction>> future : futures )
+        {
+            for ( Prediction prediction : getPredictions( future ) )
+            {
+                dataValues.add( new DataValue( outputDataElement,
+                    periodService.reloadPeriod( prediction.period ), prediction.orgUnit,
+                    outputOptionCombo, categoryService.getCategoryOptionCombo( prediction.aoc ),
+                    prediction.value, storedBy, now, null ) );
             }
         }
+
+        return dataValues;
+    }
+
+    private List<Prediction> getPredictions( Future<List<Prediction>> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException ex )
+        {
+            throw ex.getCause() instanceof RuntimeException ?
+                (RuntimeException) ex.getCause() : new RuntimeException( ex.getCause() );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException( "Prediction was interrupted", ex );
+        }
     }
 
     private Map<DimensionalItemObject, Double> combine ( Map<DimensionalItemObject, Double> a, Map<DimensionalItemObject, Double> b )
@@ -864,11 +993,12 @@ public class DefaultPredictionService
      * @param outputOptionCombo Predictor output category option commbo.
      * @param periods Periods to predict for.
      * @param orgUnits Organisation units to predict for.
+     * @param dataValueBatchHandler Batch handler shared by all partitions.
      * @param summary Prediction summary to update.
      */
     private void writePredictions( List<DataValue> predictions, DataElement outputDataElement,
         CategoryOptionCombo outputOptionCombo, Set<Period> periods, List<OrganisationUnit> orgUnits,
-        String storedBy, PredictionSummary summary )
+        String storedBy, BatchHandler<DataValue> dataValueBatchHandler, PredictionSummary summary )
     {
         DataExportParams params = new DataExportParams();
         params.setDataElementOperands( Sets.newHashSet( new DataElementOperand( outputDataElement, outputOptionCombo ) ) );
@@ -881,8 +1011,6 @@ public class DefaultPredictionService
         Map<String, DeflatedDataValue> oldValues = oldValueList.stream().collect( Collectors.toMap(
             d -> d.getPeriodId() + "-" + d.getSourceId() + "-" + d.getAttributeOptionComboId(), d -> d ) );
 
-        BatchHandler<DataValue> dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
-
         for ( DataValue newValue : predictions )
         {
             boolean zeroInsignificant = dataValueIsZeroAndInsignificant( newValue.getValue(), newValue.getDataElement() );
@@ -944,7 +1072,72 @@ public class DefaultPredictionService
 
             dataValueBatchHandler.deleteObject( toDelete );
         }
+    }
 
-        dataValueBatchHandler.flush();
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Predictor state which stays the same for all organisation units, and is
+     * shared read-only by the prediction tasks.
+     */
+    private static final class PredictorContext
+    {
+        private final Expression generator;
+
+        private final Expression skipTest;
+
+        private final DataElement outputDataElement;
+
+        private final Set<String> aggregates;
+
+        private final Map<String, Double> constantMap;
+
+        private final Set<Period> outputPeriods;
+
+        private final ListMap<Period, Period> samplePeriodsMap;
+
+        private final boolean usingAttributeOptions;
+
+        private final Set<String> defaultOptionComboAsSet;
+
+        PredictorContext( Expression generator, Expression skipTest, DataElement outputDataElement,
+            Set<String> aggregates, Map<String, Double> constantMap, Set<Period> outputPeriods,
+            ListMap<Period, Period> samplePeriodsMap, boolean usingAttributeOptions, Set<String> defaultOptionComboAsSet )
+        {
+            this.generator = generator;
+            this.skipTest = skipTest;
+            this.outputDataElement = outputDataElement;
+            this.aggregates = aggregates;
+            this.constantMap = constantMap;
+            this.outputPeriods = outputPeriods;
+            this.samplePeriodsMap = samplePeriodsMap;
+            this.usingAttributeOptions = usingAttributeOptions;
+            this.defaultOptionComboAsSet = defaultOptionComboAsSet;
+        }
+    }
+
+    /**
+     * Value predicted for an organisation unit, period and attribute option
+     * combo, before it is turned into a data value.
+     */
+    private static final class Prediction
+    {
+        private final OrganisationUnit orgUnit;
+
+        private final Period period;
+
+        private final String aoc;
+
+        private final String value;
+
+        Prediction( OrganisationUnit orgUnit, Period period, String aoc, String value )
+        {
+            this.orgUnit = orgUnit;
+            this.period = period;
+            this.aoc = aoc;
+            this.value = value;
+        }
     }
 }
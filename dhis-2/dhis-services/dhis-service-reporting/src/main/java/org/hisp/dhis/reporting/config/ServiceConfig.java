@@ -30,11 +30,19 @@ package org.hisp.dhis.reporting.config;
 
 import com.google.common.collect.ImmutableMap;
 import org.hisp.dhis.common.ServiceProvider;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.completeness.DataSetCompletenessService;
 import org.hisp.dhis.completeness.impl.CompulsoryDataSetCompletenessService;
 import org.hisp.dhis.completeness.impl.RegistrationDataSetCompletenessService;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.predictor.DefaultPredictionService;
+import org.hisp.dhis.validation.Validator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author Luciano Fiandesio
@@ -52,4 +60,49 @@ public class ServiceConfig
             "compulsory", compulsoryDataSetCompletenessService ) );
         return serviceProvider;
     }
+
+    /**
+     * Long-lived thread pool shared by all validation runs. The pool size is
+     * read from the validation.thread_pool.size configuration property, where
+     * 0 means one less than the number of CPU cores. The work queue is bounded,
+     * and when it is full the submitting thread runs the task itself, which
+     * throttles the producer of validation tasks.
+     */
+    @Bean( Validator.TASK_EXECUTOR )
+    public ThreadPoolTaskExecutor validationTaskExecutor( DhisConfigurationProvider configurationProvider )
+    {
+        return newTaskExecutor( configurationProvider, ConfigurationKey.VALIDATION_THREAD_POOL_SIZE, "validation-" );
+    }
+
+    /**
+     * Long-lived thread pool shared by all prediction runs, configured like the
+     * validation thread pool through the prediction.thread_pool.size
+     * configuration property.
+     */
+    @Bean( DefaultPredictionService.TASK_EXECUTOR )
+    public ThreadPoolTaskExecutor predictionTaskExecutor( DhisConfigurationProvider configurationProvider )
+    {
+        return newTaskExecutor( configurationProvider, ConfigurationKey.PREDICTION_THREAD_POOL_SIZE, "prediction-" );
+    }
+
+    private ThreadPoolTaskExecutor newTaskExecutor( DhisConfigurationProvider configurationProvider,
+        ConfigurationKey poolSizeKey, String threadNamePrefix )
+    {
+        int poolSize = Integer.parseInt( configurationProvider.getProperty( poolSizeKey ) );
+
+        if ( poolSize <= 0 )
+        {
+            int cpuCores = SystemUtils.getCpuCores();
+
+            poolSize = cpuCores > 2 ? cpuCores - 1 : cpuCores;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize( poolSize );
+        executor.setMaxPoolSize( poolSize );
+        executor.setQueueCapacity( poolSize * 2 );
+        executor.setThreadNamePrefix( threadNamePrefix );
+        executor.setRejectedExecutionHandler( new ThreadPoolExecutor.CallerRunsPolicy() );
+        return executor;
+    }
 }
@@ -50,6 +50,7 @@ import org.hisp.dhis.expression.Operator;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.system.util.ExpressionUtils;
 import org.hisp.dhis.system.util.MathUtils;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -134,6 +135,17 @@ public class DataValidationTask
 
     private MapMapMap<Long, String, DimensionalItemObject, Double> slidingWindowEventMap;
 
+    // Matrices of the data for the current period, built when first needed:
+    private ValueMatrix dataMatrix;
+
+    private ValueMatrix slidingWindowMatrix;
+
+    // Values of the current rule for all rows of the matrices, or null
+    // if the expression must be evaluated for each organisation unit:
+    private Double[] leftSideMatrixValues;
+
+    private Double[] rightSideMatrixValues;
+
     public void init( List<OrganisationUnit> orgUnits, ValidationRunContext context, AnalyticsService analyticsService )
     {
         this.orgUnits = orgUnits;
@@ -164,6 +176,10 @@ public class DataValidationTask
     /**
      * Get the data needed for this task, then evaluate each combination
      * of organisation unit / period / validation rule.
+     * <p>
+     * For each period, each rule is evaluated over the data of all the
+     * organisation units of the task at once, and the results are then
+     * checked organisation unit by organisation unit.
      */
     private void runInternal()
     {
@@ -183,28 +199,52 @@ public class DataValidationTask
 
                 getData();
 
-                for ( OrganisationUnit ou : orgUnits )
+                dataMatrix = null;
+                slidingWindowMatrix = null;
+
+                for ( ValidationRuleExtended r : periodTypeX.getRuleXs() )
                 {
-                    orgUnit = ou;
-                    orgUnitId = ou.getId();
+                    ruleX = r;
 
-                    for ( ValidationRuleExtended r : periodTypeX.getRuleXs() )
+                    if ( context.isAnalysisComplete() )
                     {
-                        ruleX = r;
-
-                        if ( context.isAnalysisComplete() )
-                        {
-                            break loop;
-                        }
-                        validationResults = new HashSet<>();
-                        validateRule();
-                        addValidationResultsToContext();
+                        break loop;
                     }
+
+                    long startTime = System.nanoTime();
+
+                    validateRuleForOrgUnits();
+
+                    context.addRuleTime( ruleX.getRule(), System.nanoTime() - startTime );
                 }
             }
         }
     }
 
+    /**
+     * Validates the current rule / period for each organisation unit.
+     */
+    private void validateRuleForOrgUnits()
+    {
+        leftSideMatrixValues = getMatrixValues( ruleX.getRule().getLeftSide(), ruleX.getLeftSlidingWindow() );
+        rightSideMatrixValues = getMatrixValues( ruleX.getRule().getRightSide(), ruleX.getRightSlidingWindow() );
+
+        for ( OrganisationUnit ou : orgUnits )
+        {
+            orgUnit = ou;
+            orgUnitId = ou.getId();
+
+            if ( context.isAnalysisComplete() )
+            {
+                return;
+            }
+
+            validationResults = new HashSet<>();
+            validateRule();
+            addValidationResultsToContext();
+        }
+    }
+
     /**
      * Validates one rule / period by seeing which attribute option combos exist
      * for that data, and then iterating through those attribute option combos.
@@ -219,9 +259,9 @@ public class DataValidationTask
         }
 
         Map<String, Double> leftSideValues = getValuesForExpression( ruleX.getRule().getLeftSide(),
-            ruleX.getLeftSlidingWindow() );
+            ruleX.getLeftSlidingWindow(), leftSideMatrixValues );
         Map<String, Double> rightSideValues = getValuesForExpression( ruleX.getRule().getRightSide(),
-            ruleX.getRightSlidingWindow() );
+            ruleX.getRightSlidingWindow(), rightSideMatrixValues );
 
         Set<String> attributeOptionCombos = Sets.union( leftSideValues.keySet(), rightSideValues.keySet() );
 
@@ -344,14 +384,21 @@ public class DataValidationTask
      *
      * @param expression    left or right side expression.
      * @param slidingWindow whether to use sliding window.
+     * @param matrixValues  values of the expression for all rows of the
+     *                      matrix, or null if not evaluated over the matrix.
      * @return the values grouped by attribute option combo.
      */
-    private Map<String, Double> getValuesForExpression( Expression expression, boolean slidingWindow )
+    private Map<String, Double> getValuesForExpression( Expression expression, boolean slidingWindow,
+        Double[] matrixValues )
     {
         if ( expression == null )
         {
             return new HashMap<>();
         }
+        else if ( matrixValues != null )
+        {
+            return getValueMatrix( slidingWindow ).getOrgUnitValues( orgUnitId, matrixValues );
+        }
         else if ( slidingWindow )
         {
             return getExpressionValueMap( expression, slidingWindowEventMap );
@@ -362,6 +409,56 @@ public class DataValidationTask
         }
     }
 
+    /**
+     * Evaluates an expression (left side or right side) over the value matrix
+     * of all the organisation units in this task.
+     *
+     * @param expression    left or right side expression.
+     * @param slidingWindow whether to use sliding window.
+     * @return the values for all rows of the matrix, or null if the
+     *         expression must be evaluated for each organisation unit.
+     */
+    private Double[] getMatrixValues( Expression expression, boolean slidingWindow )
+    {
+        if ( expression == null || expression.getExpression() == null )
+        {
+            return null;
+        }
+
+        ValueMatrix matrix = getValueMatrix( slidingWindow );
+
+        return expressionService.getExpressionValues( ExpressionUtils.normalizeExpression( expression.getExpression() ),
+            matrix.getItemColumns(), matrix.getValues(), matrix.getMissing(), matrix.getRowCount(),
+            context.getConstantMap(), period.getDaysInPeriod(),
+            ObjectUtils.firstNonNull( expression.getMissingValueStrategy(), NEVER_SKIP ) );
+    }
+
+    /**
+     * Gets the value matrix for the current period, building it if needed.
+     *
+     * @param slidingWindow whether to use sliding window.
+     * @return the value matrix.
+     */
+    private ValueMatrix getValueMatrix( boolean slidingWindow )
+    {
+        if ( slidingWindow )
+        {
+            if ( slidingWindowMatrix == null )
+            {
+                slidingWindowMatrix = new ValueMatrix( orgUnits, slidingWindowEventMap );
+            }
+
+            return slidingWindowMatrix;
+        }
+
+        if ( dataMatrix == null )
+        {
+            dataMatrix = new ValueMatrix( orgUnits, dataMap );
+        }
+
+        return dataMatrix;
+    }
+
     /**
      * Adds any validation results we found to the validation context.
      */
@@ -369,7 +466,7 @@ public class DataValidationTask
     {
         if ( validationResults.size() > 0 )
         {
-            context.getValidationResults().addAll( validationResults );
+            context.addValidationResults( validationResults );
         }
     }
 
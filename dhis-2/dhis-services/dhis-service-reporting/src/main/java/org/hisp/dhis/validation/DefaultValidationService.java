@@ -45,6 +45,7 @@ import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueService;
 import org.hisp.dhis.expression.ExpressionService;
+import org.hisp.dhis.jdbc.batchhandler.ValidationResultBatchHandler;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.Period;
@@ -56,6 +57,7 @@ import org.hisp.dhis.system.util.Clock;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.validation.notification.ValidationNotificationService;
+import org.hisp.quick.BatchHandlerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -97,6 +99,8 @@ public class DefaultValidationService
 
     private final ValidationResultService validationResultService;
 
+    private final BatchHandlerFactory batchHandlerFactory;
+
     private AnalyticsService analyticsService;
     
     private CurrentUserService currentUserService;
@@ -106,7 +110,8 @@ public class DefaultValidationService
         CategoryService categoryService, ConstantService constantService,
         ValidationNotificationService notificationService, ValidationRuleService validationRuleService,
         ApplicationContext applicationContext, ValidationResultService validationResultService,
-        AnalyticsService analyticsService, CurrentUserService currentUserService )
+        BatchHandlerFactory batchHandlerFactory, AnalyticsService analyticsService,
+        CurrentUserService currentUserService )
     {
         checkNotNull( periodService );
         checkNotNull( organisationUnitService );
@@ -119,6 +124,7 @@ public class DefaultValidationService
         checkNotNull( validationRuleService );
         checkNotNull( applicationContext );
         checkNotNull( validationResultService );
+        checkNotNull( batchHandlerFactory );
         checkNotNull( analyticsService );
         checkNotNull( currentUserService );
 
@@ -133,6 +139,7 @@ public class DefaultValidationService
         this.validationRuleService = validationRuleService;
         this.applicationContext = applicationContext;
         this.validationResultService = validationResultService;
+        this.batchHandlerFactory = batchHandlerFactory;
         this.analyticsService = analyticsService;
         this.currentUserService = currentUserService;
     }
@@ -175,18 +182,34 @@ public class DefaultValidationService
 
         clock.logTime( "Initialized validation analysis" );
 
-        Collection<ValidationResult> results = Validator.validate( context, applicationContext, analyticsService );
+        Collection<ValidationResult> results;
 
-        if ( context.isPersistResults() )
+        try
+        {
+            results = Validator.validate( context, applicationContext, analyticsService );
+        }
+        finally
         {
-            validationResultService.saveValidationResults( context.getValidationResults() );
+            if ( context.getResultWriter() != null )
+            {
+                int written = context.getResultWriter().flush();
+
+                clock.logTime( "Persisted " + written + " new validation results" );
+            }
         }
 
-        clock.logTime( "Finished validation analysis, " +  context.getValidationResults().size() + " results").stop();
+        clock.logTime( "Finished validation analysis, " + context.getValidationResultCount() + " results" ).stop();
 
         if ( context.isSendNotifications() )
         {
-            notificationService.sendNotifications( Sets.newHashSet( results ) );
+            if ( context.isRetainResults() )
+            {
+                notificationService.sendNotifications( Sets.newHashSet( results ) );
+            }
+            else
+            {
+                notificationService.sendUnsentNotifications();
+            }
         }
 
         return results;
@@ -283,7 +306,12 @@ public class DefaultValidationService
 
         Map<PeriodType, PeriodTypeExtended> periodTypeXMap = new HashMap<>();
 
-        addPeriodsToContext( periodTypeXMap, parameters.getPeriods() );
+        // Results are written by a batch handler, which needs persisted periods
+
+        Collection<Period> periods = parameters.isPersistResults() ?
+            periodService.reloadPeriods( new ArrayList<>( parameters.getPeriods() ) ) : parameters.getPeriods();
+
+        addPeriodsToContext( periodTypeXMap, periods );
         addRulesToContext( periodTypeXMap, parameters.getRules() );
         removeAnyUnneededPeriodTypes( periodTypeXMap );
 
@@ -293,13 +321,21 @@ public class DefaultValidationService
             .withConstantMap( constantService.getConstantMap() )
             .withInitialResults( validationResultService
                 .getValidationResults( parameterOrgUnit,
-                    parameters.isIncludeOrgUnitDescendants(), parameters.getRules(), parameters.getPeriods()) )
+                    parameters.isIncludeOrgUnitDescendants(), parameters.getRules(), periods ) )
             .withSendNotifications( parameters.isSendNotifications() )
             .withPersistResults( parameters.isPersistResults() )
+            .withRetainResults( parameters.isRetainResults() )
+            .withJobConfiguration( parameters.getJobConfiguration() )
             .withAttributeCombo( parameters.getAttributeOptionCombo() )
             .withDefaultAttributeCombo( categoryService.getDefaultCategoryOptionCombo() )
             .withMaxResults( parameters.getMaxResults() );
 
+        if ( parameters.isPersistResults() )
+        {
+            builder.withResultWriter( new ValidationResultWriter(
+                batchHandlerFactory.createBatchHandler( ValidationResultBatchHandler.class ).init() ) );
+        }
+
         if ( currentUser != null )
         {
             builder
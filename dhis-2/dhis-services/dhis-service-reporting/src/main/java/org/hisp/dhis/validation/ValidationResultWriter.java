@@ -0,0 +1,83 @@
+package org.hisp.dhis.validation;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.quick.BatchHandler;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Writes validation results to the database while a validation run is in
+ * progress, so that the results of a large run do not have to be held in
+ * memory until the run is complete. Shared by the validation tasks of a run.
+ */
+public class ValidationResultWriter
+{
+    private final BatchHandler<ValidationResult> batchHandler;
+
+    private int count = 0;
+
+    public ValidationResultWriter( BatchHandler<ValidationResult> batchHandler )
+    {
+        this.batchHandler = batchHandler;
+    }
+
+    /**
+     * Adds validation results to the batch, which is written to the database
+     * whenever it is full.
+     *
+     * @param validationResults the validation results to write.
+     */
+    public synchronized void write( Collection<ValidationResult> validationResults )
+    {
+        Date created = new Date();
+
+        for ( ValidationResult validationResult : validationResults )
+        {
+            validationResult.setCreated( created );
+
+            batchHandler.addObject( validationResult );
+        }
+
+        count += validationResults.size();
+    }
+
+    /**
+     * Writes any remaining validation results to the database.
+     *
+     * @return the number of validation results written during the run.
+     */
+    public synchronized int flush()
+    {
+        batchHandler.flush();
+
+        return count;
+    }
+}
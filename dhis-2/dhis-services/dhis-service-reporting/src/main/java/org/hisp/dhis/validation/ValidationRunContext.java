@@ -35,6 +35,7 @@ import org.hisp.dhis.category.CategoryOptionGroup;
 import org.hisp.dhis.common.MapMapMap;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.scheduling.JobConfiguration;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
@@ -46,6 +47,8 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class keeps track of a validation analysis. It contains information about the initial params of the analysis,
@@ -61,6 +64,10 @@ public class ValidationRunContext
 
     private Queue<ValidationResult> validationResults;
 
+    private AtomicInteger validationResultCount = new AtomicInteger();
+
+    private Map<ValidationRule, LongAdder> ruleTimes = new ConcurrentHashMap<>();
+
     private List<OrganisationUnit> orgUnits;
 
     private List<PeriodTypeExtended> periodTypeXs;
@@ -85,6 +92,12 @@ public class ValidationRunContext
 
     private boolean persistResults = false;
 
+    private boolean retainResults = true;
+
+    private ValidationResultWriter resultWriter;
+
+    private JobConfiguration jobConfiguration;
+
     private MapMapMap<OrganisationUnit, ValidationRule, Period, List<ValidationResult>> initialValidationResults = new MapMapMap<>();
 
     private ValidationRunContext()
@@ -156,11 +169,36 @@ public class ValidationRunContext
         return persistResults;
     }
 
+    public boolean isRetainResults()
+    {
+        return retainResults;
+    }
+
+    public ValidationResultWriter getResultWriter()
+    {
+        return resultWriter;
+    }
+
+    public JobConfiguration getJobConfiguration()
+    {
+        return jobConfiguration;
+    }
+
     public Queue<ValidationResult> getValidationResults()
     {
         return validationResults;
     }
 
+    public int getValidationResultCount()
+    {
+        return validationResultCount.get();
+    }
+
+    public Map<ValidationRule, LongAdder> getRuleTimes()
+    {
+        return ruleTimes;
+    }
+
     public Map<Long, Period> getPeriodIdMap()
     {
         return periodIdMap;
@@ -209,7 +247,40 @@ public class ValidationRunContext
 
     public boolean isAnalysisComplete()
     {
-        return validationResults.size() >= maxResults;
+        return validationResultCount.get() >= maxResults;
+    }
+
+    /**
+     * Adds validation results found by a validation task. The results are
+     * written to the result writer if there is one, and are kept in memory
+     * only if they are to be returned to the caller.
+     *
+     * @param results the validation results found.
+     */
+    public void addValidationResults( Collection<ValidationResult> results )
+    {
+        validationResultCount.addAndGet( results.size() );
+
+        if ( resultWriter != null )
+        {
+            resultWriter.write( results );
+        }
+
+        if ( retainResults )
+        {
+            validationResults.addAll( results );
+        }
+    }
+
+    /**
+     * Adds time spent evaluating a validation rule.
+     *
+     * @param rule the validation rule.
+     * @param nanos the time spent, in nanoseconds.
+     */
+    public void addRuleTime( ValidationRule rule, long nanos )
+    {
+        ruleTimes.computeIfAbsent( rule, r -> new LongAdder() ).add( nanos );
     }
 
     // -------------------------------------------------------------------------
@@ -341,9 +412,39 @@ public class ValidationRunContext
             return this;
         }
 
+        /**
+         * If set to false, results are not kept in memory. Should only be used
+         * together with a result writer.
+         *
+         * @param retainResults true if results should be kept, false if not.
+         */
+        public Builder withRetainResults( boolean retainResults )
+        {
+            this.context.retainResults = retainResults;
+            return this;
+        }
+
+        /**
+         * Sets the writer which persists results while the analysis is running.
+         *
+         * @param resultWriter the result writer.
+         */
+        public Builder withResultWriter( ValidationResultWriter resultWriter )
+        {
+            this.context.resultWriter = resultWriter;
+            return this;
+        }
+
+        public Builder withJobConfiguration( JobConfiguration jobConfiguration )
+        {
+            this.context.jobConfiguration = jobConfiguration;
+            return this;
+        }
+
         public Builder withInitialResults( Collection<ValidationResult> results )
         {
             this.context.validationResults.addAll( results );
+            this.context.validationResultCount.addAndGet( results.size() );
 
             results.forEach( validationResult -> {
                 List<ValidationResult> res = context.initialValidationResults
@@ -29,17 +29,25 @@ package org.hisp.dhis.validation;
  */
 
 import com.google.common.collect.Lists;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.category.CategoryService;
-import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.system.notification.Notifier;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Evaluates validation rules.
@@ -48,12 +56,28 @@ import java.util.concurrent.TimeUnit;
  */
 public class Validator
 {
+    private static final Log log = LogFactory.getLog( Validator.class );
+
+    /**
+     * Name of the shared thread pool bean which runs validation tasks.
+     */
+    public static final String TASK_EXECUTOR = "validationTaskExecutor";
+
+    /**
+     * Number of slowest validation rules to report when a run is finished.
+     */
+    private static final int SLOWEST_RULES_REPORTED = 10;
+
     /**
      * Evaluates validation rules for a collection of organisation units. This
      * method breaks the job down by organisation unit. It assigns the
      * evaluation for each organisation unit to a task that can be evaluated
      * independently in a multi-threaded environment.
      * <p/>
+     * The tasks run on the shared validation thread pool. The pool has a
+     * bounded queue, and when it is full the calling thread runs the task
+     * itself, so tasks are not created faster than they can be evaluated.
+     * <p/>
      * Return early with no results if there are no organisation units
      * or no validation rules.
      *
@@ -64,36 +88,31 @@ public class Validator
     {
         CategoryService categoryService = (CategoryService)
             applicationContext.getBean( CategoryService.class );
-                
-        int threadPoolSize = getThreadPoolSize( context );
 
-        if ( threadPoolSize == 0 || context.getPeriodTypeXs().isEmpty() )
+        if ( context.getOrgUnits().isEmpty() || context.getPeriodTypeXs().isEmpty() )
         {
             return context.getValidationResults();
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool( threadPoolSize );
+        AsyncTaskExecutor executor = (AsyncTaskExecutor) applicationContext.getBean( TASK_EXECUTOR );
+
+        Notifier notifier = (Notifier) applicationContext.getBean( Notifier.class );
 
         List<List<OrganisationUnit>> orgUnitLists = Lists.partition( context.getOrgUnits(), ValidationRunContext.ORG_UNITS_PER_TASK );
 
+        List<Future<?>> futures = new ArrayList<>();
+
         for ( List<OrganisationUnit> orgUnits : orgUnitLists )
         {
             ValidationTask task = (ValidationTask) applicationContext.getBean( DataValidationTask.NAME );
             task.init( orgUnits, context, analyticsService );
 
-            executor.execute( task );
+            futures.add( executor.submit( task ) );
         }
 
-        executor.shutdown();
+        waitForTasks( context, futures, notifier );
 
-        try
-        {
-            executor.awaitTermination( 6, TimeUnit.HOURS );
-        }
-        catch ( InterruptedException e )
-        {
-            executor.shutdownNow();
-        }
+        notifyRuleTimes( context, notifier );
 
         reloadAttributeOptionCombos( context.getValidationResults(), categoryService );
 
@@ -101,28 +120,84 @@ public class Validator
     }
 
     /**
-     * Determines how many threads we should use for testing validation rules.
-     * 
+     * Waits for the validation tasks to finish, reporting progress through
+     * the notifier for every tenth of the tasks finished.
+     *
      * @param context validation run context
-     * @return number of threads we should use for testing validation rules
+     * @param futures the futures of the submitted tasks
+     * @param notifier the notifier
      */
-    private static int getThreadPoolSize( ValidationRunContext context )
+    private static void waitForTasks( ValidationRunContext context, List<Future<?>> futures, Notifier notifier )
     {
-        int threadPoolSize = SystemUtils.getCpuCores();
+        int lastPercent = 0;
 
-        if ( threadPoolSize > 2 )
+        for ( int i = 0; i < futures.size(); i++ )
         {
-            threadPoolSize--;
+            try
+            {
+                futures.get( i ).get();
+            }
+            catch ( InterruptedException e )
+            {
+                futures.forEach( f -> f.cancel( true ) );
+
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+            catch ( ExecutionException e )
+            {
+                futures.forEach( f -> f.cancel( true ) );
+
+                throw new RuntimeException( "Validation task failed", e.getCause() );
+            }
+
+            int percent = ( i + 1 ) * 100 / futures.size();
+
+            if ( percent / 10 > lastPercent / 10 )
+            {
+                notify( context, notifier, String.format( "Validated %d of %d organisation units (%d%%), %d results",
+                    Math.min( ( i + 1 ) * ValidationRunContext.ORG_UNITS_PER_TASK, context.getOrgUnits().size() ),
+                    context.getOrgUnits().size(), percent, context.getValidationResultCount() ) );
+
+                lastPercent = percent;
+            }
         }
+    }
 
-        int numberOfTasks = context.getNumberOfTasks();
+    /**
+     * Reports the validation rules which took the most time to evaluate.
+     *
+     * @param context validation run context
+     * @param notifier the notifier
+     */
+    private static void notifyRuleTimes( ValidationRunContext context, Notifier notifier )
+    {
+        context.getRuleTimes().entrySet().stream()
+            .sorted( Comparator.comparingLong( ( Map.Entry<ValidationRule, LongAdder> e ) -> e.getValue().sum() ).reversed() )
+            .limit( SLOWEST_RULES_REPORTED )
+            .forEach( e -> notify( context, notifier, String.format( "Validation rule %s (%s) took %d ms",
+                e.getKey().getName(), e.getKey().getUid(), TimeUnit.NANOSECONDS.toMillis( e.getValue().sum() ) ) ) );
+    }
 
-        if ( threadPoolSize > numberOfTasks )
+    /**
+     * Logs a message, and sends it to the notifier if the validation run is
+     * part of a job.
+     *
+     * @param context validation run context
+     * @param notifier the notifier
+     * @param message the message
+     */
+    private static void notify( ValidationRunContext context, Notifier notifier, String message )
+    {
+        log.info( message );
+
+        JobConfiguration jobConfiguration = context.getJobConfiguration();
+
+        if ( jobConfiguration != null )
         {
-            threadPoolSize = numberOfTasks;
+            notifier.notify( jobConfiguration, message );
         }
-
-        return threadPoolSize;
     }
 
     /**
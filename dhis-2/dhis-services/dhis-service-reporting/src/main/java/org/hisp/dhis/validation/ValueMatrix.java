@@ -0,0 +1,205 @@
+package org.hisp.dhis.validation;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.MapMapMap;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.system.util.MathUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hisp.dhis.validation.DataValidationTask.NON_AOC;
+
+/**
+ * Dense matrix of the values used by a validation task for one period. It
+ * has a row for each organisation unit and attribute option combo with data,
+ * and a column for each dimensional item. The values without an attribute
+ * option combo are added to each row of their organisation unit.
+ * <p>
+ * The expressions of all the validation rules of a period type can then be
+ * evaluated over the whole matrix, instead of building a value map for each
+ * organisation unit and attribute option combo.
+ */
+class ValueMatrix
+{
+    private final Map<String, Integer> itemColumns = new HashMap<>();
+
+    private final Map<Long, int[]> orgUnitRows = new HashMap<>();
+
+    private final List<String> rowAocs = new ArrayList<>();
+
+    private final double[][] values;
+
+    private final boolean[][] missing;
+
+    ValueMatrix( List<OrganisationUnit> orgUnits, MapMapMap<Long, String, DimensionalItemObject, Double> valueMap )
+    {
+        for ( OrganisationUnit orgUnit : orgUnits )
+        {
+            Map<String, Map<DimensionalItemObject, Double>> aocValues = valueMap.get( orgUnit.getId() );
+
+            if ( aocValues == null )
+            {
+                continue;
+            }
+
+            int firstRow = rowAocs.size();
+
+            for ( Map.Entry<String, Map<DimensionalItemObject, Double>> entry : aocValues.entrySet() )
+            {
+                if ( NON_AOC.equals( entry.getKey() ) )
+                {
+                    continue;
+                }
+
+                rowAocs.add( entry.getKey() );
+
+                addColumns( entry.getValue() );
+            }
+
+            addColumns( aocValues.get( NON_AOC ) );
+
+            orgUnitRows.put( orgUnit.getId(), new int[] { firstRow, rowAocs.size() } );
+        }
+
+        values = new double[itemColumns.size()][rowAocs.size()];
+        missing = new boolean[itemColumns.size()][rowAocs.size()];
+
+        for ( boolean[] column : missing )
+        {
+            Arrays.fill( column, true );
+        }
+
+        for ( Map.Entry<Long, int[]> entry : orgUnitRows.entrySet() )
+        {
+            Map<String, Map<DimensionalItemObject, Double>> aocValues = valueMap.get( entry.getKey() );
+
+            Map<DimensionalItemObject, Double> nonAocValues = aocValues.get( NON_AOC );
+
+            for ( int row = entry.getValue()[0]; row < entry.getValue()[1]; row++ )
+            {
+                setValues( row, aocValues.get( rowAocs.get( row ) ) );
+                setValues( row, nonAocValues );
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Gets the expression values of an organisation unit by attribute option
+     * combo, leaving out the rows which were skipped or are not valid numbers.
+     *
+     * @param orgUnitId the organisation unit id.
+     * @param rowValues the expression values of all rows in the matrix.
+     * @return the values by attribute option combo uid.
+     */
+    Map<String, Double> getOrgUnitValues( long orgUnitId, Double[] rowValues )
+    {
+        Map<String, Double> orgUnitValues = new HashMap<>();
+
+        int[] rows = orgUnitRows.get( orgUnitId );
+
+        if ( rows != null )
+        {
+            for ( int row = rows[0]; row < rows[1]; row++ )
+            {
+                if ( MathUtils.isValidDouble( rowValues[row] ) )
+                {
+                    orgUnitValues.put( rowAocs.get( row ), rowValues[row] );
+                }
+            }
+        }
+
+        return orgUnitValues;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void addColumns( Map<DimensionalItemObject, Double> itemValues )
+    {
+        if ( itemValues != null )
+        {
+            for ( DimensionalItemObject item : itemValues.keySet() )
+            {
+                itemColumns.putIfAbsent( item.getDimensionItem(), itemColumns.size() );
+            }
+        }
+    }
+
+    private void setValues( int row, Map<DimensionalItemObject, Double> itemValues )
+    {
+        if ( itemValues != null )
+        {
+            for ( Map.Entry<DimensionalItemObject, Double> entry : itemValues.entrySet() )
+            {
+                if ( entry.getValue() != null )
+                {
+                    int column = itemColumns.get( entry.getKey().getDimensionItem() );
+
+                    values[column][row] = entry.getValue();
+                    missing[column][row] = false;
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    Map<String, Integer> getItemColumns()
+    {
+        return itemColumns;
+    }
+
+    double[][] getValues()
+    {
+        return values;
+    }
+
+    boolean[][] getMissing()
+    {
+        return missing;
+    }
+
+    int getRowCount()
+    {
+        return rowAocs.size();
+    }
+}
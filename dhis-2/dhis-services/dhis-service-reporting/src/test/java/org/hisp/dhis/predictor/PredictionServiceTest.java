@@ -63,6 +63,8 @@ import org.hisp.quick.BatchHandlerFactory;
 import org.joda.time.DateTime;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Date;
 import java.util.HashSet;
@@ -114,6 +116,10 @@ public class PredictionServiceTest
     @Autowired
     private BatchHandlerFactory batchHandlerFactory;
 
+    @Autowired
+    @Qualifier( DefaultPredictionService.TASK_EXECUTOR )
+    private ThreadPoolTaskExecutor taskExecutor;
+
     private OrganisationUnitLevel orgUnitLevel1;
 
     private DataElement dataElementA;
@@ -274,6 +280,7 @@ public class PredictionServiceTest
     public void tearDownTest()
     {
         setDependency( predictionService, "currentUserService", currentUserService, CurrentUserService.class );
+        setDependency( predictionService, "taskExecutor", taskExecutor, ThreadPoolTaskExecutor.class );
     }
 
     // -------------------------------------------------------------------------
@@ -338,6 +345,15 @@ public class PredictionServiceTest
             + " Unch " + summary.getUnchanged();
     }
 
+    private ThreadPoolTaskExecutor newTaskExecutor( int poolSize )
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize( poolSize );
+        executor.setMaxPoolSize( poolSize );
+        executor.initialize();
+        return executor;
+    }
+
     private void setupTestData()
     {
         // dataElementA - 2001
@@ -544,6 +560,58 @@ public class PredictionServiceTest
         assertEquals( "18.14", getDataValue( dataElementX, altCombo, sourceB, makeMonth( 2004, 7 ) ) );
     }
 
+    @Test
+    public void testPredictParallelSameAsSequential()
+    {
+        setupTestData();
+
+        Predictor sequential = createPredictor( dataElementX, defaultCombo, "PredictSequentialSingleThread",
+            expressionA, null, periodTypeMonthly, orgUnitLevel1, 3, 1, 2 );
+        Predictor parallel = createPredictor( dataElementX, altCombo, "PredictParallelThreads",
+            expressionA, null, periodTypeMonthly, orgUnitLevel1, 3, 1, 2 );
+
+        ThreadPoolTaskExecutor singleThreadExecutor = newTaskExecutor( 1 );
+        ThreadPoolTaskExecutor multiThreadExecutor = newTaskExecutor( 4 );
+
+        try
+        {
+            setDependency( predictionService, "taskExecutor", singleThreadExecutor, ThreadPoolTaskExecutor.class );
+
+            PredictionSummary sequentialSummary = new PredictionSummary();
+
+            predictionService.predict( sequential, monthStart( 2001, 7 ), monthStart( 2005, 12 ), sequentialSummary );
+
+            setDependency( predictionService, "taskExecutor", multiThreadExecutor, ThreadPoolTaskExecutor.class );
+
+            PredictionSummary parallelSummary = new PredictionSummary();
+
+            predictionService.predict( parallel, monthStart( 2001, 7 ), monthStart( 2005, 12 ), parallelSummary );
+
+            assertEquals( "Pred 1 Ins 100 Upd 0 Del 0 Unch 0", shortSummary( sequentialSummary ) );
+            assertEquals( shortSummary( sequentialSummary ), shortSummary( parallelSummary ) );
+
+            for ( OrganisationUnit source : Lists.newArrayList( sourceA, sourceB, sourceG ) )
+            {
+                for ( int year = 2001; year <= 2005; year++ )
+                {
+                    for ( int month = 1; month <= 12; month++ )
+                    {
+                        Period period = makeMonth( year, month );
+
+                        assertEquals( source.getName() + " " + period.getIsoDate(),
+                            getDataValue( dataElementX, defaultCombo, source, period ),
+                            getDataValue( dataElementX, altCombo, source, period ) );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            singleThreadExecutor.shutdown();
+            multiThreadExecutor.shutdown();
+        }
+    }
+
     @Test
     public void testGetPredictionsSeasonalWithOutbreak()
     {
@@ -29,12 +29,14 @@ package org.hisp.dhis.validation;
  */
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.hisp.dhis.DhisTest;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.*;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
@@ -49,13 +51,19 @@ import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.*;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.validation.notification.ValidationNotificationTemplate;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
 import static org.hisp.dhis.expression.Expression.SEPARATOR;
 import static org.hisp.dhis.expression.ExpressionService.SYMBOL_DAYS;
 import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
@@ -97,6 +105,16 @@ public class ValidationServiceTest
     @Autowired
     private PeriodService periodService;
 
+    @Autowired
+    private ValidationResultService validationResultService;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    @Qualifier( Validator.TASK_EXECUTOR )
+    private ThreadPoolTaskExecutor validationTaskExecutor;
+
     private DataElement dataElementA;
     private DataElement dataElementB;
     private DataElement dataElementC;
@@ -476,6 +494,11 @@ public class ValidationServiceTest
         return sb.toString();
     }
 
+    private Set<Long> getRuleIds( Collection<ValidationResult> results )
+    {
+        return results.stream().map( r -> r.getValidationRule().getId() ).collect( Collectors.toSet() );
+    }
+
     private void useDataValue( DataElement e, Period p, OrganisationUnit s, String value )
     {
         dataValueService.addDataValue( createDataValue( e, p, s, optionCombo, optionCombo, value ) );
@@ -671,6 +694,103 @@ public class ValidationServiceTest
         assertResultsEquals( reference, results );
     }
 
+    @Test
+    public void testValidatePersistResults()
+    {
+        useDataValue( dataElementA, periodA, sourceA, "1" );
+        useDataValue( dataElementB, periodA, sourceA, "2" );
+        useDataValue( dataElementC, periodA, sourceA, "3" );
+        useDataValue( dataElementD, periodA, sourceA, "4" );
+
+        validationRuleService.saveValidationRule( validationRuleA );
+        validationRuleService.saveValidationRule( validationRuleB );
+
+        // Transient copy of period A, which is reloaded before results are written
+
+        Period period = createPeriod( periodTypeMonthly, getDate( 2000, 3, 1 ), getDate( 2000, 3, 31 ) );
+
+        long taskCount = validationTaskExecutor.getThreadPoolExecutor().getTaskCount();
+
+        Collection<ValidationResult> results = validationService.validationAnalysis( validationService.newParamsBuilder( dataSetMonthly, sourceA, period )
+            .withPersistResults( true )
+            .build() );
+
+        Collection<ValidationResult> reference = new HashSet<>();
+
+        reference.add( new ValidationResult( validationRuleA, periodA, sourceA, defaultCombo, 3.0, -1.0, dayInPeriodA ) );
+        reference.add( new ValidationResult( validationRuleB, periodA, sourceA, defaultCombo, -1.0, 4.0, dayInPeriodA ) );
+
+        assertResultsEquals( reference, results );
+        assertTrue( validationTaskExecutor.getThreadPoolExecutor().getTaskCount() > taskCount );
+
+        // Persisted results are read outside of a session, so compare by identifier
+
+        List<ValidationResult> persisted = validationResultService.getAllValidationResults();
+        long periodId = periodService.getPeriod( period.getStartDate(), period.getEndDate(), periodTypeMonthly ).getId();
+
+        assertEquals( Sets.newHashSet( validationRuleA.getId(), validationRuleB.getId() ), getRuleIds( persisted ) );
+
+        for ( ValidationResult result : persisted )
+        {
+            assertEquals( periodId, result.getPeriod().getId() );
+            assertEquals( sourceA.getId(), result.getOrganisationUnit().getId() );
+            assertNotNull( result.getCreated() );
+            assertFalse( result.getNotificationSent() );
+        }
+
+        // Results which are already persisted are not written again
+
+        taskCount = validationTaskExecutor.getThreadPoolExecutor().getTaskCount();
+
+        results = validationService.validationAnalysis( validationService.newParamsBuilder( dataSetMonthly, sourceA, periodA )
+            .withPersistResults( true )
+            .build() );
+
+        assertResultsEquals( new HashSet<>(), results );
+        assertTrue( validationTaskExecutor.getThreadPoolExecutor().getTaskCount() > taskCount );
+        assertEquals( 2, validationResultService.getAllValidationResults().size() );
+    }
+
+    @Test
+    public void testValidatePersistResultsWithoutRetainingResults()
+    {
+        useDataValue( dataElementA, periodA, sourceA, "1" );
+        useDataValue( dataElementB, periodA, sourceA, "2" );
+        useDataValue( dataElementC, periodA, sourceA, "3" );
+        useDataValue( dataElementD, periodA, sourceA, "4" );
+
+        validationRuleService.saveValidationRule( validationRuleA );
+        validationRuleService.saveValidationRule( validationRuleB );
+
+        ValidationNotificationTemplate template = createValidationNotificationTemplate( "Template A" );
+        template.addValidationRule( validationRuleA );
+        idObjectManager.save( template );
+
+        Collection<ValidationResult> results = validationService.validationAnalysis( validationService.newParamsBuilder( dataSetMonthly, sourceA, periodA )
+            .withPersistResults( true )
+            .withRetainResults( false )
+            .withSendNotifications( true )
+            .build() );
+
+        assertTrue( results.isEmpty() );
+
+        List<ValidationResult> persisted = validationResultService.getAllValidationResults();
+
+        assertEquals( Sets.newHashSet( validationRuleA.getId(), validationRuleB.getId() ), getRuleIds( persisted ) );
+
+        // Notifications are sent from the persisted results, and only results
+        // of rules with notification templates are marked as sent
+
+        for ( ValidationResult result : persisted )
+        {
+            assertNotNull( result.getCreated() );
+            assertEquals( validationRuleA.getId() == result.getValidationRule().getId(), (boolean) result.getNotificationSent() );
+        }
+
+        assertEquals( Sets.newHashSet( validationRuleB.getId() ),
+            getRuleIds( validationResultService.getAllUnReportedValidationResults() ) );
+    }
+
     @Test
     public void testValidateForm()
     {
@@ -50,6 +50,7 @@ import org.hisp.dhis.system.util.ValidationUtils;
 import org.jasypt.encryption.pbe.PBEStringEncryptor;
 import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.core.env.Environment;
@@ -94,9 +95,11 @@ public class DefaultSystemSettingManager
 
     private List<String> flags;
 
+    private ApplicationEventPublisher publisher;
+
     public DefaultSystemSettingManager( SystemSettingStore systemSettingStore, TransactionTemplate transactionTemplate,
         @Qualifier( "tripleDesStringEncryptor" ) PBEStringEncryptor pbeStringEncryptor, CacheProvider cacheProvider,
-        Environment environment, List<String> flags )
+        Environment environment, List<String> flags, ApplicationEventPublisher publisher )
     {
         checkNotNull( systemSettingStore );
         checkNotNull( transactionTemplate );
@@ -104,6 +107,7 @@ public class DefaultSystemSettingManager
         checkNotNull( cacheProvider );
         checkNotNull( environment );
         checkNotNull( flags );
+        checkNotNull( publisher );
 
         this.systemSettingStore = systemSettingStore;
         this.transactionTemplate = transactionTemplate;
@@ -111,6 +115,7 @@ public class DefaultSystemSettingManager
         this.cacheProvider = cacheProvider;
         this.environment = environment;
         this.flags = flags;
+        this.publisher = publisher;
     }
 
     // -------------------------------------------------------------------------
@@ -157,6 +162,8 @@ public class DefaultSystemSettingManager
 
             systemSettingStore.update( setting );
         }
+
+        publisher.publishEvent( new SystemSettingChangedEvent( this, key ) );
     }
 
     @Override
@@ -170,6 +177,8 @@ public class DefaultSystemSettingManager
             settingCache.invalidate( key.getName() );
 
             systemSettingStore.delete( setting );
+
+            publisher.publishEvent( new SystemSettingChangedEvent( this, key ) );
         }
     }
 
@@ -299,6 +308,8 @@ public class DefaultSystemSettingManager
     public void invalidateCache()
     {
         settingCache.invalidateAll();
+
+        publisher.publishEvent( new SystemSettingChangedEvent( this, null ) );
     }
 
     // -------------------------------------------------------------------------
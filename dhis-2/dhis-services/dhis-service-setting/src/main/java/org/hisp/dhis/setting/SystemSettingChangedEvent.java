@@ -0,0 +1,68 @@
+package org.hisp.dhis.setting;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published when a system setting is saved or deleted, or when all
+ * cached system settings are invalidated.
+ */
+public class SystemSettingChangedEvent extends ApplicationEvent
+{
+    private final SettingKey key;
+
+    /**
+     * @param source the source of the event.
+     * @param key the changed setting key, null if all settings may have changed.
+     */
+    public SystemSettingChangedEvent( Object source, SettingKey key )
+    {
+        super( source );
+        this.key = key;
+    }
+
+    /**
+     * Returns the changed setting key, null if all settings may have changed.
+     */
+    public SettingKey getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Indicates whether the given setting key may have changed.
+     *
+     * @param settingKey the setting key.
+     */
+    public boolean isChanged( SettingKey settingKey )
+    {
+        return key == null || key == settingKey;
+    }
+}
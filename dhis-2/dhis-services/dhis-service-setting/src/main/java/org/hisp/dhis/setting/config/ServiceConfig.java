@@ -34,6 +34,7 @@ import org.hisp.dhis.setting.SystemSettingStore;
 import org.jasypt.encryption.pbe.PBEStringEncryptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -64,6 +65,9 @@ public class ServiceConfig
     @Qualifier( "tripleDesStringEncryptor" )
     private PBEStringEncryptor pbeStringEncryptor;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
     @Bean( "org.hisp.dhis.setting.SystemSettingManager" )
     public DefaultSystemSettingManager defaultSystemSettingManager()
     {
@@ -191,6 +195,6 @@ public class ServiceConfig
         flags.add( "zimbabwe" );
         flags.add( "who" );
         return new DefaultSystemSettingManager( systemSettingStore, transactionTemplate, pbeStringEncryptor,
-            cacheProvider, environment, flags );
+            cacheProvider, environment, flags, publisher );
     }
 }
@@ -0,0 +1,6 @@
+create table if not exists programruleevaluationqueue (
+    event boolean not null,
+    itemid bigint not null,
+    queued timestamp without time zone not null,
+    constraint programruleevaluationqueue_pkey primary key (event, itemid)
+);
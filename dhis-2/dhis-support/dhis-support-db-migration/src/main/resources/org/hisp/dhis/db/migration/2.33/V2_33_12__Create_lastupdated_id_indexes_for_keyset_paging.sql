@@ -0,0 +1,4 @@
+-- Creates indexes for keyset paging of events, tracked entity instances and enrollments by last updated and id
+CREATE INDEX in_programstageinstance_lastupdated_id ON programstageinstance(lastupdated, programstageinstanceid);
+CREATE INDEX in_trackedentityinstance_lastupdated_id ON trackedentityinstance(lastupdated, trackedentityinstanceid);
+CREATE INDEX in_programinstance_lastupdated_id ON programinstance(lastupdated, programinstanceid);
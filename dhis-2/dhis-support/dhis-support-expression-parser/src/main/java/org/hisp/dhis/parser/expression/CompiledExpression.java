@@ -0,0 +1,355 @@
+package org.hisp.dhis.parser.expression;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.hisp.dhis.expression.MissingValueStrategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.hisp.dhis.parser.expression.ParserUtils.DOUBLE_VALUE_IF_NULL;
+
+/**
+ * Expression which has been compiled from its ANTLR4 parse tree into a
+ * reusable evaluator, see {@link ExpressionCompiler}.
+ * <p/>
+ * Every input of the expression (dimensional item, constant, organisation
+ * unit group count and days) is assigned a slot. Values are passed as a
+ * {@code double[]} indexed by slot, together with a {@code boolean[]} mask
+ * marking the slots for which no value is available. Instances are
+ * immutable and may be shared between threads.
+ */
+public class CompiledExpression
+{
+    /**
+     * Kind of input held by a slot.
+     */
+    public enum SlotType
+    {
+        /**
+         * Dimensional item value, counted by the missing value strategy.
+         */
+        ITEM,
+
+        /**
+         * Constant value, which must always be present.
+         */
+        CONSTANT,
+
+        /**
+         * Organisation unit group count, which must always be present.
+         */
+        ORG_UNIT_GROUP_COUNT,
+
+        /**
+         * Number of days in the period.
+         */
+        DAYS
+    }
+
+    /**
+     * Input slot of a compiled expression.
+     */
+    public static final class Slot
+    {
+        private final SlotType type;
+
+        private final String key;
+
+        public Slot( SlotType type, String key )
+        {
+            this.type = type;
+            this.key = key;
+        }
+
+        public SlotType getType()
+        {
+            return type;
+        }
+
+        public String getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Slot slot = (Slot) o;
+
+            return type == slot.type && Objects.equals( key, slot.key );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( type, key );
+        }
+
+        @Override
+        public String toString()
+        {
+            return type + ":" + key;
+        }
+    }
+
+    /**
+     * Compiled node returning a number.
+     */
+    interface DoubleNode
+    {
+        double evaluate( EvaluationState state );
+    }
+
+    /**
+     * Compiled node returning a boolean.
+     */
+    interface BooleanNode
+    {
+        boolean evaluate( EvaluationState state );
+    }
+
+    /**
+     * Inputs and item counters of a single evaluation.
+     */
+    static final class EvaluationState
+    {
+        private final List<Slot> slots;
+
+        double[] values;
+
+        boolean[] missing;
+
+        int itemsFound;
+
+        int itemValuesFound;
+
+        EvaluationState( List<Slot> slots, double[] values, boolean[] missing )
+        {
+            this.slots = slots;
+            this.values = values;
+            this.missing = missing;
+        }
+
+        /**
+         * Gets an item value, replacing a missing value with the default and
+         * counting it for the missing value strategy.
+         */
+        double getItemValue( int slot )
+        {
+            itemsFound++;
+
+            if ( missing[slot] )
+            {
+                return DOUBLE_VALUE_IF_NULL;
+            }
+
+            itemValuesFound++;
+
+            return values[slot];
+        }
+
+        /**
+         * Gets a value which must be present for a valid expression.
+         */
+        double getRequiredValue( int slot )
+        {
+            if ( missing[slot] )
+            {
+                throw new ParserExceptionWithoutContext( "Can't find value to evaluate " + slots.get( slot ) );
+            }
+
+            return values[slot];
+        }
+    }
+
+    private final String expression;
+
+    private final List<Slot> slots;
+
+    private final Map<Slot, Integer> slotIndexes;
+
+    private final DoubleNode root;
+
+    CompiledExpression( String expression, List<Slot> slots, DoubleNode root )
+    {
+        this.expression = expression;
+        this.slots = ImmutableList.copyOf( slots );
+        this.root = root;
+
+        ImmutableMap.Builder<Slot, Integer> builder = ImmutableMap.builder();
+
+        for ( int i = 0; i < slots.size(); i++ )
+        {
+            builder.put( slots.get( i ), i );
+        }
+
+        this.slotIndexes = builder.build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Evaluates the expression for one set of input values.
+     *
+     * @param values the input values, indexed by slot.
+     * @param missing the missing value mask, indexed by slot.
+     * @param missingValueStrategy the strategy to use when item values are
+     *        missing.
+     * @return the value, or null if skipped by the missing value strategy.
+     */
+    public Double evaluate( double[] values, boolean[] missing, MissingValueStrategy missingValueStrategy )
+    {
+        checkArgument( values.length == slots.size() && missing.length == slots.size(),
+            "Expected " + slots.size() + " input values for expression '" + expression + "'" );
+
+        EvaluationState state = new EvaluationState( slots, values, missing );
+
+        double value = root.evaluate( state );
+
+        return isSkipped( state, missingValueStrategy ) ? null : value;
+    }
+
+    /**
+     * Evaluates the expression for a column of input value sets, for example
+     * one row per organisation unit, period and attribute option combination.
+     * Input values are column oriented, so that {@code values[slot][row]}
+     * holds the value of the given slot in the given row.
+     *
+     * @param values the input values, indexed by slot and row.
+     * @param missing the missing value mask, indexed by slot and row.
+     * @param rowCount the number of rows to evaluate.
+     * @param missingValueStrategy the strategy to use when item values are
+     *        missing.
+     * @param results the array to write the value of each row into.
+     * @param skipped the array to mark the rows skipped by the missing value
+     *        strategy in.
+     */
+    public void evaluate( double[][] values, boolean[][] missing, int rowCount,
+        MissingValueStrategy missingValueStrategy, double[] results, boolean[] skipped )
+    {
+        checkArgument( values.length == slots.size() && missing.length == slots.size(),
+            "Expected " + slots.size() + " input columns for expression '" + expression + "'" );
+        checkArgument( results.length >= rowCount && skipped.length >= rowCount,
+            "Result arrays are shorter than the row count" );
+
+        int slotCount = slots.size();
+
+        EvaluationState state = new EvaluationState( slots, new double[slotCount], new boolean[slotCount] );
+
+        for ( int row = 0; row < rowCount; row++ )
+        {
+            for ( int slot = 0; slot < slotCount; slot++ )
+            {
+                state.values[slot] = values[slot][row];
+                state.missing[slot] = missing[slot][row];
+            }
+
+            state.itemsFound = 0;
+            state.itemValuesFound = 0;
+
+            double value = root.evaluate( state );
+
+            skipped[row] = isSkipped( state, missingValueStrategy );
+            results[row] = skipped[row] ? DOUBLE_VALUE_IF_NULL : value;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Applies the missing value strategy in the same way as the expression
+     * service does for the visitor based evaluation.
+     */
+    private boolean isSkipped( EvaluationState state, MissingValueStrategy missingValueStrategy )
+    {
+        switch ( missingValueStrategy )
+        {
+            case SKIP_IF_ANY_VALUE_MISSING:
+                if ( state.itemValuesFound < state.itemsFound )
+                {
+                    return true;
+                }
+
+            case SKIP_IF_ALL_VALUES_MISSING:
+                if ( state.itemsFound != 0 && state.itemValuesFound == 0 )
+                {
+                    return true;
+                }
+
+            default:
+                return false;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public String getExpression()
+    {
+        return expression;
+    }
+
+    public List<Slot> getSlots()
+    {
+        return slots;
+    }
+
+    /**
+     * Gets the index of the given slot.
+     *
+     * @param slot the slot.
+     * @return the slot index, or -1 if the expression has no such slot.
+     */
+    public int getSlotIndex( Slot slot )
+    {
+        Integer index = slotIndexes.get( slot );
+
+        return index != null ? index : -1;
+    }
+}
@@ -0,0 +1,517 @@
+package org.hisp.dhis.parser.expression;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hisp.dhis.parser.expression.CompiledExpression.BooleanNode;
+import org.hisp.dhis.parser.expression.CompiledExpression.DoubleNode;
+import org.hisp.dhis.parser.expression.CompiledExpression.Slot;
+import org.hisp.dhis.parser.expression.CompiledExpression.SlotType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.*;
+
+/**
+ * Compiles an expression parse tree into a {@link CompiledExpression}.
+ * <p/>
+ * Only numeric expressions built from the common operators, the functions
+ * firstNonNull, greatest, if, isNotNull, isNull and least, numeric and
+ * boolean literals and items resolved to slots can be compiled. For any
+ * other expression null is returned, and the expression must be evaluated
+ * by the {@link CommonExpressionVisitor}, which also reports any errors.
+ * <p/>
+ * The compiled expression evaluates exactly like the visitor with
+ * {@link ParserUtils#FUNCTION_EVALUATE}: logical operators and the if
+ * function only evaluate the arguments they need, and only items evaluated
+ * while replacing nulls count towards the missing value strategy.
+ */
+public class ExpressionCompiler
+{
+    private final Function<ItemContext, Slot> slotResolver;
+
+    private final List<Slot> slots = new ArrayList<>();
+
+    private final Map<Slot, Integer> slotIndexes = new HashMap<>();
+
+    private ExpressionCompiler( Function<ItemContext, Slot> slotResolver )
+    {
+        this.slotResolver = slotResolver;
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param expression the expression to compile.
+     * @param slotResolver resolves an item to its slot, or to null if the
+     *        item is not supported.
+     * @return the compiled expression, or null if the expression can only be
+     *         evaluated by the visitor.
+     * @throws ParserException if the expression cannot be parsed.
+     */
+    public static CompiledExpression compile( String expression, Function<ItemContext, Slot> slotResolver )
+    {
+        ExpressionContext ctx = (ExpressionContext) Parser.getParseTree( expression );
+
+        ExpressionCompiler compiler = new ExpressionCompiler( slotResolver );
+
+        try
+        {
+            DoubleNode root = compiler.asDouble( compiler.compileExpr( ctx.expr() ) );
+
+            return new CompiledExpression( expression, compiler.slots, root );
+        }
+        catch ( NotCompilableException ex )
+        {
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Compile methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Compiles an expression context into either a {@link DoubleNode} or a
+     * {@link BooleanNode}.
+     */
+    private Object compileExpr( ExprContext ctx )
+    {
+        if ( ctx.fun == null )
+        {
+            if ( ctx.expr().size() > 0 ) // Whitespace around an expr
+            {
+                return compileExpr( ctx.expr( 0 ) );
+            }
+
+            return compileOperand( ctx );
+        }
+
+        switch ( ctx.fun.getType() )
+        {
+            case PAREN:
+                return compileExpr( ctx.expr( 0 ) );
+
+            case PLUS:
+                return ctx.expr().size() == 1
+                    ? asDouble( compileExpr( ctx.expr( 0 ) ) )
+                    : add( asDouble( compileExpr( ctx.expr( 0 ) ) ), asDouble( compileExpr( ctx.expr( 1 ) ) ) );
+
+            case MINUS:
+                return ctx.expr().size() == 1
+                    ? negate( asDouble( compileExpr( ctx.expr( 0 ) ) ) )
+                    : subtract( asDouble( compileExpr( ctx.expr( 0 ) ) ), asDouble( compileExpr( ctx.expr( 1 ) ) ) );
+
+            case POWER:
+            case MUL:
+            case DIV:
+            case MOD:
+                return compileArithmetic( ctx.fun.getType(),
+                    asDouble( compileExpr( ctx.expr( 0 ) ) ), asDouble( compileExpr( ctx.expr( 1 ) ) ) );
+
+            case NOT:
+            case EXCLAMATION_POINT:
+                return not( asBoolean( compileExpr( ctx.expr( 0 ) ) ) );
+
+            case AND:
+            case AMPERSAND_2:
+                return and( asBoolean( compileExpr( ctx.expr( 0 ) ) ), asBoolean( compileExpr( ctx.expr( 1 ) ) ) );
+
+            case OR:
+            case VERTICAL_BAR_2:
+                return or( asBoolean( compileExpr( ctx.expr( 0 ) ) ), asBoolean( compileExpr( ctx.expr( 1 ) ) ) );
+
+            case EQ:
+            case NE:
+            case GT:
+            case LT:
+            case GEQ:
+            case LEQ:
+                return compileComparison( ctx.fun.getType(), compileExpr( ctx.expr( 0 ) ), compileExpr( ctx.expr( 1 ) ) );
+
+            case IF:
+                return compileIf( asBoolean( compileExpr( ctx.expr( 0 ) ) ),
+                    compileExpr( ctx.expr( 1 ) ), compileExpr( ctx.expr( 2 ) ) );
+
+            case GREATEST:
+                return compileGreatestOrLeast( ctx.expr(), 1.0 );
+
+            case LEAST:
+                return compileGreatestOrLeast( ctx.expr(), -1.0 );
+
+            case IS_NULL:
+                return compileIsNull( ctx.item( 0 ) );
+
+            case IS_NOT_NULL:
+                return not( compileIsNull( ctx.item( 0 ) ) );
+
+            case FIRST_NON_NULL:
+                return compileFirstNonNull( ctx.itemNumStringLiteral() );
+
+            default:
+                throw new NotCompilableException();
+        }
+    }
+
+    private Object compileOperand( ExprContext ctx )
+    {
+        if ( !ctx.item().isEmpty() )
+        {
+            return compileItem( ctx.item( 0 ) );
+        }
+        else if ( ctx.numericLiteral() != null )
+        {
+            return constant( Double.valueOf( ctx.numericLiteral().getText() ) );
+        }
+        else if ( ctx.booleanLiteral() != null )
+        {
+            boolean value = Boolean.valueOf( ctx.booleanLiteral().getText() );
+
+            return (BooleanNode) state -> value;
+        }
+
+        throw new NotCompilableException(); // String literals
+    }
+
+    private DoubleNode compileItem( ItemContext ctx )
+    {
+        Slot slot = resolveSlot( ctx );
+        int index = getSlotIndex( slot );
+
+        if ( slot.getType() == SlotType.ITEM )
+        {
+            return state -> state.getItemValue( index );
+        }
+
+        return state -> state.getRequiredValue( index );
+    }
+
+    private DoubleNode compileArithmetic( int type, DoubleNode left, DoubleNode right )
+    {
+        switch ( type )
+        {
+            case POWER:
+                return state -> Math.pow( left.evaluate( state ), right.evaluate( state ) );
+
+            case MUL:
+                return state -> left.evaluate( state ) * right.evaluate( state );
+
+            case DIV:
+                return state -> left.evaluate( state ) / right.evaluate( state );
+
+            default:
+                return state -> left.evaluate( state ) % right.evaluate( state );
+        }
+    }
+
+    private BooleanNode compileComparison( int type, Object left, Object right )
+    {
+        CompareNode compare;
+
+        if ( left instanceof DoubleNode && right instanceof DoubleNode )
+        {
+            DoubleNode l = (DoubleNode) left;
+            DoubleNode r = (DoubleNode) right;
+
+            compare = state -> Double.compare( l.evaluate( state ), r.evaluate( state ) );
+        }
+        else if ( left instanceof BooleanNode && right instanceof BooleanNode )
+        {
+            BooleanNode l = (BooleanNode) left;
+            BooleanNode r = (BooleanNode) right;
+
+            compare = state -> Boolean.compare( l.evaluate( state ), r.evaluate( state ) );
+        }
+        else
+        {
+            throw new NotCompilableException();
+        }
+
+        switch ( type )
+        {
+            case EQ:
+                return state -> compare.evaluate( state ) == 0;
+
+            case NE:
+                return state -> compare.evaluate( state ) != 0;
+
+            case GT:
+                return state -> compare.evaluate( state ) > 0;
+
+            case LT:
+                return state -> compare.evaluate( state ) < 0;
+
+            case GEQ:
+                return state -> compare.evaluate( state ) >= 0;
+
+            default:
+                return state -> compare.evaluate( state ) <= 0;
+        }
+    }
+
+    private Object compileIf( BooleanNode condition, Object ifTrue, Object ifFalse )
+    {
+        if ( ifTrue instanceof DoubleNode && ifFalse instanceof DoubleNode )
+        {
+            DoubleNode t = (DoubleNode) ifTrue;
+            DoubleNode f = (DoubleNode) ifFalse;
+
+            return (DoubleNode) state -> condition.evaluate( state ) ? t.evaluate( state ) : f.evaluate( state );
+        }
+        else if ( ifTrue instanceof BooleanNode && ifFalse instanceof BooleanNode )
+        {
+            BooleanNode t = (BooleanNode) ifTrue;
+            BooleanNode f = (BooleanNode) ifFalse;
+
+            return (BooleanNode) state -> condition.evaluate( state ) ? t.evaluate( state ) : f.evaluate( state );
+        }
+
+        throw new NotCompilableException();
+    }
+
+    private DoubleNode compileGreatestOrLeast( List<ExprContext> contexts, double greatestLeast )
+    {
+        DoubleNode[] args = new DoubleNode[contexts.size()];
+
+        for ( int i = 0; i < args.length; i++ )
+        {
+            args[i] = asDouble( compileExpr( contexts.get( i ) ) );
+        }
+
+        return state -> {
+            double result = args[0].evaluate( state );
+
+            for ( int i = 1; i < args.length; i++ )
+            {
+                double value = args[i].evaluate( state );
+
+                if ( ( value - result ) * greatestLeast > 0 )
+                {
+                    result = value;
+                }
+            }
+
+            return result;
+        };
+    }
+
+    /**
+     * Compiles a null test of an item, which like the visitor does not count
+     * the item towards the missing value strategy.
+     */
+    private BooleanNode compileIsNull( ItemContext ctx )
+    {
+        Slot slot = resolveSlot( ctx );
+        int index = getSlotIndex( slot );
+
+        if ( isNullable( slot ) )
+        {
+            return state -> state.missing[index];
+        }
+
+        return state -> {
+            state.getRequiredValue( index );
+
+            return false;
+        };
+    }
+
+    /**
+     * Compiles firstNonNull. Arguments are tested for null in order, like the
+     * visitor, without counting items towards the missing value strategy.
+     * Compilation requires an argument which can never be null (such as a
+     * numeric literal), so that the function always returns a number.
+     */
+    private DoubleNode compileFirstNonNull( List<ItemNumStringLiteralContext> contexts )
+    {
+        List<Integer> nullableSlots = new ArrayList<>();
+
+        for ( ItemNumStringLiteralContext c : contexts )
+        {
+            if ( c.item() != null )
+            {
+                Slot slot = resolveSlot( c.item() );
+                int index = getSlotIndex( slot );
+
+                if ( !isNullable( slot ) )
+                {
+                    return firstNonNull( nullableSlots, state -> state.getRequiredValue( index ) );
+                }
+
+                nullableSlots.add( index );
+            }
+            else if ( c.numStringLiteral().numericLiteral() != null )
+            {
+                double value = Double.valueOf( c.numStringLiteral().numericLiteral().getText() );
+
+                return firstNonNull( nullableSlots, constant( value ) );
+            }
+            else
+            {
+                throw new NotCompilableException(); // String literals
+            }
+        }
+
+        throw new NotCompilableException(); // May return null
+    }
+
+    // -------------------------------------------------------------------------
+    // Node factories
+    // -------------------------------------------------------------------------
+
+    private static DoubleNode constant( double value )
+    {
+        return state -> value;
+    }
+
+    private static DoubleNode add( DoubleNode left, DoubleNode right )
+    {
+        return state -> left.evaluate( state ) + right.evaluate( state );
+    }
+
+    private static DoubleNode subtract( DoubleNode left, DoubleNode right )
+    {
+        return state -> left.evaluate( state ) - right.evaluate( state );
+    }
+
+    private static DoubleNode negate( DoubleNode node )
+    {
+        return state -> - node.evaluate( state );
+    }
+
+    private static BooleanNode not( BooleanNode node )
+    {
+        return state -> !node.evaluate( state );
+    }
+
+    private static BooleanNode and( BooleanNode left, BooleanNode right )
+    {
+        return state -> left.evaluate( state ) && right.evaluate( state );
+    }
+
+    private static BooleanNode or( BooleanNode left, BooleanNode right )
+    {
+        return state -> left.evaluate( state ) || right.evaluate( state );
+    }
+
+    private static DoubleNode firstNonNull( List<Integer> nullableSlots, DoubleNode last )
+    {
+        int[] indexes = nullableSlots.stream().mapToInt( Integer::intValue ).toArray();
+
+        return state -> {
+            for ( int index : indexes )
+            {
+                if ( !state.missing[index] )
+                {
+                    return state.values[index];
+                }
+            }
+
+            return last.evaluate( state );
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Slot resolveSlot( ItemContext ctx )
+    {
+        Slot slot = slotResolver.apply( ctx );
+
+        if ( slot == null )
+        {
+            throw new NotCompilableException();
+        }
+
+        return slot;
+    }
+
+    private int getSlotIndex( Slot slot )
+    {
+        return slotIndexes.computeIfAbsent( slot, s -> {
+            slots.add( s );
+
+            return slots.size() - 1;
+        } );
+    }
+
+    /**
+     * Items and days may be null, while constants and organisation unit
+     * group counts must be present for a valid expression.
+     */
+    private static boolean isNullable( Slot slot )
+    {
+        return slot.getType() == SlotType.ITEM || slot.getType() == SlotType.DAYS;
+    }
+
+    private DoubleNode asDouble( Object node )
+    {
+        if ( node instanceof DoubleNode )
+        {
+            return (DoubleNode) node;
+        }
+
+        throw new NotCompilableException();
+    }
+
+    private BooleanNode asBoolean( Object node )
+    {
+        if ( node instanceof BooleanNode )
+        {
+            return (BooleanNode) node;
+        }
+
+        throw new NotCompilableException();
+    }
+
+    /**
+     * Compiled node comparing two values.
+     */
+    private interface CompareNode
+    {
+        int evaluate( CompiledExpression.EvaluationState state );
+    }
+
+    /**
+     * Thrown internally when an expression uses a construct which cannot be
+     * compiled.
+     */
+    private static class NotCompilableException
+        extends RuntimeException
+    {
+        NotCompilableException()
+        {
+            super( null, null, false, false );
+        }
+    }
+}
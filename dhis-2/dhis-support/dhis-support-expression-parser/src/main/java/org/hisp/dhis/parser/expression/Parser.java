@@ -100,7 +100,7 @@ public class Parser
      * @param expr the expression to parse.
      * @return the ANTLR4 parse tree.
      */
-    private static ParseTree getParseTree( String expr )
+    static ParseTree getParseTree( String expr )
     {
         return EXPRESSION_PARSE_TREES.get( expr, e -> createParseTree( e ) );
     }
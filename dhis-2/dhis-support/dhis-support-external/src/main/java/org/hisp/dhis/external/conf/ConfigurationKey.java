@@ -49,6 +49,8 @@ public enum ConfigurationKey
     CONNECTION_PASSWORD( "connection.password", "", true ),
     CONNECTION_SCHEMA( "connection.schema", "", false ),
     CONNECTION_POOL_MAX_SIZE( "connection.pool.max_size", "80", false ),
+    CONNECTION_READ_REPLICA_MAX_LAG( "connection.read_replica.max_lag", "300", false ),
+    CONNECTION_READ_REPLICA_HEALTH_CHECK_INTERVAL( "connection.read_replica.health_check_interval", "15", false ),
     LDAP_URL( "ldap.url", "ldaps://0:1", false ),
     LDAP_MANAGER_DN( "ldap.manager.dn", "", false ),
     LDAP_MANAGER_PASSWORD( "ldap.manager.password", "", true ),
@@ -75,8 +77,12 @@ public enum ConfigurationKey
     REDIS_USE_SSL( "redis.use.ssl", "false", false ),
     FLYWAY_OUT_OF_ORDER_MIGRATION( "flyway.migrate_out_of_order", "false", false ),
     PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT( "tracker.temporary.ownership.timeout", "3", false ),
+    TRACKER_SEARCH_INDEX( "tracker.search_index", "off", false ),
+    RULE_ENGINE_THREAD_POOL_SIZE( "tracker.rule_engine.thread_pool.size", "0", false ),
     LEADER_TIME_TO_LIVE( "leader.time.to.live.minutes", "2", false ),
     ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0" ),
+    VALIDATION_THREAD_POOL_SIZE( "validation.thread_pool.size", "0", false ),
+    PREDICTION_THREAD_POOL_SIZE( "prediction.thread_pool.size", "0", false ),
     AMQP_MODE( "amqp.mode", "EMBEDDED" ),
     AMQP_HOST( "amqp.host", "127.0.0.1" ),
     AMQP_PORT( "amqp.port", "15672" ),
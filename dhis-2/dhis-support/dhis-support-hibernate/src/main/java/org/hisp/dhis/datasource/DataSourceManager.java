@@ -28,6 +28,8 @@ package org.hisp.dhis.datasource;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.List;
+
 import javax.sql.DataSource;
 
 /**
@@ -52,4 +54,13 @@ public interface DataSourceManager
      * @return the number of explicitly defined read only database instances.
      */
     int getReadReplicaCount();
+
+    /**
+     * Returns the health, replication lag and usage statistics of the explicitly
+     * defined read only database instances.
+     *
+     * @return a list of {@link ReadReplicaInfo}, empty if no read only database
+     *         instances are defined.
+     */
+    List<ReadReplicaInfo> getReadReplicaInfo();
 }
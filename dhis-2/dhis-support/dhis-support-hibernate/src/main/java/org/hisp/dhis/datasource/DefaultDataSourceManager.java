@@ -31,6 +31,8 @@ package org.hisp.dhis.datasource;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_DRIVER_CLASS;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_PASSWORD;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_POOL_MAX_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_READ_REPLICA_HEALTH_CHECK_INTERVAL;
+import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_READ_REPLICA_MAX_LAG;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_URL;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CONNECTION_USERNAME;
 
@@ -39,6 +41,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -51,6 +54,7 @@ import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.util.ObjectUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 import com.mchange.v2.c3p0.ComboPooledDataSource;
@@ -59,7 +63,7 @@ import com.mchange.v2.c3p0.ComboPooledDataSource;
  * @author Lars Helge Overland
  */
 public class DefaultDataSourceManager
-    implements DataSourceManager, InitializingBean
+    implements DataSourceManager, InitializingBean, DisposableBean
 {
     private static final Log log = LogFactory.getLog( DefaultDataSourceManager.class );
 
@@ -70,6 +74,7 @@ public class DefaultDataSourceManager
 
     private static final int VAL_ACQUIRE_INCREMENT = 6;
     private static final int VAL_MAX_IDLE_TIME = 21600;
+    private static final int VAL_CHECKOUT_TIMEOUT = 10000;
     private static final int MAX_READ_REPLICAS = 5;
     private static final String DEFAULT_POOL_SIZE = "40";
 
@@ -81,16 +86,44 @@ public class DefaultDataSourceManager
     /**
      * State holder for explicitly defined read only data sources.
      */
-    private List<DataSource> internalReadOnlyInstanceList;
+    private List<ReadReplica> internalReadOnlyInstanceList;
+
+    /**
+     * State holder for the routing data source, null if no read replicas are
+     * defined.
+     */
+    private ReadReplicaRoutingDataSource routingDataSource;
 
     @Override
     public void afterPropertiesSet()
         throws Exception
     {
-        List<DataSource> ds = getReadOnlyDataSources();
+        List<ReadReplica> replicas = getReadReplicas();
+
+        this.internalReadOnlyInstanceList = replicas;
+
+        if ( !replicas.isEmpty() )
+        {
+            long maxLag = Long.parseLong( config.getProperty( CONNECTION_READ_REPLICA_MAX_LAG ) );
+            long interval = Long.parseLong( config.getProperty( CONNECTION_READ_REPLICA_HEALTH_CHECK_INTERVAL ) );
 
-        this.internalReadOnlyInstanceList = ds;
-        this.internalReadOnlyDataSource = !ds.isEmpty() ? new CircularRoutingDataSource( ds ) : mainDataSource;
+            this.routingDataSource = new ReadReplicaRoutingDataSource( replicas, mainDataSource, maxLag );
+            this.routingDataSource.startHealthChecks( interval );
+            this.internalReadOnlyDataSource = routingDataSource;
+        }
+        else
+        {
+            this.internalReadOnlyDataSource = mainDataSource;
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if ( routingDataSource != null )
+        {
+            routingDataSource.stopHealthChecks();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -127,11 +160,17 @@ public class DefaultDataSourceManager
         return internalReadOnlyInstanceList != null ? internalReadOnlyInstanceList.size() : 0;
     }
 
+    @Override
+    public List<ReadReplicaInfo> getReadReplicaInfo()
+    {
+        return routingDataSource != null ? routingDataSource.getReadReplicaInfo() : Collections.emptyList();
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
 
-    private List<DataSource> getReadOnlyDataSources()
+    private List<ReadReplica> getReadReplicas()
     {
         String mainUser = config.getProperty( ConfigurationKey.CONNECTION_USERNAME );
         String mainPassword = config.getProperty( ConfigurationKey.CONNECTION_PASSWORD );
@@ -140,7 +179,7 @@ public class DefaultDataSourceManager
 
         Properties props = config.getProperties();
 
-        List<DataSource> dataSources = new ArrayList<>();
+        List<ReadReplica> replicas = new ArrayList<>();
 
         for ( int i = 1; i <= MAX_READ_REPLICAS; i++ )
         {
@@ -164,8 +203,9 @@ public class DefaultDataSourceManager
                     ds.setMaxPoolSize( Integer.valueOf( maxPoolSize ) );
                     ds.setAcquireIncrement( VAL_ACQUIRE_INCREMENT );
                     ds.setMaxIdleTime( VAL_MAX_IDLE_TIME );
+                    ds.setCheckoutTimeout( VAL_CHECKOUT_TIMEOUT );
 
-                    dataSources.add( ds );
+                    replicas.add( new ReadReplica( jdbcUrl, ds ) );
 
                     log.info( String.format( "Found read replica, index: '%d', connection URL: '%s''", i, jdbcUrl ) );
 
@@ -178,9 +218,9 @@ public class DefaultDataSourceManager
             }
         }
 
-        log.info( "Read only configuration initialized, read replicas found: " + dataSources.size() );
+        log.info( "Read only configuration initialized, read replicas found: " + replicas.size() );
 
-        return dataSources;
+        return replicas;
     }
 
     private void testConnection( ComboPooledDataSource dataSource )
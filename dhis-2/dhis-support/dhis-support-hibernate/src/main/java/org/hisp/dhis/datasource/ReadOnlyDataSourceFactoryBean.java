@@ -32,8 +32,8 @@ import javax.sql.DataSource;
 
 import org.springframework.beans.factory.FactoryBean;
 /**
- * Factory bean which provides a {@link CircularRoutingDataSource} containing a
- * list of data sources connecting to read replica database instances.
+ * Factory bean which provides a {@link ReadReplicaRoutingDataSource} containing
+ * a list of data sources connecting to read replica database instances.
  * 
  * @author Lars Helge Overland
  */
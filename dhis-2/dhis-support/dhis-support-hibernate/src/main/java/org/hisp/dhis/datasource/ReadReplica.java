@@ -0,0 +1,172 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * Holds a read replica data source together with its health, replication lag
+ * and usage statistics. Connections are wrapped so that the number of active
+ * connections and the time connections are held can be tracked, which for
+ * JDBC template based queries corresponds to the query latency.
+ */
+class ReadReplica
+{
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private volatile boolean healthy = true;
+
+    private volatile long lagSeconds = 0;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder connectionCount = new LongAdder();
+
+    private final LongAdder connectionTimeMillis = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    ReadReplica( String name, DataSource dataSource )
+    {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the replica is healthy and lags at most the given
+     * number of seconds behind the primary.
+     *
+     * @param maxLagSeconds the maximum replication lag in seconds.
+     */
+    boolean isAvailable( long maxLagSeconds )
+    {
+        return healthy && lagSeconds <= maxLagSeconds;
+    }
+
+    Connection getConnection()
+        throws SQLException
+    {
+        return track( dataSource.getConnection() );
+    }
+
+    Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        return track( dataSource.getConnection( username, password ) );
+    }
+
+    void markHealthy( long lagSeconds )
+    {
+        this.lagSeconds = lagSeconds;
+        this.healthy = true;
+    }
+
+    void markUnhealthy()
+    {
+        this.healthy = false;
+
+        failureCount.increment();
+    }
+
+    ReadReplicaInfo getInfo()
+    {
+        return new ReadReplicaInfo( name, healthy, lagSeconds, activeConnections.get(),
+            connectionCount.sum(), connectionTimeMillis.sum(), failureCount.sum() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Wraps the given connection in a proxy which records statistics when the
+     * connection is closed.
+     */
+    private Connection track( Connection connection )
+    {
+        long start = System.nanoTime();
+
+        AtomicBoolean closed = new AtomicBoolean();
+
+        activeConnections.incrementAndGet();
+        connectionCount.increment();
+
+        return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            ( proxy, method, args ) -> {
+                if ( "close".equals( method.getName() ) && closed.compareAndSet( false, true ) )
+                {
+                    activeConnections.decrementAndGet();
+                    connectionTimeMillis.add( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+                }
+
+                try
+                {
+                    return method.invoke( connection, args );
+                }
+                catch ( InvocationTargetException ex )
+                {
+                    throw ex.getTargetException();
+                }
+            } );
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    String getName()
+    {
+        return name;
+    }
+
+    DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    int getActiveConnections()
+    {
+        return activeConnections.get();
+    }
+}
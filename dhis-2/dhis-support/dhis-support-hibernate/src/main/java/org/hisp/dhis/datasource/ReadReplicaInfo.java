@@ -0,0 +1,130 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Snapshot of the health, replication lag and usage statistics of a read
+ * replica.
+ */
+public class ReadReplicaInfo
+{
+    private final String name;
+
+    private final boolean healthy;
+
+    private final long lagSeconds;
+
+    private final int activeConnections;
+
+    private final long connectionCount;
+
+    private final long connectionTimeMillis;
+
+    private final long failureCount;
+
+    public ReadReplicaInfo( String name, boolean healthy, long lagSeconds, int activeConnections,
+        long connectionCount, long connectionTimeMillis, long failureCount )
+    {
+        this.name = name;
+        this.healthy = healthy;
+        this.lagSeconds = lagSeconds;
+        this.activeConnections = activeConnections;
+        this.connectionCount = connectionCount;
+        this.connectionTimeMillis = connectionTimeMillis;
+        this.failureCount = failureCount;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the average time in milliseconds connections were held.
+     */
+    @JsonProperty
+    public long getAverageConnectionTimeMillis()
+    {
+        return connectionCount > 0 ? connectionTimeMillis / connectionCount : 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Get methods
+    // -------------------------------------------------------------------------
+
+    @JsonProperty
+    public String getName()
+    {
+        return name;
+    }
+
+    @JsonProperty
+    public boolean isHealthy()
+    {
+        return healthy;
+    }
+
+    @JsonProperty
+    public long getLagSeconds()
+    {
+        return lagSeconds;
+    }
+
+    @JsonProperty
+    public int getActiveConnections()
+    {
+        return activeConnections;
+    }
+
+    @JsonProperty
+    public long getConnectionCount()
+    {
+        return connectionCount;
+    }
+
+    @JsonProperty
+    public long getConnectionTimeMillis()
+    {
+        return connectionTimeMillis;
+    }
+
+    @JsonProperty
+    public long getFailureCount()
+    {
+        return failureCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "[name: '%s', healthy: %b, lag: %ds, active: %d, connections: %d, avg time: %dms, failures: %d]",
+            name, healthy, lagSeconds, activeConnections, connectionCount, getAverageConnectionTimeMillis(), failureCount );
+    }
+}
@@ -0,0 +1,257 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Data source implementation which routes to the least loaded read replica
+ * which is healthy and within the maximum replication lag. Replicas are checked
+ * periodically in the background, and a replica which fails to provide a
+ * connection is marked as unhealthy until the next successful check. If no
+ * replica is available, connections are obtained from the primary data source.
+ * <p>
+ * Replicas are selected without locking. The scan for the least loaded replica
+ * starts at a rotating offset, so that replicas with equal load are used in
+ * turn.
+ */
+public class ReadReplicaRoutingDataSource
+    extends AbstractDataSource
+{
+    private static final Log log = LogFactory.getLog( ReadReplicaRoutingDataSource.class );
+
+    /**
+     * Replication lag in seconds. The time since the last replayed transaction
+     * keeps growing while the primary is idle, hence the lag is zero when all
+     * received WAL has been replayed.
+     */
+    static final String LAG_SQL =
+        "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+        "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 5;
+
+    private final List<ReadReplica> replicas;
+
+    private final DataSource primaryDataSource;
+
+    private final long maxLagSeconds;
+
+    private final AtomicInteger offset = new AtomicInteger();
+
+    private ScheduledExecutorService healthCheckExecutor;
+
+    ReadReplicaRoutingDataSource( List<ReadReplica> replicas, DataSource primaryDataSource, long maxLagSeconds )
+    {
+        this.replicas = ImmutableList.copyOf( replicas );
+        this.primaryDataSource = primaryDataSource;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    // -------------------------------------------------------------------------
+    // AbstractDataSource implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        ReadReplica replica;
+
+        while ( ( replica = getReplica() ) != null )
+        {
+            try
+            {
+                return replica.getConnection();
+            }
+            catch ( SQLException ex )
+            {
+                handleFailure( replica, ex );
+            }
+        }
+
+        return primaryDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        ReadReplica replica;
+
+        while ( ( replica = getReplica() ) != null )
+        {
+            try
+            {
+                return replica.getConnection( username, password );
+            }
+            catch ( SQLException ex )
+            {
+                handleFailure( replica, ex );
+            }
+        }
+
+        return primaryDataSource.getConnection( username, password );
+    }
+
+    // -------------------------------------------------------------------------
+    // Health checks
+    // -------------------------------------------------------------------------
+
+    /**
+     * Starts checking the health and replication lag of the replicas at the
+     * given interval.
+     *
+     * @param intervalSeconds the interval in seconds.
+     */
+    public void startHealthChecks( long intervalSeconds )
+    {
+        healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat( "read-replica-health-check-%d" ).setDaemon( true ).build() );
+
+        healthCheckExecutor.scheduleWithFixedDelay( this::checkReplicas, intervalSeconds, intervalSeconds, TimeUnit.SECONDS );
+
+        log.info( String.format( "Read replica health checks started with interval: %d s, max lag: %d s", intervalSeconds, maxLagSeconds ) );
+    }
+
+    /**
+     * Stops the health checks.
+     */
+    public void stopHealthChecks()
+    {
+        if ( healthCheckExecutor != null )
+        {
+            healthCheckExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks the health and replication lag of all replicas.
+     */
+    public void checkReplicas()
+    {
+        for ( ReadReplica replica : replicas )
+        {
+            checkReplica( replica );
+        }
+
+        log.debug( "Read replica status: " + getReadReplicaInfo() );
+    }
+
+    /**
+     * Returns the health, replication lag and usage statistics of the replicas.
+     *
+     * @return a list of {@link ReadReplicaInfo}.
+     */
+    public List<ReadReplicaInfo> getReadReplicaInfo()
+    {
+        return replicas.stream().map( ReadReplica::getInfo ).collect( Collectors.toList() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the least loaded available replica, or null if no replica is
+     * available.
+     */
+    private ReadReplica getReplica()
+    {
+        int size = replicas.size();
+        int start = Math.floorMod( offset.getAndIncrement(), size );
+
+        ReadReplica selected = null;
+
+        for ( int i = 0; i < size; i++ )
+        {
+            ReadReplica replica = replicas.get( ( start + i ) % size );
+
+            if ( replica.isAvailable( maxLagSeconds ) &&
+                ( selected == null || replica.getActiveConnections() < selected.getActiveConnections() ) )
+            {
+                selected = replica;
+            }
+        }
+
+        return selected;
+    }
+
+    private void handleFailure( ReadReplica replica, SQLException ex )
+    {
+        replica.markUnhealthy();
+
+        log.warn( String.format( "Read replica failed to provide connection and is marked as unhealthy: '%s', %s",
+            replica.getName(), ex.getMessage() ) );
+    }
+
+    private void checkReplica( ReadReplica replica )
+    {
+        try ( Connection connection = replica.getDataSource().getConnection();
+            Statement statement = connection.createStatement() )
+        {
+            statement.setQueryTimeout( HEALTH_CHECK_TIMEOUT_SECONDS );
+
+            try ( ResultSet rs = statement.executeQuery( LAG_SQL ) )
+            {
+                long lagSeconds = rs.next() ? rs.getLong( 1 ) : 0;
+
+                if ( lagSeconds > maxLagSeconds )
+                {
+                    log.warn( String.format( "Read replica lags behind primary and is skipped: '%s', lag: %d s",
+                        replica.getName(), lagSeconds ) );
+                }
+
+                replica.markHealthy( lagSeconds );
+            }
+        }
+        catch ( SQLException ex )
+        {
+            handleFailure( replica, ex );
+        }
+    }
+}
@@ -212,6 +212,10 @@ public class HibernateDbmsManager
 
         emptyTable( "validationresult" );
 
+        emptyTable( "validationnotificationtemplate_recipientusergroups" );
+        emptyTable( "validationnotificationtemplatevalidationrules" );
+        emptyTable( "validationnotificationtemplate" );
+
         emptyTable( "validationrule" );
         emptyTable( "validationruleusergroupaccesses" );
 
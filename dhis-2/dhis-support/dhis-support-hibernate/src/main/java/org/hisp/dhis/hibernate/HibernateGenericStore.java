@@ -447,6 +447,24 @@ public class HibernateGenericStore<T>
         return getList( builder, parameters );
     }
 
+    @Override
+    public List<T> getAllByAttributeAndValues( Attribute attribute, List<String> values )
+    {
+        CriteriaBuilder builder = getCriteriaBuilder();
+
+        JpaQueryParameters<T> parameters = new JpaQueryParameters<T>()
+            .addPredicate( root ->
+            {
+                Join<T, AttributeValue> joinAttributeValue = root.join( "attributeValues", JoinType.INNER );
+
+                return builder.and(
+                    builder.equal( joinAttributeValue.get( "attribute" ), attribute ),
+                    joinAttributeValue.get( "value" ).in( values ) );
+            } );
+
+        return getList( builder, parameters );
+    }
+
     @Override
     public int getCount()
     {
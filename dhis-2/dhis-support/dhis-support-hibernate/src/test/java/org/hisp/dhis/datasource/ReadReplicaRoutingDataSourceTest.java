@@ -0,0 +1,231 @@
+package org.hisp.dhis.datasource;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.google.common.collect.Lists;
+
+public class ReadReplicaRoutingDataSourceTest
+{
+    private static final long MAX_LAG_SECONDS = 30;
+
+    @Mock
+    private DataSource dataSourceA;
+
+    @Mock
+    private DataSource dataSourceB;
+
+    @Mock
+    private DataSource primaryDataSource;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private ReadReplica replicaA;
+
+    private ReadReplica replicaB;
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Before
+    public void setUp()
+        throws SQLException
+    {
+        when( dataSourceA.getConnection() ).thenAnswer( invocation -> mock( Connection.class ) );
+        when( dataSourceB.getConnection() ).thenAnswer( invocation -> mock( Connection.class ) );
+        when( primaryDataSource.getConnection() ).thenReturn( primaryConnection );
+
+        replicaA = new ReadReplica( "replicaA", dataSourceA );
+        replicaB = new ReadReplica( "replicaB", dataSourceB );
+
+        routingDataSource = new ReadReplicaRoutingDataSource(
+            Lists.newArrayList( replicaA, replicaB ), primaryDataSource, MAX_LAG_SECONDS );
+    }
+
+    @Test
+    public void testGetConnectionLeastLoaded()
+        throws SQLException
+    {
+        Connection connectionA = routingDataSource.getConnection();
+        Connection connectionB = routingDataSource.getConnection();
+
+        assertEquals( 1, replicaA.getActiveConnections() );
+        assertEquals( 1, replicaB.getActiveConnections() );
+
+        connectionB.close();
+
+        // Rotation starts at replica A, but replica B has fewer active connections
+
+        routingDataSource.getConnection();
+
+        assertEquals( 1, replicaA.getActiveConnections() );
+        assertEquals( 1, replicaB.getActiveConnections() );
+
+        connectionA.close();
+
+        verify( dataSourceA, times( 1 ) ).getConnection();
+        verify( dataSourceB, times( 2 ) ).getConnection();
+        verify( primaryDataSource, never() ).getConnection();
+    }
+
+    @Test
+    public void testGetConnectionSkipsUnhealthyReplica()
+        throws SQLException
+    {
+        when( dataSourceA.getConnection() ).thenThrow( new SQLException( "Connection refused" ) );
+
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        assertFalse( replicaA.getInfo().isHealthy() );
+        assertEquals( 1, replicaA.getInfo().getFailureCount() );
+        assertEquals( 3, replicaB.getActiveConnections() );
+
+        verify( dataSourceA, times( 1 ) ).getConnection();
+        verify( primaryDataSource, never() ).getConnection();
+    }
+
+    @Test
+    public void testGetConnectionSkipsLaggingReplica()
+        throws SQLException
+    {
+        mockLag( dataSourceA, MAX_LAG_SECONDS + 1 );
+        mockLag( dataSourceB, 0 );
+
+        routingDataSource.checkReplicas();
+
+        assertTrue( replicaA.getInfo().isHealthy() );
+        assertEquals( MAX_LAG_SECONDS + 1, replicaA.getInfo().getLagSeconds() );
+        assertFalse( replicaA.isAvailable( MAX_LAG_SECONDS ) );
+        assertTrue( replicaB.isAvailable( MAX_LAG_SECONDS ) );
+
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        assertEquals( 0, replicaA.getActiveConnections() );
+        assertEquals( 2, replicaB.getActiveConnections() );
+    }
+
+    @Test
+    public void testCheckReplicasRestoresHealth()
+        throws SQLException
+    {
+        replicaA.markUnhealthy();
+
+        mockLag( dataSourceA, 0 );
+
+        routingDataSource.checkReplicas();
+
+        assertTrue( replicaA.isAvailable( MAX_LAG_SECONDS ) );
+    }
+
+    @Test
+    public void testCheckReplicasMarksUnhealthy()
+        throws SQLException
+    {
+        when( dataSourceA.getConnection() ).thenThrow( new SQLException( "Connection refused" ) );
+        mockLag( dataSourceB, 0 );
+
+        routingDataSource.checkReplicas();
+
+        assertFalse( replicaA.isAvailable( MAX_LAG_SECONDS ) );
+        assertTrue( replicaB.isAvailable( MAX_LAG_SECONDS ) );
+    }
+
+    @Test
+    public void testGetConnectionFallsBackToPrimary()
+        throws SQLException
+    {
+        replicaA.markUnhealthy();
+        replicaB.markHealthy( MAX_LAG_SECONDS + 1 );
+
+        assertSame( primaryConnection, routingDataSource.getConnection() );
+
+        verify( dataSourceA, never() ).getConnection();
+        verify( dataSourceB, never() ).getConnection();
+    }
+
+    @Test
+    public void testConnectionDoubleClose()
+        throws SQLException
+    {
+        Connection connection = replicaA.getConnection();
+
+        assertEquals( 1, replicaA.getActiveConnections() );
+
+        connection.close();
+        connection.close();
+
+        ReadReplicaInfo info = replicaA.getInfo();
+
+        assertEquals( 0, info.getActiveConnections() );
+        assertEquals( 1, info.getConnectionCount() );
+    }
+
+    private void mockLag( DataSource dataSource, long lagSeconds )
+        throws SQLException
+    {
+        Connection connection = mock( Connection.class );
+        Statement statement = mock( Statement.class );
+        ResultSet resultSet = mock( ResultSet.class );
+
+        when( dataSource.getConnection() ).thenReturn( connection );
+        when( connection.createStatement() ).thenReturn( statement );
+        when( statement.executeQuery( ReadReplicaRoutingDataSource.LAG_SQL ) ).thenReturn( resultSet );
+        when( resultSet.next() ).thenReturn( true );
+        when( resultSet.getLong( 1 ) ).thenReturn( lagSeconds );
+    }
+}
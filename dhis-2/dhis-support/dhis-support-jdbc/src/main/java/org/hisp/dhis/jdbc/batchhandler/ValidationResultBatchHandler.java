@@ -35,6 +35,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
+import static org.hisp.dhis.util.DateUtils.getLongDateString;
+
 /**
  * @author Stian Sandvold
  */
@@ -104,13 +106,15 @@ public class ValidationResultBatchHandler
     public List<String> getColumns()
     {
         return getStringList(
+            "created",
             "leftsidevalue",
             "rightsidevalue",
             "validationruleid",
             "periodid",
             "organisationunitid",
             "attributeoptioncomboid",
-            "dayinperiod"
+            "dayinperiod",
+            "notificationsent"
         );
     }
 
@@ -118,13 +122,15 @@ public class ValidationResultBatchHandler
     public List<Object> getValues( ValidationResult validationResult )
     {
         return getObjectList(
+            getLongDateString( validationResult.getCreated() ),
             validationResult.getLeftsideValue(),
             validationResult.getRightsideValue(),
             validationResult.getValidationRule().getId(),
             validationResult.getPeriod().getId(),
             validationResult.getOrganisationUnit().getId(),
             validationResult.getAttributeOptionCombo().getId(),
-            validationResult.getDayInPeriod()
+            validationResult.getDayInPeriod(),
+            validationResult.getNotificationSent()
         );
     }
 
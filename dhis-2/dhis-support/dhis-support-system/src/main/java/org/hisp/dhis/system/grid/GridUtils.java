@@ -129,21 +129,21 @@ public class GridUtils
     private static final String HTML_CSS_TEMPLATE = "grid-html-css.vm";
     private static final String HTML_INLINE_CSS_TEMPLATE = "grid-html-inline-css.vm";
 
-    private static final String ATTR_GRID = "grid";
-    private static final String ATTR_TITLE = "title";
-    private static final String ATTR_SUBTITLE = "subtitle";
-    private static final String ATTR_WIDTH = "width";
-    private static final String ATTR_HEIGHT = "height";
-    private static final String ATTR_HEADERS = "headers";
-    private static final String ATTR_HEADER = "header";
-    private static final String ATTR_NAME = "name";
-    private static final String ATTR_COLUMN = "column";
-    private static final String ATTR_TYPE = "type";
-    private static final String ATTR_HIDDEN = "hidden";
-    private static final String ATTR_META = "meta";
-    private static final String ATTR_ROWS = "rows";
-    private static final String ATTR_ROW = "row";
-    private static final String ATTR_FIELD = "field";
+    static final String ATTR_GRID = "grid";
+    static final String ATTR_TITLE = "title";
+    static final String ATTR_SUBTITLE = "subtitle";
+    static final String ATTR_WIDTH = "width";
+    static final String ATTR_HEIGHT = "height";
+    static final String ATTR_HEADERS = "headers";
+    static final String ATTR_HEADER = "header";
+    static final String ATTR_NAME = "name";
+    static final String ATTR_COLUMN = "column";
+    static final String ATTR_TYPE = "type";
+    static final String ATTR_HIDDEN = "hidden";
+    static final String ATTR_META = "meta";
+    static final String ATTR_ROWS = "rows";
+    static final String ATTR_ROW = "row";
+    static final String ATTR_FIELD = "field";
 
     /**
      * Writes a PDF representation of the given Grid to the given OutputStream.
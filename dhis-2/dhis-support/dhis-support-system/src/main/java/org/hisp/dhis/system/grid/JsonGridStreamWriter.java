@@ -0,0 +1,152 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridStreamWriter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link GridStreamWriter} which writes JSON with the same properties as
+ * the serialized {@link ListGrid}. Row values are written as strings. The
+ * width and height are written after the rows, as they are not known up
+ * front.
+ */
+public class JsonGridStreamWriter
+    implements GridStreamWriter
+{
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    static
+    {
+        JSON_MAPPER.setSerializationInclusion( JsonInclude.Include.NON_NULL );
+        JSON_MAPPER.configure( JsonGenerator.Feature.AUTO_CLOSE_TARGET, false );
+    }
+
+    private final JsonGenerator generator;
+
+    private int width = 0;
+
+    private int height = 0;
+
+    public JsonGridStreamWriter( OutputStream out )
+    {
+        try
+        {
+            this.generator = JSON_MAPPER.getFactory().createGenerator( out );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void writeHeaders( Grid grid )
+    {
+        try
+        {
+            generator.writeStartObject();
+
+            if ( grid.getTitle() != null )
+            {
+                generator.writeStringField( "title", grid.getTitle() );
+            }
+
+            if ( grid.getSubtitle() != null )
+            {
+                generator.writeStringField( "subtitle", grid.getSubtitle() );
+            }
+
+            generator.writeObjectField( "headers", grid.getHeaders() );
+
+            if ( grid.getMetaData() != null )
+            {
+                generator.writeObjectField( "metaData", grid.getMetaData() );
+            }
+
+            generator.writeArrayFieldStart( "rows" );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+    {
+        try
+        {
+            generator.writeStartArray();
+
+            for ( Object value : row )
+            {
+                generator.writeString( value != null ? String.valueOf( value ) : StringUtils.EMPTY );
+            }
+
+            generator.writeEndArray();
+
+            if ( height++ == 0 )
+            {
+                width = row.size();
+            }
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            generator.writeEndArray();
+            generator.writeNumberField( "width", width );
+            generator.writeNumberField( "height", height );
+            generator.writeEndObject();
+            generator.close();
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_COLUMN;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_FIELD;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_GRID;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_HEADER;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_HEADERS;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_HIDDEN;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_META;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_NAME;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_ROW;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_ROWS;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_SUBTITLE;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_TITLE;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_TYPE;
+import static org.hisp.dhis.system.grid.GridUtils.ATTR_WIDTH;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
+import org.hisp.staxwax.factory.XMLFactory;
+import org.hisp.staxwax.writer.XMLWriter;
+
+/**
+ * {@link GridStreamWriter} which writes XML with the same elements as
+ * {@link GridUtils#toXml(Grid, OutputStream)}. The height attribute is
+ * omitted, as it is not known up front.
+ */
+public class XmlGridStreamWriter
+    implements GridStreamWriter
+{
+    private final XMLWriter writer;
+
+    public XmlGridStreamWriter( OutputStream out )
+    {
+        this.writer = XMLFactory.getXMLWriter( out );
+    }
+
+    @Override
+    public void writeHeaders( Grid grid )
+    {
+        writer.openDocument();
+        writer.openElement( ATTR_GRID, ATTR_TITLE, grid.getTitle(), ATTR_SUBTITLE, grid.getSubtitle(),
+            ATTR_WIDTH, String.valueOf( grid.getHeaders().size() ) );
+
+        writer.openElement( ATTR_HEADERS );
+
+        for ( GridHeader header : grid.getHeaders() )
+        {
+            writer.writeElement( ATTR_HEADER, null, ATTR_NAME, header.getName(), ATTR_COLUMN, header.getColumn(),
+                ATTR_TYPE, header.getType(), ATTR_HIDDEN, String.valueOf( header.isHidden() ), ATTR_META, String.valueOf( header.isMeta() ) );
+        }
+
+        writer.closeElement();
+        writer.openElement( ATTR_ROWS );
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+    {
+        writer.openElement( ATTR_ROW );
+
+        for ( Object field : row )
+        {
+            writer.writeElement( ATTR_FIELD, field != null ? String.valueOf( field ) : EMPTY );
+        }
+
+        writer.closeElement();
+    }
+
+    @Override
+    public void close()
+    {
+        writer.closeElement();
+        writer.closeElement();
+
+        writer.closeDocument();
+    }
+}
@@ -3,8 +3,13 @@ package org.hisp.dhis.system.util;
 import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.util.Assert;
 
 import com.google.common.collect.Sets;
@@ -49,6 +54,8 @@ public class SqlUtils
     public static final String SEPARATOR = ".";
     public static final String OPTION_SEP = ".";
 
+    private static final Pattern ESTIMATED_ROWS_PATTERN = Pattern.compile( "rows=(\\d+)" );
+
     /**
      * Quotes the given relation (typically a column). Quotes part of
      * the given relation are encoded (replaced by double quotes that is).
@@ -94,4 +101,31 @@ public class SqlUtils
         String[] array = (String[]) sqlArray.getArray();
         return Sets.newHashSet( array );
     }
+
+    /**
+     * Returns the number of rows the query planner estimates the given query
+     * to return, based on table statistics. The estimate is obtained without
+     * executing the query and may deviate considerably from the actual count.
+     * Returns null if the database does not provide row estimates, which is
+     * the case for H2.
+     *
+     * @param jdbcTemplate the JDBC template.
+     * @param sql the select query, without order and paging clauses.
+     * @return the estimated number of rows, or null.
+     */
+    public static Long getEstimatedRowCount( JdbcTemplate jdbcTemplate, String sql )
+    {
+        try
+        {
+            List<String> plan = jdbcTemplate.queryForList( "explain " + sql, String.class );
+
+            Matcher matcher = ESTIMATED_ROWS_PATTERN.matcher( plan.isEmpty() ? "" : plan.get( 0 ) );
+
+            return matcher.find() ? Long.valueOf( matcher.group( 1 ) ) : null;
+        }
+        catch ( DataAccessException ex )
+        {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package org.hisp.dhis.system.grid;
+
+/*
+ * Copyright (c) 2004-2019, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class GridStreamWriterTest
+{
+    private Grid getGrid()
+    {
+        Grid grid = new ListGrid();
+
+        grid.addHeader( new GridHeader( "dx", "Data" ) );
+        grid.addHeader( new GridHeader( "pe", "Period" ) );
+        grid.addHeader( new GridHeader( "value", "Value" ) );
+
+        grid.addRow().addValue( "deabcdefghA" ).addValue( "2019" ).addValue( 12d );
+        grid.addRow().addValue( "deabcdefghB" ).addValue( "2019" ).addValue( null );
+
+        return grid;
+    }
+
+    private void write( Grid grid, GridStreamWriter writer )
+    {
+        writer.writeHeaders( grid );
+
+        for ( List<Object> row : grid.getRows() )
+        {
+            writer.writeRow( Lists.newArrayList( row ) );
+        }
+
+        writer.close();
+    }
+
+    @Test
+    public void testCsvEqualsGridUtils()
+        throws Exception
+    {
+        Grid grid = getGrid();
+
+        StringWriter expected = new StringWriter();
+        GridUtils.toCsv( grid, expected );
+
+        StringWriter actual = new StringWriter();
+        write( grid, new CsvGridStreamWriter( actual ) );
+
+        assertEquals( expected.toString(), actual.toString() );
+    }
+
+    @Test
+    public void testJson()
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write( getGrid(), new JsonGridStreamWriter( out ) );
+
+        String json = new String( out.toByteArray(), StandardCharsets.UTF_8 );
+
+        assertTrue( json.startsWith( "{\"headers\":[" ) );
+        assertTrue( json.contains( "\"rows\":[[\"deabcdefghA\",\"2019\",\"12.0\"],[\"deabcdefghB\",\"2019\",\"\"]]" ) );
+        assertTrue( json.endsWith( "\"width\":3,\"height\":2}" ) );
+    }
+
+    @Test
+    public void testJsonTitle()
+    {
+        Grid grid = getGrid();
+        grid.setTitle( "Raw data" );
+        grid.setSubtitle( "Sierra Leone" );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write( grid, new JsonGridStreamWriter( out ) );
+
+        String json = new String( out.toByteArray(), StandardCharsets.UTF_8 );
+
+        assertTrue( json.startsWith( "{\"title\":\"Raw data\",\"subtitle\":\"Sierra Leone\",\"headers\":[" ) );
+    }
+
+    @Test
+    public void testJsonEmpty()
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "dx", "Data" ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write( grid, new JsonGridStreamWriter( out ) );
+
+        String json = new String( out.toByteArray(), StandardCharsets.UTF_8 );
+
+        assertTrue( json.endsWith( "\"rows\":[],\"width\":0,\"height\":0}" ) );
+    }
+}
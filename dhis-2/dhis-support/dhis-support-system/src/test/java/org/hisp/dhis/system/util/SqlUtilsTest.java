@@ -29,8 +29,15 @@ package org.hisp.dhis.system.util;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * @author Lars Helge Overland
@@ -50,4 +57,26 @@ public class SqlUtilsTest
         assertEquals( "ougs.\"Short name\"", SqlUtils.quote( "ougs", "Short name" ) );
         assertEquals( "ous.\"uid\"", SqlUtils.quote( "ous", "uid" ) );
     }
+
+    @Test
+    public void testGetEstimatedRowCount()
+    {
+        JdbcTemplate jdbcTemplate = mock( JdbcTemplate.class );
+
+        when( jdbcTemplate.queryForList( "explain select uid from programstageinstance", String.class ) ).thenReturn( Arrays.asList(
+            "Seq Scan on programstageinstance  (cost=0.00..24917.05 rows=402305 width=12)" ) );
+
+        assertEquals( Long.valueOf( 402305 ), SqlUtils.getEstimatedRowCount( jdbcTemplate, "select uid from programstageinstance" ) );
+    }
+
+    @Test
+    public void testGetEstimatedRowCountNotAvailable()
+    {
+        JdbcTemplate jdbcTemplate = mock( JdbcTemplate.class );
+
+        when( jdbcTemplate.queryForList( "explain select uid from programstageinstance", String.class ) ).thenReturn( Collections.singletonList(
+            "SELECT UID FROM PUBLIC.PROGRAMSTAGEINSTANCE /* PUBLIC.PROGRAMSTAGEINSTANCE.tableScan */" ) );
+
+        assertNull( SqlUtils.getEstimatedRowCount( jdbcTemplate, "select uid from programstageinstance" ) );
+    }
 }
@@ -30,6 +30,8 @@ package org.hisp.dhis.webapi.controller;
 
 import org.hisp.dhis.analytics.*;
 import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryMonitor;
+import org.hisp.dhis.analytics.stats.AnalyticsQueryStatistics;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.DataQueryRequest;
 import org.hisp.dhis.common.DhisApiVersion;
@@ -38,16 +40,22 @@ import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
+import org.hisp.dhis.system.grid.CsvGridStreamWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonGridStreamWriter;
+import org.hisp.dhis.system.grid.XmlGridStreamWriter;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletResponse;
 import java.util.Date;
@@ -75,6 +83,9 @@ public class AnalyticsController
     @Autowired
     private ContextUtils contextUtils;
 
+    @Autowired
+    private AnalyticsQueryMonitor queryMonitor;
+
     // -------------------------------------------------------------------------
     // Resources
     // -------------------------------------------------------------------------
@@ -505,7 +516,7 @@ public class AnalyticsController
     // -------------------------------------------------------------------------
 
     @RequestMapping( value = RESOURCE_PATH + RAW_DATA_PATH + ".json", method = RequestMethod.GET )
-    public @ResponseBody Grid getRawDataJson(
+    public void getRawDataJson(
         @RequestParam Set<String> dimension,
         @RequestParam( required = false ) Date startDate,
         @RequestParam( required = false ) Date endDate,
@@ -532,7 +543,7 @@ public class AnalyticsController
         DataQueryParams params = dataQueryService.getFromRequest( request );
 
         contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_JSON, CacheStrategy.RESPECT_SYSTEM_SETTING, null, false, params.getLatestEndDate() );
-        return analyticsService.getRawDataValues( params );
+        analyticsService.writeRawDataValues( params, new JsonGridStreamWriter( response.getOutputStream() ) );
     }
 
     @RequestMapping( value = RESOURCE_PATH + RAW_DATA_PATH + ".csv", method = RequestMethod.GET )
@@ -564,8 +575,39 @@ public class AnalyticsController
 
         contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_CSV,
             CacheStrategy.RESPECT_SYSTEM_SETTING, null, false, params.getLatestEndDate() );
-        Grid grid = analyticsService.getRawDataValues( params );
-        GridUtils.toCsv( grid, response.getWriter() );
+        analyticsService.writeRawDataValues( params, new CsvGridStreamWriter( response.getWriter() ) );
+    }
+
+    @RequestMapping( value = RESOURCE_PATH + RAW_DATA_PATH + ".xml", method = RequestMethod.GET )
+    public void getRawDataXml(
+        @RequestParam Set<String> dimension,
+        @RequestParam( required = false ) Date startDate,
+        @RequestParam( required = false ) Date endDate,
+        @RequestParam( required = false ) boolean skipMeta,
+        @RequestParam( required = false ) boolean skipData,
+        @RequestParam( required = false ) boolean hierarchyMeta,
+        @RequestParam( required = false ) boolean showHierarchy,
+        @RequestParam( required = false ) boolean includeMetadataDetails,
+        @RequestParam( required = false ) DisplayProperty displayProperty,
+        @RequestParam( required = false ) IdScheme outputIdScheme,
+        @RequestParam( required = false ) IdScheme inputIdScheme,
+        @RequestParam( required = false ) String userOrgUnit,
+        DhisApiVersion apiVersion,
+        Model model,
+        HttpServletResponse response ) throws Exception
+    {
+        DataQueryRequest request = DataQueryRequest.newBuilder()
+            .dimension( dimension ).startDate( startDate ).endDate( endDate ).skipMeta( skipMeta )
+            .skipData( skipData ).hierarchyMeta( hierarchyMeta ).showHierarchy( showHierarchy )
+            .includeMetadataDetails( includeMetadataDetails ).displayProperty( displayProperty )
+            .outputIdScheme( outputIdScheme ).inputIdScheme( inputIdScheme ).userOrgUnit( userOrgUnit )
+            .allowAllPeriods( true ).apiVersion( apiVersion ).build();
+
+        DataQueryParams params = dataQueryService.getFromRequest( request );
+
+        contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_XML,
+            CacheStrategy.RESPECT_SYSTEM_SETTING, null, false, params.getLatestEndDate() );
+        analyticsService.writeRawDataValues( params, new XmlGridStreamWriter( response.getOutputStream() ) );
     }
 
     // -------------------------------------------------------------------------
@@ -677,4 +719,19 @@ public class AnalyticsController
     {
         return AnalyticsTableType.values();
     }
+
+    @RequestMapping( value = RESOURCE_PATH + "/queryStatistics", method = RequestMethod.GET, produces = { "application/json", "application/javascript" } )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    public @ResponseBody AnalyticsQueryStatistics getQueryStatistics()
+    {
+        return queryMonitor.getStatistics();
+    }
+
+    @RequestMapping( value = RESOURCE_PATH + "/queryStatistics", method = RequestMethod.DELETE )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    @ResponseStatus( HttpStatus.NO_CONTENT )
+    public void clearQueryStatistics()
+    {
+        queryMonitor.clear();
+    }
 }
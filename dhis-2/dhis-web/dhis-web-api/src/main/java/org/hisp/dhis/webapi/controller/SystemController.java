@@ -54,6 +54,7 @@ import org.hisp.dhis.node.exception.InvalidTypeException;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.programrule.engine.ProgramRuleEvaluationQueue;
 import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.setting.StyleManager;
@@ -118,6 +119,9 @@ public class SystemController
     @Autowired
     private StatisticsProvider statisticsProvider;
 
+    @Autowired
+    private ProgramRuleEvaluationQueue programRuleEvaluationQueue;
+
     private static final CsvFactory CSV_FACTORY = new CsvMapper().getFactory();
 
     // -------------------------------------------------------------------------
@@ -359,6 +363,22 @@ public class SystemController
         return rootNode;
     }
 
+    @RequestMapping( value = "/programRuleQueue", method = RequestMethod.GET )
+    public @ResponseBody RootNode getProgramRuleQueue( HttpServletResponse response )
+    {
+        RootNode rootNode = NodeUtils.createRootNode( "programRuleQueue" );
+
+        rootNode.addChild( new SimpleNode( "queueDepth", programRuleEvaluationQueue.getQueueDepth() ) );
+        rootNode.addChild( new SimpleNode( "processedCount", programRuleEvaluationQueue.getProcessedCount() ) );
+        rootNode.addChild( new SimpleNode( "failedCount", programRuleEvaluationQueue.getFailedCount() ) );
+        rootNode.addChild( new SimpleNode( "averageLatencyMillis", programRuleEvaluationQueue.getAverageLatencyMillis() ) );
+        rootNode.addChild( new SimpleNode( "maxLatencyMillis", programRuleEvaluationQueue.getMaxLatencyMillis() ) );
+
+        setNoStore( response );
+
+        return rootNode;
+    }
+
     @RequestMapping( value = "/ping", method = RequestMethod.GET )
     @ResponseStatus( HttpStatus.OK )
     public @ResponseBody String ping( HttpServletResponse response )
@@ -30,6 +30,7 @@ package org.hisp.dhis.webapi.controller.event;
 
 import com.google.common.collect.Lists;
 import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.commons.util.StreamUtils;
@@ -138,6 +139,7 @@ public class EnrollmentController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) String pageToken,
         @RequestParam( required = false, defaultValue = "false" ) boolean includeDeleted
     )
     {
@@ -161,6 +163,11 @@ public class EnrollmentController
             ProgramInstanceQueryParams params = programInstanceService.getFromUrl( orgUnits, ouMode, lastUpdated, program, programStatus, programStartDate,
                 programEndDate, trackedEntityType, trackedEntityInstance, followUp, page, pageSize, totalPages, skipPaging, includeDeleted );
 
+            if ( pageToken != null )
+            {
+                params.setKeysetPaging( true ).setPageCursor( KeysetCursor.decode( pageToken ) );
+            }
+
             Enrollments enrollments = enrollmentService.getEnrollments( params );
 
             if ( enrollments.getPager() != null )
@@ -38,6 +38,7 @@ import org.hisp.dhis.common.AssignedUserSelectionMode;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.IdSchemes;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.PagerUtils;
 import org.hisp.dhis.common.cache.CacheStrategy;
@@ -508,6 +509,8 @@ public class EventController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) String pageToken,
+        @RequestParam( required = false ) boolean approximateCount,
         @RequestParam( required = false ) String order,
         @RequestParam( required = false ) String attachment,
         @RequestParam( required = false, defaultValue = "false" ) boolean includeDeleted,
@@ -542,6 +545,14 @@ public class EventController
             idSchemes, page, pageSize, totalPages, skipPaging, getOrderParams( order ), getGridOrderParams( order, dataElementOrders ), false, eventIds, assignedUserMode, assignedUserIds,
             filter, dataElementOrders.keySet(), false, includeDeleted );
 
+        if ( pageToken != null )
+        {
+            params.setKeysetPaging( true );
+            params.setPageCursor( KeysetCursor.decode( pageToken ) );
+        }
+
+        params.setApproximateCount( approximateCount );
+
         Events events = eventService.getEvents( params );
 
         if ( hasHref( fields ) )
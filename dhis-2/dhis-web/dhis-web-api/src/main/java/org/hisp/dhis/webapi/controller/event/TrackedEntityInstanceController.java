@@ -53,6 +53,7 @@ import org.hisp.dhis.common.AssignedUserSelectionMode;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.DxfNamespaces;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.KeysetCursor;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.PagerUtils;
@@ -91,7 +92,9 @@ import org.hisp.dhis.scheduling.SchedulingManager;
 import org.hisp.dhis.schema.descriptors.TrackedEntityInstanceSchemaDescriptor;
 import org.hisp.dhis.system.grid.GridUtils;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeSearchIndexManager;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams;
+import org.hisp.dhis.trackedentity.TrackedEntitySearchStatistics;
 import org.hisp.dhis.trackedentity.TrackedEntityType;
 import org.hisp.dhis.trackedentity.TrackedEntityTypeService;
 import org.hisp.dhis.trackedentity.TrackerOwnershipManager;
@@ -105,7 +108,9 @@ import org.hisp.dhis.webapi.service.WebMessageService;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -113,6 +118,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
@@ -168,6 +174,9 @@ public class TrackedEntityInstanceController
     @Autowired
     private ProgramService programService;
 
+    @Autowired
+    private TrackedEntityAttributeSearchIndexManager searchIndexManager;
+
     // -------------------------------------------------------------------------
     // READ
     // -------------------------------------------------------------------------
@@ -203,6 +212,7 @@ public class TrackedEntityInstanceController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) String pageToken,
         @RequestParam( required = false ) boolean includeDeleted,
         @RequestParam( required = false ) boolean includeAllAttributes,
         @RequestParam( required = false ) String order ) throws Exception
@@ -231,6 +241,11 @@ public class TrackedEntityInstanceController
             eventStatus, eventStartDate, eventEndDate, assignedUserMode, assignedUsers, skipMeta, page, pageSize, totalPages, skipPaging, includeDeleted, includeAllAttributes,
             getOrderParams( order ) );
 
+        if ( pageToken != null )
+        {
+            queryParams.setKeysetPaging( true ).setPageCursor( KeysetCursor.decode( pageToken ) );
+        }
+
         if ( trackedEntityInstance == null )
         {
             trackedEntityInstances = trackedEntityInstanceService.getTrackedEntityInstances( queryParams,
@@ -245,10 +260,16 @@ public class TrackedEntityInstanceController
                 .collect( Collectors.toList() ) : null;
         }
 
-        if ( queryParams.isPaging() && queryParams.isTotalPages() )
+        if ( queryParams.isPaging() && ( queryParams.isTotalPages() || queryParams.isKeysetPaging() ) )
         {
-            int count = trackedEntityInstanceService.getTrackedEntityInstanceCount( queryParams, true, false );
+            int count = queryParams.isTotalPages() ? trackedEntityInstanceService.getTrackedEntityInstanceCount( queryParams, true, false ) : 0;
             Pager pager = new Pager( queryParams.getPageWithDefault(), count, queryParams.getPageSizeWithDefault() );
+
+            if ( queryParams.getNextPageCursor() != null )
+            {
+                pager.setNextPageToken( queryParams.getNextPageCursor().encode() );
+            }
+
             rootNode.addChild( NodeUtils.createPager( pager ) );
         }
 
@@ -422,6 +443,8 @@ public class TrackedEntityInstanceController
         @RequestParam( required = false ) boolean totalPages,
         @RequestParam( required = false ) Boolean skipPaging,
         @RequestParam( required = false ) Boolean paging,
+        @RequestParam( required = false ) String pageToken,
+        @RequestParam( required = false ) boolean approximateCount,
         @RequestParam( required = false ) boolean includeDeleted,
         @RequestParam( required = false ) String order,
         Model model,
@@ -439,6 +462,13 @@ public class TrackedEntityInstanceController
             eventStatus, eventStartDate, eventEndDate, assignedUserMode, assignedUsers, skipMeta, page, pageSize, totalPages, skipPaging, includeDeleted, false,
             getOrderParams( order ) );
 
+        if ( pageToken != null )
+        {
+            params.setKeysetPaging( true ).setPageCursor( KeysetCursor.decode( pageToken ) );
+        }
+
+        params.setApproximateCount( approximateCount );
+
         contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_JSON, CacheStrategy.NO_CACHE );
         return instanceService.getTrackedEntityInstancesGrid( params );
     }
@@ -799,6 +829,33 @@ public class TrackedEntityInstanceController
         webMessageService.send( WebMessageUtils.importSummary( importSummary ), response, request );
     }
 
+    // -------------------------------------------------------------------------
+    // SEARCH INDEX
+    // -------------------------------------------------------------------------
+
+    @RequestMapping( value = "/searchStatistics", method = RequestMethod.GET, produces = { ContextUtils.CONTENT_TYPE_JSON, ContextUtils.CONTENT_TYPE_JAVASCRIPT } )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    public @ResponseBody TrackedEntitySearchStatistics getSearchStatistics()
+    {
+        return searchIndexManager.getSearchStatistics();
+    }
+
+    @RequestMapping( value = "/searchStatistics", method = RequestMethod.DELETE )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    @ResponseStatus( HttpStatus.NO_CONTENT )
+    public void clearSearchStatistics()
+    {
+        searchIndexManager.clearSearchStatistics();
+    }
+
+    @RequestMapping( value = "/searchIndexes", method = RequestMethod.POST )
+    @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
+    @ResponseStatus( HttpStatus.ACCEPTED )
+    public void updateSearchIndexes()
+    {
+        searchIndexManager.updateSearchIndexes();
+    }
+
     // -------------------------------------------------------------------------
     // HELPERS
     // -------------------------------------------------------------------------
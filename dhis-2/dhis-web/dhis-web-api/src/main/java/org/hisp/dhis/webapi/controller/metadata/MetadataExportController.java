@@ -82,7 +82,7 @@ public class MetadataExportController
 
         MetadataExportParams params = metadataExportService.getParamsFromMap( contextService.getParameterValuesMap() );
         metadataExportService.validate( params );
-        RootNode rootNode = metadataExportService.getMetadataAsNode( params );
+        RootNode rootNode = metadataExportService.getMetadataAsStreamingNode( params );
         return MetadataExportControllerUtils.createResponseEntity( rootNode, download );
     }
 